@@ -387,9 +387,19 @@ public class NotQuests extends NotQuestsMainAbstract<Component, CommandSender> {
         }
 
 
+        //Write all player data which is still waiting in the write-behind queue, before the rest is saved
+        if (questPlayerManager != null) {
+            questPlayerManager.shutdownPlayerDataLoading();
+            questPlayerManager.getOfflineQuestPlayerCache().shutdown();
+            questPlayerManager.getPlayerDataSaveQueue().shutdown();
+        }
+
         //Save all kinds of data
         dataManager.saveData();
 
+        //Write category files which were changed, but not written yet
+        dataManager.getConfigWriteQueue().shutdown();
+
         dataManager.closeDatabaseConnection();
 
 
@@ -505,7 +505,9 @@ public class AdminCommands {
                         }
                     }
 
-                    questPlayer.getActiveQuests().removeAll(activeQuestsToRemove);
+                    for (final ActiveQuest activeQuestToRemove : activeQuestsToRemove) {
+                        questPlayer.removeActiveQuest(activeQuestToRemove);
+                    }
 
                     final ArrayList<CompletedQuest> completedQuestsToRemove = new ArrayList<>();
 
@@ -520,7 +522,7 @@ public class AdminCommands {
 
                     }
 
-                    questPlayer.getCompletedQuests().removeAll(completedQuestsToRemove);
+                    questPlayer.removeFromCompletedQuests(completedQuestsToRemove);
                     context.getSender().sendMessage(main.parse("<success>Operation done!"));
                 }));
 
@@ -544,7 +546,9 @@ public class AdminCommands {
                             }
                         }
 
-                        questPlayer.getActiveQuests().removeAll(activeQuestsToRemove);
+                        for (final ActiveQuest activeQuestToRemove : activeQuestsToRemove) {
+                            questPlayer.removeActiveQuest(activeQuestToRemove);
+                        }
 
                         final ArrayList<CompletedQuest> completedQuestsToRemove = new ArrayList<>();
 
@@ -559,7 +563,7 @@ public class AdminCommands {
 
                         }
 
-                        questPlayer.getCompletedQuests().removeAll(completedQuestsToRemove);
+                        questPlayer.removeFromCompletedQuests(completedQuestsToRemove);
                     }
                     context.getSender().sendMessage(main.parse("<success>Operation done!"));
                 }));
@@ -605,7 +609,7 @@ public class AdminCommands {
 
                         }
 
-                        questPlayer.getCompletedQuests().removeAll(completedQuestsToRemove);
+                        questPlayer.removeFromCompletedQuests(completedQuestsToRemove);
                     }
                     context.getSender().sendMessage(main.parse("<success>Operation done!"));
 
@@ -1133,8 +1137,8 @@ public class AdminCommands {
                 .handler((context) -> {
                     context.getSender().sendMessage(Component.empty());
                     Player player = (Player) context.getSender();
-                    ArrayList<Component> history = main.getConversationManager().getChatHistory().get(player.getUniqueId());
-                    if (history != null) {
+                    List<Component> history = main.getConversationManager().getChatHistory(player.getUniqueId()).getMessages();
+                    if (!history.isEmpty()) {
                         Component collectiveComponent = Component.text("");
                         for (Component component : history) {
                             if (component != null) {
@@ -1159,8 +1163,8 @@ public class AdminCommands {
                 .handler((context) -> {
                     context.getSender().sendMessage(Component.empty());
                     Player player = (Player) context.getSender();
-                    ArrayList<Component> history = main.getConversationManager().getChatHistory().get(player.getUniqueId());
-                    if (history != null) {
+                    List<Component> history = main.getConversationManager().getChatHistory(player.getUniqueId()).getMessages();
+                    if (!history.isEmpty()) {
                         Component collectiveComponent = Component.text("");
                         for (int i = 0; i < history.size(); i++) {
                             Component component = history.get(i);
@@ -0,0 +1,211 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.conversation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+
+/**
+ * The most recent chat messages of a single player, which are sent again once a conversation ends (if deletePreviousConversations is enabled).
+ * Messages are captured from the chat packets on the Netty threads (and from chat events), so the history is a fixed-size ring buffer which is written without locks.
+ * Messages which were captured as JSON are only turned into a Component once the history is replayed.
+ */
+public class ChatHistory {
+  private final int capacity;
+  private final AtomicReferenceArray<Message> messages;
+  private final AtomicLong nextSequence;
+  //Messages with a lower sequence number have been cleared
+  private volatile long firstSequence = 0;
+  //The last replay of the history. Reused as long as no messages have been added or cleared since
+  private volatile Replay lastReplay;
+
+  //Conversation messages which have been sent to the player. They are not captured into the history
+  private final Set<IdentityKey> conversationMessagesByIdentity;
+  //Same messages, compared by equality. Only needed if the captured Component is not the one which was sent (e.g. if it was re-created from JSON)
+  private final Set<Component> conversationMessages;
+
+  public ChatHistory(final int capacity) {
+    this.capacity = capacity;
+    messages = new AtomicReferenceArray<>(capacity);
+    nextSequence = new AtomicLong();
+    conversationMessagesByIdentity = ConcurrentHashMap.newKeySet();
+    conversationMessages = ConcurrentHashMap.newKeySet();
+  }
+
+  public final int getCapacity() {
+    return capacity;
+  }
+
+  public void add(final Component component) {
+    if (component != null) {
+      add(component, null);
+    }
+  }
+
+  /**
+   * Adds a message which has not been deserialized yet. It's only deserialized if it's replayed.
+   */
+  public void addJson(final String json) {
+    if (json != null) {
+      add(null, json);
+    }
+  }
+
+  private void add(final Component component, final String json) {
+    final long sequence = nextSequence.getAndIncrement();
+    //Overwrites the oldest message once the buffer is full
+    messages.set((int) (sequence % capacity), new Message(sequence, component, json));
+  }
+
+  /**
+   * @return the messages in the history, oldest first
+   */
+  public final List<Component> getMessages() {
+    final long endSequence = nextSequence.get();
+    final long startSequence = Math.max(firstSequence, endSequence - capacity);
+    final ArrayList<Component> components = new ArrayList<>((int) Math.max(0, endSequence - startSequence));
+    collectMessages(startSequence, endSequence, components);
+    return components;
+  }
+
+  /**
+   * @return true if the messages of all sequences in the range have been read. False if slots have been overwritten in the meantime or are still being written
+   */
+  private boolean collectMessages(final long startSequence, final long endSequence, final List<Component> components) {
+    boolean complete = true;
+    for (long sequence = startSequence; sequence < endSequence; sequence++) {
+      final Message message = messages.get((int) (sequence % capacity));
+      //Skips slots which have been overwritten in the meantime or are still being written
+      if (message != null && message.sequence == sequence) {
+        final Component component = message.getComponent();
+        if (component != null) {
+          components.add(component);
+        }
+      } else {
+        complete = false;
+      }
+    }
+    return complete;
+  }
+
+  /**
+   * @return all messages in the history as a single Component, each message followed by a new line.
+   * Built in one pass, and not built again if the history has not changed since the last replay (e.g. between two lines of the same conversation)
+   */
+  public final Component getReplay() {
+    final long endSequence = nextSequence.get();
+    final long startSequence = firstSequence;
+    final Replay replay = lastReplay;
+    if (replay != null && replay.endSequence() == endSequence && replay.firstSequence() == startSequence) {
+      return replay.component();
+    }
+
+    final ArrayList<Component> components = new ArrayList<>();
+    final boolean complete = collectMessages(Math.max(startSequence, endSequence - capacity), endSequence, components);
+    final TextComponent.Builder builder = Component.text();
+    for (final Component component : components) {
+      builder.append(component).append(Component.newline());
+    }
+    final Component component = builder.build();
+    //A message which is still being written is missing from this replay, so it's built again next time instead of being reused
+    if (complete) {
+      lastReplay = new Replay(startSequence, endSequence, component);
+    }
+    return component;
+  }
+
+  public void clear() {
+    firstSequence = nextSequence.get();
+  }
+
+  /**
+   * Remembers a conversation message which is about to be sent to the player, so it's not captured into the history.
+   * Needs to be called before the message is sent.
+   */
+  public void addConversationMessage(final Component component) {
+    conversationMessagesByIdentity.add(new IdentityKey(component));
+    conversationMessages.add(component);
+  }
+
+  public final boolean hasConversationMessages() {
+    return !conversationMessagesByIdentity.isEmpty();
+  }
+
+  /**
+   * @param component the Component of a chat packet, exactly as it was sent (e.g. the adventure content of the packet)
+   * @return if that Component was sent as a conversation message. Cheap, as it does not compare the Components
+   */
+  public final boolean isConversationMessage(final Component component) {
+    return !conversationMessagesByIdentity.isEmpty() && conversationMessagesByIdentity.contains(new IdentityKey(component));
+  }
+
+  /**
+   * Like {@link #isConversationMessage(Component)}, but also matches Components which are equal to a conversation message.
+   * Needed if the Component has been re-created from the packet.
+   */
+  public final boolean isEqualToConversationMessage(final Component component) {
+    return !conversationMessagesByIdentity.isEmpty()
+        && (conversationMessagesByIdentity.contains(new IdentityKey(component)) || conversationMessages.contains(component));
+  }
+
+  public void clearConversationMessages() {
+    conversationMessagesByIdentity.clear();
+    conversationMessages.clear();
+  }
+
+  private static final class Message {
+    private final long sequence;
+    private final String json;
+    private volatile Component component;
+
+    private Message(final long sequence, final Component component, final String json) {
+      this.sequence = sequence;
+      this.component = component;
+      this.json = json;
+    }
+
+    private Component getComponent() {
+      if (component == null && json != null) {
+        component = GsonComponentSerializer.gson().deserialize(json);
+      }
+      return component;
+    }
+  }
+
+  private record Replay(long firstSequence, long endSequence, Component component) {}
+
+  private record IdentityKey(Component component) {
+    @Override
+    public boolean equals(final Object o) {
+      return o instanceof IdentityKey identityKey && identityKey.component == component;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(component);
+    }
+  }
+}
@@ -21,6 +21,7 @@ package rocks.gravili.notquests.paper.conversation;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.kyori.adventure.text.Component;
 import org.bukkit.NamespacedKey;
@@ -55,8 +56,8 @@ public class ConversationManager {
   private final Map<Integer, List<UUID>> activeConversationsOfNPCWithPlayerCache = new HashMap<>();
 
   final ArrayList<ConversationLine> linesForOneFile = new ArrayList<>();
-  final HashMap<UUID, ArrayList<Component>> chatHistory;
-  final HashMap<UUID, ArrayList<Component>> conversationChatHistory;
+  //Written from the Netty threads, so it needs to be concurrent
+  final ConcurrentHashMap<UUID, ChatHistory> chatHistories;
   private final NotQuests main;
   private final ArrayList<Conversation> conversations;
   private final HashMap<UUID, ConversationPlayer> openConversations;
@@ -74,8 +75,7 @@ public class ConversationManager {
 
 
 
-    chatHistory = new HashMap<>();
-    conversationChatHistory = new HashMap<>();
+    chatHistories = new ConcurrentHashMap<>();
 
     // playConversation(Bukkit.getPlayer("NoeX"), createTestConversation());
     loadConversationsFromConfig();
@@ -536,12 +536,21 @@ public class ConversationManager {
     }
   }
 
-  public final HashMap<UUID, ArrayList<Component>> getChatHistory() {
-    return chatHistory;
+  /**
+   * @param uuid UUID of the player
+   * @return the chat history of the player. Created if they don't have one yet, or if the max chat history size has changed
+   */
+  public final ChatHistory getChatHistory(final UUID uuid) {
+    final int maxChatHistory = Math.max(1, getMaxChatHistory());
+    final ChatHistory chatHistory = chatHistories.computeIfAbsent(uuid, k -> new ChatHistory(maxChatHistory));
+    if (chatHistory.getCapacity() == maxChatHistory) {
+      return chatHistory;
+    }
+    return chatHistories.compute(uuid, (k, oldChatHistory) -> oldChatHistory != null && oldChatHistory.getCapacity() == maxChatHistory ? oldChatHistory : new ChatHistory(maxChatHistory));
   }
 
-  public final HashMap<UUID, ArrayList<Component>> getConversationChatHistory() {
-    return conversationChatHistory;
+  public void removeChatHistory(final UUID uuid) {
+    chatHistories.remove(uuid);
   }
 
   public final ArrayList<Conversation> getAllConversations() {
@@ -1017,47 +1026,23 @@ public class ConversationManager {
       return;
     }
     // Send back old messages
-    ArrayList<Component> allChatHistory =
-        main.getConversationManager().getChatHistory().get(player.getUniqueId());
+    final ChatHistory chatHistory = getChatHistory(player.getUniqueId());
 
     main.getLogManager().debug("Conversation stop stage 1");
 
-    if (allChatHistory == null) {
-      return;
-    }
-
-    ArrayList<Component> allConversationHistory =
-        main.getConversationManager()
-            .getConversationChatHistory()
-            .get(player.getUniqueId());
-    main.getLogManager().debug("Conversation stop stage 1.5");
-    if (allConversationHistory == null) {
+    if (!chatHistory.hasConversationMessages()) {
       return;
     }
     main.getLogManager().debug("Conversation stop stage 2");
 
+    // Sent on the same tick, as the next conversation line is sent right after this and needs to end up below the old messages
+    final Component replay = chatHistory.getReplay();
 
-    Component collectiveComponent = Component.text("");
-    for (int i = 0; i < allChatHistory.size(); i++) {
-      Component component = allChatHistory.get(i);
-      if (component != null) {
-        // audience.sendMessage(component.append(Component.text("fg9023zf729ofz")));
-        collectiveComponent = collectiveComponent.append(component).append(Component.newline());
-      }
-    }
-    player.sendMessage(collectiveComponent);
-
-    allChatHistory.removeAll(allConversationHistory);
-    allConversationHistory.clear();
-    main.getConversationManager()
-        .getChatHistory()
-        .put(player.getUniqueId(), allChatHistory);
-    main.getConversationManager()
-        .getConversationChatHistory()
-        .put(player.getUniqueId(), allConversationHistory);
-
+    chatHistory.clearConversationMessages();
     // maybe this won't send the huge, 1-component-chat-history again
-    allConversationHistory.add(collectiveComponent);
+    chatHistory.addConversationMessage(replay);
+
+    player.sendMessage(replay);
   }
 
   public Map<Integer, List<UUID>> getActiveConversationsOfNPCWithPlayerCache() {
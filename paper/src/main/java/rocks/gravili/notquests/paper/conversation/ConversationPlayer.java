@@ -157,17 +157,13 @@ public class ConversationPlayer {
     final String chooseAnswerPrefixMiniMessage =
             main.getLanguageManager()
                     .getString("chat.conversations.choose-answer-prefix", player, conversation);
-    main.sendMessage(player, chooseAnswerPrefixMiniMessage);
-
-    if (main.getConfiguration().deletePreviousConversations) {
-      final ArrayList<Component> hist =
-              main.getConversationManager().getConversationChatHistory().getOrDefault(player.getUniqueId(), new ArrayList<>());
-
-      if (!chooseAnswerPrefixMiniMessage.isBlank()) {
-        hist.add(main.parse(chooseAnswerPrefixMiniMessage));
+    if (!chooseAnswerPrefixMiniMessage.isBlank()) {
+      //The same Component needs to be sent, so it's recognized as a conversation message
+      final Component chooseAnswerPrefix = main.parse(chooseAnswerPrefixMiniMessage);
+      if (main.getConfiguration().deletePreviousConversations) {
+        main.getConversationManager().getChatHistory(player.getUniqueId()).addConversationMessage(chooseAnswerPrefix);
       }
-
-      main.getConversationManager().getConversationChatHistory().put(player.getUniqueId(), hist);
+      player.sendMessage(chooseAnswerPrefix);
     }
 
     for (final ConversationLine playerLine : playerLines) {
@@ -175,11 +171,7 @@ public class ConversationPlayer {
     }
 
     if (main.getConfiguration().deletePreviousConversations) {
-      final ArrayList<Component> hist =
-              main.getConversationManager().getConversationChatHistory().getOrDefault(player.getUniqueId(), new ArrayList<>());
-
-      hist.add(Component.empty());
-      main.getConversationManager().getConversationChatHistory().put(player.getUniqueId(), hist);
+      main.getConversationManager().getChatHistory(player.getUniqueId()).addConversationMessage(Component.empty());
     }
 
     player.sendMessage(Component.empty());
@@ -24,7 +24,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -346,51 +345,47 @@ public class ArmorStandEvents implements Listener {
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
 
         if (questPlayer != null) {
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final DeliverItemsObjective deliverItemsObjective) {
-                    if (armorStandNQNPC.equals(deliverItemsObjective.getRecipientNPC())) {
-                        for (final ItemStack itemStack : player.getInventory().getContents()) {
-                            if (itemStack != null) {
-                                if(!deliverItemsObjective.getItemStackSelection().checkIfIsIncluded(itemStack)) {
-                                    continue;
-                                }
-                                final double progressLeft = activeObjective.getProgressNeeded() - activeObjective.getCurrentProgress();
-
-                                if (progressLeft == 0) {
-                                    continue;
-                                }
-                                handledObjective.set(true);
+            questPlayer.queueObjectiveCheck(DeliverItemsObjective.class, (activeObjective, deliverItemsObjective) -> {
+                if (armorStandNQNPC.equals(deliverItemsObjective.getRecipientNPC())) {
+                    for (final ItemStack itemStack : player.getInventory().getContents()) {
+                        if (itemStack != null) {
+                            if(!deliverItemsObjective.getItemStackSelection().checkIfIsIncluded(itemStack)) {
+                                continue;
+                            }
+                            final double progressLeft = activeObjective.getProgressNeeded() - activeObjective.getCurrentProgress();
 
-                                if (progressLeft < itemStack.getAmount()) { //We can finish it with this itemStack
-                                    itemStack.setAmount((itemStack.getAmount() - (int) progressLeft));
-                                    activeObjective.addProgress(progressLeft, armorStandNQNPC);
-                                    player.sendMessage(main.parse(
-                                        "<GREEN>You have delivered <highlight>" + progressLeft + "</highlight> items to <highlight>" + main.getArmorStandManager().getArmorStandName(armorStand)
-                                    ));
-                                    break;
-                                } else {
-                                    player.getInventory().removeItemAnySlot(itemStack);
-                                    activeObjective.addProgress(itemStack.getAmount(), armorStandNQNPC);
-                                    player.sendMessage(main.parse(
-                                        "<GREEN>You have delivered <highlight>" + itemStack.getAmount() + "</highlight> items to <highlight>" + main.getArmorStandManager().getArmorStandName(armorStand)
-                                    ));
-                                }
+                            if (progressLeft == 0) {
+                                continue;
                             }
+                            handledObjective.set(true);
 
+                            if (progressLeft < itemStack.getAmount()) { //We can finish it with this itemStack
+                                itemStack.setAmount((itemStack.getAmount() - (int) progressLeft));
+                                activeObjective.addProgress(progressLeft, armorStandNQNPC);
+                                player.sendMessage(main.parse(
+                                    "<GREEN>You have delivered <highlight>" + progressLeft + "</highlight> items to <highlight>" + main.getArmorStandManager().getArmorStandName(armorStand)
+                                ));
+                                break;
+                            } else {
+                                player.getInventory().removeItemAnySlot(itemStack);
+                                activeObjective.addProgress(itemStack.getAmount(), armorStandNQNPC);
+                                player.sendMessage(main.parse(
+                                    "<GREEN>You have delivered <highlight>" + itemStack.getAmount() + "</highlight> items to <highlight>" + main.getArmorStandManager().getArmorStandName(armorStand)
+                                ));
+                            }
                         }
 
                     }
+
                 }
             });
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final TalkToNPCObjective talkToNPCObjective) {
-                    if (armorStandNQNPC.equals(talkToNPCObjective.getNPCtoTalkTo())) {
-                        activeObjective.addProgress(1, armorStandNQNPC);
-                        player.sendMessage(main.parse(
-                            "<GREEN>You talked to <highlight>" + main.getArmorStandManager().getArmorStandName(armorStand)
-                        ));
-                        handledObjective.set(true);
-                    }
+            questPlayer.queueObjectiveCheck(TalkToNPCObjective.class, (activeObjective, talkToNPCObjective) -> {
+                if (armorStandNQNPC.equals(talkToNPCObjective.getNPCtoTalkTo())) {
+                    activeObjective.addProgress(1, armorStandNQNPC);
+                    player.sendMessage(main.parse(
+                        "<GREEN>You talked to <highlight>" + main.getArmorStandManager().getArmorStandName(armorStand)
+                    ));
+                    handledObjective.set(true);
                 }
             });
             questPlayer.queueObjectiveCheck(activeObjective -> {
@@ -440,19 +435,7 @@ public class ArmorStandEvents implements Listener {
         if (!main.getConfiguration().isArmorStandQuestGiverIndicatorParticleEnabled()) {
             return;
         }
-        for(final Entity entity : event.getEntities()){
-            if (entity instanceof final ArmorStand armorStand) {
-                final PersistentDataContainer armorStandPDB = armorStand.getPersistentDataContainer();
-
-                if (!armorStandPDB.has(main.getArmorStandManager().getAttachedQuestsShowingKey(), PersistentDataType.STRING) && !armorStandPDB.has(main.getArmorStandManager().getAttachedQuestsNonShowingKey(), PersistentDataType.STRING) && !armorStandPDB.has(main.getArmorStandManager().getAttachedConversationKey(), PersistentDataType.STRING)) {
-                    return;
-                }
-
-                main.getArmorStandManager().addArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
-
-            }
-        }
-
+        main.getArmorStandManager().addLoadedEntities(event.getEntities());
     }
 
     @EventHandler
@@ -460,18 +443,7 @@ public class ArmorStandEvents implements Listener {
         if (!main.getConfiguration().isArmorStandQuestGiverIndicatorParticleEnabled()) {
             return;
         }
-        for (final Entity entity : event.getEntities()) {
-            if (entity instanceof final ArmorStand armorStand) {
-                final PersistentDataContainer armorStandPDB = armorStand.getPersistentDataContainer();
-
-
-                if (!armorStandPDB.has(main.getArmorStandManager().getAttachedQuestsShowingKey(), PersistentDataType.STRING) && !armorStandPDB.has(main.getArmorStandManager().getAttachedQuestsNonShowingKey(), PersistentDataType.STRING) && !armorStandPDB.has(main.getArmorStandManager().getAttachedConversationKey(), PersistentDataType.STRING)) {
-                    continue;
-                }
-
-                main.getArmorStandManager().removeArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
-            }
-        }
+        main.getArmorStandManager().removeUnloadedEntities(event.getEntities());
     }
 
 
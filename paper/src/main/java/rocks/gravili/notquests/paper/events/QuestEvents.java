@@ -27,6 +27,7 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.Chest;
 import org.bukkit.enchantments.Enchantment;
@@ -52,9 +53,12 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.loot.LootTables;
+import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.wrappers.ItemStackSelection;
+import rocks.gravili.notquests.paper.conversation.ChatHistory;
 import rocks.gravili.notquests.paper.conversation.ConversationLine;
+import rocks.gravili.notquests.paper.managers.PlayerUpdateScheduler;
 import rocks.gravili.notquests.paper.conversation.ConversationPlayer;
 import rocks.gravili.notquests.paper.structs.ActiveObjective;
 import rocks.gravili.notquests.paper.structs.ActiveQuest;
@@ -66,8 +70,10 @@ import rocks.gravili.notquests.paper.structs.triggers.types.WorldLeaveTrigger;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
 
 import static rocks.gravili.notquests.paper.commands.NotQuestColors.debugHighlightGradient;
 
@@ -77,9 +83,7 @@ public class QuestEvents implements Listener {
 
     private final HashMap<QuestPlayer, String> beaconsToUpdate;
 
-    int beaconCounter = 0;
-    int objectiveUnlockConditionCheckCounter = 0;
-    int conditionObjectiveCounter = 0;
+    private final PlayerUpdateScheduler playerUpdateScheduler;
 
 
     public QuestEvents(NotQuests main) {
@@ -87,89 +91,21 @@ public class QuestEvents implements Listener {
         beaconsToUpdate = new HashMap<>();
 
 
-        Bukkit.getScheduler().scheduleSyncRepeatingTask(main.getMain(), () -> { //Main Loop
-            if(main.getDataManager().isDisabled()){
-                return;
-            }
+        //Main Loop. Every player is updated once per second, but the players are spread across all 20 ticks
+        playerUpdateScheduler = new PlayerUpdateScheduler(main, () -> {
             if(!main.getConfiguration().getBeamMode().equals("end_gateway")){
                 beaconsToUpdate.clear();
             }
+        });
+        playerUpdateScheduler.start();
 
-            final boolean updateBeacons;
-            beaconCounter++;
-            if(beaconCounter >= 4){
-                beaconCounter = 0;
-                updateBeacons = true;
-            }
-            else{
-                updateBeacons = false;
-            }
-
-            final boolean updateConditionObjectives;
-            conditionObjectiveCounter++;
-            if(conditionObjectiveCounter >= 2){
-                updateConditionObjectives = true;
-                conditionObjectiveCounter = 0;
-            }
-            else{
-                updateConditionObjectives = false;
-            }
-
-            final boolean updateObjectiveUnlockConditions;
-            if(main.getConfiguration().getObjectiveUnlockConditionsCheckRegularInterval() > 0) {
-                objectiveUnlockConditionCheckCounter++;
-                if(objectiveUnlockConditionCheckCounter >= main.getConfiguration().getObjectiveUnlockConditionsCheckRegularInterval()){
-                    objectiveUnlockConditionCheckCounter = 0;
-                    updateObjectiveUnlockConditions = true;
-                } else {
-                    updateObjectiveUnlockConditions = false;
-                }
-            }else {
-                updateObjectiveUnlockConditions = false;
-            }
-
-
-
-            for(final Player player : Bukkit.getOnlinePlayers()) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if(questPlayer == null){
-                    return;
-                }
-
-                if(questPlayer.getBossBar() != null){
-                    questPlayer.increaseBossBarTimeByOneSecond();
-                }
-
-                if(main.getConfiguration().getBeamMode().equals("end_gateway")){
-                    if(updateBeacons){
-                        questPlayer.updateBeaconLocations(player);
-                    }
-                }
-
-
-                if(updateConditionObjectives){
-                    questPlayer.updateConditionObjectives(player);
-                }
-
-
-
-
-                // Check unlock objectives
-                if(updateObjectiveUnlockConditions) {
-                    for(final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        activeQuest.updateObjectivesUnlocked(true, true);
-                    }
-                }
-
-
-
-            }
+    }
 
-        }, 0L, 20L); //0 Tick initial delay, 20 Tick (1 Second) between repeats
 
+    public final PlayerUpdateScheduler getPlayerUpdateScheduler() {
+        return playerUpdateScheduler;
     }
 
-
     @EventHandler
     private void onChunkLoad(PlayerChunkLoadEvent e){
         if(main.getDataManager().isDisabled()){
@@ -230,129 +166,128 @@ public class QuestEvents implements Listener {
 
     @EventHandler
     private void onInventoryClickEvent(InventoryClickEvent e) {
+        if (!main.getObjectiveManager().hasLiveActiveObjectives(PickupItemsObjective.class) && !main.getObjectiveManager().hasLiveActiveObjectives(SmeltObjective.class)) {
+            return;
+        }
         final Entity entity = e.getWhoClicked();
         if (entity instanceof final Player player) {
+            //Not buffered while the player data is loading, as this depends on the inventory state at the time of the click
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
             if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
                 return;
             }
 
             //Safety mechanism
-            questPlayer.queueObjectiveCheck(activeObjective -> {
+            questPlayer.queueObjectiveCheck(PickupItemsObjective.class, (activeObjective, pickupItemsObjective) -> {
                 questPlayer.sendDebugMessage("Checking for PickupItemsObjective in onInventoryClickEvent.");
-                if (activeObjective.getObjective() instanceof final PickupItemsObjective pickupItemsObjective) {
-                    final ItemStackSelection itemStackSelection = pickupItemsObjective.getItemStackSelection();
-                    questPlayer.sendDebugMessage("Found PickupItemsObjective.");
-
-
-
-                    if (pickupItemsObjective.isDeductIfItemIsRemovedFromInventory()) {
-                        final InventoryType inventoryType = e.getInventory().getType();
-                        final InventoryType clickedInventoryType = e.getClickedInventory() != null ? e.getClickedInventory().getType() : null;
+                final ItemStackSelection itemStackSelection = pickupItemsObjective.getItemStackSelection();
+                questPlayer.sendDebugMessage("Found PickupItemsObjective.");
 
-                        questPlayer.sendDebugMessage("InventoryType <highlight>%s", inventoryType.toString());
-                        questPlayer.sendDebugMessage("Clicked InventoryType <highlight2>%s", (clickedInventoryType != null ? clickedInventoryType.toString() : null) );
 
-                        //TODO: This doesn't work properly
-                        if(
-                               false && inventoryType != InventoryType.PLAYER && inventoryType != InventoryType.CRAFTING && inventoryType != InventoryType.CREATIVE
-                        &&       clickedInventoryType != InventoryType.PLAYER && clickedInventoryType != InventoryType.CRAFTING && clickedInventoryType != InventoryType.CREATIVE
 
-                        ){
-                            final ItemStack currentItem = e.getCursor();
-                            if(main.getUtilManager().isItemEmpty(currentItem)){
-                                questPlayer.sendDebugMessage("Invalid item for PickupItemsObjective (1)");
+                if (pickupItemsObjective.isDeductIfItemIsRemovedFromInventory()) {
+                    final InventoryType inventoryType = e.getInventory().getType();
+                    final InventoryType clickedInventoryType = e.getClickedInventory() != null ? e.getClickedInventory().getType() : null;
+
+                    questPlayer.sendDebugMessage("InventoryType <highlight>%s", inventoryType.toString());
+                    questPlayer.sendDebugMessage("Clicked InventoryType <highlight2>%s", (clickedInventoryType != null ? clickedInventoryType.toString() : null) );
+
+                    //TODO: This doesn't work properly
+                    if(
+                           false && inventoryType != InventoryType.PLAYER && inventoryType != InventoryType.CRAFTING && inventoryType != InventoryType.CREATIVE
+                    &&       clickedInventoryType != InventoryType.PLAYER && clickedInventoryType != InventoryType.CRAFTING && clickedInventoryType != InventoryType.CREATIVE
+
+                    ){
+                        final ItemStack currentItem = e.getCursor();
+                        if(main.getUtilManager().isItemEmpty(currentItem)){
+                            questPlayer.sendDebugMessage("Invalid item for PickupItemsObjective (1)");
+                        }else{
+                            if(!itemStackSelection.checkIfIsIncluded(currentItem)){
+                                //questPlayer.sendDebugMessage("Invalid item for smelt objective (2). CurrentItem: " + currentItem.getType().name() + " ItemToSmelt: " + smeltObjective.getItemToSmelt().getType().name());
                             }else{
-                                if(!itemStackSelection.checkIfIsIncluded(currentItem)){
-                                    //questPlayer.sendDebugMessage("Invalid item for smelt objective (2). CurrentItem: " + currentItem.getType().name() + " ItemToSmelt: " + smeltObjective.getItemToSmelt().getType().name());
-                                }else{
-                                    questPlayer.sendDebugMessage("Valid item for PickupItemsObjective");
-
+                                questPlayer.sendDebugMessage("Valid item for PickupItemsObjective");
 
-                                    int amount = currentItem.getAmount();
-                                    final ItemStack cursor = e.getCursor();
 
+                                int amount = currentItem.getAmount();
+                                final ItemStack cursor = e.getCursor();
 
 
 
-                                    switch (e.getClick()) {
-                                        case LEFT:
-                                            if (!main.getUtilManager().isItemEmpty(cursor)) {
-                                                questPlayer.sendDebugMessage("Inventory craft event: Cursor is not empty");
-
-                                                if (!cursor.isSimilar(currentItem)) {
-                                                    amount = 0;
-                                                }
-                                                if (cursor.getAmount() + currentItem.getAmount() > cursor.getMaxStackSize()) {
-                                                    amount = 0;
-                                                }
-                                            }
-                                            break;
-
-                                        case RIGHT:
-                                            if (!main.getUtilManager().isItemEmpty(cursor)) {
-                                                questPlayer.sendDebugMessage("Inventory craft event: Cursor is not empty");
 
-                                                if (!cursor.isSimilar(currentItem)) {
-                                                    amount = 0;
-                                                }
-                                                if (cursor.getAmount() + currentItem.getAmount() > cursor.getMaxStackSize()) {
-                                                    amount = 0;
-                                                }
-                                            }
-                                            amount = (amount+1)/2;
-                                            break;
-                                        case NUMBER_KEY:
-                                            //If the hotbar is full, the item will not be crafted but it will still trigger this event for some reason. That's
-                                            //why we manually have to set the amount to 0 here
-                                            if (player.getInventory().getItem(e.getHotbarButton()) != null) {
-                                                amount = 0;
-                                            }
-                                            break;
+                                switch (e.getClick()) {
+                                    case LEFT:
+                                        if (!main.getUtilManager().isItemEmpty(cursor)) {
+                                            questPlayer.sendDebugMessage("Inventory craft event: Cursor is not empty");
 
-                                        case DROP:
-                                            if (!main.getUtilManager().isItemEmpty(cursor)) {
+                                            if (!cursor.isSimilar(currentItem)) {
                                                 amount = 0;
                                             }
-                                            amount = 1;
-                                            break;
-                                        case CONTROL_DROP:
-                                            // If we are holding items, craft-via-drop fails (vanilla behavior)
-                                            // Cursor is either null or AIR
-                                            if (!main.getUtilManager().isItemEmpty(cursor)) {
+                                            if (cursor.getAmount() + currentItem.getAmount() > cursor.getMaxStackSize()) {
                                                 amount = 0;
                                             }
+                                        }
+                                        break;
 
-                                            break;
-                                        case SWAP_OFFHAND:
-                                            if(!main.getUtilManager().isItemEmpty(player.getInventory().getItemInOffHand())){
+                                    case RIGHT:
+                                        if (!main.getUtilManager().isItemEmpty(cursor)) {
+                                            questPlayer.sendDebugMessage("Inventory craft event: Cursor is not empty");
+
+                                            if (!cursor.isSimilar(currentItem)) {
                                                 amount = 0;
                                             }
-                                            break;
-                                        case SHIFT_LEFT:
-                                        case SHIFT_RIGHT:
-                                            if (amount == 0) {
-                                                break;
+                                            if (cursor.getAmount() + currentItem.getAmount() > cursor.getMaxStackSize()) {
+                                                amount = 0;
                                             }
-
-                                            amount = Math.min(getInventorySpaceLeftForItem(player.getInventory(), currentItem ) ,amount);
-
-                                            break;
-                                        default:
+                                        }
+                                        amount = (amount+1)/2;
+                                        break;
+                                    case NUMBER_KEY:
+                                        //If the hotbar is full, the item will not be crafted but it will still trigger this event for some reason. That's
+                                        //why we manually have to set the amount to 0 here
+                                        if (player.getInventory().getItem(e.getHotbarButton()) != null) {
                                             amount = 0;
-                                    }
+                                        }
+                                        break;
 
+                                    case DROP:
+                                        if (!main.getUtilManager().isItemEmpty(cursor)) {
+                                            amount = 0;
+                                        }
+                                        amount = 1;
+                                        break;
+                                    case CONTROL_DROP:
+                                        // If we are holding items, craft-via-drop fails (vanilla behavior)
+                                        // Cursor is either null or AIR
+                                        if (!main.getUtilManager().isItemEmpty(cursor)) {
+                                            amount = 0;
+                                        }
 
-                                    questPlayer.sendDebugMessage("Amount: " + amount);
+                                        break;
+                                    case SWAP_OFFHAND:
+                                        if(!main.getUtilManager().isItemEmpty(player.getInventory().getItemInOffHand())){
+                                            amount = 0;
+                                        }
+                                        break;
+                                    case SHIFT_LEFT:
+                                    case SHIFT_RIGHT:
+                                        if (amount == 0) {
+                                            break;
+                                        }
 
-                                    if (amount != 0) {
-                                        questPlayer.sendDebugMessage("Deducting from PickupItemsObjective!");
-                                        activeObjective.removeProgress(amount, false);
-                                    }
+                                        amount = Math.min(getInventorySpaceLeftForItem(player.getInventory(), currentItem ) ,amount);
 
+                                        break;
+                                    default:
+                                        amount = 0;
                                 }
 
 
+                                questPlayer.sendDebugMessage("Amount: " + amount);
+
+                                if (amount != 0) {
+                                    questPlayer.sendDebugMessage("Deducting from PickupItemsObjective!");
+                                    activeObjective.removeProgress(amount, false);
+                                }
                             }
 
 
@@ -365,120 +300,116 @@ public class QuestEvents implements Listener {
             });
 
             //TODO: Replace returns with sth else
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final SmeltObjective smeltObjective) {
-                    final InventoryType inventoryType = e.getInventory().getType();
-
-                    if(inventoryType != InventoryType.FURNACE && inventoryType != InventoryType.BLAST_FURNACE && inventoryType != InventoryType.SMOKER){
-                        return;
-                    }
-
-                    if(e.getRawSlot() != 2){
-                        //Raw slot 2 is the slot where the smelted item will be put. Without this check, the player can just
-                        //put keep putting and taking the item from their inventory to get free progress while in the furnace GUI.
-                        return;
-                    }
-
+            questPlayer.queueObjectiveCheck(SmeltObjective.class, (activeObjective, smeltObjective) -> {
+                final InventoryType inventoryType = e.getInventory().getType();
 
-                    final ItemStack currentItem = e.getCurrentItem();
-                    if(main.getUtilManager().isItemEmpty(currentItem)){
-                        //questPlayer.sendDebugMessage("Invalid item for smelt objective (1)");
-                        return;
-                    }
+                if(inventoryType != InventoryType.FURNACE && inventoryType != InventoryType.BLAST_FURNACE && inventoryType != InventoryType.SMOKER){
+                    return;
+                }
 
-                    final ItemStackSelection itemStackSelection = smeltObjective.getItemStackSelection();
-                    if(!itemStackSelection.checkIfIsIncluded(currentItem)){
-                        //questPlayer.sendDebugMessage("Invalid item for smelt objective (2). CurrentItem: " + currentItem.getType().name() + " ItemToSmelt: " + smeltObjective.getItemToSmelt().getType().name());
-                        return;
-                    }
+                if(e.getRawSlot() != 2){
+                    //Raw slot 2 is the slot where the smelted item will be put. Without this check, the player can just
+                    //put keep putting and taking the item from their inventory to get free progress while in the furnace GUI.
+                    return;
+                }
 
-                    questPlayer.sendDebugMessage("Valid item for smelt objective");
 
+                final ItemStack currentItem = e.getCurrentItem();
+                if(main.getUtilManager().isItemEmpty(currentItem)){
+                    //questPlayer.sendDebugMessage("Invalid item for smelt objective (1)");
+                    return;
+                }
 
-                    int amount = currentItem.getAmount();
-                    final ItemStack cursor = e.getCursor();
+                final ItemStackSelection itemStackSelection = smeltObjective.getItemStackSelection();
+                if(!itemStackSelection.checkIfIsIncluded(currentItem)){
+                    //questPlayer.sendDebugMessage("Invalid item for smelt objective (2). CurrentItem: " + currentItem.getType().name() + " ItemToSmelt: " + smeltObjective.getItemToSmelt().getType().name());
+                    return;
+                }
 
+                questPlayer.sendDebugMessage("Valid item for smelt objective");
 
 
-                    switch (e.getClick()) {
-                        case LEFT:
-                            if (!main.getUtilManager().isItemEmpty(cursor)) {
-                                questPlayer.sendDebugMessage("Inventory craft event: Cursor is not empty");
+                int amount = currentItem.getAmount();
+                final ItemStack cursor = e.getCursor();
 
-                                if (!cursor.isSimilar(currentItem)) {
-                                    amount = 0;
-                                }
-                                if (cursor.getAmount() + currentItem.getAmount() > cursor.getMaxStackSize()) {
-                                    amount = 0;
-                                }
-                            }
-                            break;
 
-                        case RIGHT:
-                            if (!main.getUtilManager().isItemEmpty(cursor)) {
-                                questPlayer.sendDebugMessage("Inventory craft event: Cursor is not empty");
 
-                                if (!cursor.isSimilar(currentItem)) {
-                                    amount = 0;
-                                }
-                                if (cursor.getAmount() + currentItem.getAmount() > cursor.getMaxStackSize()) {
-                                    amount = 0;
-                                }
-                            }
-                            amount = (amount+1)/2;
-                            break;
-                        case NUMBER_KEY:
-                            //If the hotbar is full, the item will not be crafted but it will still trigger this event for some reason. That's
-                            //why we manually have to set the amount to 0 here
-                            if (player.getInventory().getItem(e.getHotbarButton()) != null) {
-                                amount = 0;
-                            }
-                            break;
+                switch (e.getClick()) {
+                    case LEFT:
+                        if (!main.getUtilManager().isItemEmpty(cursor)) {
+                            questPlayer.sendDebugMessage("Inventory craft event: Cursor is not empty");
 
-                        case DROP:
-                            if (!main.getUtilManager().isItemEmpty(cursor)) {
+                            if (!cursor.isSimilar(currentItem)) {
                                 amount = 0;
                             }
-                            amount = 1;
-                            break;
-                        case CONTROL_DROP:
-                            // If we are holding items, craft-via-drop fails (vanilla behavior)
-                            // Cursor is either null or AIR
-                            if (!main.getUtilManager().isItemEmpty(cursor)) {
+                            if (cursor.getAmount() + currentItem.getAmount() > cursor.getMaxStackSize()) {
                                 amount = 0;
                             }
+                        }
+                        break;
 
-                            break;
-                        case SWAP_OFFHAND:
-                            if(!main.getUtilManager().isItemEmpty(player.getInventory().getItemInOffHand())){
+                    case RIGHT:
+                        if (!main.getUtilManager().isItemEmpty(cursor)) {
+                            questPlayer.sendDebugMessage("Inventory craft event: Cursor is not empty");
+
+                            if (!cursor.isSimilar(currentItem)) {
                                 amount = 0;
                             }
-                            break;
-                        case SHIFT_LEFT:
-                        case SHIFT_RIGHT:
-                            if (amount == 0) {
-                                break;
+                            if (cursor.getAmount() + currentItem.getAmount() > cursor.getMaxStackSize()) {
+                                amount = 0;
                             }
+                        }
+                        amount = (amount+1)/2;
+                        break;
+                    case NUMBER_KEY:
+                        //If the hotbar is full, the item will not be crafted but it will still trigger this event for some reason. That's
+                        //why we manually have to set the amount to 0 here
+                        if (player.getInventory().getItem(e.getHotbarButton()) != null) {
+                            amount = 0;
+                        }
+                        break;
 
-                            amount = Math.min(getInventorySpaceLeftForItem(player.getInventory(), currentItem ) ,amount);
+                    case DROP:
+                        if (!main.getUtilManager().isItemEmpty(cursor)) {
+                            amount = 0;
+                        }
+                        amount = 1;
+                        break;
+                    case CONTROL_DROP:
+                        // If we are holding items, craft-via-drop fails (vanilla behavior)
+                        // Cursor is either null or AIR
+                        if (!main.getUtilManager().isItemEmpty(cursor)) {
+                            amount = 0;
+                        }
 
-                            break;
-                        default:
+                        break;
+                    case SWAP_OFFHAND:
+                        if(!main.getUtilManager().isItemEmpty(player.getInventory().getItemInOffHand())){
                             amount = 0;
-                    }
+                        }
+                        break;
+                    case SHIFT_LEFT:
+                    case SHIFT_RIGHT:
+                        if (amount == 0) {
+                            break;
+                        }
 
+                        amount = Math.min(getInventorySpaceLeftForItem(player.getInventory(), currentItem ) ,amount);
 
-                    questPlayer.sendDebugMessage("Amount: " + amount);
+                        break;
+                    default:
+                        amount = 0;
+                }
 
-                    if (amount == 0) {
-                        return;
-                    }
 
+                questPlayer.sendDebugMessage("Amount: " + amount);
 
-                    activeObjective.addProgress(amount);
+                if (amount == 0) {
+                    return;
+                }
 
 
-                }
+                activeObjective.addProgress(amount);
             });
             questPlayer.checkQueuedObjectives();
         }
@@ -505,42 +436,44 @@ public class QuestEvents implements Listener {
 
     @EventHandler
     private void onCraftItemEvent(CraftItemEvent e) {
+        if (!main.getObjectiveManager().hasLiveActiveObjectives(CraftItemsObjective.class)) {
+            return;
+        }
         final Entity entity = e.getWhoClicked();
         if (entity instanceof final Player player && e.getInventory().getResult() != null) {
+            //Not buffered while the player data is loading, as the crafted amount depends on the inventory state at the time of the click
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
             if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
                 return;
             }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final CraftItemsObjective craftItemsObjective) {
-                    final ItemStack result = e.getRecipe().getResult();
-                    final ItemStack cursor = e.getCursor();
+            questPlayer.queueObjectiveCheck(CraftItemsObjective.class, (activeObjective, craftItemsObjective) -> {
+                final ItemStack result = e.getRecipe().getResult();
+                final ItemStack cursor = e.getCursor();
 
-                    final ItemStackSelection itemStackSelection = craftItemsObjective.getItemStackSelection();
+                final ItemStackSelection itemStackSelection = craftItemsObjective.getItemStackSelection();
 
-                    //Check if the Material of the crafted item is equal to the Material needed in the CraftItemsObjective
-                    if (!itemStackSelection.checkIfIsIncluded(result)) {
-                        return;
-                    }
+                //Check if the Material of the crafted item is equal to the Material needed in the CraftItemsObjective
+                if (!itemStackSelection.checkIfIsIncluded(result)) {
+                    return;
+                }
 
 
-                    questPlayer.sendDebugMessage("Inventory craft event. Click type: " + debugHighlightGradient + e.getClick().name() + "</gradient>");
+                questPlayer.sendDebugMessage("Inventory craft event. Click type: " + debugHighlightGradient + e.getClick().name() + "</gradient>");
 
 
-                    //Now we gotta figure out the real amount of items which have been crafted, which is trickier than expected:
+                //Now we gotta figure out the real amount of items which have been crafted, which is trickier than expected:
 
 
-                    int recipeAmount = getCraftAmount(result, cursor, e.getClick(), e.getWhoClicked(), e.getHotbarButton(), e.getInventory(), e.getView(), questPlayer);
+                int recipeAmount = getCraftAmount(result, cursor, e.getClick(), e.getWhoClicked(), e.getHotbarButton(), e.getInventory(), e.getView(), questPlayer);
 
 
-                    // No use continuing if we haven't actually crafted a thing
-                    if (recipeAmount == 0) {
-                        return;
-                    }
+                // No use continuing if we haven't actually crafted a thing
+                if (recipeAmount == 0) {
+                    return;
+                }
 
 
-                    activeObjective.addProgress(recipeAmount);
-                }
+                activeObjective.addProgress(recipeAmount);
             });
             questPlayer.checkQueuedObjectives();
         }
@@ -652,19 +585,46 @@ public class QuestEvents implements Listener {
 
 
 
+    /**
+     * Event types which can make progress for objectives of players whose data is still loading are needed as well, as those
+     * players aren't live yet.
+     */
+    private boolean isObjectiveTypeNeeded(final Class<? extends Objective> objectiveType) {
+        return main.getObjectiveManager().hasLiveActiveObjectives(objectiveType) || main.getQuestPlayerManager().isAnyPlayerDataLoading();
+    }
+
+    /**
+     * Returns the active QuestPlayer of the player. If their player data is still loading, the event handler is buffered and re-run
+     * once their QuestPlayer has been published, and null is returned.
+     * <p>
+     * The event has already finished once a buffered event handler runs again. So it must not use the event: everything it needs has to be
+     * copied when the event is fired, and it can't cancel the event anymore.
+     */
+    private @Nullable QuestPlayer getActiveQuestPlayerOrBuffer(final UUID uuid, final Runnable eventHandler) {
+        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(uuid);
+        if (questPlayer == null) {
+            main.getQuestPlayerManager().bufferWhileLoading(uuid, eventHandler);
+        }
+        return questPlayer;
+    }
+
     @EventHandler(ignoreCancelled = true)
     public void onPlayerJump(final PlayerJumpEvent e) {
+        if (!isObjectiveTypeNeeded(JumpObjective.class)) {
+            return;
+        }
 
-        final Player player = e.getPlayer();
-        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+        handlePlayerJump(e.getPlayer());
+    }
+
+    private void handlePlayerJump(final Player player) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handlePlayerJump(player));
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
 
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof JumpObjective) {
-                activeObjective.addProgress(1);
-            }
+        questPlayer.queueObjectiveCheck(JumpObjective.class, (activeObjective, jumpObjective) -> {
+            activeObjective.addProgress(1);
         });
         questPlayer.checkQueuedObjectives();
     }
@@ -673,6 +633,10 @@ public class QuestEvents implements Listener {
     @EventHandler
     public void interactEvent(final PlayerInteractEvent e) {
         final Player player = e.getPlayer();
+        if (main.getQuestPlayerManager().isPlayerDataLoading(player.getUniqueId())) {
+            bufferInteractWhileLoading(player, e);
+            return;
+        }
         final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
@@ -684,84 +648,124 @@ public class QuestEvents implements Listener {
             }
         }
 
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final InteractObjective interactObjective) {
-                String materialName = "AIR";
-                if (e.getClickedBlock() != null) {
-                    materialName = e.getClickedBlock().getBlockData().getMaterial().name();
-                }
-                questPlayer.sendDebugMessage("Found InteractObjective Objective in PlayerInteractEvent. Clicked Block material: <highlight>" + materialName
-                    + "</highlight>. Action: <highlight2>" + e.getAction() + "</highlight2>."
-                );
-
-                if (e.getAction() == Action.RIGHT_CLICK_BLOCK && !interactObjective.isRightClick()) {
-                    return;
-                }
-                if (e.getAction() == Action.LEFT_CLICK_BLOCK && !interactObjective.isLeftClick()) {
-                    return;
-                }
-                if (e.getClickedBlock() == null || e.getClickedBlock().getLocation().getWorld() == null || interactObjective.getLocationToInteract().getWorld() == null) {
-                    return;
-                }
+        questPlayer.queueObjectiveCheck(InteractObjective.class, (activeObjective, interactObjective) -> {
+            String materialName = "AIR";
+            if (e.getClickedBlock() != null) {
+                materialName = e.getClickedBlock().getBlockData().getMaterial().name();
+            }
+            questPlayer.sendDebugMessage("Found InteractObjective Objective in PlayerInteractEvent. Clicked Block material: <highlight>" + materialName
+                + "</highlight>. Action: <highlight2>" + e.getAction() + "</highlight2>."
+            );
 
-                if (!e.getClickedBlock().getLocation().getWorld().getName().equalsIgnoreCase(interactObjective.getLocationToInteract().getWorld().getName())) {
-                    return;
-                }
-                if (e.getClickedBlock().getLocation().distance(interactObjective.getLocationToInteract()) > interactObjective.getMaxDistance()) {
-                    return;
-                }
+            if (!isInteractionIncluded(interactObjective, e.getAction(), e.getClickedBlock() != null ? e.getClickedBlock().getLocation() : null)) {
+                return;
+            }
 
+            activeObjective.addProgress(1);
+            if (interactObjective.isCancelInteraction()) {
+                e.setCancelled(true);
+            }
+        });
+        questPlayer.queueObjectiveCheck(OpenBuriedTreasureObjective.class, (activeObjective, openBuriedTreasureObjective) -> {
+            if (e.getAction() != Action.RIGHT_CLICK_BLOCK){
+                return;
+            }
+            if(isUnlootedBuriedTreasure(e.getClickedBlock(), player)){
                 activeObjective.addProgress(1);
-                if (interactObjective.isCancelInteraction()) {
-                    e.setCancelled(true);
-                }
-
             }
         });
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof OpenBuriedTreasureObjective) {
-                if (e.getAction() != Action.RIGHT_CLICK_BLOCK){
-                    return;
-                }
-                Block clickedBlock = e.getClickedBlock();
-                if(clickedBlock.getState() instanceof final Chest chest){
+        questPlayer.checkQueuedObjectives();
+    }
 
-                    if(chest.getLootTable() != null && chest.getLootTable().getKey().equals(LootTables.BURIED_TREASURE.getKey()) && !chest.hasPlayerLooted(player.getUniqueId())){
-                        activeObjective.addProgress(1);
-                    }
+    /**
+     * Interactions of players whose data is still loading only make progress once it has loaded, and the event can't be cancelled anymore then.
+     * So objectives which would cancel the interaction are skipped, and the clicked block is checked right away.
+     */
+    private void bufferInteractWhileLoading(final Player player, final PlayerInteractEvent e) {
+        if (!isObjectiveTypeNeeded(InteractObjective.class) && !isObjectiveTypeNeeded(OpenBuriedTreasureObjective.class)) {
+            return;
+        }
+        final Action action = e.getAction();
+        final Location clickedBlockLocation = e.getClickedBlock() != null ? e.getClickedBlock().getLocation() : null;
+        final boolean unlootedBuriedTreasure = action == Action.RIGHT_CLICK_BLOCK && isObjectiveTypeNeeded(OpenBuriedTreasureObjective.class)
+            && isUnlootedBuriedTreasure(e.getClickedBlock(), player);
 
+        main.getQuestPlayerManager().bufferWhileLoading(player.getUniqueId(), () -> {
+            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+            if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+                return;
+            }
+            questPlayer.queueObjectiveCheck(InteractObjective.class, (activeObjective, interactObjective) -> {
+                if (!interactObjective.isCancelInteraction() && isInteractionIncluded(interactObjective, action, clickedBlockLocation)) {
+                    activeObjective.addProgress(1);
                 }
+            });
+            if (unlootedBuriedTreasure) {
+                questPlayer.queueObjectiveCheck(OpenBuriedTreasureObjective.class, (activeObjective, openBuriedTreasureObjective) -> activeObjective.addProgress(1));
             }
+            questPlayer.checkQueuedObjectives();
         });
-        questPlayer.checkQueuedObjectives();
+    }
+
+    private boolean isInteractionIncluded(final InteractObjective interactObjective, final Action action, final @Nullable Location clickedBlockLocation) {
+        if (action == Action.RIGHT_CLICK_BLOCK && !interactObjective.isRightClick()) {
+            return false;
+        }
+        if (action == Action.LEFT_CLICK_BLOCK && !interactObjective.isLeftClick()) {
+            return false;
+        }
+        if (clickedBlockLocation == null || clickedBlockLocation.getWorld() == null || interactObjective.getLocationToInteract().getWorld() == null) {
+            return false;
+        }
+
+        if (!clickedBlockLocation.getWorld().getName().equalsIgnoreCase(interactObjective.getLocationToInteract().getWorld().getName())) {
+            return false;
+        }
+        return clickedBlockLocation.distance(interactObjective.getLocationToInteract()) <= interactObjective.getMaxDistance();
+    }
+
+    private boolean isUnlootedBuriedTreasure(final @Nullable Block clickedBlock, final Player player) {
+        return clickedBlock != null && clickedBlock.getState() instanceof final Chest chest
+            && chest.getLootTable() != null && chest.getLootTable().getKey().equals(LootTables.BURIED_TREASURE.getKey()) && !chest.hasPlayerLooted(player.getUniqueId());
     }
 
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void onCommand(final PlayerCommandPreprocessEvent e) {
-        final Player player = e.getPlayer();
-        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+        if (!isObjectiveTypeNeeded(RunCommandObjective.class)) {
+            return;
+        }
+        handleRunCommand(e.getPlayer(), e.getMessage(), e);
+    }
+
+    /**
+     * @param event the event, so the command can be cancelled. Null if it's handled after the event has finished (because the player data was still loading).
+     *              Objectives which would cancel the command are skipped then
+     */
+    private void handleRunCommand(final Player player, final String command, final @Nullable PlayerCommandPreprocessEvent event) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleRunCommand(player, command, null));
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
 
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final RunCommandObjective runCommandObjective) {
-                questPlayer.sendDebugMessage("Found RunCommand Objective in PlayerCommandPreprocessEvent. Command: <highlight>" + e.getMessage()
-                    + "</highlight> Objective command to run: <highlight2>" + runCommandObjective.getCommandToRun() + "</highlight2>."
-                );
+        questPlayer.queueObjectiveCheck(RunCommandObjective.class, (activeObjective, runCommandObjective) -> {
+            questPlayer.sendDebugMessage("Found RunCommand Objective in PlayerCommandPreprocessEvent. Command: <highlight>" + command
+                + "</highlight> Objective command to run: <highlight2>" + runCommandObjective.getCommandToRun() + "</highlight2>."
+            );
 
-                if (runCommandObjective.isIgnoreCase() && !e.getMessage().equalsIgnoreCase(runCommandObjective.getCommandToRun())) {
-                    return;
-                }
-                if (!runCommandObjective.isIgnoreCase() && !e.getMessage().equals(runCommandObjective.getCommandToRun())) {
-                    return;
-                }
+            if (runCommandObjective.isIgnoreCase() && !command.equalsIgnoreCase(runCommandObjective.getCommandToRun())) {
+                return;
+            }
+            if (!runCommandObjective.isIgnoreCase() && !command.equals(runCommandObjective.getCommandToRun())) {
+                return;
+            }
+            if (runCommandObjective.isCancelCommand() && event == null) {
+                return;
+            }
 
-                activeObjective.addProgress(1);
-                if (runCommandObjective.isCancelCommand()) {
-                    e.setCancelled(true);
-                }
+            activeObjective.addProgress(1);
+            if (runCommandObjective.isCancelCommand()) {
+                event.setCancelled(true);
             }
         });
         questPlayer.checkQueuedObjectives();
@@ -799,153 +803,155 @@ public class QuestEvents implements Listener {
 
     @EventHandler(priority = EventPriority.HIGHEST)
     private void onEntityBreed(EntityBreedEvent e) {
+        if (!isObjectiveTypeNeeded(BreedObjective.class)) {
+            return;
+        }
         if (!e.isCancelled()) {
             if (e.getBreeder() instanceof final Player player) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
-                    return;
-                }
-
-                questPlayer.queueObjectiveCheck(activeObjective -> {
-                    if (activeObjective.getObjective() instanceof final BreedObjective breedObjective) {
-                        if(breedObjective.getEntityToBreedType().equalsIgnoreCase("any") ||  breedObjective.getEntityToBreedType().equalsIgnoreCase(e.getEntityType().toString())){
-                            activeObjective.addProgress(1);
-                        }
+                handleEntityBreed(player, e.getEntityType());
+            }
+        }
+    }
 
-                    }
-                });
-                questPlayer.checkQueuedObjectives();
+    private void handleEntityBreed(final Player player, final EntityType bredEntityType) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleEntityBreed(player, bredEntityType));
+        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+            return;
+        }
 
+        questPlayer.queueObjectiveCheck(BreedObjective.class, (activeObjective, breedObjective) -> {
+            if(breedObjective.getEntityToBreedType().equalsIgnoreCase("any") ||  breedObjective.getEntityToBreedType().equalsIgnoreCase(bredEntityType.toString())){
+                activeObjective.addProgress(1);
             }
-        }
+        });
+        questPlayer.checkQueuedObjectives();
     }
 
 
     @EventHandler(priority = EventPriority.HIGHEST)
     private void onBlockBreak(BlockBreakEvent e) {
+        if (!isObjectiveTypeNeeded(BreakBlocksObjective.class) && !isObjectiveTypeNeeded(PlaceBlocksObjective.class)) {
+            return;
+        }
         if (!e.isCancelled()) {
-            final Player player = e.getPlayer();
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
-                return;
-            }
+            //The block type is read right away, as the block has already changed once a buffered event handler runs again
+            handleBlockBreak(e.getPlayer(), e.getBlock().getType());
+        }
 
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final BreakBlocksObjective breakBlocksObjective) {
-                    final ItemStackSelection itemStackSelection = breakBlocksObjective.getItemStackSelection();
+    }
 
-                    if(itemStackSelection.checkIfIsIncluded(e.getBlock().getType())){
-                        activeObjective.addProgress(1);
-                    }
+    private void handleBlockBreak(final Player player, final Material blockType) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleBlockBreak(player, blockType));
+        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+            return;
+        }
 
-                }
-            });
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final PlaceBlocksObjective placeBlocksObjective) { //Deduct if Block is Broken for PlaceBlocksObjective
-                    final ItemStackSelection itemStackSelection = placeBlocksObjective.getItemStackSelection();
+        questPlayer.queueObjectiveCheck(BreakBlocksObjective.class, (activeObjective, breakBlocksObjective) -> {
+            final ItemStackSelection itemStackSelection = breakBlocksObjective.getItemStackSelection();
 
-                    if(itemStackSelection.checkIfIsIncluded(e.getBlock().getType())){
-                        if (placeBlocksObjective.isDeductIfBlockBroken()) {
-                            activeObjective.removeProgress(1, false);
-                        }
-                    }
-                }
-            });
-            questPlayer.checkQueuedObjectives();
-
-        }
+            if(itemStackSelection.checkIfIsIncluded(blockType)){
+                activeObjective.addProgress(1);
+            }
+        });
+        questPlayer.queueObjectiveCheck(PlaceBlocksObjective.class, (activeObjective, placeBlocksObjective) -> { //Deduct if Block is Broken for PlaceBlocksObjective
+            final ItemStackSelection itemStackSelection = placeBlocksObjective.getItemStackSelection();
 
+            if(itemStackSelection.checkIfIsIncluded(blockType)){
+                if (placeBlocksObjective.isDeductIfBlockBroken()) {
+                    activeObjective.removeProgress(1, false);
+                }
+            }
+        });
+        questPlayer.checkQueuedObjectives();
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
     private void onBlockPlace(BlockPlaceEvent e) {
+        if (!isObjectiveTypeNeeded(BreakBlocksObjective.class) && !isObjectiveTypeNeeded(PickupItemsObjective.class) && !isObjectiveTypeNeeded(PlaceBlocksObjective.class)) {
+            return;
+        }
         if (!e.isCancelled()) {
-            final Player player = e.getPlayer();
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
-                return;
-            }
-            //Safety mechanism
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                questPlayer.sendDebugMessage("Checking for BreakBlocksObjective.");
-                if (activeObjective.getObjective() instanceof final BreakBlocksObjective breakBlocksObjective) {
-                    final ItemStackSelection itemStackSelection = breakBlocksObjective.getItemStackSelection();
-                    questPlayer.sendDebugMessage("Found BreakBlocksObjective.");
-
-                    if (itemStackSelection.checkIfIsIncluded(e.getBlock().getType())) {
-                        questPlayer.sendDebugMessage("Found right block.");
-                        if (breakBlocksObjective.isDeductIfBlockPlaced()) {
-                            questPlayer.sendDebugMessage("Deducting from BreakBlocksObjective!");
-                            activeObjective.removeProgress(1, false);
-                        }
-                    }
-                }
-            });
-            //Safety mechanism
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                questPlayer.sendDebugMessage("Checking for PickupItemsObjective.");
-                if (activeObjective.getObjective() instanceof final PickupItemsObjective pickupItemsObjective) {
-                    final ItemStackSelection itemStackSelection = pickupItemsObjective.getItemStackSelection();
-                    questPlayer.sendDebugMessage("Found PickupItemsObjective.");
-
-                    if (itemStackSelection.checkIfIsIncluded(e.getBlock().getType())) {
-                        questPlayer.sendDebugMessage("Found right block.");
-                        if (pickupItemsObjective.isDeductIfItemIsPlaced()) {
-                            questPlayer.sendDebugMessage("Deducting from PickupItemsObjective!");
-                            activeObjective.removeProgress(1, false);
-                        }
-                    }
-                }
-            });
+            //The block type is read right away, as the block might have changed once a buffered event handler runs again
+            handleBlockPlace(e.getPlayer(), e.getBlock().getType());
+        }
 
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final PlaceBlocksObjective placeBlocksObjective) {
-                    final ItemStackSelection itemStackSelection = placeBlocksObjective.getItemStackSelection();
+    }
 
-                    if (itemStackSelection.checkIfIsIncluded(e.getBlock().getType())) {
-                        activeObjective.addProgress(1);
-                    }
+    private void handleBlockPlace(final Player player, final Material blockType) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleBlockPlace(player, blockType));
+        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+            return;
+        }
+        //Safety mechanism
+        questPlayer.queueObjectiveCheck(BreakBlocksObjective.class, (activeObjective, breakBlocksObjective) -> {
+            questPlayer.sendDebugMessage("Checking for BreakBlocksObjective.");
+            final ItemStackSelection itemStackSelection = breakBlocksObjective.getItemStackSelection();
+            questPlayer.sendDebugMessage("Found BreakBlocksObjective.");
+
+            if (itemStackSelection.checkIfIsIncluded(blockType)) {
+                questPlayer.sendDebugMessage("Found right block.");
+                if (breakBlocksObjective.isDeductIfBlockPlaced()) {
+                    questPlayer.sendDebugMessage("Deducting from BreakBlocksObjective!");
+                    activeObjective.removeProgress(1, false);
                 }
-            });
-
+            }
+        });
+        //Safety mechanism
+        questPlayer.queueObjectiveCheck(PickupItemsObjective.class, (activeObjective, pickupItemsObjective) -> {
+            questPlayer.sendDebugMessage("Checking for PickupItemsObjective.");
+            final ItemStackSelection itemStackSelection = pickupItemsObjective.getItemStackSelection();
+            questPlayer.sendDebugMessage("Found PickupItemsObjective.");
+
+            if (itemStackSelection.checkIfIsIncluded(blockType)) {
+                questPlayer.sendDebugMessage("Found right block.");
+                if (pickupItemsObjective.isDeductIfItemIsPlaced()) {
+                    questPlayer.sendDebugMessage("Deducting from PickupItemsObjective!");
+                    activeObjective.removeProgress(1, false);
+                }
+            }
+        });
 
-            questPlayer.checkQueuedObjectives();
+        questPlayer.queueObjectiveCheck(PlaceBlocksObjective.class, (activeObjective, placeBlocksObjective) -> {
+            final ItemStackSelection itemStackSelection = placeBlocksObjective.getItemStackSelection();
 
-        }
+            if (itemStackSelection.checkIfIsIncluded(blockType)) {
+                activeObjective.addProgress(1);
+            }
+        });
 
+        questPlayer.checkQueuedObjectives();
     }
 
     @EventHandler
     private void onFishItemEvent(PlayerFishEvent e) {
+        if (!isObjectiveTypeNeeded(FishItemsObjective.class)) {
+            return;
+        }
         if (e.getState() != PlayerFishEvent.State.CAUGHT_FISH) {
             return;
         }
 
 
-        final Player player = e.getPlayer();
-        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+        if(!(e.getCaught() instanceof final org.bukkit.entity.Item caughtItem)){
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final FishItemsObjective fishItemsObjective) {
-
-                if(e.getCaught() == null){
-                    return;
-                }
-
-                final ItemStack fishedItem = ((org.bukkit.entity.Item)e.getCaught()).getItemStack();
-
-                final ItemStackSelection itemStackSelection = fishItemsObjective.getItemStackSelection();
-
-                //Check if the Material of the collected item is equal to the Material needed in the CollectItemsObjective
-                if (!itemStackSelection.checkIfIsIncluded(fishedItem)) {
-                    return;
-                }
+        handleFishItem(e.getPlayer(), caughtItem.getItemStack().clone());
+    }
 
-                activeObjective.addProgress(fishedItem.getAmount());
+    private void handleFishItem(final Player player, final ItemStack fishedItem) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleFishItem(player, fishedItem));
+        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+            return;
+        }
+        questPlayer.queueObjectiveCheck(FishItemsObjective.class, (activeObjective, fishItemsObjective) -> {
+            final ItemStackSelection itemStackSelection = fishItemsObjective.getItemStackSelection();
 
+            //Check if the Material of the collected item is equal to the Material needed in the CollectItemsObjective
+            if (!itemStackSelection.checkIfIsIncluded(fishedItem)) {
+                return;
             }
+
+            activeObjective.addProgress(fishedItem.getAmount());
         });
         questPlayer.checkQueuedObjectives();
 
@@ -953,59 +959,62 @@ public class QuestEvents implements Listener {
 
     @EventHandler
     private void onPickupItemEvent(EntityPickupItemEvent e) {
+        if (!isObjectiveTypeNeeded(PickupItemsObjective.class)) {
+            return;
+        }
         final Entity entity = e.getEntity();
         if (entity instanceof final Player player) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
-                return;
-            }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final PickupItemsObjective pickupItemsObjective) {
-
-                    final ItemStackSelection itemStackSelection = pickupItemsObjective.getItemStackSelection();
-
-                    //Check if the Material of the collected item is equal to the Material needed in the CollectItemsObjective
-                    if (!itemStackSelection.checkIfIsIncluded(e.getItem().getItemStack())) {
-                        return;
-                    }
+            handlePickupItem(player, e.getItem().getItemStack().clone());
+        }
 
-                    activeObjective.addProgress(e.getItem().getItemStack().getAmount());
+    }
 
-                }
-            });
-            questPlayer.checkQueuedObjectives();
+    private void handlePickupItem(final Player player, final ItemStack pickedUpItem) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handlePickupItem(player, pickedUpItem));
+        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+            return;
         }
+        questPlayer.queueObjectiveCheck(PickupItemsObjective.class, (activeObjective, pickupItemsObjective) -> {
+            final ItemStackSelection itemStackSelection = pickupItemsObjective.getItemStackSelection();
 
+            //Check if the Material of the collected item is equal to the Material needed in the CollectItemsObjective
+            if (!itemStackSelection.checkIfIsIncluded(pickedUpItem)) {
+                return;
+            }
+
+            activeObjective.addProgress(pickedUpItem.getAmount());
+        });
+        questPlayer.checkQueuedObjectives();
     }
 
 
     @EventHandler
     private void onDropItemEvent(PlayerDropItemEvent e) { //DEFAULT ENABLED FOR ITEM DROPS UNLIKE FOR BLOCK BREAKS
-        final Entity player = e.getPlayer();
+        if (!isObjectiveTypeNeeded(PickupItemsObjective.class)) {
+            return;
+        }
+        handleDropItem(e.getPlayer(), e.getItemDrop().getItemStack().clone());
+    }
 
-        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+    private void handleDropItem(final Player player, final ItemStack droppedItem) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleDropItem(player, droppedItem));
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final PickupItemsObjective pickupItemsObjective) {
-                if (!pickupItemsObjective.isDeductIfItemIsDropped()) {
-                    return;
-                }
-
-                final ItemStackSelection itemStackSelection = pickupItemsObjective.getItemStackSelection();
-
-                if(!itemStackSelection.checkIfIsIncluded(e.getItemDrop().getItemStack())){
-                    return;
-                }
+        questPlayer.queueObjectiveCheck(PickupItemsObjective.class, (activeObjective, pickupItemsObjective) -> {
+            if (!pickupItemsObjective.isDeductIfItemIsDropped()) {
+                return;
+            }
 
-                activeObjective.removeProgress(e.getItemDrop().getItemStack().getAmount(), false);
+            final ItemStackSelection itemStackSelection = pickupItemsObjective.getItemStackSelection();
 
+            if(!itemStackSelection.checkIfIsIncluded(droppedItem)){
+                return;
             }
+
+            activeObjective.removeProgress(droppedItem.getAmount(), false);
         });
         questPlayer.checkQueuedObjectives();
-
-
     }
 
 
@@ -1014,118 +1023,120 @@ public class QuestEvents implements Listener {
 
         //Death Triggers
         if (e.getEntity() instanceof final Player player) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+            handleDeathTriggers(player);
+
+            //Iterator<ActiveQuest> iter = questPlayer.getActiveQuests().iterator(); //Why was that needed?
+        }
 
-            if (questPlayer != null && !questPlayer.getActiveQuests().isEmpty()) {
-                for (int i = 0; i < questPlayer.getActiveQuests().size(); i++) {
-                    final ActiveQuest activeQuest = questPlayer.getActiveQuests().get(i);
-                    for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-                        if (activeTrigger.getTrigger().getTriggerType().equals("DEATH")) {
-                            handleGeneralTrigger(questPlayer, activeTrigger);
 
-                        }
+        //KillMobs objectives
+        final Player player = e.getEntity().getKiller();
+        if (player != null && isObjectiveTypeNeeded(KillMobsObjective.class)) {
+            handleKillMobs(player, e.getEntity().getType(), e.getEntity().customName(), e.getEntity() == e.getEntity().getKiller());
+        }
+
+    }
+
+    private void handleDeathTriggers(final Player player) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleDeathTriggers(player));
+
+        if (questPlayer != null && !questPlayer.getActiveQuests().isEmpty()) {
+            for (int i = 0; i < questPlayer.getActiveQuests().size(); i++) {
+                final ActiveQuest activeQuest = questPlayer.getActiveQuests().get(i);
+                for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
+                    if (activeTrigger.getTrigger().getTriggerType().equals("DEATH")) {
+                        handleGeneralTrigger(questPlayer, activeTrigger);
+
                     }
                 }
             }
+        }
+    }
 
-            //Iterator<ActiveQuest> iter = questPlayer.getActiveQuests().iterator(); //Why was that needed?
+    private void handleKillMobs(final Player player, final EntityType killedMob, final @Nullable Component customName, final boolean suicide) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleKillMobs(player, killedMob, customName, suicide));
+        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+            return;
         }
+        questPlayer.queueObjectiveCheck(KillMobsObjective.class, (activeObjective, killMobsObjective) -> {
+            if (activeObjective.isUnlocked()) {
+                if(main.getIntegrationsManager().isProjectKorraEnabled() && !killMobsObjective.getProjectKorraAbility().isBlank()){
+                    return; //See ProjectKorraEvents.java onEntityKilled() for that.
+                }
+                if (killMobsObjective.getMobToKill().equalsIgnoreCase("any") || killMobsObjective.getMobToKill().equalsIgnoreCase(killedMob.toString())) {
+                    if (!suicide) { //Suicide prevention
 
+                        //Extra Flags
+                        if (!killMobsObjective.getNameTagContainsAny().isBlank()) {
+                            if (customName == null) {
+                                return;
+                            }
+                            final String customNamePlainStringLowercase = PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(
+                                Locale.ROOT);
+                            if(customNamePlainStringLowercase.isBlank()){
+                                return;
+                            }
 
-        //KillMobs objectives
-        final Player player = e.getEntity().getKiller();
-        if (player != null) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
-                return;
-            }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final KillMobsObjective killMobsObjective) {
-                    if (activeObjective.isUnlocked()) {
-                        if(main.getIntegrationsManager().isProjectKorraEnabled() && !killMobsObjective.getProjectKorraAbility().isBlank()){
-                            return; //See ProjectKorraEvents.java onEntityKilled() for that.
-                        }
-                        final EntityType killedMob = e.getEntity().getType();
-                        if (killMobsObjective.getMobToKill().equalsIgnoreCase("any") || killMobsObjective.getMobToKill().equalsIgnoreCase(killedMob.toString())) {
-                            if (e.getEntity() != e.getEntity().getKiller()) { //Suicide prevention
-
-                                //Extra Flags
-                                if (!killMobsObjective.getNameTagContainsAny().isBlank()) {
-                                    final Component customName = e.getEntity().customName();
-                                    if (customName == null) {
-                                        return;
-                                    }
-                                    final String customNamePlainStringLowercase = PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(
-                                        Locale.ROOT);
-                                    if(customNamePlainStringLowercase.isBlank()){
-                                        return;
-                                    }
-
-                                    boolean foundOneNotFitting = false;
-                                    for (final String namePart : killMobsObjective.getNameTagContainsAny().toLowerCase(Locale.ROOT).split(" ")) {
-                                        if (!customNamePlainStringLowercase.contains(
-                                            namePart)) {
-                                            foundOneNotFitting = true;
-                                            break;
-                                        }
-                                    }
-                                    if (foundOneNotFitting) {
-                                        return;
-                                    }
+                            boolean foundOneNotFitting = false;
+                            for (final String namePart : killMobsObjective.getNameTagContainsAny().toLowerCase(Locale.ROOT).split(" ")) {
+                                if (!customNamePlainStringLowercase.contains(
+                                    namePart)) {
+                                    foundOneNotFitting = true;
+                                    break;
                                 }
-                                if (!killMobsObjective.getNameTagEquals().isBlank()) {
-                                    final Component customName = e.getEntity().customName();
-                                    if (customName == null) {
-                                        return;
-                                    }
-                                    final String customNamePlainStringLowercase = PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(
-                                        Locale.ROOT);
-                                    if(customNamePlainStringLowercase.isBlank()){
-                                        return;
-                                    }
-
-                                    if (!customNamePlainStringLowercase.equalsIgnoreCase(killMobsObjective.getNameTagEquals())) {
-                                        return;
-                                    }
-                                }
-
-                                activeObjective.addProgress(1);
+                            }
+                            if (foundOneNotFitting) {
+                                return;
+                            }
+                        }
+                        if (!killMobsObjective.getNameTagEquals().isBlank()) {
+                            if (customName == null) {
+                                return;
+                            }
+                            final String customNamePlainStringLowercase = PlainTextComponentSerializer.plainText().serialize(customName).toLowerCase(
+                                Locale.ROOT);
+                            if(customNamePlainStringLowercase.isBlank()){
+                                return;
                             }
 
+                            if (!customNamePlainStringLowercase.equalsIgnoreCase(killMobsObjective.getNameTagEquals())) {
+                                return;
+                            }
                         }
+
+                        activeObjective.addProgress(1);
                     }
 
                 }
-            });
-            questPlayer.checkQueuedObjectives();
-
-
-        }
-
+            }
+        });
+        questPlayer.checkQueuedObjectives();
     }
 
     @EventHandler
     private void onConsumeItemEvent(PlayerItemConsumeEvent e) { //DEFAULT ENABLED FOR ITEM DROPS UNLIKE FOR BLOCK BREAKS
-        final Player player = e.getPlayer();
+        if (!isObjectiveTypeNeeded(ConsumeItemsObjective.class)) {
+            return;
+        }
+        handleConsumeItem(e.getPlayer(), e.getItem().clone());
+    }
 
-        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+    private void handleConsumeItem(final Player player, final ItemStack consumedItem) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleConsumeItem(player, consumedItem));
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final ConsumeItemsObjective consumeItemsObjective) {
-                if (activeObjective.isUnlocked()) {
-
-                    final ItemStackSelection itemStackSelection = consumeItemsObjective.getItemStackSelection();
+        questPlayer.queueObjectiveCheck(ConsumeItemsObjective.class, (activeObjective, consumeItemsObjective) -> {
+            if (activeObjective.isUnlocked()) {
 
-                    if(!itemStackSelection.checkIfIsIncluded(e.getItem())){
-                        return;
-                    }
-
-                    activeObjective.addProgress(1);
+                final ItemStackSelection itemStackSelection = consumeItemsObjective.getItemStackSelection();
 
+                if(!itemStackSelection.checkIfIsIncluded(consumedItem)){
+                    return;
                 }
 
+                activeObjective.addProgress(1);
+
             }
         });
         questPlayer.checkQueuedObjectives();
@@ -1176,7 +1187,7 @@ public class QuestEvents implements Listener {
     //For ReachLocation
     @EventHandler
     public void onMove(PlayerMoveEvent e) {
-        if (!main.getConfiguration().isMoveEventEnabled()) {
+        if (!main.getConfiguration().isMoveEventEnabled() || !main.getObjectiveManager().hasLiveActiveObjectives(ReachLocationObjective.class)) {
             return;
         }
 
@@ -1187,29 +1198,36 @@ public class QuestEvents implements Listener {
     }
 
     public void checkIfInReachLocation(final PlayerMoveEvent e, final Location currentLocation) {
-
-        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(e.getPlayer().getUniqueId());
-        if (e.isCancelled() || questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+        if (e.isCancelled()) {
+            return;
+        }
+        //Only regions overlapping the player's current chunk are candidates. This stays empty (and cached) until the player enters a chunk with a region
+        final List<ReachLocationObjective> regionsInCell = main.getObjectiveManager().getReachLocationRegionIndex().getRegionsInCell(e.getPlayer().getUniqueId(), currentLocation);
+        if (regionsInCell.isEmpty()) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final ReachLocationObjective reachLocationObjective) {
 
-                final Location minLocation = reachLocationObjective.getMinLocation();
-                if(minLocation == null){
-                    return;
-                }
-                if (minLocation.getWorld() != null && currentLocation.getWorld() != null && !currentLocation.getWorld().equals(minLocation.getWorld())) {
-                    return;
-                }
-                final Location maxLocation = reachLocationObjective.getMaxLocation();
-                if (currentLocation.getX() >= minLocation.getX() && currentLocation.getX() <= maxLocation.getX()) {
-                    if (currentLocation.getZ() >= minLocation.getZ() && currentLocation.getZ() <= maxLocation.getZ()) {
-                        if (currentLocation.getY() >= minLocation.getY() && currentLocation.getY() <= maxLocation.getY()) {
-                            activeObjective.addProgress(1);
-                        }
-                    }
+        ArrayList<ReachLocationObjective> reachedRegions = null;
+        for (final ReachLocationObjective region : regionsInCell) {
+            if (ReachLocationRegionIndex.isInRegion(region, currentLocation)) {
+                if (reachedRegions == null) {
+                    reachedRegions = new ArrayList<>();
                 }
+                reachedRegions.add(region);
+            }
+        }
+        if (reachedRegions == null) {
+            return;
+        }
+
+        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(e.getPlayer().getUniqueId());
+        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+            return;
+        }
+        final ArrayList<ReachLocationObjective> finalReachedRegions = reachedRegions;
+        questPlayer.queueObjectiveCheck(ReachLocationObjective.class, (activeObjective, reachLocationObjective) -> {
+            if (finalReachedRegions.contains(reachLocationObjective)) {
+                activeObjective.addProgress(1);
             }
         });
         questPlayer.checkQueuedObjectives();
@@ -1254,19 +1272,23 @@ public class QuestEvents implements Listener {
 
     @EventHandler
     public void onPlayerSneak(final PlayerToggleSneakEvent e) {
+        if (!isObjectiveTypeNeeded(SneakObjective.class)) {
+            return;
+        }
         if (!e.isSneaking()) {
             return;
         }
 
-        final Player player = e.getPlayer();
-        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+        handlePlayerSneak(e.getPlayer());
+    }
+
+    private void handlePlayerSneak(final Player player) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handlePlayerSneak(player));
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof SneakObjective) {
-                activeObjective.addProgress(1);
-            }
+        questPlayer.queueObjectiveCheck(SneakObjective.class, (activeObjective, sneakObjective) -> {
+            activeObjective.addProgress(1);
         });
         questPlayer.checkQueuedObjectives();
 
@@ -1276,6 +1298,11 @@ public class QuestEvents implements Listener {
 
     @EventHandler
     private void onDisconnectEvent(PlayerQuitEvent e) { //Disconnect objectives
+        main.getObjectiveManager().getReachLocationRegionIndex().forgetPlayer(e.getPlayer().getUniqueId());
+        if (main.getConversationManager() != null) {
+            main.getConversationManager().removeChatHistory(e.getPlayer().getUniqueId());
+        }
+        playerUpdateScheduler.removePlayer(e.getPlayer().getUniqueId());
         if(main.getConfiguration().isSavePlayerDataOnQuit()){
             if (Bukkit.isPrimaryThread()) {
                 Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
@@ -1306,16 +1333,12 @@ public class QuestEvents implements Listener {
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent e) {
+        playerUpdateScheduler.addPlayer(e.getPlayer().getUniqueId());
         if(main.getConfiguration().isLoadPlayerDataOnJoin()){
-            if (Bukkit.isPrimaryThread()) {
-                Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
-                    main.getQuestPlayerManager().loadSinglePlayerData(e.getPlayer().getUniqueId());
-                });
-            }else{
-                main.getQuestPlayerManager().loadSinglePlayerData(e.getPlayer().getUniqueId());
-            }
+            //Loaded on the player data loading threads and published on the main thread. Events until then are buffered
+            main.getQuestPlayerManager().loadSinglePlayerDataAsync(e.getPlayer().getUniqueId());
 
-            //no need to call onJoin here as it's called by loadSinglePlayerData automatically
+            //no need to call onJoin here as it's called by loadSinglePlayerDataAsync automatically
         }else{
             final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(e.getPlayer().getUniqueId());
 
@@ -1359,6 +1382,10 @@ public class QuestEvents implements Listener {
             }
         }
 
+        //The chat history is only needed to send it again after conversations
+        if(main.getConversationManager() == null || !main.getConfiguration().deletePreviousConversations){
+            return;
+        }
 
         for(final Audience audience : e.viewers()){
             if(audience instanceof final Player playerViewer){
@@ -1369,24 +1396,14 @@ public class QuestEvents implements Listener {
                     audience
                 );
 
-                final ArrayList<Component> convHist = main.getConversationManager().getConversationChatHistory().get(playerViewer.getUniqueId());
-                if (convHist != null && convHist.contains(adventureComponent)) {
+                final ChatHistory chatHistory = main.getConversationManager().getChatHistory(playerViewer.getUniqueId());
+                //The message was rendered just now, so it can only be equal to a conversation message, not the same
+                if (chatHistory.isEqualToConversationMessage(adventureComponent)) {
                     return;
                 }
 
-                final ArrayList<Component> hist = main.getConversationManager().getChatHistory().getOrDefault(playerViewer.getUniqueId(), new ArrayList<>());
-                hist.add(adventureComponent);
-
                 //main.getLogManager().debug("Registering chat message with Message: " + PlainTextComponentSerializer.plainText().serialize(adventureComponent));
-                final int toRemove = hist.size() - main.getConversationManager().getMaxChatHistory();
-                if (toRemove > 0) {
-                    //main.getLogManager().log(Level.WARNING, "ToRemove: " + i);
-                    hist.subList(0, toRemove).clear();
-                }
-                //main.getLogManager().log(Level.WARNING, "After: " + hist.size());
-
-
-                main.getConversationManager().getChatHistory().put(playerViewer.getUniqueId(), hist);
+                chatHistory.add(adventureComponent);
             }
         }
 
@@ -1397,54 +1414,66 @@ public class QuestEvents implements Listener {
 
     @EventHandler(ignoreCancelled = true)
     public void onShearSheep(final PlayerShearEntityEvent e) {
+        if (!isObjectiveTypeNeeded(ShearSheepObjective.class)) {
+            return;
+        }
         if (e.getEntity() instanceof Sheep) {
-            final Player player = e.getPlayer();
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
-                return;
-            }
-            questPlayer.queueObjectiveCheck(activeObjective -> {
-                if (activeObjective.getObjective() instanceof final ShearSheepObjective shearSheepObjective) {
-                    activeObjective.addProgress(1);
-                    if(shearSheepObjective.isCancelShearing()){
-                        e.setCancelled(true);
-                    }
-                }
-            });
-            questPlayer.checkQueuedObjectives();
+            handleShearSheep(e.getPlayer(), e);
+        }
+    }
+
+    /**
+     * @param event the event, so the shearing can be cancelled. Null if it's handled after the event has finished (because the player data was still loading).
+     *              Objectives which would cancel the shearing are skipped then
+     */
+    private void handleShearSheep(final Player player, final @Nullable PlayerShearEntityEvent event) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleShearSheep(player, null));
+        if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
+            return;
         }
+        questPlayer.queueObjectiveCheck(ShearSheepObjective.class, (activeObjective, shearSheepObjective) -> {
+            if(shearSheepObjective.isCancelShearing()){
+                if (event == null) {
+                    return;
+                }
+                event.setCancelled(true);
+            }
+            activeObjective.addProgress(1);
+        });
+        questPlayer.checkQueuedObjectives();
     }
 
 
     // Enchants
     @EventHandler
     public void onEnchantItem(final EnchantItemEvent e) {
-        final Player player = e.getEnchanter();
-        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+        if (!isObjectiveTypeNeeded(EnchantObjective.class)) {
+            return;
+        }
+        handleEnchantItem(e.getEnchanter(), e.getItem().clone(), Map.copyOf(e.getEnchantsToAdd()));
+    }
+
+    private void handleEnchantItem(final Player player, final ItemStack item, final Map<Enchantment, Integer> enchantments) {
+        final QuestPlayer questPlayer = getActiveQuestPlayerOrBuffer(player.getUniqueId(), () -> handleEnchantItem(player, item, enchantments));
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final EnchantObjective enchantObjective) {
-                final ItemStack item = e.getItem();
-                final Map<Enchantment, Integer> enchantments = e.getEnchantsToAdd();
+        questPlayer.queueObjectiveCheck(EnchantObjective.class, (activeObjective, enchantObjective) -> {
 
-                if(!enchantObjective.getItemStackSelection().checkIfIsIncluded(item)) {
-                    return;
-                }
+            if(!enchantObjective.getItemStackSelection().checkIfIsIncluded(item)) {
+                return;
+            }
 
 
-                for (final Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
-                    final Enchantment enchantment = entry.getKey();
-                    final int level = entry.getValue();
-                    if (enchantObjective.getEnchantment().equalsIgnoreCase(enchantment.getKey().getKey())) {
-                        if (enchantObjective.getMinLevel() <= level && enchantObjective.getMaxLevel() >= level) {
-                            activeObjective.addProgress(1);
-                            return;
-                        }
+            for (final Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+                final Enchantment enchantment = entry.getKey();
+                final int level = entry.getValue();
+                if (enchantObjective.getEnchantment().equalsIgnoreCase(enchantment.getKey().getKey())) {
+                    if (enchantObjective.getMinLevel() <= level && enchantObjective.getMaxLevel() >= level) {
+                        activeObjective.addProgress(1);
+                        return;
                     }
                 }
-
             }
         });
         questPlayer.checkQueuedObjectives();
@@ -40,16 +40,13 @@ public class BetonQuestEvents implements Listener {
         if (questPlayer == null || questPlayer.getActiveQuests().isEmpty()) {
             return;
         }
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final BetonQuestObjectiveStateChangeObjective betonQuestObjectiveStateChangeObjective) {
-                if (activeObjective.isUnlocked()) {
-                    if(e.getState() == betonQuestObjectiveStateChangeObjective.getObjectiveState()){
-                        if(e.getObjectiveID().getFullID().equalsIgnoreCase(betonQuestObjectiveStateChangeObjective.getObjectiveFullID())){
-                            activeObjective.addProgress(1);
-                        }
+        questPlayer.queueObjectiveCheck(BetonQuestObjectiveStateChangeObjective.class, (activeObjective, betonQuestObjectiveStateChangeObjective) -> {
+            if (activeObjective.isUnlocked()) {
+                if(e.getState() == betonQuestObjectiveStateChangeObjective.getObjectiveState()){
+                    if(e.getObjectiveID().getFullID().equalsIgnoreCase(betonQuestObjectiveStateChangeObjective.getObjectiveFullID())){
+                        activeObjective.addProgress(1);
                     }
                 }
-
             }
         });
         questPlayer.checkQueuedObjectives();
@@ -150,96 +150,90 @@ public class CitizensEvents implements Listener {
         final AtomicBoolean handledObjective = new AtomicBoolean(false);
         questPlayer.sendDebugMessage("Right-clicked NPC event: " + npc.getId() + "." );
 
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final DeliverItemsObjective deliverItemsObjective) {
-                if (nqNPC.equals(deliverItemsObjective.getRecipientNPC())) {
-                    for (final ItemStack itemStack : player.getInventory().getContents()) {
-                        if (itemStack != null) {
-                            if(!deliverItemsObjective.getItemStackSelection().checkIfIsIncluded(itemStack)){
-                                continue;
-                            }
+        questPlayer.queueObjectiveCheck(DeliverItemsObjective.class, (activeObjective, deliverItemsObjective) -> {
+            if (nqNPC.equals(deliverItemsObjective.getRecipientNPC())) {
+                for (final ItemStack itemStack : player.getInventory().getContents()) {
+                    if (itemStack != null) {
+                        if(!deliverItemsObjective.getItemStackSelection().checkIfIsIncluded(itemStack)){
+                            continue;
+                        }
 
-                            final double progressLeft = activeObjective.getProgressNeeded() - activeObjective.getCurrentProgress();
+                        final double progressLeft = activeObjective.getProgressNeeded() - activeObjective.getCurrentProgress();
 
-                            if (progressLeft == 0) {
-                                continue;
-                            }
+                        if (progressLeft == 0) {
+                            continue;
+                        }
 
-                            handledObjective.set(true);
+                        handledObjective.set(true);
 
-                            final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npc.getName().replace("§","&")));
+                        final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npc.getName().replace("§","&")));
 
-                            if (progressLeft < itemStack.getAmount()) { //We can finish it with this itemStack
-                                itemStack.setAmount((itemStack.getAmount() - (int) progressLeft));
-                                activeObjective.addProgress(progressLeft, nqNPC);
+                        if (progressLeft < itemStack.getAmount()) { //We can finish it with this itemStack
+                            itemStack.setAmount((itemStack.getAmount() - (int) progressLeft));
+                            activeObjective.addProgress(progressLeft, nqNPC);
 
 
 
-                                player.sendMessage(main.parse(
-                                    "<GREEN>You have delivered <highlight>" + progressLeft + "</highlight> items to <highlight>" + mmNpcName
-                                ));
-                                break;
-                            } else {
-                                questPlayer.sendDebugMessage("Calling player.getInventory().removeItemAnySlot with amount " + itemStack.getAmount() + "...");
-                                player.getInventory().removeItemAnySlot(itemStack);
-                                activeObjective.addProgress(itemStack.getAmount(), nqNPC);
-                                player.sendMessage(main.parse(
-                                    "<GREEN>You have delivered <highlight>" + itemStack.getAmount() + "</highlight> items to <highlight>" + mmNpcName
-                                ));
-                            }
+                            player.sendMessage(main.parse(
+                                "<GREEN>You have delivered <highlight>" + progressLeft + "</highlight> items to <highlight>" + mmNpcName
+                            ));
+                            break;
+                        } else {
+                            questPlayer.sendDebugMessage("Calling player.getInventory().removeItemAnySlot with amount " + itemStack.getAmount() + "...");
+                            player.getInventory().removeItemAnySlot(itemStack);
+                            activeObjective.addProgress(itemStack.getAmount(), nqNPC);
+                            player.sendMessage(main.parse(
+                                "<GREEN>You have delivered <highlight>" + itemStack.getAmount() + "</highlight> items to <highlight>" + mmNpcName
+                            ));
                         }
-
                     }
-                    player.updateInventory();
+
                 }
+                player.updateInventory();
             }
         });
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final TalkToNPCObjective talkToNPCObjective) {
-                if (nqNPC.equals(talkToNPCObjective.getNPCtoTalkTo())) {
-                    activeObjective.addProgress(1, nqNPC);
-                    final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npc.getName().replace("§","&")));
-
-                    player.sendMessage(main.parse(
-                        "<GREEN>You talked to <highlight>" +mmNpcName
-                    ));
-                    handledObjective.set(true);
-                }
+        questPlayer.queueObjectiveCheck(TalkToNPCObjective.class, (activeObjective, talkToNPCObjective) -> {
+            if (nqNPC.equals(talkToNPCObjective.getNPCtoTalkTo())) {
+                activeObjective.addProgress(1, nqNPC);
+                final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npc.getName().replace("§","&")));
+
+                player.sendMessage(main.parse(
+                    "<GREEN>You talked to <highlight>" +mmNpcName
+                ));
+                handledObjective.set(true);
             }
         });
-        questPlayer.queueObjectiveCheck(activeObjective -> {
-            if (activeObjective.getObjective() instanceof final EscortNPCObjective escortNPCObjective) {
-                if (escortNPCObjective.getNpcToEscortToID() == npc.getId()) {
-                    final NPC npcToEscort = CitizensAPI.getNPCRegistry().getById(escortNPCObjective.getNpcToEscortID());
-                    if (npcToEscort != null) {
-                        if (npcToEscort.isSpawned() && (npcToEscort.getEntity().getLocation().distance(player.getLocation()) < 6)) {
-                            activeObjective.addProgress(1, nqNPC);
-                            final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npcToEscort.getName()));
-
-                            player.sendMessage(main.parse(
-                                "<GREEN>You have successfully delivered the NPC <highlight>" + mmNpcName
-                            ));
-                            handledObjective.set(true);
-                            FollowTrait followerTrait = null;
-                            for (final Trait trait : npcToEscort.getTraits()) {
-                                if (trait.getName().toLowerCase(Locale.ROOT).contains("follow")) {
-                                    followerTrait = (FollowTrait) trait;
-                                }
-                            }
-                            if (followerTrait != null) {
-                                npc.removeTrait(followerTrait.getClass());
+        questPlayer.queueObjectiveCheck(EscortNPCObjective.class, (activeObjective, escortNPCObjective) -> {
+            if (escortNPCObjective.getNpcToEscortToID() == npc.getId()) {
+                final NPC npcToEscort = CitizensAPI.getNPCRegistry().getById(escortNPCObjective.getNpcToEscortID());
+                if (npcToEscort != null) {
+                    if (npcToEscort.isSpawned() && (npcToEscort.getEntity().getLocation().distance(player.getLocation()) < 6)) {
+                        activeObjective.addProgress(1, nqNPC);
+                        final String mmNpcName = main.getMiniMessage().serialize(LegacyComponentSerializer.legacyAmpersand().deserialize(npcToEscort.getName()));
+
+                        player.sendMessage(main.parse(
+                            "<GREEN>You have successfully delivered the NPC <highlight>" + mmNpcName
+                        ));
+                        handledObjective.set(true);
+                        FollowTrait followerTrait = null;
+                        for (final Trait trait : npcToEscort.getTraits()) {
+                            if (trait.getName().toLowerCase(Locale.ROOT).contains("follow")) {
+                                followerTrait = (FollowTrait) trait;
                             }
-
-                            npcToEscort.despawn();
-                        } else {
-                            player.sendMessage(main.parse(
-                                "<RED>The NPC you have to escort is not close enough to you!"
-                            ));
                         }
+                        if (followerTrait != null) {
+                            npc.removeTrait(followerTrait.getClass());
+                        }
+
+                        npcToEscort.despawn();
+                    } else {
+                        player.sendMessage(main.parse(
+                            "<RED>The NPC you have to escort is not close enough to you!"
+                        ));
                     }
+                }
 
 
-                }
             }
         });
         questPlayer.queueObjectiveCheck(activeObjective -> {
@@ -20,7 +20,10 @@ package rocks.gravili.notquests.paper.managers;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import org.bukkit.configuration.ConfigurationSection;
 import org.jetbrains.annotations.NotNull;
 import rocks.gravili.notquests.paper.NotQuests;
@@ -31,13 +34,20 @@ import rocks.gravili.notquests.paper.structs.conditions.Condition;
 public class ActionsYMLManager {
   private final NotQuests main;
   private final HashMap<String, Action> actionsAndIdentifiers;
+  //Case-insensitive index of the actions above, so lookups don't depend on how the action name is written
+  private final HashMap<String, Action> actionsByLowercaseIdentifier;
+  private final Map<String, Action> actionsAndIdentifiersView;
 
   public ActionsYMLManager(final NotQuests main) {
     this.main = main;
     actionsAndIdentifiers = new HashMap<>();
+    actionsByLowercaseIdentifier = new HashMap<>();
+    actionsAndIdentifiersView = Collections.unmodifiableMap(actionsAndIdentifiers);
   }
 
   public void loadActions() {
+    actionsAndIdentifiers.clear();
+    actionsByLowercaseIdentifier.clear();
     final ArrayList<String> categoriesStringList = new ArrayList<>();
     for (final Category category : main.getDataManager().getCategories()) {
       categoriesStringList.add(category.getCategoryFullName());
@@ -47,11 +57,15 @@ public class ActionsYMLManager {
             "Scheduled Actions Data load for following categories: <highlight>"
                 + categoriesStringList + "</highlight>...");
 
+    final long startTime = System.nanoTime();
     for (final Category category : main.getDataManager().getCategories()) {
       main.getLogManager()
               .info("Loading actions for category <highlight>" + category.getCategoryFullName());
+      final long categoryStartTime = System.nanoTime();
       loadActions(category);
+      main.getDataManager().getLoadingTimings().recordCategory(category, "Actions", System.nanoTime() - categoryStartTime);
     }
+    main.getDataManager().getLoadingTimings().recordPhase("Actions", System.nanoTime() - startTime);
   }
 
   public void loadActions(final Category category) {
@@ -116,7 +130,7 @@ public class ActionsYMLManager {
 
         loadActionConditions(action);
 
-        actionsAndIdentifiers.put(actionIdentifier, action);
+        indexAction(actionIdentifier, action);
       }
     }
   }
@@ -203,12 +217,42 @@ public class ActionsYMLManager {
       return actionsConfig;
   }*/
 
-  public final HashMap<String, Action> getActionsAndIdentifiers() {
-    return actionsAndIdentifiers;
+  /**
+   * @return an unmodifiable view of all actions and their identifiers
+   */
+  public final Map<String, Action> getActionsAndIdentifiers() {
+    return actionsAndIdentifiersView;
   }
 
+  /**
+   * @param actionIdentifier name of the action. Case-insensitive, but an exact match is preferred
+   */
   public final Action getAction(final @NotNull String actionIdentifier) {
-    return actionsAndIdentifiers.get(actionIdentifier);
+    final Action action = actionsAndIdentifiers.get(actionIdentifier);
+    if (action != null) {
+      return action;
+    }
+    return actionsByLowercaseIdentifier.get(actionIdentifier.toLowerCase(Locale.ROOT));
+  }
+
+  private void indexAction(final String actionIdentifier, final Action action) {
+    actionsAndIdentifiers.put(actionIdentifier, action);
+    actionsByLowercaseIdentifier.putIfAbsent(actionIdentifier.toLowerCase(Locale.ROOT), action);
+  }
+
+  private void unindexAction(final String actionIdentifier) {
+    final Action removedAction = actionsAndIdentifiers.remove(actionIdentifier);
+    final String lowercaseActionIdentifier = actionIdentifier.toLowerCase(Locale.ROOT);
+    if (removedAction != null && actionsByLowercaseIdentifier.get(lowercaseActionIdentifier) == removedAction) {
+      actionsByLowercaseIdentifier.remove(lowercaseActionIdentifier);
+      //Another action might only differ in case
+      for (final Map.Entry<String, Action> entry : actionsAndIdentifiers.entrySet()) {
+        if (entry.getKey().toLowerCase(Locale.ROOT).equals(lowercaseActionIdentifier)) {
+          actionsByLowercaseIdentifier.put(lowercaseActionIdentifier, entry.getValue());
+          break;
+        }
+      }
+    }
   }
 
   public final String addAction(final String actionIdentifier, final Action action) {
@@ -222,7 +266,7 @@ public class ActionsYMLManager {
     }
 
     if (!nameAlreadyExists) {
-      actionsAndIdentifiers.put(actionIdentifier, action);
+      indexAction(actionIdentifier, action);
 
       action
           .getCategory()
@@ -263,7 +307,7 @@ public class ActionsYMLManager {
         .getActionsConfig()
         .set("actions." + actionToDeleteIdentifier, null);
     saveActions(actionsAndIdentifiers.get(actionToDeleteIdentifier).getCategory());
-    actionsAndIdentifiers.remove(actionToDeleteIdentifier);
+    unindexAction(actionToDeleteIdentifier);
 
     return "<success>Action <highlight>"
         + actionToDeleteIdentifier
@@ -276,7 +320,7 @@ public class ActionsYMLManager {
         .getActionsConfig()
         .set("actions." + actionToDelete.getActionName(), null);
     saveActions(actionToDelete.getCategory());
-    actionsAndIdentifiers.remove(actionToDelete.getActionName());
+    unindexAction(actionToDelete.getActionName());
 
     return "<success>Action <highlight>"
         + actionToDelete.getActionName()
@@ -18,28 +18,58 @@
 
 package rocks.gravili.notquests.paper.managers;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.UUID;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
+import org.bukkit.Particle;
 import org.bukkit.World;
 import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.scheduler.BukkitTask;
 import rocks.gravili.notquests.paper.NotQuests;
 
+/**
+ * Keeps track of all loaded Armor Stands with quests or conversations attached to them, grouped by the chunk they were loaded in,
+ * and spawns the quest giver indicator particles above them.
+ * Armor Stands are added and removed as their entities are loaded and unloaded, so the loaded worlds never have to be scanned as a whole.
+ * Only accessed from the main thread.
+ */
 public class ArmorStandManager {
+    //Amount of already loaded chunks which are scanned for Armor Stands per tick after the plugin has been enabled
+    private static final int CHUNKS_SCANNED_PER_TICK = 32;
+
     final NamespacedKey attachedConversationKey;
     private final NotQuests main;
     private final NamespacedKey attachedQuestsShowingKey;
     private final NamespacedKey attachedQuestsNonShowingKey;
-    private final ArrayList<ArmorStand> armorStandsWithQuestsOrConversationAttachedToThem;
+
+    //World UID => chunk key => Armor Stands in that chunk
+    private final HashMap<UUID, HashMap<Long, TrackedChunk>> armorStandsByChunk;
+    //Armor Stand UUID => chunk it is tracked in
+    private final HashMap<UUID, TrackedChunk> trackedArmorStands;
+
+    //Chunks which were already loaded when the plugin was enabled, and haven't been scanned yet
+    private final ArrayDeque<Chunk> chunksToScan;
+    private BukkitTask chunkScanTask;
+
+    //Index of the visible chunk the next particle run starts with
+    private int particleChunkCursor;
 
     public ArmorStandManager(NotQuests main) {
         this.main = main;
-        armorStandsWithQuestsOrConversationAttachedToThem = new ArrayList<>();
+        armorStandsByChunk = new HashMap<>();
+        trackedArmorStands = new HashMap<>();
+        chunksToScan = new ArrayDeque<>();
         attachedQuestsShowingKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-showing");
         attachedQuestsNonShowingKey = new NamespacedKey(main.getMain(), "notquests-attachedQuests-nonshowing");
         attachedConversationKey = new NamespacedKey(main.getMain(), "notquests-attachedConversation");
@@ -61,60 +91,224 @@ public class ArmorStandManager {
         return attachedQuestsNonShowingKey;
     }
 
+    public final boolean hasQuestsOrConversationAttached(final ArmorStand armorStand) {
+        final PersistentDataContainer armorStandPDB = armorStand.getPersistentDataContainer();
+        return armorStandPDB.has(attachedQuestsShowingKey, PersistentDataType.STRING)
+                || armorStandPDB.has(attachedQuestsNonShowingKey, PersistentDataType.STRING)
+                || armorStandPDB.has(attachedConversationKey, PersistentDataType.STRING);
+    }
+
     public void addArmorStandWithQuestsOrConversationAttachedToThem(final ArmorStand armorStand) {
-        this.armorStandsWithQuestsOrConversationAttachedToThem.add(armorStand);
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(main.getMain(), () -> addArmorStandWithQuestsOrConversationAttachedToThem(armorStand));
+            return;
+        }
+        final Location location = armorStand.getLocation();
+        final int chunkX = location.getBlockX() >> 4;
+        final int chunkZ = location.getBlockZ() >> 4;
+        final long chunkKey = Chunk.getChunkKey(chunkX, chunkZ);
+
+        final TrackedChunk oldTrackedChunk = trackedArmorStands.get(armorStand.getUniqueId());
+        if (oldTrackedChunk != null) {
+            if (oldTrackedChunk.worldUID.equals(armorStand.getWorld().getUID()) && oldTrackedChunk.chunkKey == chunkKey) {
+                //Replace it, in case it's a new entity object for the same Armor Stand
+                oldTrackedChunk.armorStands.put(armorStand.getUniqueId(), armorStand);
+                return;
+            }
+            removeArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
+        }
+
+        final TrackedChunk trackedChunk = armorStandsByChunk
+                .computeIfAbsent(armorStand.getWorld().getUID(), k -> new HashMap<>())
+                .computeIfAbsent(chunkKey, k -> new TrackedChunk(armorStand.getWorld().getUID(), chunkKey, chunkX, chunkZ));
+        trackedChunk.armorStands.put(armorStand.getUniqueId(), armorStand);
+        trackedArmorStands.put(armorStand.getUniqueId(), trackedChunk);
     }
 
     public void removeArmorStandWithQuestsOrConversationAttachedToThem(final ArmorStand armorStand) {
-        this.armorStandsWithQuestsOrConversationAttachedToThem.remove(armorStand);
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(main.getMain(), () -> removeArmorStandWithQuestsOrConversationAttachedToThem(armorStand));
+            return;
+        }
+        final TrackedChunk trackedChunk = trackedArmorStands.remove(armorStand.getUniqueId());
+        if (trackedChunk == null) {
+            return;
+        }
+        trackedChunk.armorStands.remove(armorStand.getUniqueId());
+        if (trackedChunk.armorStands.isEmpty()) {
+            final HashMap<Long, TrackedChunk> trackedChunks = armorStandsByChunk.get(trackedChunk.worldUID);
+            if (trackedChunks != null) {
+                trackedChunks.remove(trackedChunk.chunkKey);
+                if (trackedChunks.isEmpty()) {
+                    armorStandsByChunk.remove(trackedChunk.worldUID);
+                }
+            }
+        }
     }
 
-    public void loadAllArmorStandsFromLoadedChunks() {
-        for (final World world : Bukkit.getWorlds()) {
-            for (LivingEntity entity : world.getLivingEntities()) {
-                if (entity instanceof final ArmorStand armorStand) {
-                    final PersistentDataContainer armorStandPDB = armorStand.getPersistentDataContainer();
+    /**
+     * Adds all Armor Stands with quests or conversations attached to them from the entities which have just been loaded
+     */
+    public void addLoadedEntities(final List<Entity> entities) {
+        for (final Entity entity : entities) {
+            if (entity instanceof final ArmorStand armorStand && hasQuestsOrConversationAttached(armorStand)) {
+                addArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
+            }
+        }
+    }
 
-                    boolean hasShowingQuestsPDBKey = false;
-                    boolean hasNonShowingQuestsPDBKey = false;
-                    boolean hasConversationPDBKey = false;
+    /**
+     * Removes the unloaded entities. Armor Stands which are not tracked are skipped, so their PDB doesn't need to be read.
+     */
+    public void removeUnloadedEntities(final List<Entity> entities) {
+        if (trackedArmorStands.isEmpty()) {
+            return;
+        }
+        for (final Entity entity : entities) {
+            if (entity instanceof final ArmorStand armorStand && trackedArmorStands.containsKey(armorStand.getUniqueId())) {
+                removeArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
+            }
+        }
+    }
 
-                    if (armorStandPDB.has(main.getArmorStandManager().getAttachedQuestsShowingKey(), PersistentDataType.STRING)) {
-                        hasShowingQuestsPDBKey = true;
-                    }
-                    if (armorStandPDB.has(main.getArmorStandManager().getAttachedQuestsNonShowingKey(), PersistentDataType.STRING)) {
-                        hasNonShowingQuestsPDBKey = true;
-                    }
-                    if (armorStandPDB.has(main.getArmorStandManager().getAttachedConversationKey(), PersistentDataType.STRING)) {
-                        hasConversationPDBKey = true;
-                    }
+    /**
+     * Entities which are loaded from now on are added through the EntitiesLoadEvent. The chunks which are already loaded
+     * (e.g. spawn chunks, or all chunks if the plugin is enabled while the server is running) are scanned a few chunks per tick.
+     */
+    public void loadAllArmorStandsFromLoadedChunks() {
+        if (!main.getConfiguration().isArmorStandQuestGiverIndicatorParticleEnabled()) {
+            return;
+        }
+        for (final World world : Bukkit.getWorlds()) {
+            chunksToScan.addAll(List.of(world.getLoadedChunks()));
+        }
+        if (chunkScanTask == null && !chunksToScan.isEmpty()) {
+            chunkScanTask = Bukkit.getScheduler().runTaskTimer(main.getMain(), this::scanLoadedChunks, 1L, 1L);
+        }
+    }
 
-                    if (hasShowingQuestsPDBKey || hasNonShowingQuestsPDBKey || hasConversationPDBKey) {
-                        main.getArmorStandManager().addArmorStandWithQuestsOrConversationAttachedToThem(armorStand);
-                    }
-                }
+    private void scanLoadedChunks() {
+        for (int i = 0; i < CHUNKS_SCANNED_PER_TICK && !chunksToScan.isEmpty(); i++) {
+            final Chunk chunk = chunksToScan.poll();
+            //If its entities are not loaded yet (or anymore), they are handled by the EntitiesLoadEvent
+            if (chunk.isLoaded() && chunk.isEntitiesLoaded()) {
+                addLoadedEntities(List.of(chunk.getEntities()));
             }
         }
+        if (chunksToScan.isEmpty()) {
+            chunkScanTask.cancel();
+            chunkScanTask = null;
+        }
+    }
+
+    public final int getTrackedArmorStandsAmount() {
+        return trackedArmorStands.size();
     }
 
 
     public void startQuestGiverIndicatorParticleRunnable() {
-        Bukkit.getServer().getScheduler().runTaskTimerAsynchronously(main.getMain(), () -> {
+        Bukkit.getServer().getScheduler().runTaskTimer(main.getMain(), this::spawnQuestGiverIndicatorParticles,
+                main.getConfiguration().getArmorStandQuestGiverIndicatorParticleSpawnInterval(),
+                main.getConfiguration().getArmorStandQuestGiverIndicatorParticleSpawnInterval()
+        );
+    }
 
-            //Disable if Server TPS is too low
-            double minimumTPS = main.getConfiguration().getArmorStandQuestGiverIndicatorParticleDisableIfTPSBelow();
-            if (minimumTPS >= 0) {
-                if (main.getPerformanceManager().getTPS() < minimumTPS) {
-                    return;
+    /**
+     * Sends the particles to all players who have an Armor Stand with quests or conversations attached to them within their view distance.
+     * Only the chunks with players nearby are collected first, so Armor Stands in other chunks are never touched. If the per-run limit is reached,
+     * the next run continues with the chunk where this one stopped, so Armor Stands in later chunks aren't starved.
+     */
+    private void spawnQuestGiverIndicatorParticles() {
+        if (armorStandsByChunk.isEmpty()) {
+            return;
+        }
+
+        //Disable if Server TPS is too low
+        double minimumTPS = main.getConfiguration().getArmorStandQuestGiverIndicatorParticleDisableIfTPSBelow();
+        if (minimumTPS >= 0) {
+            if (main.getPerformanceManager().getTPS() < minimumTPS) {
+                return;
+            }
+        }
+
+        final ArrayList<VisibleChunk> visibleChunks = new ArrayList<>();
+        for (final World world : Bukkit.getWorlds()) {
+            final HashMap<Long, TrackedChunk> trackedChunks = armorStandsByChunk.get(world.getUID());
+            if (trackedChunks == null) {
+                continue;
+            }
+            final List<Player> players = world.getPlayers();
+            if (players.isEmpty()) {
+                continue;
+            }
+
+            final int[] playerChunkX = new int[players.size()];
+            final int[] playerChunkZ = new int[players.size()];
+            final int[] playerViewDistance = new int[players.size()];
+            for (int i = 0; i < players.size(); i++) {
+                final Location playerLocation = players.get(i).getLocation();
+                playerChunkX[i] = playerLocation.getBlockX() >> 4;
+                playerChunkZ[i] = playerLocation.getBlockZ() >> 4;
+                playerViewDistance[i] = players.get(i).getViewDistance();
+            }
+
+            for (final TrackedChunk trackedChunk : trackedChunks.values()) {
+                ArrayList<Player> viewers = null;
+                for (int i = 0; i < players.size(); i++) {
+                    if (Math.abs(playerChunkX[i] - trackedChunk.chunkX) > playerViewDistance[i]
+                            || Math.abs(playerChunkZ[i] - trackedChunk.chunkZ) > playerViewDistance[i]) {
+                        continue;
+                    }
+                    if (viewers == null) {
+                        viewers = new ArrayList<>(2);
+                    }
+                    viewers.add(players.get(i));
+                }
+                if (viewers != null) {
+                    visibleChunks.add(new VisibleChunk(trackedChunk, viewers));
                 }
             }
+        }
+        if (visibleChunks.isEmpty()) {
+            return;
+        }
+
+        final Particle particle = main.getConfiguration().getArmorStandQuestGiverIndicatorParticleType();
+        final int particleCount = main.getConfiguration().getArmorStandQuestGiverIndicatorParticleCount();
+        final int maxParticlesPerRun = main.getConfiguration().getArmorStandQuestGiverIndicatorParticleMaxPerRun();
+        int sentParticles = 0;
 
-            for (final ArmorStand armorStand : armorStandsWithQuestsOrConversationAttachedToThem) {
+        final int firstChunk = particleChunkCursor % visibleChunks.size();
+        for (int chunkIndex = 0; chunkIndex < visibleChunks.size(); chunkIndex++) {
+            final int visibleChunkIndex = (firstChunk + chunkIndex) % visibleChunks.size();
+            final VisibleChunk visibleChunk = visibleChunks.get(visibleChunkIndex);
+            for (final ArmorStand armorStand : visibleChunk.trackedChunk().armorStands.values()) {
+                if (maxParticlesPerRun > 0 && sentParticles >= maxParticlesPerRun) {
+                    //Continue with this chunk next run
+                    particleChunkCursor = visibleChunkIndex;
+                    return;
+                }
+                if (!armorStand.isValid()) {
+                    continue;
+                }
                 final Location location = armorStand.getLocation();
-                armorStand.getWorld().spawnParticle(main.getConfiguration().getArmorStandQuestGiverIndicatorParticleType(), location.getX() - 0.25 + (Math.random() / 2), location.getY() + 1.75 + (Math.random() / 2), location.getZ() - 0.25 + (Math.random() / 2), main.getConfiguration().getArmorStandQuestGiverIndicatorParticleCount());
+                //The same position for all players
+                final double x = location.getX() - 0.25 + (Math.random() / 2);
+                final double y = location.getY() + 1.75 + (Math.random() / 2);
+                final double z = location.getZ() - 0.25 + (Math.random() / 2);
 
+                for (final Player player : visibleChunk.viewers()) {
+                    if (maxParticlesPerRun > 0 && sentParticles >= maxParticlesPerRun) {
+                        particleChunkCursor = visibleChunkIndex;
+                        return;
+                    }
+                    //Only sent to that player, instead of to every player who is tracking that location
+                    player.spawnParticle(particle, x, y, z, particleCount);
+                    sentParticles++;
+                }
             }
-        }, main.getConfiguration().getArmorStandQuestGiverIndicatorParticleSpawnInterval(), main.getConfiguration().getArmorStandQuestGiverIndicatorParticleSpawnInterval());
+        }
+        particleChunkCursor = firstChunk;
     }
 
     public final String getArmorStandName(final UUID armorStandUUID) {
@@ -128,4 +322,28 @@ public class ArmorStandManager {
     public final String getArmorStandName(final ArmorStand armorStand) {
         return armorStand.getName();
     }
+
+    /**
+     * The Armor Stands which were in a chunk when they were added. Armor Stands rarely move, so they are not re-indexed when they do.
+     */
+    private static final class TrackedChunk {
+        private final UUID worldUID;
+        private final long chunkKey;
+        private final int chunkX;
+        private final int chunkZ;
+        private final LinkedHashMap<UUID, ArmorStand> armorStands = new LinkedHashMap<>();
+
+        private TrackedChunk(final UUID worldUID, final long chunkKey, final int chunkX, final int chunkZ) {
+            this.worldUID = worldUID;
+            this.chunkKey = chunkKey;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+    }
+
+    /**
+     * A tracked chunk and the players who have it within their view distance during one particle run.
+     */
+    private record VisibleChunk(TrackedChunk trackedChunk, List<Player> viewers) {
+    }
 }
@@ -19,7 +19,10 @@
 package rocks.gravili.notquests.paper.managers;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import org.bukkit.configuration.ConfigurationSection;
 import org.jetbrains.annotations.NotNull;
 import rocks.gravili.notquests.paper.NotQuests;
@@ -29,16 +32,27 @@ import rocks.gravili.notquests.paper.structs.conditions.Condition;
 public class ConditionsYMLManager {
   private final NotQuests main;
   private final HashMap<String, Condition> conditionsAndIdentifiers;
+  //Case-insensitive index of the conditions above, so lookups don't depend on how the condition name is written
+  private final HashMap<String, Condition> conditionsByLowercaseIdentifier;
+  private final Map<String, Condition> conditionsAndIdentifiersView;
 
   public ConditionsYMLManager(final NotQuests main) {
     this.main = main;
     conditionsAndIdentifiers = new HashMap<>();
+    conditionsByLowercaseIdentifier = new HashMap<>();
+    conditionsAndIdentifiersView = Collections.unmodifiableMap(conditionsAndIdentifiers);
   }
 
   public void loadConditions() {
+    conditionsAndIdentifiers.clear();
+    conditionsByLowercaseIdentifier.clear();
+    final long startTime = System.nanoTime();
     for (final Category category : main.getDataManager().getCategories()) {
+      final long categoryStartTime = System.nanoTime();
       loadConditions(category);
+      main.getDataManager().getLoadingTimings().recordCategory(category, "Conditions", System.nanoTime() - categoryStartTime);
     }
+    main.getDataManager().getLoadingTimings().recordPhase("Conditions", System.nanoTime() - startTime);
   }
 
   public void loadConditions(final Category category) {
@@ -98,7 +112,7 @@ public class ConditionsYMLManager {
           return;
         }
 
-        conditionsAndIdentifiers.put(conditionIdentifier, condition);
+        indexCondition(conditionIdentifier, condition);
       }
     }
   }
@@ -116,12 +130,42 @@ public class ConditionsYMLManager {
       return conditionsConfig;
   }*/
 
-  public final HashMap<String, Condition> getConditionsAndIdentifiers() {
-    return conditionsAndIdentifiers;
+  /**
+   * @return an unmodifiable view of all conditions and their identifiers
+   */
+  public final Map<String, Condition> getConditionsAndIdentifiers() {
+    return conditionsAndIdentifiersView;
   }
 
+  /**
+   * @param conditionIdentifier name of the condition. Case-insensitive, but an exact match is preferred
+   */
   public final Condition getCondition(final @NotNull String conditionIdentifier) {
-    return conditionsAndIdentifiers.get(conditionIdentifier);
+    final Condition condition = conditionsAndIdentifiers.get(conditionIdentifier);
+    if (condition != null) {
+      return condition;
+    }
+    return conditionsByLowercaseIdentifier.get(conditionIdentifier.toLowerCase(Locale.ROOT));
+  }
+
+  private void indexCondition(final String conditionIdentifier, final Condition condition) {
+    conditionsAndIdentifiers.put(conditionIdentifier, condition);
+    conditionsByLowercaseIdentifier.putIfAbsent(conditionIdentifier.toLowerCase(Locale.ROOT), condition);
+  }
+
+  private void unindexCondition(final String conditionIdentifier) {
+    final Condition removedCondition = conditionsAndIdentifiers.remove(conditionIdentifier);
+    final String lowercaseConditionIdentifier = conditionIdentifier.toLowerCase(Locale.ROOT);
+    if (removedCondition != null && conditionsByLowercaseIdentifier.get(lowercaseConditionIdentifier) == removedCondition) {
+      conditionsByLowercaseIdentifier.remove(lowercaseConditionIdentifier);
+      //Another condition might only differ in case
+      for (final Map.Entry<String, Condition> entry : conditionsAndIdentifiers.entrySet()) {
+        if (entry.getKey().toLowerCase(Locale.ROOT).equals(lowercaseConditionIdentifier)) {
+          conditionsByLowercaseIdentifier.put(lowercaseConditionIdentifier, entry.getValue());
+          break;
+        }
+      }
+    }
   }
 
   public final String addCondition(final String conditionIdentifier, final Condition condition) {
@@ -130,7 +174,7 @@ public class ConditionsYMLManager {
     condition.setConditionName(conditionIdentifier);
 
     if (!nameAlreadyExists) {
-      conditionsAndIdentifiers.put(conditionIdentifier, condition);
+      indexCondition(conditionIdentifier, condition);
 
       condition
           .getCategory()
@@ -179,7 +223,7 @@ public class ConditionsYMLManager {
         .getConditionsConfig()
         .set("conditions." + conditionToDeleteIdentifier, null);
     saveConditions(conditionsAndIdentifiers.get(conditionToDeleteIdentifier).getCategory());
-    conditionsAndIdentifiers.remove(conditionToDeleteIdentifier);
+    unindexCondition(conditionToDeleteIdentifier);
 
     return "<success>Condition <highlight>"
         + conditionToDeleteIdentifier
@@ -192,7 +236,7 @@ public class ConditionsYMLManager {
         .getConditionsConfig()
         .set("conditions." + condition.getConditionName(), null);
     saveConditions(condition.getCategory());
-    conditionsAndIdentifiers.remove(condition.getConditionName());
+    unindexCondition(condition.getConditionName());
 
     return "<success>Condition <highlight>"
         + condition.getConditionName()
@@ -48,6 +48,16 @@ public class Configuration {
   public boolean savePlayerData = true;
   public boolean loadPlayerDataOnJoin = true;
   public boolean savePlayerDataOnQuit = true;
+  public boolean saveOnlyChangedPlayerData = true;
+  public boolean playerDataWriteBehindEnabled = true;
+  public int playerDataWriteBehindFlushIntervalSeconds = 30;
+  public int playerDataWriteBehindMaxBatchSize = 50;
+  public int playerDataWriteBehindMaxQueueSize = 1000;
+  public int playerDataLoadThreads = 4;
+  public boolean lazyLoadOfflinePlayerData = false;
+  public int offlinePlayerDataCacheMaxSize = 1000;
+  public int offlinePlayerDataCacheExpireAfterSeconds = 300;
+  public int databaseMigrationBatchSize = 500;
   public boolean storageCreateBackupsWhenServerShutsDown = true;
   public boolean storageCreateDatabaseBackupBeforeDatabaseLoads = true;
 
@@ -57,6 +67,10 @@ public class Configuration {
   public boolean placeholder_player_active_quests_list_horizontal_use_displayname_if_available =
       true;
   public boolean placeholder_player_active_quests_list_vertical_use_displayname_if_available = true;
+  private int placeholderResultCacheDurationMillis = 500;
+  private int categoryLoadingThreads = 4;
+  private boolean categoryFileCacheEnabled = false;
+  private int configSaveDelayMilliseconds = 1000;
   public List<String> journalItemEnabledWorlds;
   public int journalInventorySlot = 8;
   public ItemStack journalItem = null;
@@ -104,6 +118,7 @@ public class Configuration {
   private double citizensNPCQuestGiverIndicatorParticleDisableIfTPSBelow = -1;
   private int armorStandQuestGiverIndicatorParticleSpawnInterval = 10;
   private int armorStandQuestGiverIndicatorParticleCount = 1;
+  private int armorStandQuestGiverIndicatorParticleMaxPerRun = 200;
   private Particle armorStandQuestGiverIndicatorParticleType = Particle.VILLAGER_ANGRY;
   private boolean armorStandQuestGiverIndicatorParticleEnabled = true;
   private double armorStandQuestGiverIndicatorParticleDisableIfTPSBelow = -1;
@@ -131,6 +146,8 @@ public class Configuration {
   private boolean objectiveUnlockConditionsCheckOnAnyAction = true;
 
   private int objectiveUnlockConditionsCheckRegularInterval = -1;
+  private double mainLoopTickBudgetMs = 2;
+  private boolean variableValueCacheEnabled = true;
 
 
   public boolean isIntegrationZNPCsEnabled() {
@@ -392,6 +409,86 @@ public class Configuration {
     this.savePlayerDataOnQuit = savePlayerDataOnQuit;
   }
 
+  public boolean isSaveOnlyChangedPlayerData() {
+    return saveOnlyChangedPlayerData;
+  }
+
+  public void setSaveOnlyChangedPlayerData(boolean saveOnlyChangedPlayerData) {
+    this.saveOnlyChangedPlayerData = saveOnlyChangedPlayerData;
+  }
+
+  public boolean isPlayerDataWriteBehindEnabled() {
+    return playerDataWriteBehindEnabled;
+  }
+
+  public void setPlayerDataWriteBehindEnabled(boolean playerDataWriteBehindEnabled) {
+    this.playerDataWriteBehindEnabled = playerDataWriteBehindEnabled;
+  }
+
+  public int getPlayerDataWriteBehindFlushIntervalSeconds() {
+    return playerDataWriteBehindFlushIntervalSeconds;
+  }
+
+  public void setPlayerDataWriteBehindFlushIntervalSeconds(int playerDataWriteBehindFlushIntervalSeconds) {
+    this.playerDataWriteBehindFlushIntervalSeconds = playerDataWriteBehindFlushIntervalSeconds;
+  }
+
+  public int getPlayerDataWriteBehindMaxBatchSize() {
+    return playerDataWriteBehindMaxBatchSize;
+  }
+
+  public void setPlayerDataWriteBehindMaxBatchSize(int playerDataWriteBehindMaxBatchSize) {
+    this.playerDataWriteBehindMaxBatchSize = playerDataWriteBehindMaxBatchSize;
+  }
+
+  public int getPlayerDataWriteBehindMaxQueueSize() {
+    return playerDataWriteBehindMaxQueueSize;
+  }
+
+  public void setPlayerDataWriteBehindMaxQueueSize(int playerDataWriteBehindMaxQueueSize) {
+    this.playerDataWriteBehindMaxQueueSize = playerDataWriteBehindMaxQueueSize;
+  }
+
+  public int getPlayerDataLoadThreads() {
+    return playerDataLoadThreads;
+  }
+
+  public void setPlayerDataLoadThreads(int playerDataLoadThreads) {
+    this.playerDataLoadThreads = playerDataLoadThreads;
+  }
+
+  public final int getDatabaseMigrationBatchSize() {
+    return databaseMigrationBatchSize;
+  }
+
+  public void setDatabaseMigrationBatchSize(final int databaseMigrationBatchSize) {
+    this.databaseMigrationBatchSize = databaseMigrationBatchSize;
+  }
+
+  public boolean isLazyLoadOfflinePlayerData() {
+    return lazyLoadOfflinePlayerData;
+  }
+
+  public void setLazyLoadOfflinePlayerData(boolean lazyLoadOfflinePlayerData) {
+    this.lazyLoadOfflinePlayerData = lazyLoadOfflinePlayerData;
+  }
+
+  public int getOfflinePlayerDataCacheMaxSize() {
+    return offlinePlayerDataCacheMaxSize;
+  }
+
+  public void setOfflinePlayerDataCacheMaxSize(int offlinePlayerDataCacheMaxSize) {
+    this.offlinePlayerDataCacheMaxSize = offlinePlayerDataCacheMaxSize;
+  }
+
+  public int getOfflinePlayerDataCacheExpireAfterSeconds() {
+    return offlinePlayerDataCacheExpireAfterSeconds;
+  }
+
+  public void setOfflinePlayerDataCacheExpireAfterSeconds(int offlinePlayerDataCacheExpireAfterSeconds) {
+    this.offlinePlayerDataCacheExpireAfterSeconds = offlinePlayerDataCacheExpireAfterSeconds;
+  }
+
   public boolean isQuestPreviewUseGUI() {
     return questPreviewUseGUI;
   }
@@ -484,6 +581,38 @@ public class Configuration {
         placeholder_player_active_quests_list_vertical_use_displayname_if_available;
   }
 
+  public final int getConfigSaveDelayMilliseconds() {
+    return configSaveDelayMilliseconds;
+  }
+
+  public void setConfigSaveDelayMilliseconds(final int configSaveDelayMilliseconds) {
+    this.configSaveDelayMilliseconds = configSaveDelayMilliseconds;
+  }
+
+  public final boolean isCategoryFileCacheEnabled() {
+    return categoryFileCacheEnabled;
+  }
+
+  public void setCategoryFileCacheEnabled(final boolean categoryFileCacheEnabled) {
+    this.categoryFileCacheEnabled = categoryFileCacheEnabled;
+  }
+
+  public final int getCategoryLoadingThreads() {
+    return categoryLoadingThreads;
+  }
+
+  public void setCategoryLoadingThreads(final int categoryLoadingThreads) {
+    this.categoryLoadingThreads = categoryLoadingThreads;
+  }
+
+  public final int getPlaceholderResultCacheDurationMillis() {
+    return placeholderResultCacheDurationMillis;
+  }
+
+  public void setPlaceholderResultCacheDurationMillis(final int placeholderResultCacheDurationMillis) {
+    this.placeholderResultCacheDurationMillis = placeholderResultCacheDurationMillis;
+  }
+
   public int getMaxActiveQuestsPerPlayer() {
     return maxActiveQuestsPerPlayer;
   }
@@ -678,6 +807,15 @@ public class Configuration {
     this.armorStandQuestGiverIndicatorParticleCount = armorStandQuestGiverIndicatorParticleCount;
   }
 
+  public int getArmorStandQuestGiverIndicatorParticleMaxPerRun() {
+    return armorStandQuestGiverIndicatorParticleMaxPerRun;
+  }
+
+  public void setArmorStandQuestGiverIndicatorParticleMaxPerRun(
+      int armorStandQuestGiverIndicatorParticleMaxPerRun) {
+    this.armorStandQuestGiverIndicatorParticleMaxPerRun = armorStandQuestGiverIndicatorParticleMaxPerRun;
+  }
+
   public Particle getArmorStandQuestGiverIndicatorParticleType() {
     return armorStandQuestGiverIndicatorParticleType;
   }
@@ -1228,4 +1366,20 @@ public class Configuration {
   public void setObjectiveUnlockConditionsCheckRegularInterval(int objectiveUnlockConditionsCheckRegularInterval) {
     this.objectiveUnlockConditionsCheckRegularInterval = objectiveUnlockConditionsCheckRegularInterval;
   }
+
+  public double getMainLoopTickBudgetMs() {
+    return mainLoopTickBudgetMs;
+  }
+
+  public void setMainLoopTickBudgetMs(double mainLoopTickBudgetMs) {
+    this.mainLoopTickBudgetMs = mainLoopTickBudgetMs;
+  }
+
+  public final boolean isVariableValueCacheEnabled() {
+    return variableValueCacheEnabled;
+  }
+
+  public void setVariableValueCacheEnabled(final boolean variableValueCacheEnabled) {
+    this.variableValueCacheEnabled = variableValueCacheEnabled;
+  }
 }
@@ -25,7 +25,6 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -33,6 +32,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.apache.commons.lang.Validate;
@@ -51,6 +52,10 @@ import rocks.gravili.notquests.common.managers.LogCategory;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.commands.arguments.wrappers.ItemStackSelection;
 import rocks.gravili.notquests.paper.managers.data.Category;
+import rocks.gravili.notquests.paper.managers.data.CategoryFileCache;
+import rocks.gravili.notquests.paper.managers.data.ConfigWriteQueue;
+import rocks.gravili.notquests.paper.managers.data.DatabaseSchemaMigrator;
+import rocks.gravili.notquests.paper.managers.data.LoadingTimings;
 import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.actions.Action;
@@ -67,8 +72,6 @@ import rocks.gravili.notquests.paper.structs.objectives.ObjectiveHolder;
  */
 public class DataManager {
 
-    private boolean hasToMigrateQuestPlayerDataTable = false;
-
     /**
      * ArrayList for Command Tab Completions. They will be re-used where possible. This is sort of like a buffer for completions.
      * It does not return the real completions, but it's for example used in ObjectivesAdminCommand handleCompletions() which is
@@ -116,6 +119,10 @@ public class DataManager {
     private final HashMap<Integer, ItemStackSelection> itemStackSelectionCache;
     private final ArrayList<Category> categories, topLevelOnlyCategories;
     private final ArrayList<String> criticalErrors;
+    private final LoadingTimings loadingTimings;
+    private final ConfigWriteQueue configWriteQueue;
+    private final CategoryFileCache categoryFileCache;
+    private final DatabaseSchemaMigrator databaseSchemaMigrator;
     /**
      * savingEnabled is true by default. It will be set to false if any error happens when data is loaded from the Database.
      * When this is set to false, no quest or player data will be saved when the plugin is disabled.
@@ -161,6 +168,10 @@ public class DataManager {
         this.main = main;
 
         criticalErrors = new ArrayList<>();
+        loadingTimings = new LoadingTimings(main);
+        configWriteQueue = new ConfigWriteQueue(main);
+        categoryFileCache = new CategoryFileCache(main);
+        databaseSchemaMigrator = new DatabaseSchemaMigrator(main);
 
         itemStackSelectionCache = new HashMap<>();
         // create an instance of the Configuration object
@@ -192,11 +203,34 @@ public class DataManager {
         return topLevelOnlyCategories;
     }
 
+    public final CategoryFileCache getCategoryFileCache() {
+        return categoryFileCache;
+    }
+
+    public final DatabaseSchemaMigrator getDatabaseSchemaMigrator() {
+        return databaseSchemaMigrator;
+    }
+
+    public final ConfigWriteQueue getConfigWriteQueue() {
+        return configWriteQueue;
+    }
+
+    public final LoadingTimings getLoadingTimings() {
+        return loadingTimings;
+    }
+
     public final Category getDefaultCategory() {
         return defaultCategory;
     }
 
-    public void loadCategories(final Category parent) {
+    /**
+     * Finds all categories in the folder of the parent category (or in the plugin folder), including their sub-categories.
+     * Their configuration files are not parsed yet.
+     *
+     * @param parent the parent category, or null for top-level categories
+     * @param foundCategories all found categories are added to this list, parents before their sub-categories
+     */
+    private void findCategories(final Category parent, final List<Category> foundCategories) {
 
         final File parentCategoryFolder = parent != null ? parent.getCategoryFolder() : main.getMain().getDataFolder();
 
@@ -294,28 +328,84 @@ public class DataManager {
             category.setTagsFile(tagsFile);
             category.setItemsFile(itemsFile);
 
-            main.getLogManager().info("  Loading real category: <highlight>" + category.getCategoryFullName());
+            if (parent != null) {
+                category.setParentCategory(parent);
+            }
+
+            main.getLogManager().info("  Found real category: <highlight>" + category.getCategoryFullName());
+
+            foundCategories.add(category);
+
+            findCategories(category, foundCategories);
+        }
+    }
+
+    /**
+     * Parses the configuration files of all categories at the same time, using up to the configured amount of threads.
+     * Parsing only touches the category itself - everything which reads or changes anything outside of it happens afterwards, in order.
+     */
+    private void parseCategoryConfigurations(final List<Category> foundCategories) {
+        final int threads = Math.min(foundCategories.size(), Math.max(1, main.getConfiguration().getCategoryLoadingThreads()));
+        if (threads <= 1) {
+            for (final Category category : foundCategories) {
+                parseCategoryConfigurations(category);
+            }
+            return;
+        }
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(threads);
+        try {
+            forkJoinPool.submit(() -> foundCategories.parallelStream().forEach(this::parseCategoryConfigurations)).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            disablePluginAndSaving("Plugin disabled, because loading the categories was interrupted.", e);
+        } catch (final ExecutionException e) {
+            disablePluginAndSaving("Plugin disabled, because there was an error while parsing the category configurations.", e.getCause());
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    private void parseCategoryConfigurations(final Category category) {
+        final long startTime = System.nanoTime();
+        category.parseConfigurations();
+        loadingTimings.recordCategory(category, "Parsing", System.nanoTime() - startTime);
+    }
+
+    public void loadCategories(final Category parent) {
+        long startTime = System.nanoTime();
+        final ArrayList<Category> foundCategories = new ArrayList<>();
+        findCategories(parent, foundCategories);
+        loadingTimings.recordPhase("Finding categories", System.nanoTime() - startTime);
+
+        startTime = System.nanoTime();
+        parseCategoryConfigurations(foundCategories);
+        loadingTimings.recordPhase("Parsing (" + foundCategories.size() + " categories)", System.nanoTime() - startTime);
+        if (main.getConfiguration().isCategoryFileCacheEnabled()) {
+            main.getLogManager().info("Category file cache: <highlight>%s</highlight> files loaded from cache, <highlight>%s</highlight> files parsed",
+                    categoryFileCache.getHitCount(),
+                    categoryFileCache.getMissCount()
+            );
+        }
 
+        //Errors are reported and defaults are set up in order, so the log stays readable
+        startTime = System.nanoTime();
+        for (final Category category : foundCategories) {
+            main.getLogManager().info("  Loading real category: <highlight>" + category.getCategoryFullName());
 
-            category.initializeConfigurations();
+            category.finishInitializingConfigurations();
 
             category.loadDataFromCategoryConfig();
 
-            if (parent != null) {
-                category.setParentCategory(parent);
-            } else {
+            if (category.getParentCategory() == null) {
                 topLevelOnlyCategories.add(category);
                 if (category.getCategoryName().equalsIgnoreCase("default")) {
                     defaultCategory = category;
                 }
             }
 
-
             categories.add(category);
-
-
-            loadCategories(category);
         }
+        loadingTimings.recordPhase("Category data", System.nanoTime() - startTime);
     }
 
 
@@ -323,9 +413,12 @@ public class DataManager {
         if(!categories.isEmpty()){
             return;
         }
+        //Changes which have not been written yet would be lost, and written over the loaded files afterwards
+        configWriteQueue.flushAndAwait();
         prepareDataFolder();
 
         main.getLogManager().info("Loading categories and configurations...");
+        loadingTimings.clear();
         loadCategories(null);
 
         if (defaultCategory == null) {
@@ -614,6 +707,78 @@ public class DataManager {
                 "Same as loading playerdata on join, but for saving playerdata & leaving the server"
         ));
 
+        configuration.setSaveOnlyChangedPlayerData(getGeneralConfigBoolean(
+                "storage.save-only-changed-playerdata",
+                true,
+                "If this is set to true, saving player data only writes the rows which changed since the last save. If set to false, all player data of a player is deleted and re-inserted on every save."
+        ));
+
+        configuration.setConfigSaveDelayMilliseconds(getGeneralConfigInt(
+                "storage.config-save-delay-milliseconds",
+                1000,
+                "Changes to category files (quests.yml, actions.yml, conditions.yml, ...) are collected for this long and then written together in the background. 0 to write them right away"
+        ));
+
+        configuration.setPlayerDataWriteBehindEnabled(getGeneralConfigBoolean(
+                "storage.write-behind.enabled",
+                true,
+                "If this is set to true, changed player data is saved regularly in the background, and player data of players who leave is saved in batches instead of right away. Changes to the write-behind settings need a restart."
+        ));
+
+        configuration.setPlayerDataWriteBehindFlushIntervalSeconds(getGeneralConfigInt(
+                "storage.write-behind.flush-interval-seconds",
+                30,
+                "How often (in seconds) changed player data is saved in the background"
+        ));
+
+        configuration.setPlayerDataWriteBehindMaxBatchSize(getGeneralConfigInt(
+                "storage.write-behind.max-batch-size",
+                50,
+                "The maximum amount of player profiles saved together in one database transaction"
+        ));
+
+        configuration.setPlayerDataWriteBehindMaxQueueSize(getGeneralConfigInt(
+                "storage.write-behind.max-queue-size",
+                1000,
+                "If this many player profiles are waiting to be saved, asynchronous saves wait until the queue has space again"
+        ));
+
+        configuration.setPlayerDataLoadThreads(getGeneralConfigInt(
+                "storage.player-data-loading-threads",
+                4,
+                "The maximum amount of players whose player data is loaded from the database at the same time when they join. Changes to this setting need a restart."
+        ));
+
+        configuration.setDatabaseMigrationBatchSize(getGeneralConfigInt(
+                "storage.database-migration-batch-size",
+                500,
+                "When the database tables are migrated to a new format after an update, the rows of this many players are copied at once"
+        ));
+
+        configuration.setLazyLoadOfflinePlayerData(getGeneralConfigBoolean(
+                "storage.offline-playerdata.lazy-loading",
+                false,
+                "If this is set to true, only the player data of online players is kept in memory. Player data of offline players (e.g. for admin commands) is loaded when needed and kept in a small cache. This needs load-playerdata-on-join and save-playerdata-on-quit, so they are enabled automatically. Changes to the offline-playerdata settings need a restart."
+        ));
+
+        configuration.setOfflinePlayerDataCacheMaxSize(getGeneralConfigInt(
+                "storage.offline-playerdata.cache-max-size",
+                1000,
+                "The maximum amount of offline players whose player data is cached if lazy-loading is enabled"
+        ));
+
+        configuration.setOfflinePlayerDataCacheExpireAfterSeconds(getGeneralConfigInt(
+                "storage.offline-playerdata.cache-expire-after-seconds",
+                300,
+                "After how many seconds without being used the player data of an offline player is removed from the cache (and saved if it was changed)"
+        ));
+
+        if (configuration.isLazyLoadOfflinePlayerData() && (!configuration.isLoadPlayerDataOnJoin() || !configuration.isSavePlayerDataOnQuit())) {
+            main.getLogManager().warn("storage.offline-playerdata.lazy-loading is enabled, so player data will be loaded on join and saved on quit, even though storage.load-playerdata-on-join or storage.save-playerdata-on-quit is disabled.");
+            configuration.setLoadPlayerDataOnJoin(true);
+            configuration.setSavePlayerDataOnQuit(true);
+        }
+
         configuration.setStorageCreateBackupsWhenServerShutsDown(getGeneralConfigBoolean(
                 "storage.backups.create-when-server-shuts-down",
                 true,
@@ -746,6 +911,12 @@ public class DataManager {
                 1
         ));
 
+        configuration.setArmorStandQuestGiverIndicatorParticleMaxPerRun(getGeneralConfigInt(
+                "visual.armorstands.quest-giver-indicator-particle.max-per-run",
+                200,
+                "Maximum amount of particle packets sent (one per Armor Stand and nearby player) every time the particles are spawned. 0 for no limit"
+        ));
+
         configuration.setArmorStandQuestGiverIndicatorParticleDisableIfTPSBelow(getGeneralConfigDouble(
                 "visual.armorstands.quest-giver-indicator-particle.disable-if-tps-below",
                 -1d
@@ -1044,6 +1215,12 @@ public class DataManager {
                 true
         ));
 
+        configuration.setPlaceholderResultCacheDurationMillis(getGeneralConfigInt(
+                "placeholders.result-cache-duration-milliseconds",
+                500,
+                "How long PlaceholderAPI placeholder values are re-used for the same player (unless their quests, objectives, quest points or tags change). 0 to disable"
+        ));
+
 
         configuration.setIntegrationCitizensEnabled(getGeneralConfigBoolean(
                 "integrations.citizens.enabled",
@@ -1188,12 +1365,39 @@ public class DataManager {
                 "If set to a positive number, the unlock conditions will be checked every X seconds for that player. -1 = disabled"
         ));
 
+        configuration.setMainLoopTickBudgetMs(getGeneralConfigDouble(
+                "general.main-loop.tick-budget-ms",
+                2,
+                "Players are updated once per second (boss bars, beacons, condition objectives, unlock conditions), spread across all 20 ticks.",
+                "This is the maximum time (in milliseconds) spent on these updates per tick. Players which didn't fit are updated in the next tick. 0 = no limit"
+        ));
+
+        configuration.setVariableValueCacheEnabled(getGeneralConfigBoolean(
+                "general.variables.value-cache.enabled",
+                true,
+                "If enabled, the values of variables which are expensive to get (e.g. inventory or statistic variables) are cached per player until the end of the tick.",
+                "Quest points and tags are cached until they change. Actions clear the cache of the player they are executed for."
+        ));
+
         configuration.setVerboseStartupMessages( configuration.isDebug()|| getGeneralConfigBoolean(
                 "logging.verbose-startup-messages",
                 true,
                 "If set to true, more startup messages will be logged."
         ));
 
+        configuration.setCategoryFileCacheEnabled(getGeneralConfigBoolean(
+                "general.category-file-cache.enabled",
+                false,
+                "If enabled, parsed category files are stored in a binary cache (in the cache folder), which is loaded instead of parsing the YAML again as long as the file didn't change.",
+                "This can speed up starting the server if you have a lot of quests."
+        ));
+
+        configuration.setCategoryLoadingThreads(getGeneralConfigInt(
+                "general.category-loading-threads",
+                4,
+                "The maximum amount of categories whose files (quests, actions, conditions, tags, items and conversations) are parsed at the same time while loading. 1 to parse them one after another."
+        ));
+
         ItemStack journal = new ItemStack(Material.ENCHANTED_BOOK, 1);
         ItemMeta im = journal.getItemMeta();
         ArrayList<Component> lore = new ArrayList<>();
@@ -1270,11 +1474,6 @@ public class DataManager {
                 "Do not modify this line. If you modify it, there is a chance of completely breaking automatic configuration updates."
         ));
 
-        //Do potential data updating here
-        if(main.getConfiguration().getConfigurationVersionMajor() < 5 || (main.getConfiguration().getConfigurationVersionMajor() == 5 && main.getConfiguration().getConfigurationVersionMinor() < 8)){
-            hasToMigrateQuestPlayerDataTable = true;
-        }
-
         /////
         //Now update config version value, assuming everything is updated
         if (!getGeneralConfig().isString("config-version-do-not-edit") ||
@@ -1549,63 +1748,6 @@ public class DataManager {
         }
     }
 
-    private void migrationAddProfileColumns(final Statement statement, final String query){
-        if (main.getConfiguration().isVerboseStartupMessages()) {
-            main.getLogManager().info(LogCategory.DATA, "Adding 'Profile' column to database tables if it the table exists but the column doesn't exist yet...");
-        }
-
-        try{
-            statement.executeUpdate(query);
-        }catch (Exception e){
-            if(main.getConfiguration().debug){
-                e.printStackTrace();
-            }
-        }
-    }
-
-    private void migrateActiveObjectivesTable(final Statement statement) throws SQLException {
-        boolean seemsIAlreadyMigrated = false;
-        try{
-            statement.executeUpdate("""
-                ALTER TABLE `ActiveObjectives` ADD COLUMN `ProgressNeeded` DOUBLE
-            """);
-        }catch (Exception ignored){
-            seemsIAlreadyMigrated = true;
-        }
-
-        if(!seemsIAlreadyMigrated){
-            main.getLogManager().info(LogCategory.DATA, "Making the 'CurrentProgress' column of 'ActiveObjectives' of datatype double (from BigInt) by recreating it..");
-            statement.executeUpdate("""
-                ALTER TABLE ActiveObjectives RENAME TO ActiveObjectivesOld
-            """);
-            statement.executeUpdate("""
-                CREATE TABLE `ActiveObjectives` (`ObjectiveType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` DOUBLE, `ObjectiveID` INT(255), `HasBeenCompleted` BOOLEAN, `ProgressNeeded` DOUBLE, `Profile` varchar(200))
-            """);
-            statement.executeUpdate("""
-                INSERT INTO ActiveObjectives (ObjectiveType,QuestName,PlayerUUID,CurrentProgress,ObjectiveID,HasBeenCompleted,ProgressNeeded,Profile) VALUES ((SELECT ObjectiveType FROM ActiveObjectivesOld), (SELECT QuestName FROM ActiveObjectivesOld), (SELECT PlayerUUID FROM ActiveObjectivesOld), (SELECT CurrentProgress FROM ActiveObjectivesOld), (SELECT ObjectiveID FROM ActiveObjectivesOld), (SELECT HasBeenCompleted FROM ActiveObjectivesOld), (SELECT ProgressNeeded FROM ActiveObjectivesOld), 'default')
-            """);
-            statement.executeUpdate("""
-                DROP TABLE ActiveObjectivesOld
-            """);
-        }
-    }
-
-    private void migrateQuestPlayerDataTable(final Statement statement) throws SQLException { //for < v5.8.0 cuz primary key way removed
-        main.getLogManager().info(LogCategory.DATA, "Migrating QuestPlayerData from versions <5.8.0");
-        statement.executeUpdate("""
-                ALTER TABLE QuestPlayerData RENAME TO QuestPlayerDataOld
-            """);
-        statement.executeUpdate("""
-                CREATE TABLE `QuestPlayerData` (`PlayerUUID` varchar(200), `QuestPoints` BIGINT(255), `Profile` varchar(200))
-            """);
-        statement.executeUpdate("""
-                INSERT INTO QuestPlayerData (PlayerUUID,QuestPoints,Profile) VALUES( (SELECT PlayerUUID FROM QuestPlayerDataOld),(SELECT QuestPoints FROM QuestPlayerDataOld), (SELECT Profile FROM QuestPlayerDataOld) )
-            """);
-        statement.executeUpdate("""
-                DROP TABLE QuestPlayerDataOld
-            """);
-    }
-
     private void reloadDataInternal() {
         openConnection();
 
@@ -1616,111 +1758,14 @@ public class DataManager {
 
 
 
-        //Create Database tables if they don't exist yet
-        try (final Connection connection = getConnection();
-             final Statement statement = connection.createStatement();
-
-             final PreparedStatement createQuestPlayerProfileDataTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `QuestPlayerProfileData` (`PlayerUUID` varchar(200), `CurrentProfile` varchar(200), PRIMARY KEY (PlayerUUID))
-             """);
-
-             final PreparedStatement createQuestPlayerDataTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `QuestPlayerData` (`PlayerUUID` varchar(200), `QuestPoints` BIGINT(255), `Profile` varchar(200))
-             """);
-
-             final PreparedStatement createActiveQuestsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `ActiveQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `Profile` varchar(200))
-             """);
-
-             final PreparedStatement createCompletedQuestsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `CompletedQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `TimeCompleted` BIGINT(255), `Profile` varchar(200))
-             """);
-
-
-             final PreparedStatement createFailedQuestsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `FailedQuests` (`QuestName` varchar(200), `PlayerUUID` varchar(200), `TimeFailed` BIGINT(255), `Profile` varchar(200))
-             """);
-
-             final PreparedStatement createActiveTriggersTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `ActiveTriggers` (`TriggerType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` BIGINT(255), `TriggerID` INT(255), `Profile` varchar(200))
-             """);
-
-             final PreparedStatement createTagsTablePreparedStatement = connection.prepareStatement("""
-                CREATE TABLE IF NOT EXISTS `Tags` (`PlayerUUID` varchar(200), `TagIdentifier` varchar(200), `TagValue` varchar(200), `TagType` varchar(200), `Profile` varchar(200) )
-             """)
-
-        ) {
-
-
-            //Migrations
-            migrationAddProfileColumns(statement, "ALTER TABLE QuestPlayerData ADD COLUMN `Profile` VARCHAR(200) NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE ActiveQuests ADD COLUMN `Profile` VARCHAR(200) NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE CompletedQuests ADD COLUMN `Profile` VARCHAR(200) NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE ActiveObjectives ADD COLUMN `Profile` VARCHAR(200) NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE ActiveTriggers ADD COLUMN `Profile` VARCHAR(200) NOT NULL DEFAULT 'default'");
-            migrationAddProfileColumns(statement, "ALTER TABLE Tags ADD COLUMN `Profile` VARCHAR(200) NOT NULL DEFAULT 'default'");
-
-            if(hasToMigrateQuestPlayerDataTable){
-                migrateQuestPlayerDataTable(statement);
-            }
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'QuestPlayerProfileData' if it doesn't exist yet...");
-            }
-            createQuestPlayerProfileDataTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'QuestPlayerData' if it doesn't exist yet...");
-            }
-            createQuestPlayerDataTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'ActiveQuests' if it doesn't exist yet...");
-            }
-            createActiveQuestsTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'FailedQuests' if it doesn't exist yet...");
-            }
-            createFailedQuestsTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'CompletedQuests' if it doesn't exist yet...");
-            }
-            createCompletedQuestsTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Adding 'ProgressNeeded' column to 'ActiveObjectives' if it the table exists but the column doesn't exist yet...");
-            }
-
-            migrateActiveObjectivesTable(statement);
-
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'ActiveObjectives' if it doesn't exist yet...");
-            }
-            statement.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS `ActiveObjectives` (`ObjectiveType` varchar(200), `QuestName` varchar(200), `PlayerUUID` varchar(200), `CurrentProgress` DOUBLE, `ObjectiveID` INT(255), `HasBeenCompleted` BOOLEAN, `ProgressNeeded` DOUBLE, `Profile` varchar(200))
-            """);
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'ActiveTriggers' if it doesn't exist yet...");
-            }
-            createActiveTriggersTablePreparedStatement.executeUpdate();
-
-            if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info(LogCategory.DATA, "Creating database table 'Tags' if it doesn't exist yet...");
-            }
-            createTagsTablePreparedStatement.executeUpdate();
-
+        //Create Database tables if they don't exist yet, and migrate existing ones to the latest schema
+        try (final Connection connection = getConnection()) {
+            databaseSchemaMigrator.migrate(connection);
         } catch (final SQLException e) {
             disablePluginAndSaving("Plugin disabled, because there was an error while trying to load MySQL database tables", e);
             return;
         }
 
-
-
-
         if (isSavingEnabled()) {
             main.getLogManager().info("Loaded player data");
 
@@ -1744,16 +1789,8 @@ public class DataManager {
             if(!main.getConfiguration().isLoadPlayerDataOnJoin()){
                 main.getQuestPlayerManager().loadAllPlayerDataAtOnce();
             }else{
-                if (Bukkit.isPrimaryThread()) {
-                    Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> {
-                        for(final Player player : Bukkit.getOnlinePlayers()){
-                            main.getQuestPlayerManager().loadSinglePlayerData(player.getUniqueId());
-                        }
-                    });
-                }else{
-                    for(final Player player : Bukkit.getOnlinePlayers()){
-                        main.getQuestPlayerManager().loadSinglePlayerData(player.getUniqueId());
-                    }
+                for(final Player player : Bukkit.getOnlinePlayers()){
+                    main.getQuestPlayerManager().loadSinglePlayerDataAsync(player.getUniqueId());
                 }
 
             }
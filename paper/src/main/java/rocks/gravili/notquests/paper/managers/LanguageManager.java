@@ -26,11 +26,11 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.Component;
@@ -74,6 +74,12 @@ public class LanguageManager {
     private String currentLanguage = "en";
     private FileConfiguration defaultLanguageConfig = null;
 
+    //Language strings (and string lists), compiled once by their path in the language config. Cleared whenever the language config is loaded
+    private final ConcurrentHashMap<String, Optional<LanguageTemplate>> compiledStrings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Optional<List<LanguageTemplate>>> compiledStringLists = new ConcurrentHashMap<>();
+    //Parsed Components of language strings which don't contain any placeholders
+    private final ConcurrentHashMap<String, Component> constantComponents = new ConcurrentHashMap<>();
+
 
 
     public LanguageManager(final NotQuests main) {
@@ -277,6 +283,48 @@ public class LanguageManager {
 
         currentLanguage = languageCode;
 
+        clearCompiledStrings();
+    }
+
+    private void clearCompiledStrings() {
+        compiledStrings.clear();
+        compiledStringLists.clear();
+        constantComponents.clear();
+    }
+
+    /**
+     * @return the compiled language string, or null if there is no such language string
+     */
+    private @Nullable LanguageTemplate getCompiledString(final String languageString) {
+        final FileConfiguration currentLanguageConfig = getLanguageConfig(); //Not inside computeIfAbsent, as it might load the language config, which clears the compiled strings
+        return compiledStrings.computeIfAbsent(languageString, k -> {
+            if (!currentLanguageConfig.isString(k)) {
+                return Optional.empty();
+            }
+            final String translatedString = currentLanguageConfig.getString(k);
+            return translatedString != null ? Optional.of(LanguageTemplate.compile(translatedString)) : Optional.empty();
+        }).orElse(null);
+    }
+
+    /**
+     * @return the compiled language string list, or null if there is no such (non-empty) language string list
+     */
+    private @Nullable List<LanguageTemplate> getCompiledStringList(final String languageString) {
+        final FileConfiguration currentLanguageConfig = getLanguageConfig(); //Not inside computeIfAbsent, as it might load the language config, which clears the compiled strings
+        return compiledStringLists.computeIfAbsent(languageString, k -> {
+            if (!currentLanguageConfig.isList(k)) {
+                return Optional.empty();
+            }
+            final List<String> translatedStrings = currentLanguageConfig.getStringList(k);
+            if (translatedStrings.isEmpty()) {
+                return Optional.empty();
+            }
+            final ArrayList<LanguageTemplate> templates = new ArrayList<>(translatedStrings.size());
+            for (final String translatedString : translatedStrings) {
+                templates.add(LanguageTemplate.compile(translatedString));
+            }
+            return Optional.of(List.copyOf(templates));
+        }).orElse(null);
     }
 
     public boolean setupDefaultStrings() {
@@ -292,6 +340,7 @@ public class LanguageManager {
         final ConfigurationSection defaultConfigurationSection = defaultLanguageConfig.getConfigurationSection("");
         if (defaultConfigurationSection != null) {
             // main.getLogManager().debug("All default config keys: " + defaultConfigurationSection.getKeys(true).toString());
+            clearCompiledStrings();
             for (final String defaultString : defaultConfigurationSection.getKeys(true)) {
 
                 if (defaultConfigurationSection.isConfigurationSection(defaultString)) {
@@ -335,28 +384,28 @@ public class LanguageManager {
     }*/
 
     public final Component getComponent(final String languageString, final Player targetPlayer, Object... internalPlaceholderObjects){
+        final LanguageTemplate template = getCompiledString(languageString);
+        if (template != null && template.isConstant()) {
+            return constantComponents.computeIfAbsent(languageString, k -> main.parse(applySpecial(template.getRaw())).decoration(TextDecoration.ITALIC, false));
+        }
         return main.parse(getString(languageString, targetPlayer, internalPlaceholderObjects)).decoration(TextDecoration.ITALIC, false);
     }
 
     //Usually used for GUI
     public final List<Component> getComponentList(final String languageString, final Player targetPlayer, Object... internalPlaceholderObjects){
         List<Component> components = new ArrayList<>();
-        if (!getLanguageConfig().isList(languageString)) {
+        final List<LanguageTemplate> translatedString = getCompiledStringList(languageString);
+        if (translatedString == null) {
             return Collections.singletonList(Component.text("Language string not found: " + languageString));
         } else {
-            final List<String> translatedString = getLanguageConfig().getStringList(languageString);
-            if (translatedString.isEmpty()) {
-                return Collections.singletonList(Component.text("Language string not found: " + languageString));
-            }
-
             if (!main.getConfiguration().supportPlaceholderAPIInTranslationStrings || !main.getIntegrationsManager().isPlaceholderAPIEnabled() || targetPlayer == null) {
-                for(String componentPart : applySpecial(applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects))){
+                for(String componentPart : applySpecial(applyInternalPlaceholdersToTemplates(translatedString, targetPlayer, internalPlaceholderObjects))){
                     for(String splitPart : componentPart.split("\n")){
                         components.add(main.parse(splitPart).decoration(TextDecoration.ITALIC, false));
                     }
                 }
             } else {
-                for(String componentPart : applySpecial(PlaceholderAPI.setPlaceholders(targetPlayer, applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)))) {
+                for(String componentPart : applySpecial(PlaceholderAPI.setPlaceholders(targetPlayer, applyInternalPlaceholdersToTemplates(translatedString, targetPlayer, internalPlaceholderObjects)))) {
                     for(String splitPart : componentPart.split("\n")){
                         components.add(main.parse(splitPart).decoration(TextDecoration.ITALIC, false));
                     }
@@ -389,13 +438,10 @@ public class LanguageManager {
     }
 
     public final String getString(final String languageString, @Nullable final Player targetPlayer, @Nullable Object... internalPlaceholderObjects) {
-        if (!getLanguageConfig().isString(languageString)) {
+        final LanguageTemplate translatedString = getCompiledString(languageString);
+        if (translatedString == null) {
             return "Language string not found: " + languageString;
         } else {
-            final String translatedString = getLanguageConfig().getString(languageString);
-            if (translatedString == null) {
-                return "Language string not found: " + languageString;
-            }
             if (!main.getConfiguration().supportPlaceholderAPIInTranslationStrings || !main.getIntegrationsManager().isPlaceholderAPIEnabled() || targetPlayer == null) {
                 return applySpecial(applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)); //Removed applyColor( for minimessage support
             } else {
@@ -405,17 +451,14 @@ public class LanguageManager {
     }
 
     public final List<String> getStringList(final String languageString, @Nullable final Player targetPlayer, Object... internalPlaceholderObjects) {
-        if (!getLanguageConfig().isList(languageString)) {
+        final List<LanguageTemplate> translatedString = getCompiledStringList(languageString);
+        if (translatedString == null) {
             return Collections.singletonList("Language string list not found: " + languageString);
         } else {
-            final List<String> translatedString = getLanguageConfig().getStringList(languageString);
-            if (translatedString.isEmpty()) {
-                return Collections.singletonList("Language string list not found: " + languageString);
-            }
             if (!main.getConfiguration().supportPlaceholderAPIInTranslationStrings || !main.getIntegrationsManager().isPlaceholderAPIEnabled() || targetPlayer == null) {
-                return applySpecial(applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)); //Removed applyColor( for minimessage support
+                return applySpecial(applyInternalPlaceholdersToTemplates(translatedString, targetPlayer, internalPlaceholderObjects)); //Removed applyColor( for minimessage support
             } else {
-                return applySpecial(PlaceholderAPI.setPlaceholders(targetPlayer, applyInternalPlaceholders(translatedString, targetPlayer, internalPlaceholderObjects)));
+                return applySpecial(PlaceholderAPI.setPlaceholders(targetPlayer, applyInternalPlaceholdersToTemplates(translatedString, targetPlayer, internalPlaceholderObjects)));
             }
         }
     }
@@ -428,6 +471,14 @@ public class LanguageManager {
         return toReturn;
     }
 
+    private List<String> applyInternalPlaceholdersToTemplates(final List<LanguageTemplate> templates, @Nullable final Player player, final @Nullable Object... internalPlaceholderObjects) {
+        final List<String> toReturn = new ArrayList<>(templates.size());
+        for (final LanguageTemplate template : templates) {
+            toReturn.add(applyInternalPlaceholders(template, player, internalPlaceholderObjects));
+        }
+        return toReturn;
+    }
+
     public final ActiveQuest findTopLevelActiveQuestOfActiveObjective(final ActiveObjective activeObjective){
         if(activeObjective.getActiveObjectiveHolder() instanceof final ActiveQuest activeQuest){
             return activeQuest;
@@ -441,115 +492,139 @@ public class LanguageManager {
         if (internalPlaceholderObjects == null || internalPlaceholderObjects.length == 0) {
             return initialMessage;
         }
+        return applyInternalPlaceholders(LanguageTemplate.compile(initialMessage), player, internalPlaceholderObjects);
+    }
 
-        final Map<String, Supplier<String>> internalPlaceholderReplacements = new HashMap<>(); //With this method probably being used simultaneously, we cannot just have 1 HashMap and clear it. It would get cleared while another thing is processing
-
-
-        //main.getLogManager().severe("Initial: " + initialMessage);
-
-        //internalPlaceholderReplacements.clear();
-        internalPlaceholderReplacements.put("%QUESTPOINTS%", () -> "0");
+    public final String applyInternalPlaceholders(final LanguageTemplate template, @Nullable final Player player, final @Nullable Object... internalPlaceholderObjects) {
+        if (internalPlaceholderObjects == null || internalPlaceholderObjects.length == 0) {
+            return template.getRaw();
+        }
 
-        Quest foundQuest = null;
-        QuestPlayer foundQuestPlayer = null;
+        String rendered = template.render(placeholder -> resolveInternalPlaceholder(placeholder, player, internalPlaceholderObjects));
 
+        //Provided replacements which don't look like placeholders (e.g. %(%) are not part of the template, so they are replaced afterwards
         for (final @Nullable Object internalPlaceholderObject : internalPlaceholderObjects) {
-            if(internalPlaceholderObject == null){
-                continue;
+            if (internalPlaceholderObject instanceof final Map<?, ?> providedInternalPlaceholderReplacements) {
+                for (final Map.Entry<?, ?> providedReplacement : providedInternalPlaceholderReplacements.entrySet()) {
+                    if (providedReplacement.getKey() instanceof final String key && providedReplacement.getValue() instanceof final String value && !LanguageTemplate.isPlaceholder(key)) {
+                        rendered = rendered.replace(key, value);
+                    }
+                }
             }
+        }
+        return rendered;
+    }
 
-            //main.getLogManager().severe("Object: " + internalPlaceholderObject.toString());
-            if (internalPlaceholderObject instanceof final ActiveQuest activeQuest) {
-                // main.getLogManager().info("Quest placeholders...");
-                internalPlaceholderReplacements.put("%QUESTNAME%", () -> activeQuest.getQuest().getDisplayNameOrIdentifier());
-                internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", () -> activeQuest.getQuest().getObjectiveHolderDescription());
-                internalPlaceholderReplacements.put("%COMPLETEDOBJECTIVESCOUNT%", () -> "" + activeQuest.getCompletedObjectives().size());
-                internalPlaceholderReplacements.put("%ALLOBJECTIVESCOUNT%", () -> "" + activeQuest.getQuest().getObjectives().size());
-            } else if (internalPlaceholderObject instanceof final ActiveObjective activeObjective) {
-
-                final ActiveQuest activeQuest = findTopLevelActiveQuestOfActiveObjective(activeObjective);
-                if(activeQuest != null){
-                    internalPlaceholderReplacements.put("%QUESTNAME%", () -> activeQuest.getQuest().getDisplayNameOrIdentifier());
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", () -> activeQuest.getQuest().getObjectiveHolderDescription());
+    /**
+     * @param placeholder the placeholder, e.g. %QUESTNAME%
+     * @return the value of the placeholder for the given objects, or null if none of them provide it. If multiple objects provide it, the last one wins
+     */
+    private @Nullable String resolveInternalPlaceholder(final String placeholder, @Nullable final Player player, final @Nullable Object[] internalPlaceholderObjects) {
+        if (placeholder.equals("%QUESTCOOLDOWNLEFTFORMATTED%")) {
+            Quest foundQuest = null;
+            QuestPlayer foundQuestPlayer = null;
+            for (final @Nullable Object internalPlaceholderObject : internalPlaceholderObjects) {
+                if (internalPlaceholderObject instanceof final Quest quest) {
+                    foundQuest = quest;
+                } else if (internalPlaceholderObject instanceof final QuestPlayer questPlayer) {
+                    foundQuestPlayer = questPlayer;
                 }
+            }
+            if (foundQuest != null && foundQuestPlayer != null) {
+                return foundQuestPlayer.getCooldownFormatted(foundQuest);
+            }
+        }
 
-                internalPlaceholderReplacements.put("%OBJECTIVEID%", () -> "" + activeObjective.getObjective().getObjectiveID());
-                internalPlaceholderReplacements.put("%ACTIVEOBJECTIVEID%", () -> "" + activeObjective.getObjective().getObjectiveID());
-                internalPlaceholderReplacements.put("%OBJECTIVENAME%", () -> "" + activeObjective.getObjective().getDisplayNameOrIdentifier());
-                internalPlaceholderReplacements.put("%ACTIVEOBJECTIVEPROGRESS%", () -> {
-                    String formatted = String.format("%.2f", activeObjective.getCurrentProgress());
-                    if(formatted.endsWith(".00") || formatted.endsWith(",00")){
-                        formatted = formatted.substring(0, formatted.length()-3);
-                    }
-                    return formatted;
-                });
-                internalPlaceholderReplacements.put("%OBJECTIVEPROGRESSNEEDED%", () -> {
-                    String formatted = String.format("%.2f", activeObjective.getProgressNeeded());
-                    if(formatted.endsWith(".00") || formatted.endsWith(",00")){
-                        formatted = formatted.substring(0, formatted.length()-3);
-                    }
-                    return formatted;
-                });
-                internalPlaceholderReplacements.put("%OBJECTIVEPROGRESSPERCENTAGE%", () -> "" + (int) ((float) ((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100));
-                internalPlaceholderReplacements.put("%OBJECTIVETASKDESCRIPTION%", () -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), false, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective));
-                internalPlaceholderReplacements.put("%COMPLETEDOBJECTIVETASKDESCRIPTION%", () -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), true, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective));
-                internalPlaceholderReplacements.put("%OBJECTIVEDESCRIPTION%", () -> activeObjective.getObjective().getObjectiveHolderDescription());
-            } else if (internalPlaceholderObject instanceof final ActiveObjectiveHolder activeObjectiveHolder) {
-                // main.getLogManager().info("Quest placeholders...");
-                if(activeObjectiveHolder.getObjectiveHolder() instanceof final Quest quest){
-                    internalPlaceholderReplacements.put("%QUESTNAME%",
-                        quest::getDisplayNameOrIdentifier);
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%",
-                        quest::getObjectiveHolderDescription);
-                }
+        for (int i = internalPlaceholderObjects.length - 1; i >= 0; i--) {
+            final String value = resolveInternalPlaceholder(placeholder, player, internalPlaceholderObjects[i]);
+            if (value != null) {
+                return value;
+            }
+        }
 
-                internalPlaceholderReplacements.put("%COMPLETEDOBJECTIVESCOUNT%", () -> "" + activeObjectiveHolder.getCompletedObjectives().size());
-                internalPlaceholderReplacements.put("%ALLOBJECTIVESCOUNT%", () -> "" + activeObjectiveHolder.getObjectiveHolder().getObjectives().size());
-            } else if (internalPlaceholderObject instanceof final Quest quest) {
-                //main.getLogManager().info("Applying Quest placeholders...");
-                internalPlaceholderReplacements.put("%QUESTNAME%", quest::getDisplayNameOrIdentifier);
-                internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", quest::getObjectiveHolderDescription);
-                foundQuest = quest;
-            }  else if (internalPlaceholderObject instanceof final Objective objective) {
-                //main.getLogManager().info("Applying Objective placeholders...");
-                if(objective.getObjectiveHolder() instanceof final Quest quest){
-                    internalPlaceholderReplacements.put("%QUESTNAME%", () -> quest.getDisplayNameOrIdentifier());
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", () -> quest.getObjectiveHolderDescription());
-                }
-                internalPlaceholderReplacements.put("%OBJECTIVEID%", () -> "" + objective.getObjectiveID());
-                internalPlaceholderReplacements.put("%OBJECTIVENAME%", () -> "" + objective.getDisplayNameOrIdentifier());
-            } else if (internalPlaceholderObject instanceof final ObjectiveHolder objectiveHolder) {
-                //main.getLogManager().info("Applying Quest placeholders...");
-                if(objectiveHolder instanceof final Quest quest){
-                    internalPlaceholderReplacements.put("%QUESTNAME%", quest::getDisplayNameOrIdentifier);
-                    internalPlaceholderReplacements.put("%QUESTDESCRIPTION%", quest::getObjectiveHolderDescription);
-                }
+        if (placeholder.equals("%QUESTPOINTS%")) {
+            return "0";
+        }
+        return null;
+    }
 
-            }else if (internalPlaceholderObject instanceof final Trigger trigger) {
-                //main.getLogManager().log(Level.INFO, "Applying Trigger placeholders...");
-            } else if (internalPlaceholderObject instanceof final QuestPlayer questPlayer) {
-                //main.getLogManager().log(Level.INFO, "Applying QuestPlayer placeholders...");
-                internalPlaceholderReplacements.put("%QUESTPOINTS%", () -> "" + questPlayer.getQuestPoints());
-                internalPlaceholderReplacements.put("%PROFILENAME%", () -> "" + questPlayer.getProfile());
-                foundQuestPlayer = questPlayer;
-            } else if (internalPlaceholderObject instanceof final Map providedInternalPlaceholderReplacements) {
-                for (final Object key : providedInternalPlaceholderReplacements.keySet()) {
-                    internalPlaceholderReplacements.put((String) key, () -> (String) providedInternalPlaceholderReplacements.get(key));
+    private @Nullable String resolveInternalPlaceholder(final String placeholder, @Nullable final Player player, final @Nullable Object internalPlaceholderObject) {
+        if (internalPlaceholderObject instanceof final ActiveQuest activeQuest) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> activeQuest.getQuest().getDisplayNameOrIdentifier();
+                case "%QUESTDESCRIPTION%" -> activeQuest.getQuest().getObjectiveHolderDescription();
+                case "%COMPLETEDOBJECTIVESCOUNT%" -> "" + activeQuest.getCompletedObjectives().size();
+                case "%ALLOBJECTIVESCOUNT%" -> "" + activeQuest.getQuest().getObjectives().size();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final ActiveObjective activeObjective) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> {
+                    final ActiveQuest activeQuest = findTopLevelActiveQuestOfActiveObjective(activeObjective);
+                    yield activeQuest != null ? activeQuest.getQuest().getDisplayNameOrIdentifier() : null;
+                }
+                case "%QUESTDESCRIPTION%" -> {
+                    final ActiveQuest activeQuest = findTopLevelActiveQuestOfActiveObjective(activeObjective);
+                    yield activeQuest != null ? activeQuest.getQuest().getObjectiveHolderDescription() : null;
                 }
+                case "%OBJECTIVEID%", "%ACTIVEOBJECTIVEID%" -> "" + activeObjective.getObjective().getObjectiveID();
+                case "%OBJECTIVENAME%" -> "" + activeObjective.getObjective().getDisplayNameOrIdentifier();
+                case "%ACTIVEOBJECTIVEPROGRESS%" -> formatProgress(activeObjective.getCurrentProgress());
+                case "%OBJECTIVEPROGRESSNEEDED%" -> formatProgress(activeObjective.getProgressNeeded());
+                case "%OBJECTIVEPROGRESSPERCENTAGE%" -> "" + (int) ((float) ((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100);
+                case "%OBJECTIVETASKDESCRIPTION%" -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), false, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective);
+                case "%COMPLETEDOBJECTIVETASKDESCRIPTION%" -> main.getQuestManager().getObjectiveTaskDescription(activeObjective.getObjective(), true, main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()), activeObjective);
+                case "%OBJECTIVEDESCRIPTION%" -> activeObjective.getObjective().getObjectiveHolderDescription();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final ActiveObjectiveHolder activeObjectiveHolder) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> activeObjectiveHolder.getObjectiveHolder() instanceof final Quest quest ? quest.getDisplayNameOrIdentifier() : null;
+                case "%QUESTDESCRIPTION%" -> activeObjectiveHolder.getObjectiveHolder() instanceof final Quest quest ? quest.getObjectiveHolderDescription() : null;
+                case "%COMPLETEDOBJECTIVESCOUNT%" -> "" + activeObjectiveHolder.getCompletedObjectives().size();
+                case "%ALLOBJECTIVESCOUNT%" -> "" + activeObjectiveHolder.getObjectiveHolder().getObjectives().size();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final Quest quest) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> quest.getDisplayNameOrIdentifier();
+                case "%QUESTDESCRIPTION%" -> quest.getObjectiveHolderDescription();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final Objective objective) {
+            return switch (placeholder) {
+                case "%QUESTNAME%" -> objective.getObjectiveHolder() instanceof final Quest quest ? quest.getDisplayNameOrIdentifier() : null;
+                case "%QUESTDESCRIPTION%" -> objective.getObjectiveHolder() instanceof final Quest quest ? quest.getObjectiveHolderDescription() : null;
+                case "%OBJECTIVEID%" -> "" + objective.getObjectiveID();
+                case "%OBJECTIVENAME%" -> "" + objective.getDisplayNameOrIdentifier();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final ObjectiveHolder objectiveHolder) {
+            if (objectiveHolder instanceof final Quest quest) {
+                return switch (placeholder) {
+                    case "%QUESTNAME%" -> quest.getDisplayNameOrIdentifier();
+                    case "%QUESTDESCRIPTION%" -> quest.getObjectiveHolderDescription();
+                    default -> null;
+                };
             }
-
+        } else if (internalPlaceholderObject instanceof final QuestPlayer questPlayer) {
+            return switch (placeholder) {
+                case "%QUESTPOINTS%" -> "" + questPlayer.getQuestPoints();
+                case "%PROFILENAME%" -> "" + questPlayer.getProfile();
+                default -> null;
+            };
+        } else if (internalPlaceholderObject instanceof final Map<?, ?> providedInternalPlaceholderReplacements) {
+            return (String) providedInternalPlaceholderReplacements.get(placeholder);
         }
+        return null;
+    }
 
-        if (foundQuest != null && foundQuestPlayer != null) {
-            final QuestPlayer finalFoundQuestPlayer = foundQuestPlayer;
-            final Quest finalFoundQuest = foundQuest;
-            internalPlaceholderReplacements.put("%QUESTCOOLDOWNLEFTFORMATTED%", () -> finalFoundQuestPlayer.getCooldownFormatted(finalFoundQuest));
+    private String formatProgress(final double progress) {
+        String formatted = String.format("%.2f", progress);
+        if(formatted.endsWith(".00") || formatted.endsWith(",00")){
+            formatted = formatted.substring(0, formatted.length()-3);
         }
-        /*main.getLogManager().warn("initialMessage: " + initialMessage);
-        main.getLogManager().warn(" Keys: " + Arrays.toString(internalPlaceholderReplacements.keySet().toArray()));
-        main.getLogManager().severe("  Contains %QUESTNAME%: " + internalPlaceholderReplacements.containsKey("%QUESTNAME%"));
-        */
-        return main.getUtilManager().replaceFromMap(initialMessage, internalPlaceholderReplacements);
+        return formatted;
     }
 
     public final List<String> applySpecial(final List<String> initialMessage) {
@@ -0,0 +1,133 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.ArrayList;
+import java.util.function.Function;
+
+/**
+ * A language string which has been split into literal text and internal placeholders (like %QUESTNAME%) once,
+ * so the placeholders can be replaced in a single pass instead of searching the whole string for every possible placeholder.
+ * Placeholders which cannot be resolved (e.g. PlaceholderAPI placeholders) are kept as they are.
+ */
+public class LanguageTemplate {
+    //Re-used for rendering. Only used after all placeholder values have been resolved, as resolving them can render other templates
+    private static final ThreadLocal<StringBuilder> stringBuilders = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final int maxPooledStringBuilderCapacity = 8192;
+
+    private final String raw;
+    //The string is literals[0] + placeholders[0] + literals[1] + ... + literals[literals.length - 1]
+    private final String[] literals;
+    private final String[] placeholders;
+
+    private LanguageTemplate(final String raw, final String[] literals, final String[] placeholders) {
+        this.raw = raw;
+        this.literals = literals;
+        this.placeholders = placeholders;
+    }
+
+    public static LanguageTemplate compile(final String raw) {
+        final ArrayList<String> literals = new ArrayList<>();
+        final ArrayList<String> placeholders = new ArrayList<>();
+
+        int literalStart = 0;
+        int index = raw.indexOf('%');
+        while (index != -1) {
+            int end = index + 1;
+            while (end < raw.length() && isPlaceholderCharacter(raw.charAt(end))) {
+                end++;
+            }
+            if (end > index + 1 && end < raw.length() && raw.charAt(end) == '%') {
+                literals.add(raw.substring(literalStart, index));
+                placeholders.add(raw.substring(index, end + 1));
+                literalStart = end + 1;
+                index = raw.indexOf('%', literalStart);
+            } else {
+                index = raw.indexOf('%', index + 1);
+            }
+        }
+        literals.add(raw.substring(literalStart));
+
+        return new LanguageTemplate(raw, literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    private static boolean isPlaceholderCharacter(final char character) {
+        return Character.isLetterOrDigit(character) || character == '_' || character == '-' || character == '.';
+    }
+
+    /**
+     * @return if the key would be recognized as a placeholder by templates, e.g. %QUESTNAME%
+     */
+    public static boolean isPlaceholder(final String key) {
+        if (key.length() < 3 || key.charAt(0) != '%' || key.charAt(key.length() - 1) != '%') {
+            return false;
+        }
+        for (int i = 1; i < key.length() - 1; i++) {
+            if (!isPlaceholderCharacter(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public final String getRaw() {
+        return raw;
+    }
+
+    /**
+     * @return if the string does not contain anything which could be replaced - neither internal nor PlaceholderAPI placeholders
+     */
+    public final boolean isConstant() {
+        return placeholders.length == 0 && raw.indexOf('%') == -1;
+    }
+
+    /**
+     * @param resolver returns the value of a placeholder (including the % characters), or null if it cannot be resolved
+     * @return the string with all placeholders which could be resolved replaced
+     */
+    public final String render(final Function<String, String> resolver) {
+        if (placeholders.length == 0) {
+            return raw;
+        }
+        final String[] values = new String[placeholders.length];
+        boolean anyResolved = false;
+        for (int i = 0; i < placeholders.length; i++) {
+            values[i] = resolver.apply(placeholders[i]);
+            if (values[i] != null) {
+                anyResolved = true;
+            }
+        }
+        if (!anyResolved) {
+            return raw;
+        }
+
+        final StringBuilder stringBuilder = stringBuilders.get();
+        stringBuilder.setLength(0);
+        for (int i = 0; i < placeholders.length; i++) {
+            stringBuilder.append(literals[i]).append(values[i] != null ? values[i] : placeholders[i]);
+        }
+        stringBuilder.append(literals[literals.length - 1]);
+
+        final String rendered = stringBuilder.toString();
+        if (stringBuilder.capacity() > maxPooledStringBuilderCapacity) {
+            stringBuilders.set(new StringBuilder(256));
+        }
+        return rendered;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * Size- and time-bounded cache for the QuestPlayers of offline players, used if offline player data is loaded lazily.
+ * That way, only online players stay in the QuestPlayerManager, and offline players (e.g. for admin commands) are only loaded when needed.
+ * Entries which are evicted or expire are written back through the write-behind queue if they have unsaved changes.
+ */
+public class OfflineQuestPlayerCache {
+  private final NotQuests main;
+  private final QuestPlayerManager questPlayerManager;
+
+  //Access ordered, so the least recently used player is evicted first
+  private final LinkedHashMap<UUID, CachedQuestPlayers> cachedQuestPlayers;
+
+  private BukkitTask expireTask;
+  private volatile boolean enabled = false;
+
+  private int maxSize;
+  private long expireAfterMillis;
+
+  //Metrics
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+  private final AtomicLong writeBackCount = new AtomicLong();
+
+  public OfflineQuestPlayerCache(final NotQuests main, final QuestPlayerManager questPlayerManager) {
+    this.main = main;
+    this.questPlayerManager = questPlayerManager;
+    cachedQuestPlayers = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  public void start() {
+    if (enabled || !main.getConfiguration().isLazyLoadOfflinePlayerData()) {
+      return;
+    }
+    maxSize = Math.max(1, main.getConfiguration().getOfflinePlayerDataCacheMaxSize());
+    expireAfterMillis = Math.max(1, main.getConfiguration().getOfflinePlayerDataCacheExpireAfterSeconds()) * 1000L;
+
+    final long expireCheckIntervalTicks = Math.min(60, Math.max(1, expireAfterMillis / 1000)) * 20L;
+    expireTask = Bukkit.getScheduler().runTaskTimer(main.getMain(), this::expire, expireCheckIntervalTicks, expireCheckIntervalTicks);
+    enabled = true;
+
+    main.getLogManager().info("Offline player data is loaded lazily (Cache size: %s, Expires after: %ss)",
+        maxSize,
+        expireAfterMillis / 1000
+    );
+  }
+
+  /**
+   * Writes back all cached QuestPlayers which have unsaved changes. Needs to be called before the write-behind queue is shut down.
+   */
+  public void shutdown() {
+    if (!enabled) {
+      return;
+    }
+    enabled = false;
+    if (expireTask != null) {
+      expireTask.cancel();
+      expireTask = null;
+    }
+    final ArrayList<CachedQuestPlayers> removedQuestPlayers;
+    synchronized (cachedQuestPlayers) {
+      removedQuestPlayers = new ArrayList<>(cachedQuestPlayers.values());
+      cachedQuestPlayers.clear();
+    }
+    writeBack(removedQuestPlayers, false);
+  }
+
+  public final boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @param uuid UUID of the offline player
+   * @return the cached QuestPlayer of the player's current profile, or null if they are not cached (or expired)
+   */
+  public @Nullable QuestPlayer getActiveQuestPlayer(final UUID uuid) {
+    final CachedQuestPlayers cached;
+    synchronized (cachedQuestPlayers) {
+      cached = cachedQuestPlayers.get(uuid);
+      if (cached != null && System.currentTimeMillis() - cached.lastAccess <= expireAfterMillis) {
+        cached.lastAccess = System.currentTimeMillis();
+        hitCount.incrementAndGet();
+        return cached.activeQuestPlayer;
+      }
+    }
+    missCount.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Caches the QuestPlayers of an offline player. If the cache is full, the least recently used player is evicted.
+   *
+   * @param uuid UUID of the offline player
+   * @param questPlayers QuestPlayers of all profiles of that player
+   * @param activeQuestPlayer QuestPlayer of their current profile
+   */
+  public void put(final UUID uuid, final List<QuestPlayer> questPlayers, final QuestPlayer activeQuestPlayer) {
+    final ArrayList<CachedQuestPlayers> evictedQuestPlayers = new ArrayList<>();
+    synchronized (cachedQuestPlayers) {
+      final CachedQuestPlayers oldQuestPlayers = cachedQuestPlayers.put(uuid, new CachedQuestPlayers(List.copyOf(questPlayers), activeQuestPlayer));
+      if (oldQuestPlayers != null) {
+        evictedQuestPlayers.add(oldQuestPlayers);
+      }
+      final Iterator<CachedQuestPlayers> iterator = cachedQuestPlayers.values().iterator();
+      while (cachedQuestPlayers.size() > maxSize && iterator.hasNext()) {
+        evictedQuestPlayers.add(iterator.next());
+        iterator.remove();
+        evictionCount.incrementAndGet();
+      }
+    }
+    writeBack(evictedQuestPlayers, true);
+  }
+
+  /**
+   * Removes the player from the cache and writes back their unsaved changes. Needs to be called before the player's data is loaded again (e.g. when they join).
+   *
+   * @param uuid UUID of the player
+   */
+  public void invalidate(final UUID uuid) {
+    final CachedQuestPlayers removedQuestPlayers;
+    synchronized (cachedQuestPlayers) {
+      removedQuestPlayers = cachedQuestPlayers.remove(uuid);
+    }
+    if (removedQuestPlayers != null) {
+      writeBack(List.of(removedQuestPlayers), false);
+    }
+  }
+
+  public void expire() {
+    final ArrayList<CachedQuestPlayers> expiredQuestPlayers = new ArrayList<>();
+    final long currentTime = System.currentTimeMillis();
+    synchronized (cachedQuestPlayers) {
+      final Iterator<Map.Entry<UUID, CachedQuestPlayers>> iterator = cachedQuestPlayers.entrySet().iterator();
+      while (iterator.hasNext()) {
+        final CachedQuestPlayers cached = iterator.next().getValue();
+        if (currentTime - cached.lastAccess > expireAfterMillis) {
+          expiredQuestPlayers.add(cached);
+          iterator.remove();
+          evictionCount.incrementAndGet();
+        }
+      }
+    }
+    writeBack(expiredQuestPlayers, true);
+  }
+
+  /**
+   * @param async if the QuestPlayers should not be saved on the current thread if the write-behind queue is disabled and this is the main thread
+   */
+  private void writeBack(final List<CachedQuestPlayers> removedQuestPlayers, final boolean async) {
+    final ArrayList<QuestPlayer> changedQuestPlayers = new ArrayList<>();
+    for (final CachedQuestPlayers cached : removedQuestPlayers) {
+      for (final QuestPlayer questPlayer : cached.questPlayers) {
+        if (questPlayer.hasUnsavedChanges()) {
+          changedQuestPlayers.add(questPlayer);
+        }
+      }
+    }
+    if (changedQuestPlayers.isEmpty() || !main.getConfiguration().savePlayerData) {
+      return;
+    }
+    writeBackCount.addAndGet(changedQuestPlayers.size());
+    if (async && Bukkit.isPrimaryThread() && !questPlayerManager.getPlayerDataSaveQueue().isRunning()) {
+      //Snapshots are created before going async, so the QuestPlayers are never read off the main thread while they could still change
+      final List<PlayerDataSnapshot> snapshots = questPlayerManager.createPlayerDataSnapshots(changedQuestPlayers);
+      Bukkit.getScheduler().runTaskAsynchronously(main.getMain(), () -> questPlayerManager.savePlayerDataSnapshots(snapshots));
+    } else {
+      questPlayerManager.getPlayerDataSaveQueue().queue(changedQuestPlayers);
+    }
+  }
+
+  public final int getSize() {
+    synchronized (cachedQuestPlayers) {
+      return cachedQuestPlayers.size();
+    }
+  }
+
+  public final long getHitCount() {
+    return hitCount.get();
+  }
+
+  public final long getMissCount() {
+    return missCount.get();
+  }
+
+  public final long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  public final long getWriteBackCount() {
+    return writeBackCount.get();
+  }
+
+  private static final class CachedQuestPlayers {
+    private final List<QuestPlayer> questPlayers;
+    private final QuestPlayer activeQuestPlayer;
+    private long lastAccess;
+
+    private CachedQuestPlayers(final List<QuestPlayer> questPlayers, final QuestPlayer activeQuestPlayer) {
+      this.questPlayers = questPlayers;
+      this.activeQuestPlayer = activeQuestPlayer;
+      this.lastAccess = System.currentTimeMillis();
+    }
+  }
+}
@@ -0,0 +1,429 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * Write-behind queue for player data. Snapshots of QuestPlayers with unsaved changes are queued (grouped by UUID and profile) and saved in batches
+ * by a dedicated thread - periodically, once enough players are queued, or when a player with pending data is loaded again.
+ * This way, many players leaving at once don't all compete for database connections, and progress is saved regularly instead of only on quit/shutdown.
+ * <p>
+ * The snapshots are created when queueing, so the saving thread never reads the QuestPlayers themselves.
+ * QuestPlayers are only collected for periodic saving after they have been marked as changed (see {@link #markChanged(QuestPlayer)}),
+ * so the other QuestPlayers don't need to be checked.
+ */
+public class PlayerDataSaveQueue {
+  private final NotQuests main;
+  private final QuestPlayerManager questPlayerManager;
+
+  //Insertion ordered, so players are saved in the order they were first queued. Snapshots of the same player are saved in the order they were created.
+  //Also used as the monitor for back-pressure
+  private final LinkedHashMap<QueueKey, ArrayDeque<PlayerDataSnapshot>> pendingSnapshots;
+  //Held while a batch is taken from the queue and saved, so loading a player can wait for their data to be written
+  private final ReentrantLock flushLock;
+  private final AtomicBoolean flushScheduled;
+  //QuestPlayers which changed since they were last collected
+  private final Set<QuestPlayer> changedQuestPlayers;
+
+  private ExecutorService executor;
+  private BukkitTask collectChangedQuestPlayersTask;
+  private volatile boolean running = false;
+
+  private int maxBatchSize;
+  private int maxQueueSize;
+
+  //Metrics
+  private final AtomicLong queuedCount = new AtomicLong();
+  private final AtomicLong mergedCount = new AtomicLong();
+  private final AtomicLong flushCount = new AtomicLong();
+  private final AtomicLong flushedQuestPlayersCount = new AtomicLong();
+  private final AtomicLong failedFlushCount = new AtomicLong();
+  private final AtomicLong backPressureWaitCount = new AtomicLong();
+  private volatile long lastFlushLatencyMs = 0;
+  private volatile long maxFlushLatencyMs = 0;
+
+  public PlayerDataSaveQueue(final NotQuests main, final QuestPlayerManager questPlayerManager) {
+    this.main = main;
+    this.questPlayerManager = questPlayerManager;
+    pendingSnapshots = new LinkedHashMap<>();
+    flushLock = new ReentrantLock();
+    flushScheduled = new AtomicBoolean(false);
+    changedQuestPlayers = ConcurrentHashMap.newKeySet();
+  }
+
+  public void start() {
+    if (running || !main.getConfiguration().isPlayerDataWriteBehindEnabled()) {
+      return;
+    }
+    maxBatchSize = Math.max(1, main.getConfiguration().getPlayerDataWriteBehindMaxBatchSize());
+    maxQueueSize = Math.max(maxBatchSize, main.getConfiguration().getPlayerDataWriteBehindMaxQueueSize());
+    final long flushIntervalTicks = Math.max(1, main.getConfiguration().getPlayerDataWriteBehindFlushIntervalSeconds()) * 20L;
+
+    executor = Executors.newSingleThreadExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "NotQuests Player Data Saver");
+      thread.setDaemon(true);
+      return thread;
+    });
+    //Collecting changed QuestPlayers happens on the main thread, as that's where they are modified
+    collectChangedQuestPlayersTask = Bukkit.getScheduler().runTaskTimer(main.getMain(), this::queueChangedQuestPlayers, flushIntervalTicks, flushIntervalTicks);
+    running = true;
+
+    main.getLogManager().info("Player data write-behind queue started (Flush interval: %ss, Batch size: %s, Max queue size: %s)",
+        flushIntervalTicks / 20,
+        maxBatchSize,
+        maxQueueSize
+    );
+  }
+
+  /**
+   * Stops the background saving and writes everything which is still queued on the current thread.
+   */
+  public void shutdown() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    if (collectChangedQuestPlayersTask != null) {
+      collectChangedQuestPlayersTask.cancel();
+      collectChangedQuestPlayersTask = null;
+    }
+    changedQuestPlayers.clear();
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+        main.getLogManager().warn("Player data saver did not finish within 30 seconds. Saving the remaining queued player data now...");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (pendingSnapshots) {
+      pendingSnapshots.notifyAll();
+    }
+
+    main.getLogManager().info("Draining player data write-behind queue (%s queued)...", getQueueDepth());
+    flushAll();
+  }
+
+  public final boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Marks the QuestPlayer as changed, so it's queued the next time changed QuestPlayers are collected. Can be called from any thread.
+   *
+   * @param questPlayer QuestPlayer which has been modified
+   */
+  public void markChanged(final QuestPlayer questPlayer) {
+    if (running) {
+      changedQuestPlayers.add(questPlayer);
+    }
+  }
+
+  /**
+   * Queues all QuestPlayers which have been marked as changed and have changes which have not been saved yet. Called on the main thread.
+   */
+  public void queueChangedQuestPlayers() {
+    final ArrayList<QuestPlayer> questPlayersToQueue = new ArrayList<>();
+    final Iterator<QuestPlayer> iterator = changedQuestPlayers.iterator();
+    while (iterator.hasNext()) {
+      final QuestPlayer questPlayer = iterator.next();
+      if (!questPlayer.isFinishedLoadingGeneralData()) {
+        //Stays marked until it has been loaded
+        continue;
+      }
+      //Removed before its changes are read, so changes happening afterwards mark it again
+      iterator.remove();
+      //QuestPlayers which have been replaced, or which belong to the offline player cache, are saved elsewhere
+      if (questPlayerManager.getQuestPlayer(questPlayer.getUniqueId(), questPlayer.getProfile()) == questPlayer && questPlayer.hasUnsavedChanges()) {
+        questPlayersToQueue.add(questPlayer);
+      }
+    }
+    if (!questPlayersToQueue.isEmpty()) {
+      queue(questPlayersToQueue);
+    }
+    requestFlush();
+  }
+
+  /**
+   * Queues the QuestPlayers to be saved. If the queue is not running, they are saved right away on the current thread.
+   * If the queue is full, this blocks until there is space again - unless it's called from the main thread.
+   * <p>
+   * The snapshots of the QuestPlayers are created on the current thread, so this needs to be called on the main thread,
+   * unless the QuestPlayers are not modified anymore (e.g. because their player has left).
+   *
+   * @param questPlayers QuestPlayers to save
+   */
+  public void queue(final Collection<QuestPlayer> questPlayers) {
+    queueSnapshots(questPlayerManager.createPlayerDataSnapshots(questPlayers));
+  }
+
+  /**
+   * Queues snapshots which have already been created. Same as {@link #queue(Collection)} otherwise.
+   *
+   * @param playerDataSnapshots snapshots to save. Snapshots of the same QuestPlayer need to be in the order they were created
+   */
+  public void queueSnapshots(final List<PlayerDataSnapshot> playerDataSnapshots) {
+    final ArrayList<PlayerDataSnapshot> snapshots = new ArrayList<>(playerDataSnapshots.size());
+    for (final PlayerDataSnapshot snapshot : playerDataSnapshots) {
+      if (!snapshot.isEmpty()) {
+        snapshots.add(snapshot);
+      }
+    }
+    if (snapshots.isEmpty()) {
+      return;
+    }
+    if (!running) {
+      questPlayerManager.savePlayerDataSnapshots(snapshots);
+      return;
+    }
+    final int queueDepth;
+    synchronized (pendingSnapshots) {
+      for (final PlayerDataSnapshot snapshot : snapshots) {
+        queuedCount.incrementAndGet();
+        final QueueKey queueKey = new QueueKey(snapshot.uuid(), snapshot.profile());
+        ArrayDeque<PlayerDataSnapshot> queuedSnapshots = pendingSnapshots.get(queueKey);
+        if (queuedSnapshots == null) {
+          queuedSnapshots = new ArrayDeque<>();
+          pendingSnapshots.put(queueKey, queuedSnapshots);
+        } else {
+          mergedCount.incrementAndGet();
+          if (snapshot.replacesEarlierSnapshots()) {
+            //Rewrites everything anyway
+            queuedSnapshots.clear();
+          }
+        }
+        queuedSnapshots.addLast(snapshot);
+      }
+      queueDepth = pendingSnapshots.size();
+    }
+
+    if (queueDepth >= maxBatchSize) {
+      requestFlush();
+    }
+
+    if (queueDepth >= maxQueueSize && !Bukkit.isPrimaryThread()) {
+      //Back-pressure: don't let async callers queue faster than the database can keep up
+      backPressureWaitCount.incrementAndGet();
+      synchronized (pendingSnapshots) {
+        while (running && pendingSnapshots.size() >= maxQueueSize) {
+          try {
+            pendingSnapshots.wait(1000);
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Saves all queued data of that player on the current thread, and waits for data of that player which is currently being saved.
+   * Needs to be called before loading a player, so they don't load outdated data.
+   *
+   * @param uuid UUID of the player
+   */
+  public void flushPending(final UUID uuid) {
+    flushLock.lock();
+    try {
+      //Multiple snapshots of the same profile are saved one after another, in the order they were created
+      while (true) {
+        final ArrayList<PlayerDataSnapshot> snapshotsToSave = new ArrayList<>();
+        synchronized (pendingSnapshots) {
+          final Iterator<Map.Entry<QueueKey, ArrayDeque<PlayerDataSnapshot>>> iterator = pendingSnapshots.entrySet().iterator();
+          while (iterator.hasNext()) {
+            final Map.Entry<QueueKey, ArrayDeque<PlayerDataSnapshot>> entry = iterator.next();
+            if (entry.getKey().uuid().equals(uuid)) {
+              snapshotsToSave.add(entry.getValue().pollFirst());
+              if (entry.getValue().isEmpty()) {
+                iterator.remove();
+              }
+            }
+          }
+          pendingSnapshots.notifyAll();
+        }
+        if (snapshotsToSave.isEmpty() || !save(snapshotsToSave)) {
+          return;
+        }
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void requestFlush() {
+    if (!running || !flushScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        flushScheduled.set(false);
+        flushAll();
+      });
+    } catch (final Exception e) { //Executor already shut down
+      flushScheduled.set(false);
+    }
+  }
+
+  private void flushAll() {
+    while (flushBatch()) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Takes at most one snapshot per player profile, as all deletes of a batch are executed before its inserts.
+   *
+   * @return true if a batch was saved successfully and there might be more queued
+   */
+  private boolean flushBatch() {
+    flushLock.lock();
+    try {
+      final ArrayList<PlayerDataSnapshot> batch = new ArrayList<>();
+      synchronized (pendingSnapshots) {
+        final Iterator<ArrayDeque<PlayerDataSnapshot>> iterator = pendingSnapshots.values().iterator();
+        while (iterator.hasNext() && batch.size() < maxBatchSize) {
+          final ArrayDeque<PlayerDataSnapshot> queuedSnapshots = iterator.next();
+          batch.add(queuedSnapshots.pollFirst());
+          if (queuedSnapshots.isEmpty()) {
+            iterator.remove();
+          }
+        }
+        pendingSnapshots.notifyAll();
+      }
+      if (batch.isEmpty()) {
+        return false;
+      }
+      return save(batch);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private boolean save(final List<PlayerDataSnapshot> batch) {
+    final long startTime = System.nanoTime();
+    final boolean success = questPlayerManager.savePlayerDataSnapshots(batch);
+    final long latencyMs = (System.nanoTime() - startTime) / 1_000_000;
+
+    flushCount.incrementAndGet();
+    lastFlushLatencyMs = latencyMs;
+    if (latencyMs > maxFlushLatencyMs) {
+      maxFlushLatencyMs = latencyMs;
+    }
+
+    if (success) {
+      flushedQuestPlayersCount.addAndGet(batch.size());
+      return true;
+    }
+
+    failedFlushCount.incrementAndGet();
+    if (!running) {
+      //There won't be another flush after shutting down
+      retryIndividually(batch);
+      return true;
+    }
+    //Re-queue them in front of newer snapshots of the same player, unless a snapshot replacing them has been queued in the meantime. They will be retried on the next flush
+    synchronized (pendingSnapshots) {
+      for (final PlayerDataSnapshot snapshot : batch) {
+        final ArrayDeque<PlayerDataSnapshot> queuedSnapshots = pendingSnapshots.computeIfAbsent(new QueueKey(snapshot.uuid(), snapshot.profile()), queueKey -> new ArrayDeque<>());
+        if (queuedSnapshots.isEmpty() || !queuedSnapshots.peekFirst().replacesEarlierSnapshots()) {
+          queuedSnapshots.addFirst(snapshot);
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Saves each snapshot of the failed batch on its own, so a single player whose data can't be saved doesn't prevent saving the others.
+   * Players whose data still can't be saved are logged, as their changes might be lost.
+   */
+  private void retryIndividually(final List<PlayerDataSnapshot> batch) {
+    for (final PlayerDataSnapshot snapshot : batch) {
+      if (!questPlayerManager.savePlayerDataSnapshots(List.of(snapshot))) {
+        main.getLogManager().severe("Player data of player with UUID <highlight>%s</highlight> (Profile: %s) could not be saved while shutting down. Its unsaved changes might be lost!",
+            snapshot.uuid(),
+            snapshot.profile()
+        );
+      }
+    }
+  }
+
+  public final int getQueueDepth() {
+    synchronized (pendingSnapshots) {
+      return pendingSnapshots.size();
+    }
+  }
+
+  public final long getQueuedCount() {
+    return queuedCount.get();
+  }
+
+  public final long getMergedCount() {
+    return mergedCount.get();
+  }
+
+  public final long getFlushCount() {
+    return flushCount.get();
+  }
+
+  public final long getFlushedQuestPlayersCount() {
+    return flushedQuestPlayersCount.get();
+  }
+
+  public final long getFailedFlushCount() {
+    return failedFlushCount.get();
+  }
+
+  public final long getBackPressureWaitCount() {
+    return backPressureWaitCount.get();
+  }
+
+  public final long getLastFlushLatencyMs() {
+    return lastFlushLatencyMs;
+  }
+
+  public final long getMaxFlushLatencyMs() {
+    return maxFlushLatencyMs;
+  }
+
+  private record QueueKey(UUID uuid, String profile) {}
+}
@@ -0,0 +1,86 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.List;
+import java.util.UUID;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * Immutable copy of the rows of one QuestPlayer (profile) which need to be written to the database. Snapshots are created on the main thread,
+ * where QuestPlayers are modified, so the player data saving threads never read a QuestPlayer while it is changing.
+ * <p>
+ * Unless they are full, snapshots only contain what changed since the previous snapshot of the same QuestPlayer. So snapshots of the same QuestPlayer
+ * need to be written in the order they were created.
+ *
+ * @param questPlayer only used to mark the QuestPlayer as not persisted if writing the snapshot fails. Its data must not be read while saving
+ * @param full if all rows of this profile are deleted and inserted again
+ * @param currentProfile the current profile of the player, if it needs to be written to QuestPlayerProfileData. Otherwise null
+ * @param deletedActiveQuests identifiers of the active quests whose rows are deleted
+ * @param rewrittenActiveQuests active quests whose rows are deleted (unless the snapshot is full) and inserted again
+ * @param updatedActiveObjectives active objectives whose progress is updated in place
+ * @param rewriteCompletedQuests if all completed quest rows are deleted before the completedQuests are inserted
+ * @param completedQuests completed quest rows which are inserted
+ * @param rewriteFailedQuests if all failed quest rows are deleted before the failedQuests are inserted
+ * @param failedQuests failed quest rows which are inserted
+ * @param rewriteTags if all tag rows of this profile are deleted before the tags are inserted
+ * @param tags tags which are inserted. Unless all tags are rewritten, their old rows are deleted first
+ */
+public record PlayerDataSnapshot(QuestPlayer questPlayer, UUID uuid, String profile, boolean full, @Nullable String currentProfile,
+                                 long questPoints, boolean questPointsChanged,
+                                 List<String> deletedActiveQuests, List<ActiveQuestRows> rewrittenActiveQuests, List<ActiveObjectiveRow> updatedActiveObjectives,
+                                 boolean rewriteCompletedQuests, List<QuestHistoryRow> completedQuests,
+                                 boolean rewriteFailedQuests, List<QuestHistoryRow> failedQuests,
+                                 boolean rewriteTags, List<TagRow> tags) {
+
+  /**
+   * @return true if nothing needs to be written
+   */
+  public boolean isEmpty() {
+    return !full && currentProfile == null && !questPointsChanged
+        && deletedActiveQuests.isEmpty() && rewrittenActiveQuests.isEmpty() && updatedActiveObjectives.isEmpty()
+        && !rewriteCompletedQuests && completedQuests.isEmpty()
+        && !rewriteFailedQuests && failedQuests.isEmpty()
+        && !rewriteTags && tags.isEmpty();
+  }
+
+  /**
+   * @return true if writing this snapshot overwrites everything earlier snapshots of the same QuestPlayer would write, so these don't need to be written anymore
+   */
+  public boolean replacesEarlierSnapshots() {
+    return full && rewriteTags;
+  }
+
+  public record ActiveQuestRows(String questIdentifier, List<ActiveTriggerRow> activeTriggers, List<ActiveObjectiveRow> activeObjectives) {}
+
+  public record ActiveTriggerRow(String triggerType, long currentProgress, int triggerID) {}
+
+  /**
+   * @param questName the QuestName column. For sub-objectives, that's the quest identifier followed by the objective IDs of their parent objectives
+   */
+  public record ActiveObjectiveRow(String objectiveType, String questName, double currentProgress, int objectiveID, boolean hasBeenCompleted, double progressNeeded) {}
+
+  public record QuestHistoryRow(String questName, long time) {}
+
+  /**
+   * @param tagValue null if the tag has been removed. Then, its row is only deleted
+   * @param tagType the TagType column. Null if the tag has been removed
+   */
+  public record TagRow(String tagIdentifier, @Nullable String tagValue, @Nullable String tagType) {}
+}
@@ -0,0 +1,204 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.managers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.UUID;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.structs.ActiveQuest;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * The main loop, which updates every online player once per second (boss bar, beacons, condition objectives and objective unlock conditions).
+ * Instead of updating all players in the same tick, players are spread across 20 buckets by their UUID, and one bucket is updated per tick.
+ * If updating a bucket takes longer than the configured time budget, the remaining players are carried over into the next tick.
+ * Only used from the main thread.
+ */
+public class PlayerUpdateScheduler {
+  public static final int BUCKET_COUNT = 20;
+
+  private final NotQuests main;
+  //Run once per second, before the first bucket is updated
+  private final Runnable onNewCycle;
+
+  private final ArrayList<LinkedHashSet<UUID>> buckets;
+  private final ArrayDeque<ScheduledUpdate> pendingUpdates;
+  private final HashSet<UUID> pendingPlayers;
+
+  private BukkitTask task;
+  private long tick = 0;
+
+  //Metrics, per bucket
+  private final long[] lastBucketDurationNanos = new long[BUCKET_COUNT];
+  private final long[] maxBucketDurationNanos = new long[BUCKET_COUNT];
+  private final int[] lastBucketUpdatedPlayers = new int[BUCKET_COUNT];
+  private int lastCarriedOverUpdates = 0;
+  private long totalCarriedOverUpdates = 0;
+
+  public PlayerUpdateScheduler(final NotQuests main, final Runnable onNewCycle) {
+    this.main = main;
+    this.onNewCycle = onNewCycle;
+    buckets = new ArrayList<>(BUCKET_COUNT);
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets.add(new LinkedHashSet<>());
+    }
+    pendingUpdates = new ArrayDeque<>();
+    pendingPlayers = new HashSet<>();
+  }
+
+  public void start() {
+    if (task != null) {
+      return;
+    }
+    for (final Player player : Bukkit.getOnlinePlayers()) {
+      addPlayer(player.getUniqueId());
+    }
+    task = Bukkit.getScheduler().runTaskTimer(main.getMain(), this::tick, 0L, 1L);
+  }
+
+  public void stop() {
+    if (task != null) {
+      task.cancel();
+      task = null;
+    }
+  }
+
+  public static int getBucket(final UUID uuid) {
+    return Math.floorMod(uuid.hashCode(), BUCKET_COUNT);
+  }
+
+  public void addPlayer(final UUID uuid) {
+    buckets.get(getBucket(uuid)).add(uuid);
+  }
+
+  public void removePlayer(final UUID uuid) {
+    buckets.get(getBucket(uuid)).remove(uuid);
+    //Their queued update (if any) is skipped
+    pendingPlayers.remove(uuid);
+  }
+
+  private void tick() {
+    if (main.getDataManager().isDisabled()) {
+      return;
+    }
+    final int bucket = (int) (tick % BUCKET_COUNT);
+    final long cycle = tick / BUCKET_COUNT;
+    tick++;
+
+    if (bucket == 0) {
+      onNewCycle.run();
+    }
+
+    for (final UUID uuid : buckets.get(bucket)) {
+      //Players whose update from the last cycle is still queued are not queued twice
+      if (pendingPlayers.add(uuid)) {
+        pendingUpdates.add(new ScheduledUpdate(uuid, cycle));
+      }
+    }
+
+    final long startTime = System.nanoTime();
+    final long budgetNanos = (long) (main.getConfiguration().getMainLoopTickBudgetMs() * 1_000_000d);
+    int updatedPlayers = 0;
+    while (!pendingUpdates.isEmpty()) {
+      //At least one player is updated every tick, so the queue always makes progress
+      if (budgetNanos > 0 && updatedPlayers > 0 && System.nanoTime() - startTime >= budgetNanos) {
+        break;
+      }
+      final ScheduledUpdate scheduledUpdate = pendingUpdates.poll();
+      if (!pendingPlayers.remove(scheduledUpdate.uuid())) {
+        continue;
+      }
+      final Player player = Bukkit.getPlayer(scheduledUpdate.uuid());
+      if (player == null) {
+        continue;
+      }
+      final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+      if (questPlayer == null) { //e.g. still loading
+        continue;
+      }
+      updatePlayer(player, questPlayer, scheduledUpdate.cycle());
+      updatedPlayers++;
+    }
+
+    final long durationNanos = System.nanoTime() - startTime;
+    lastBucketDurationNanos[bucket] = durationNanos;
+    if (durationNanos > maxBucketDurationNanos[bucket]) {
+      maxBucketDurationNanos[bucket] = durationNanos;
+    }
+    lastBucketUpdatedPlayers[bucket] = updatedPlayers;
+    lastCarriedOverUpdates = pendingUpdates.size();
+    totalCarriedOverUpdates += pendingUpdates.size();
+  }
+
+  private void updatePlayer(final Player player, final QuestPlayer questPlayer, final long cycle) {
+    if(questPlayer.getBossBar() != null){
+      questPlayer.increaseBossBarTimeByOneSecond();
+    }
+
+    //Every 4 seconds
+    if(main.getConfiguration().getBeamMode().equals("end_gateway") && (cycle + 1) % 4 == 0){
+      questPlayer.updateBeaconLocations(player);
+    }
+
+    //Every 2 seconds
+    if((cycle + 1) % 2 == 0){
+      questPlayer.updateConditionObjectives(player);
+    }
+
+    // Check unlock objectives
+    final int objectiveUnlockConditionsCheckInterval = main.getConfiguration().getObjectiveUnlockConditionsCheckRegularInterval();
+    if(objectiveUnlockConditionsCheckInterval > 0 && (cycle + 1) % objectiveUnlockConditionsCheckInterval == 0) {
+      for(final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+        activeQuest.updateObjectivesUnlocked(true, true);
+      }
+    }
+  }
+
+  public final long getLastBucketDurationNanos(final int bucket) {
+    return lastBucketDurationNanos[bucket];
+  }
+
+  public final long getMaxBucketDurationNanos(final int bucket) {
+    return maxBucketDurationNanos[bucket];
+  }
+
+  public final int getLastBucketUpdatedPlayers(final int bucket) {
+    return lastBucketUpdatedPlayers[bucket];
+  }
+
+  public final int getBucketSize(final int bucket) {
+    return buckets.get(bucket).size();
+  }
+
+  public final int getLastCarriedOverUpdates() {
+    return lastCarriedOverUpdates;
+  }
+
+  public final long getTotalCarriedOverUpdates() {
+    return totalCarriedOverUpdates;
+  }
+
+  private record ScheduledUpdate(UUID uuid, long cycle) {}
+}
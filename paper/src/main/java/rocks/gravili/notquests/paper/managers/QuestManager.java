@@ -19,6 +19,9 @@
 package rocks.gravili.notquests.paper.managers;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -64,6 +67,10 @@ public class QuestManager {
     private final NotQuests main;
 
     private final ArrayList<Quest> quests;
+    //Lowercase quest identifier => quest. If multiple quests only differ in case, the first one wins - like the linear search before
+    private final HashMap<String, Quest> questsByLowercaseIdentifier;
+    //Immutable view of all quests, which is rebuilt whenever a quest is added or removed
+    private volatile List<Quest> questsView = List.of();
 
     private final ArrayList<UUID> debugEnabledPlayers;
 
@@ -328,6 +335,7 @@ public class QuestManager {
     public QuestManager(NotQuests main) {
         this.main = main;
         quests = new ArrayList<>();
+        questsByLowercaseIdentifier = new HashMap<>();
 
         debugEnabledPlayers = new ArrayList<>();
     }
@@ -338,7 +346,7 @@ public class QuestManager {
                 return ("<error>The symbol <highlight>°</highlight> cannot be used, because it's used for some important, plugin-internal stuff.");
             }
             Quest newQuest = new Quest(main, questName, category);
-            quests.add(newQuest);
+            addQuest(newQuest);
             category.getQuestsConfig().set("quests." + questName, "");
             category.saveQuestsConfig();
             return ("<success>Quest <highlight>" + questName + "</highlight> successfully created!");
@@ -353,7 +361,7 @@ public class QuestManager {
                 return ("<error>The symbol <highlight>°</highlight> cannot be used, because it's used for some important, plugin-internal stuff.");
             }
             final Quest newQuest = new Quest(main, questName);
-            quests.add(newQuest);
+            addQuest(newQuest);
             newQuest.getCategory().getQuestsConfig().set("quests." + questName, "");
             newQuest.getCategory().saveQuestsConfig();
             return ("<success>Quest <highlight>" + questName + "</highlight> successfully created!");
@@ -366,7 +374,7 @@ public class QuestManager {
         Quest questToDelete = getQuest(questName);
 
         if (questToDelete != null) {
-            quests.remove(questToDelete);
+            removeQuest(questToDelete);
             questToDelete.getCategory().getQuestsConfig().set("quests." + questName, null);
             questToDelete.getCategory().saveQuestsConfig();
             return ("<success>Quest <highlight>" + questName + "</highlight> successfully deleted!");
@@ -376,16 +384,45 @@ public class QuestManager {
     }
 
     public final Quest getQuest(String questName) {
-        for (Quest quest : quests) {
-            if (quest.getIdentifier().equalsIgnoreCase(questName)) {
-                return quest;
+        if (questName == null) {
+            return null;
+        }
+        return questsByLowercaseIdentifier.get(questName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return an immutable view of all quests
+     */
+    public final List<Quest> getAllQuests() {
+        return questsView;
+    }
+
+    private void addQuest(final Quest quest) {
+        quests.add(quest);
+        questsByLowercaseIdentifier.putIfAbsent(quest.getIdentifier().toLowerCase(Locale.ROOT), quest);
+        questsView = List.copyOf(quests);
+    }
+
+    private void removeQuest(final Quest quest) {
+        quests.remove(quest);
+        final String lowercaseIdentifier = quest.getIdentifier().toLowerCase(Locale.ROOT);
+        if (questsByLowercaseIdentifier.get(lowercaseIdentifier) == quest) {
+            questsByLowercaseIdentifier.remove(lowercaseIdentifier);
+            //Another quest might only differ in case
+            for (final Quest otherQuest : quests) {
+                if (otherQuest.getIdentifier().toLowerCase(Locale.ROOT).equals(lowercaseIdentifier)) {
+                    questsByLowercaseIdentifier.put(lowercaseIdentifier, otherQuest);
+                    break;
+                }
             }
         }
-        return null;
+        questsView = List.copyOf(quests);
     }
 
-    public final ArrayList<Quest> getAllQuests() {
-        return quests;
+    private void clearQuests() {
+        quests.clear();
+        questsByLowercaseIdentifier.clear();
+        questsView = List.of();
     }
 
     public void loadQuestsFromConfig() {
@@ -408,10 +445,15 @@ public class QuestManager {
         }
         main.getLogManager().info("Scheduled Quest Data load for following categories: <highlight>" + categoriesStringList);
 
-        quests.clear();
+        clearQuests();
+        final long startTime = System.nanoTime();
         for (final Category category : main.getDataManager().getCategories()) {
+            final long categoryStartTime = System.nanoTime();
             loadQuestsFromConfig(category);
+            main.getDataManager().getLoadingTimings().recordCategory(category, "Quests", System.nanoTime() - categoryStartTime);
         }
+        main.getDataManager().getLoadingTimings().recordPhase("Quests", System.nanoTime() - startTime);
+        main.getDataManager().getLoadingTimings().log();
 
     }
 
@@ -634,7 +676,7 @@ public class QuestManager {
                     //TakeItem:
                     quest.setTakeItem(category.getQuestsConfig().getItemStack("quests." + questName + ".takeItem"), false);
 
-                    quests.add(quest);
+                    addQuest(quest);
                 }
             }
             main.getDataManager().setAlreadyLoadedQuests(true);
@@ -1379,52 +1421,23 @@ public class QuestManager {
         return getQuestsFromListWithVisibilityEvaluations(questPlayer, getAllQuests());
     }
 
-    public final ArrayList<Quest> getQuestsFromListWithVisibilityEvaluations(final QuestPlayer questPlayer, final ArrayList<Quest> questsList) {
+    public final ArrayList<Quest> getQuestsFromListWithVisibilityEvaluations(final QuestPlayer questPlayer, final List<Quest> questsList) {
         final ArrayList<Quest> evaluatedQuests = new ArrayList<>();
         questLoop:
         for (final Quest quest : questsList) {
-            if (main.getConfiguration().isQuestVisibilityEvaluationAlreadyAccepted() && questPlayer != null){
-                for (ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                    if (activeQuest.getQuest().equals(quest)) {
-                        continue questLoop;
-                    }
-                }
+            final QuestHistory questHistory = questPlayer != null ? questPlayer.getQuestHistory(quest) : QuestHistory.EMPTY;
+            if (main.getConfiguration().isQuestVisibilityEvaluationAlreadyAccepted() && questHistory.isActive()){
+                continue;
             }
 
 
             if(main.getConfiguration().isQuestVisibilityEvaluationLimits() || main.getConfiguration().isQuestVisibilityEvaluationAcceptCooldown()){
-                int completedAmount = 0;
-                long mostRecentCompleteTime = 0;
-
-                int failedAmount = 0;
-                long mostRecentFailTime = 0;
-
-                int acceptedAmount = 0;
-                if(questPlayer != null){
-                    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-                        if (completedQuest.getQuest().equals(quest)) {
-                            completedAmount += 1;
-                            acceptedAmount += 1;
-                            if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-                                mostRecentCompleteTime = completedQuest.getTimeCompleted();
-                            }
-                        }
-                    }
-                    for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-                        if (failedQuest.getQuest().equals(quest)) {
-                            failedAmount += 1;
-                            acceptedAmount += 1;
-                            if (failedQuest.getTimeFailed() > mostRecentFailTime) {
-                                mostRecentFailTime = failedQuest.getTimeFailed();
-                            }
-                        }
-                    }
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            acceptedAmount += 1;
-                        }
-                    }
-                }
+                final int completedAmount = questHistory.getCompletedAmount();
+                final long mostRecentCompleteTime = questHistory.getMostRecentCompleteTime();
+
+                final int failedAmount = questHistory.getFailedAmount();
+
+                final int acceptedAmount = questHistory.getAcceptedAmount();
 
 
                 if(main.getConfiguration().isQuestVisibilityEvaluationLimits()) {
@@ -20,26 +20,80 @@ package rocks.gravili.notquests.paper.managers;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.managers.tags.TagType;
 import rocks.gravili.notquests.paper.structs.*;
+import rocks.gravili.notquests.paper.structs.objectives.Objective;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
 
 public class QuestPlayerManager {
   private final NotQuests main;
 
-  private final HashMap<UUID, List<QuestPlayer>> questPlayersAndUUIDs; //Can contain multiple profiles since one UUID can have multiple profiles => multiple QuestPlayer
-  private final HashMap<UUID, QuestPlayer> activeQuestPlayersAndUUIDs; //Only stores the current active profile
+  //Both are read by every event handler on the main thread, while player data is loaded and saved on other threads
+  private final ConcurrentHashMap<UUID, List<QuestPlayer>> questPlayersAndUUIDs; //Can contain multiple profiles since one UUID can have multiple profiles => multiple QuestPlayer
+  private final ConcurrentHashMap<UUID, QuestPlayer> activeQuestPlayersAndUUIDs; //Only stores the current active profile
+
+  //Players whose data is currently being loaded after they joined. Events for them are buffered until their QuestPlayer has been published
+  private final ConcurrentHashMap<UUID, PendingPlayerLoad> pendingPlayerLoads;
+  //Bounded, so a login storm doesn't use up all database connections
+  private final ExecutorService playerDataLoadExecutor;
+  private static final int MAX_BUFFERED_EVENTS_PER_PLAYER = 256;
+
+  //Bulk loading of player data
+  private static final int PLAYER_DATA_FETCH_SIZE = 1000;
+  private static final int PLAYER_DATA_LOAD_BATCH_SIZE = 500; //Player profiles per worker batch
+
+  //Metrics of the player data saving
+  private final AtomicLong totalPlayerDataRowsWritten = new AtomicLong();
+  private volatile int lastPlayerDataSaveRowsWritten = 0;
+  private volatile long lastPlayerDataSaveDurationMs = 0;
+
+  private final PlayerDataSaveQueue playerDataSaveQueue;
+  private final OfflineQuestPlayerCache offlineQuestPlayerCache;
 
 
   public QuestPlayerManager(NotQuests notQuests) {
     this.main = notQuests;
-    questPlayersAndUUIDs = new HashMap<>();
-    activeQuestPlayersAndUUIDs = new HashMap<>();
+    questPlayersAndUUIDs = new ConcurrentHashMap<>();
+    activeQuestPlayersAndUUIDs = new ConcurrentHashMap<>();
+    pendingPlayerLoads = new ConcurrentHashMap<>();
+
+    final AtomicInteger playerDataLoadThreadCount = new AtomicInteger();
+    playerDataLoadExecutor = Executors.newFixedThreadPool(Math.max(1, main.getConfiguration().getPlayerDataLoadThreads()), runnable -> {
+      final Thread thread = new Thread(runnable, "NotQuests Player Data Loader #" + playerDataLoadThreadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    playerDataSaveQueue = new PlayerDataSaveQueue(main, this);
+    playerDataSaveQueue.start();
+
+    offlineQuestPlayerCache = new OfflineQuestPlayerCache(main, this);
+    offlineQuestPlayerCache.start();
+  }
+
+  public final PlayerDataSaveQueue getPlayerDataSaveQueue() {
+    return playerDataSaveQueue;
+  }
+
+  public final OfflineQuestPlayerCache getOfflineQuestPlayerCache() {
+    return offlineQuestPlayerCache;
   }
 
   public void loadSinglePlayerData(final UUID uuid) {
@@ -49,12 +103,181 @@ public class QuestPlayerManager {
     if(main.getConfiguration().isVerboseStartupMessages()){
       main.getLogManager().info("Loading PlayerData of player %s...", uuid.toString());
     }
+    //Data of this player might still be waiting to be saved (e.g. if they re-join shortly after leaving)
+    offlineQuestPlayerCache.invalidate(uuid);
+    playerDataSaveQueue.flushPending(uuid);
+
     questPlayersAndUUIDs.remove(uuid);
-    activeQuestPlayersAndUUIDs.remove(uuid);
+    removeActiveQuestPlayer(uuid);
 
-    loadPlayerDataInternal(uuid);
+    final LoadedPlayerData loadedPlayerData = loadPlayerDataInternal(uuid);
+    if (loadedPlayerData == null) {
+      return;
+    }
+    publishLoadedPlayerData(loadedPlayerData);
 
+    if(getActiveQuestPlayer(uuid) == null){
+      getOrCreateQuestPlayer(uuid);
+    }
 
+    //Player actually joined => tagmanager wont load automatically after that
+    final Player player = Bukkit.getPlayer(uuid);
+    if(player != null){
+      for(final QuestPlayer questPlayer : questPlayersAndUUIDs.getOrDefault(uuid, List.of())){
+        questPlayer.onJoinAsync(player);
+        Bukkit.getScheduler()
+                .runTask(
+                        main.getMain(),
+                        () -> {
+                          questPlayer.onJoin(player);
+                        });
+      }
+    }
+  }
+
+  /**
+   * Loads the player data of a player who joined. The database is queried and the QuestPlayers are built on one of the player data
+   * loading threads. Afterwards, they are published on the main thread all at once. Events of that player which arrive in the meantime
+   * can be buffered with {@link #bufferWhileLoading(UUID, Runnable)} and are run right after the QuestPlayer has been published.
+   *
+   * If the player data of that player is already being loaded, no second load is started.
+   *
+   * @param uuid UUID of the player
+   * @return a future which is completed with the active QuestPlayer once it has been published, or null if nothing was published
+   */
+  public CompletableFuture<QuestPlayer> loadSinglePlayerDataAsync(final UUID uuid) {
+    if (!main.getConfiguration().loadPlayerData) {
+      return CompletableFuture.completedFuture(null);
+    }
+    final PendingPlayerLoad pendingPlayerLoad = new PendingPlayerLoad();
+    final PendingPlayerLoad existingPlayerLoad = pendingPlayerLoads.putIfAbsent(uuid, pendingPlayerLoad);
+    if (existingPlayerLoad != null) {
+      return existingPlayerLoad.future;
+    }
+    if(main.getConfiguration().isVerboseStartupMessages()){
+      main.getLogManager().info("Loading PlayerData of player %s...", uuid.toString());
+    }
+
+    //Until the new data is published, events of this player are buffered instead of going to the old QuestPlayer
+    questPlayersAndUUIDs.remove(uuid);
+    removeActiveQuestPlayer(uuid);
+
+    try {
+      playerDataLoadExecutor.execute(() -> loadAndPublishPlayerData(uuid, pendingPlayerLoad));
+    } catch (final Exception e) { //Executor already shut down
+      pendingPlayerLoads.remove(uuid, pendingPlayerLoad);
+      pendingPlayerLoad.future.completeExceptionally(e);
+    }
+    return pendingPlayerLoad.future;
+  }
+
+  private void loadAndPublishPlayerData(final UUID uuid, final PendingPlayerLoad pendingPlayerLoad) {
+    try {
+      //Data of this player might still be waiting to be saved (e.g. if they re-join shortly after leaving), or cached while they were offline
+      offlineQuestPlayerCache.invalidate(uuid);
+      playerDataSaveQueue.flushPending(uuid);
+
+      final LoadedPlayerData loadedPlayerData = loadPlayerDataInternal(uuid);
+      if (loadedPlayerData == null) {
+        pendingPlayerLoads.remove(uuid, pendingPlayerLoad);
+        pendingPlayerLoad.future.complete(null);
+        return;
+      }
+      if (loadedPlayerData.activeQuestPlayers.get(uuid) == null) {
+        final QuestPlayer questPlayer = loadedPlayerData.getOrCreateQuestPlayer(uuid, "default", true);
+        questPlayer.setFinishedLoadingGeneralData(true);
+        questPlayer.setFinishedLoadingTags(true);
+        questPlayer.setCurrentlyLoading(false);
+      }
+
+      final Player player = Bukkit.getPlayer(uuid);
+      if (player != null) {
+        for (final QuestPlayer questPlayer : loadedPlayerData.questPlayers.get(uuid)) {
+          questPlayer.onJoinAsync(player);
+        }
+      }
+
+      Bukkit.getScheduler().runTask(main.getMain(), () -> publishLoadedPlayer(uuid, loadedPlayerData, pendingPlayerLoad));
+    } catch (final Exception e) {
+      pendingPlayerLoads.remove(uuid, pendingPlayerLoad);
+      pendingPlayerLoad.future.completeExceptionally(e);
+      main.getLogManager().warn("There was an error loading the PlayerData of player %s: %s", uuid.toString(), e.getMessage());
+    }
+  }
+
+  //Runs on the main thread
+  private void publishLoadedPlayer(final UUID uuid, final LoadedPlayerData loadedPlayerData, final PendingPlayerLoad pendingPlayerLoad) {
+    pendingPlayerLoads.remove(uuid, pendingPlayerLoad);
+    final List<Runnable> bufferedEventHandlers = pendingPlayerLoad.drainBufferedEventHandlers();
+
+    final Player player = Bukkit.getPlayer(uuid);
+    if (player == null) {
+      //They left while loading. Nothing has changed, so there is nothing to save either
+      main.getLogManager().debug("Discarded loaded PlayerData of %s, because they are no longer online.", uuid.toString());
+      pendingPlayerLoad.future.complete(null);
+      return;
+    }
+
+    publishLoadedPlayerData(loadedPlayerData);
+    for (final QuestPlayer questPlayer : loadedPlayerData.questPlayers.get(uuid)) {
+      questPlayer.onJoin(player);
+    }
+
+    if (pendingPlayerLoad.droppedEventHandlers > 0) {
+      main.getLogManager().warn("%s events of player %s were dropped while their PlayerData was loading, because too many events were buffered.",
+          pendingPlayerLoad.droppedEventHandlers,
+          player.getName()
+      );
+    }
+    for (final Runnable bufferedEventHandler : bufferedEventHandlers) {
+      try {
+        bufferedEventHandler.run();
+      } catch (final Exception e) {
+        main.getLogManager().warn("There was an error handling a buffered event of player %s: %s", player.getName(), e.getMessage());
+      }
+    }
+
+    pendingPlayerLoad.future.complete(getActiveQuestPlayer(uuid));
+  }
+
+  /**
+   * If the player data of that player is currently being loaded, the event handler is buffered and run again on the main thread once
+   * their QuestPlayer has been published. This way, progress made while joining isn't lost.
+   *
+   * @param uuid UUID of the player
+   * @param eventHandler the event handler to re-run
+   * @return true if the event handler has been buffered
+   */
+  public boolean bufferWhileLoading(final UUID uuid, final Runnable eventHandler) {
+    final PendingPlayerLoad pendingPlayerLoad = pendingPlayerLoads.get(uuid);
+    if (pendingPlayerLoad == null) {
+      return false;
+    }
+    pendingPlayerLoad.bufferEventHandler(eventHandler);
+    return true;
+  }
+
+  public final boolean isPlayerDataLoading(final UUID uuid) {
+    return pendingPlayerLoads.containsKey(uuid);
+  }
+
+  public final boolean isAnyPlayerDataLoading() {
+    return !pendingPlayerLoads.isEmpty();
+  }
+
+  /**
+   * Stops loading player data of joining players. Loads which haven't started yet are discarded.
+   */
+  public void shutdownPlayerDataLoading() {
+    playerDataLoadExecutor.shutdownNow();
+    try {
+      if (!playerDataLoadExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+        main.getLogManager().warn("Player data loading threads did not finish within 10 seconds.");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    pendingPlayerLoads.clear();
   }
 
   /**
@@ -100,11 +323,13 @@ public class QuestPlayerManager {
       }
       questPlayersToLoad.add(questPlayer);
 
-      savePlayerDataInternal(questPlayersToLoad);
+      //Saved right away if the write-behind queue is disabled
+      playerDataSaveQueue.queue(List.of(questPlayer));
 
       if(main.getConfiguration().isVerboseStartupMessages()){
-        main.getLogManager().info("PlayerData of player %s was saved (%s QuestPoints, Profile: %s)",
+        main.getLogManager().info("PlayerData of player %s was %s (%s QuestPoints, Profile: %s)",
                 player.getName(),
+                playerDataSaveQueue.isRunning() ? "queued for saving" : "saved",
                 questPlayer.getQuestPoints(),
                 questPlayer.getProfile()
         );
@@ -124,7 +349,7 @@ public class QuestPlayerManager {
 
 
     questPlayersAndUUIDs.remove(player.getUniqueId());
-    activeQuestPlayersAndUUIDs.remove(player.getUniqueId());
+    removeActiveQuestPlayer(player.getUniqueId());
   }
 
   private boolean isColumnThere(final ResultSet rs, final String column){
@@ -142,11 +367,35 @@ public class QuestPlayerManager {
       main.getLogManager().info("Loading of PlayerData has been skipped...");
       return;
     }
+    if (offlineQuestPlayerCache.isEnabled()) {
+      main.getLogManager().info("Loading of all PlayerData has been skipped, because offline player data is loaded lazily.");
+      return;
+    }
 
     questPlayersAndUUIDs.clear();
-    activeQuestPlayersAndUUIDs.clear();
+    //The old QuestPlayers need to stop counting as live, otherwise their objectives would stay in the live objective counts and the region index
+    for (final UUID uuid : new ArrayList<>(activeQuestPlayersAndUUIDs.keySet())) {
+      removeActiveQuestPlayer(uuid);
+    }
 
-    loadPlayerDataInternal(null);
+    final LoadedPlayerData loadedPlayerData = loadPlayerDataInternal(null);
+    if (loadedPlayerData != null) {
+      //Unlocking objectives (which calls objective hooks and checks conditions) needs to happen on the main thread
+      if (Bukkit.isPrimaryThread()) {
+        finishBuildingQuestPlayers(loadedPlayerData);
+        publishLoadedPlayerData(loadedPlayerData);
+      } else {
+        try {
+          Bukkit.getScheduler().callSyncMethod(main.getMain(), () -> {
+            finishBuildingQuestPlayers(loadedPlayerData);
+            publishLoadedPlayerData(loadedPlayerData);
+            return null;
+          }).get();
+        } catch (final Exception e) {
+          handlePlayerDataLoadingError(null, e);
+        }
+      }
+    }
     main.getTagManager().loadAllOnlinePlayerTags();
   }
 
@@ -169,7 +418,7 @@ public class QuestPlayerManager {
     }};
   }
 
-  public final HashMap<UUID, List<QuestPlayer>> getQuestPlayersForUUIDs() {
+  public final Map<UUID, List<QuestPlayer>> getQuestPlayersForUUIDs() {
     return questPlayersAndUUIDs;
   }
 
@@ -177,7 +426,7 @@ public class QuestPlayerManager {
     return activeQuestPlayersAndUUIDs.get(uuid);
   }
   public final @Nullable QuestPlayer getQuestPlayer(final UUID uuid, final String profile) {
-    for(final QuestPlayer questPlayer : questPlayersAndUUIDs.get(uuid)){
+    for(final QuestPlayer questPlayer : questPlayersAndUUIDs.getOrDefault(uuid, List.of())){
       if(profile.equals(questPlayer.getProfile())){
         return questPlayer;
       }
@@ -188,14 +437,48 @@ public class QuestPlayerManager {
   /*Useful for getting offline players*/
   public final @NotNull QuestPlayer getOrCreateQuestPlayerFromDatabase(@NotNull final UUID uuid ) {
     QuestPlayer foundQuestPlayer = getActiveQuestPlayer(uuid);
+    if (foundQuestPlayer == null && offlineQuestPlayerCache.isEnabled()) {
+      foundQuestPlayer = offlineQuestPlayerCache.getActiveQuestPlayer(uuid);
+      return foundQuestPlayer != null ? foundQuestPlayer : loadOfflineQuestPlayer(uuid);
+    }
     if (foundQuestPlayer == null) {
       loadSinglePlayerData(uuid);
       foundQuestPlayer = getActiveQuestPlayer(uuid);
-      foundQuestPlayer.setFinishedLoadingTags(true);
+      //Tags are only loaded automatically for online players
+      for (final QuestPlayer questPlayer : questPlayersAndUUIDs.getOrDefault(uuid, List.of())) {
+        if (!questPlayer.isFinishedLoadingTags()) {
+          main.getTagManager().loadTags(questPlayer, uuid.toString());
+        }
+      }
       return foundQuestPlayer;
     }
     return foundQuestPlayer;
   }
+  /**
+   * Loads the player data of an offline player into the offline player cache, instead of keeping it in memory until the plugin is disabled.
+   */
+  private @NotNull QuestPlayer loadOfflineQuestPlayer(@NotNull final UUID uuid) {
+    playerDataSaveQueue.flushPending(uuid);
+
+    LoadedPlayerData loadedPlayerData = main.getConfiguration().loadPlayerData ? loadPlayerDataInternal(uuid) : null;
+    if (loadedPlayerData == null) {
+      loadedPlayerData = new LoadedPlayerData();
+    }
+    QuestPlayer activeQuestPlayer = loadedPlayerData.activeQuestPlayers.get(uuid);
+    if (activeQuestPlayer == null) {
+      activeQuestPlayer = loadedPlayerData.getOrCreateQuestPlayer(uuid, "default", true);
+      activeQuestPlayer.setFinishedLoadingGeneralData(true);
+      activeQuestPlayer.setCurrentlyLoading(false);
+    }
+    final List<QuestPlayer> questPlayers = loadedPlayerData.questPlayers.get(uuid);
+    //If loading the tags fails, they stay marked as not loaded, so saving the QuestPlayer doesn't overwrite the saved tags
+    for (final QuestPlayer questPlayer : questPlayers) {
+      main.getTagManager().loadTags(questPlayer, uuid.toString());
+    }
+    offlineQuestPlayerCache.put(uuid, questPlayers, activeQuestPlayer);
+    return activeQuestPlayer;
+  }
+
   public final @NotNull QuestPlayer getOrCreateQuestPlayer(@NotNull final UUID uuid) {
     QuestPlayer foundQuestPlayer = getActiveQuestPlayer(uuid);
     if (foundQuestPlayer == null) {
@@ -203,39 +486,23 @@ public class QuestPlayerManager {
       foundQuestPlayer.setFinishedLoadingGeneralData(true);
       foundQuestPlayer.setFinishedLoadingTags(true);
       foundQuestPlayer.setCurrentlyLoading(false);
-      if(questPlayersAndUUIDs.containsKey(uuid)){
-        questPlayersAndUUIDs.get(uuid).add(foundQuestPlayer);
-      } else {
-        questPlayersAndUUIDs.put(uuid, List.of(foundQuestPlayer));
-      }
-      activeQuestPlayersAndUUIDs.put(uuid, foundQuestPlayer);
+      questPlayersAndUUIDs.computeIfAbsent(uuid, k -> new CopyOnWriteArrayList<>()).add(foundQuestPlayer);
+      putActiveQuestPlayer(uuid, foundQuestPlayer);
     }
     return foundQuestPlayer;
   }
 
-  private String createQuestPlayer(final UUID uuid, final String profile, final boolean setAsCurrentProfile) {
-    QuestPlayer questPlayer = getActiveQuestPlayer(uuid);
-
-    if (questPlayer == null || !questPlayer.getProfile().equalsIgnoreCase(profile)) {
-      questPlayer = new QuestPlayer(main, uuid, profile);
-
-
-
-      if(questPlayersAndUUIDs.containsKey(uuid)){
-        questPlayersAndUUIDs.get(uuid).add(questPlayer);
+  //Replaces all QuestPlayers of the loaded UUIDs in the registry
+  private void publishLoadedPlayerData(final LoadedPlayerData loadedPlayerData) {
+    loadedPlayerData.questPlayers.forEach((uuid, questPlayers) -> {
+      questPlayersAndUUIDs.put(uuid, new CopyOnWriteArrayList<>(questPlayers));
+      final QuestPlayer activeQuestPlayer = loadedPlayerData.activeQuestPlayers.get(uuid);
+      if (activeQuestPlayer != null) {
+        putActiveQuestPlayer(uuid, activeQuestPlayer);
       } else {
-        final ArrayList<QuestPlayer> newQuestPlayers = new ArrayList<>();
-        newQuestPlayers.add(questPlayer);
-        questPlayersAndUUIDs.put(uuid, newQuestPlayers);
-      }
-      if(setAsCurrentProfile){
-        activeQuestPlayersAndUUIDs.put(uuid, questPlayer);
+        removeActiveQuestPlayer(uuid);
       }
-      return "<success>Quest player with uuid <highlight>%s</highlight> has been created successfully!".formatted(uuid.toString());
-
-    } else {
-      return "<error>Quest player already exists.";
-    }
+    });
   }
 
   public final Collection<QuestPlayer> getActiveQuestPlayers() {
@@ -243,7 +510,24 @@ public class QuestPlayerManager {
   }
 
   public void changeProfile(final UUID uuid, final QuestPlayer newQuestPlayer){
-    activeQuestPlayersAndUUIDs.put(uuid, newQuestPlayer);
+    putActiveQuestPlayer(uuid, newQuestPlayer);
+    newQuestPlayer.setProfileDataDirty(true);
+  }
+
+  //Keeps the live state (see QuestPlayer#setLive) in sync with which profile is active for an online player
+  private void putActiveQuestPlayer(final UUID uuid, final QuestPlayer questPlayer) {
+    final QuestPlayer oldQuestPlayer = activeQuestPlayersAndUUIDs.put(uuid, questPlayer);
+    if (oldQuestPlayer != null && oldQuestPlayer != questPlayer) {
+      oldQuestPlayer.setLive(false);
+    }
+    questPlayer.setLive(Bukkit.getPlayer(uuid) != null);
+  }
+
+  private void removeActiveQuestPlayer(final UUID uuid) {
+    final QuestPlayer oldQuestPlayer = activeQuestPlayersAndUUIDs.remove(uuid);
+    if (oldQuestPlayer != null) {
+      oldQuestPlayer.setLive(false);
+    }
   }
 
   public String acceptQuest(
@@ -285,321 +569,449 @@ public class QuestPlayerManager {
 
 
 
-  private void loadPlayerDataInternal(final @Nullable UUID playerUUID) {
-    try (Connection connection = main.getDataManager().getConnection();
-         final PreparedStatement questPlayerDataIfPlayerProvidedPS = connection.prepareStatement("""
-            SELECT * FROM QuestPlayerData WHERE PlayerUUID = ?;
-          """);
-         final PreparedStatement questPlayerDataIfPlayerNotProvidedPS = connection.prepareStatement("""
-            SELECT * FROM QuestPlayerData;
-          """);
-         final PreparedStatement questPlayerProfileDataPS = connection.prepareStatement("""
-            SELECT * FROM QuestPlayerProfileData WHERE PlayerUUID = ?;
-          """);
-         final PreparedStatement completedQuestsPS = connection.prepareStatement("""
-            SELECT QuestName, TimeCompleted FROM CompletedQuests
-            WHERE PlayerUUID = ? AND Profile = ?;
-          """);
-         final PreparedStatement failedQuestsPS = connection.prepareStatement("""
-            SELECT QuestName, TimeFailed FROM FailedQuests
-            WHERE PlayerUUID = ? AND Profile = ?;
-          """);
-         final PreparedStatement activeQuestsPS = connection.prepareStatement("""
-            SELECT QuestName FROM ActiveQuests
-            WHERE PlayerUUID = ? AND Profile = ?;
-          """);
-         final PreparedStatement activeQuestTriggersPS = connection.prepareStatement("""
-            SELECT * FROM ActiveTriggers
-            WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
-          """);
-         final PreparedStatement activeQuestObjectivesPS = connection.prepareStatement("""
-            SELECT * FROM ActiveObjectives
-            WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
-          """)
-    ) {
-
-
-      final ResultSet questPlayerDataResult;
-      if(playerUUID != null){
-        questPlayerDataIfPlayerProvidedPS.setString(1, playerUUID.toString());
-        questPlayerDataResult = questPlayerDataIfPlayerProvidedPS.executeQuery();
-      }else{
-        questPlayerDataResult = questPlayerDataIfPlayerNotProvidedPS.executeQuery();
-      }
-
-      main.getLogManager().debug("Before questPlayerDataResult.next()");
-      while (questPlayerDataResult.next()) {
-        main.getLogManager().debug("Next result!");
-
-        final UUID uuid;
-        if(playerUUID != null){
-          uuid = playerUUID;
-        }else{
-          uuid = UUID.fromString(questPlayerDataResult.getString("PlayerUUID"));
-        }
-        completedQuestsPS.setString(1, uuid.toString());
-        failedQuestsPS.setString(1, uuid.toString());
-        activeQuestsPS.setString(1, uuid.toString());
-        activeQuestTriggersPS.setString(1, uuid.toString());
-        activeQuestObjectivesPS.setString(1, uuid.toString());
-
-        String profile;
-        if(isColumnThere(questPlayerDataResult, "Profile")){
-          profile = questPlayerDataResult.getString("Profile");
+  /**
+   * Loads the player data from the database and builds the QuestPlayers, without publishing them. This way, it doesn't need to run on the main thread.
+   *
+   * Every table is queried only once (for all players, or for the one player) and the rows are grouped by player UUID and profile in memory.
+   * When loading all players, the QuestPlayers are then built in batches on multiple threads.
+   *
+   * @param playerUUID UUID of the player to load, or null to load all players
+   * @return the loaded QuestPlayers, or null if there was an error
+   */
+  private @Nullable LoadedPlayerData loadPlayerDataInternal(final @Nullable UUID playerUUID) {
+    //The tables might be in the middle of being rebuilt after an update
+    if (!main.getDataManager().getDatabaseSchemaMigrator().awaitMigrations()) {
+      main.getLogManager().warn("Player data of <highlight>%s</highlight> could not be loaded, because the database is still being migrated.", playerUUID != null ? playerUUID.toString() : "all players");
+      return null;
+    }
+    final long startTime = System.nanoTime();
+
+    final LinkedHashMap<ProfileKey, QuestPlayerDataRow> questPlayerDataRows = new LinkedHashMap<>();
+    final HashMap<String, String> currentProfiles = new HashMap<>();
+    final HashMap<ProfileKey, ProfileRows> profileRows = new HashMap<>();
+
+    try (Connection connection = main.getDataManager().getConnection()) {
+      // QuestPoints & profiles
+      try (final PreparedStatement questPlayerDataPS = prepareBulkLoadStatement(connection, "SELECT * FROM QuestPlayerData", playerUUID);
+           final ResultSet questPlayerDataResults = questPlayerDataPS.executeQuery()) {
+        final boolean hasProfileColumn = isColumnThere(questPlayerDataResults, "Profile");
+        while (questPlayerDataResults.next()) {
+          final String uuidString = questPlayerDataResults.getString("PlayerUUID");
+          if (uuidString == null) {
+            continue;
+          }
+          String profile = hasProfileColumn ? questPlayerDataResults.getString("Profile") : null;
           if(profile == null || profile.isBlank()){
             profile = "default";
           }
-        }else{
-          profile = "default";
+          final UUID uuid;
+          try {
+            uuid = playerUUID != null ? playerUUID : UUID.fromString(uuidString);
+          } catch (final IllegalArgumentException e) {
+            main.getLogManager().warn("ERROR: Skipped loading player data with the invalid UUID <highlight>%s</highlight>", uuidString);
+            continue;
+          }
+          //If there are duplicate rows, the last one wins - like before
+          questPlayerDataRows.put(new ProfileKey(uuidString, profile), new QuestPlayerDataRow(uuid, profile, questPlayerDataResults.getLong("QuestPoints")));
         }
+      }
 
-        main.getLogManager().debug("Profile: %s", profile);
-
-        completedQuestsPS.setString(2, profile);
-        failedQuestsPS.setString(2, profile);
-        activeQuestsPS.setString(2, profile);
-        activeQuestTriggersPS.setString(2, profile);
-        activeQuestObjectivesPS.setString(2, profile);
-
-
-        questPlayerProfileDataPS.setString(1, uuid.toString());
-        final ResultSet currentQuestPlayerProfile = questPlayerProfileDataPS.executeQuery();
-        String currentProfile = "default";
-        while (currentQuestPlayerProfile.next()) {
-          currentProfile = currentQuestPlayerProfile.getString("CurrentProfile");
+      try (final PreparedStatement questPlayerProfileDataPS = prepareBulkLoadStatement(connection, "SELECT PlayerUUID, CurrentProfile FROM QuestPlayerProfileData", playerUUID);
+           final ResultSet questPlayerProfileDataResults = questPlayerProfileDataPS.executeQuery()) {
+        while (questPlayerProfileDataResults.next()) {
+          currentProfiles.put(questPlayerProfileDataResults.getString(1), questPlayerProfileDataResults.getString(2));
         }
+      }
 
-        createQuestPlayer(uuid, profile, currentProfile == null || profile.equals(currentProfile) || currentProfile.isBlank());
-        final QuestPlayer questPlayer = getQuestPlayer(uuid, profile);
-
-        final long questPoints = questPlayerDataResult.getLong("QuestPoints");
-        if (main.getConfiguration().isVerboseStartupMessages()) {
-          main.getLogManager()
-                  .info(
-                          "Loaded player with uuid <highlight>%s</highlight> (Profile: %s) and questPoints: %s",
-                          uuid.toString(),
-                          profile,
-                          questPoints);
+      // Completed Quests
+      try (final PreparedStatement completedQuestsPS = prepareBulkLoadStatement(connection, "SELECT PlayerUUID, Profile, QuestName, TimeCompleted FROM CompletedQuests", playerUUID);
+           final ResultSet completedQuestsResults = completedQuestsPS.executeQuery()) {
+        while (completedQuestsResults.next()) {
+          final ProfileRows rows = getProfileRows(profileRows, questPlayerDataRows, completedQuestsResults.getString(1), completedQuestsResults.getString(2));
+          if (rows != null) {
+            rows.completedQuests.add(new QuestRow(completedQuestsResults.getString(3), completedQuestsResults.getLong(4)));
+          }
         }
+      }
 
-
-        if (questPlayer != null) {
-          // QuestPoints
-          questPlayer.setQuestPoints(questPoints, false);
-
-        } else {
-          main.getLogManager()
-                  .severe(
-                          "ERROR: QuestPlayer with the UUID <highlight>%s</highlight> for profile %s could not be loaded from database because it's null",
-                          uuid.toString(),
-                          profile
-                  );
-
-          return;
+      // Failed Quests
+      try (final PreparedStatement failedQuestsPS = prepareBulkLoadStatement(connection, "SELECT PlayerUUID, Profile, QuestName, TimeFailed FROM FailedQuests", playerUUID);
+           final ResultSet failedQuestsResults = failedQuestsPS.executeQuery()) {
+        while (failedQuestsResults.next()) {
+          final ProfileRows rows = getProfileRows(profileRows, questPlayerDataRows, failedQuestsResults.getString(1), failedQuestsResults.getString(2));
+          if (rows != null) {
+            rows.failedQuests.add(new QuestRow(failedQuestsResults.getString(3), failedQuestsResults.getLong(4)));
+          }
         }
+      }
 
-        // Active Quests
-        final ArrayList<ActiveQuest> activeQuests = new ArrayList<>();
-
-        // Completed Quests
-        final ResultSet completedQuestsResults = completedQuestsPS.executeQuery();
+      // Active Quests
+      try (final PreparedStatement activeQuestsPS = prepareBulkLoadStatement(connection, "SELECT PlayerUUID, Profile, QuestName FROM ActiveQuests", playerUUID);
+           final ResultSet activeQuestsResults = activeQuestsPS.executeQuery()) {
+        while (activeQuestsResults.next()) {
+          final ProfileRows rows = getProfileRows(profileRows, questPlayerDataRows, activeQuestsResults.getString(1), activeQuestsResults.getString(2));
+          if (rows != null) {
+            rows.activeQuests.add(activeQuestsResults.getString(3));
+          }
+        }
+      }
 
-        while (completedQuestsResults.next()) {
-          final String questName = completedQuestsResults.getString("QuestName");
-          final Quest quest = main.getQuestManager().getQuest(questName);
-          if (quest != null) {
-            final long timeCompleted = completedQuestsResults.getLong("TimeCompleted");
-            if (timeCompleted > 0) {
-              final CompletedQuest completedQuest =
-                      new CompletedQuest(quest, questPlayer, timeCompleted);
-              questPlayer.addCompletedQuest(completedQuest);
-
-            } else {
-              main.getLogManager()
-                      .warn(
-                              "ERROR: TimeCompleted from Quest with name <highlight>"
-                                      + questName
-                                      + "</highlight> could not be loaded from database (requested for loading completed Quests)");
-            }
+      // Active Triggers
+      try (final PreparedStatement activeTriggersPS = prepareBulkLoadStatement(connection, "SELECT PlayerUUID, Profile, QuestName, TriggerType, TriggerID, CurrentProgress FROM ActiveTriggers", playerUUID);
+           final ResultSet activeTriggersResults = activeTriggersPS.executeQuery()) {
+        while (activeTriggersResults.next()) {
+          final ProfileRows rows = getProfileRows(profileRows, questPlayerDataRows, activeTriggersResults.getString(1), activeTriggersResults.getString(2));
+          if (rows != null) {
+            rows.activeTriggers.computeIfAbsent(activeTriggersResults.getString(3), k -> new ArrayList<>()).add(new ActiveTriggerRow(
+                activeTriggersResults.getString(4),
+                activeTriggersResults.getInt(5),
+                activeTriggersResults.getLong(6)
+            ));
+          }
+        }
+      }
 
-          } else {
-            main.getLogManager()
-                    .warn(
-                            "ERROR: Quest with name <highlight>"
-                                    + questName
-                                    + "</highlight> could not be loaded from database (requested for loading completed Quests)");
+      // Active Objectives
+      try (final PreparedStatement activeObjectivesPS = prepareBulkLoadStatement(connection, "SELECT PlayerUUID, Profile, QuestName, ObjectiveType, ObjectiveID, CurrentProgress, HasBeenCompleted, ProgressNeeded FROM ActiveObjectives", playerUUID);
+           final ResultSet activeObjectivesResults = activeObjectivesPS.executeQuery()) {
+        while (activeObjectivesResults.next()) {
+          final ProfileRows rows = getProfileRows(profileRows, questPlayerDataRows, activeObjectivesResults.getString(1), activeObjectivesResults.getString(2));
+          if (rows != null) {
+            final String questName = activeObjectivesResults.getString(3);
+            final String objectiveType = activeObjectivesResults.getString(4);
+            final int objectiveID = activeObjectivesResults.getInt(5);
+            final double currentProgress = activeObjectivesResults.getDouble(6);
+            final boolean hasBeenCompleted = activeObjectivesResults.getBoolean(7);
+            final double progressNeeded = activeObjectivesResults.getDouble(8);
+            final boolean progressNeededNull = activeObjectivesResults.wasNull();
+            rows.activeObjectives.computeIfAbsent(questName, k -> new ArrayList<>()).add(new ActiveObjectiveRow(
+                objectiveType, objectiveID, currentProgress, hasBeenCompleted, progressNeeded, progressNeededNull
+            ));
           }
         }
+      }
+    } catch (Exception e) {
+      handlePlayerDataLoadingError(playerUUID, e);
+      return null;
+    }
 
-        // Failed Quests
-        final ResultSet failedQuestsResults = failedQuestsPS.executeQuery();
+    final long queryDurationMs = (System.nanoTime() - startTime) / 1_000_000;
 
-        while (failedQuestsResults.next()) {
-          final String questName = failedQuestsResults.getString("QuestName");
-          final Quest quest = main.getQuestManager().getQuest(questName);
-          if (quest != null) {
-            final long timeFailed = failedQuestsResults.getLong("TimeFailed");
-            if (timeFailed > 0) {
-              final FailedQuest failedQuest =
-                      new FailedQuest(quest, questPlayer, timeFailed);
-              questPlayer.addFailedQuest(failedQuest);
-
-            } else {
-              main.getLogManager()
-                      .warn(
-                              "ERROR: TimeFailed from Quest with name <highlight>"
-                                      + questName
-                                      + "</highlight> could not be loaded from database (requested for loading failed Quests)");
-            }
+    //Batches are split by UUID, so all profiles of one player are built by the same thread
+    final LinkedHashMap<UUID, List<QuestPlayerDataRow>> questPlayerDataRowsByUUID = new LinkedHashMap<>();
+    for (final QuestPlayerDataRow questPlayerDataRow : questPlayerDataRows.values()) {
+      questPlayerDataRowsByUUID.computeIfAbsent(questPlayerDataRow.uuid(), k -> new ArrayList<>()).add(questPlayerDataRow);
+    }
+    final ArrayList<List<QuestPlayerDataRow>> batches = new ArrayList<>();
+    ArrayList<QuestPlayerDataRow> currentBatch = new ArrayList<>();
+    for (final List<QuestPlayerDataRow> questPlayerDataRowsOfUUID : questPlayerDataRowsByUUID.values()) {
+      currentBatch.addAll(questPlayerDataRowsOfUUID);
+      if (currentBatch.size() >= PLAYER_DATA_LOAD_BATCH_SIZE) {
+        batches.add(currentBatch);
+        currentBatch = new ArrayList<>();
+      }
+    }
+    if (!currentBatch.isEmpty()) {
+      batches.add(currentBatch);
+    }
 
-          } else {
-            main.getLogManager()
-                    .warn(
-                            "ERROR: Quest with name <highlight>"
-                                    + questName
-                                    + "</highlight> could not be loaded from database (requested for loading failed Quests)");
-          }
+    //When loading all players, QuestPlayers are only built here. Their objectives are unlocked and loaded on the main thread afterwards (see finishBuildingQuestPlayers)
+    final LoadedPlayerData loadedPlayerData = new LoadedPlayerData(playerUUID == null);
+    try {
+      if (batches.size() <= 1) {
+        for (final List<QuestPlayerDataRow> batch : batches) {
+          buildQuestPlayers(batch, currentProfiles, profileRows, loadedPlayerData);
         }
+      } else {
+        buildQuestPlayersInParallel(batches, questPlayerDataRows.size(), currentProfiles, profileRows, loadedPlayerData);
+      }
+    } catch (Exception e) {
+      handlePlayerDataLoadingError(playerUUID, e);
+      return null;
+    }
 
-        // Active Quests
-        ResultSet activeQuestsResults = activeQuestsPS.executeQuery();
+    if (playerUUID == null) {
+      final long totalDurationMs = (System.nanoTime() - startTime) / 1_000_000;
+      main.getLogManager().info("Loaded %s player profiles of %s players in %sms (Database queries: %sms, building QuestPlayers: %sms in %s batches)",
+          questPlayerDataRows.size(),
+          questPlayerDataRowsByUUID.size(),
+          totalDurationMs,
+          queryDurationMs,
+          totalDurationMs - queryDurationMs,
+          batches.size()
+      );
+    }
+    return loadedPlayerData;
+  }
 
-        while (activeQuestsResults.next()) {
-          final String questName = activeQuestsResults.getString("QuestName");
-          final Quest quest = main.getQuestManager().getQuest(questName);
-          if (quest != null) {
-            final ActiveQuest activeQuest = new ActiveQuest(main, quest, questPlayer);
-            activeQuests.add(activeQuest);
-            questPlayer.forceAddActiveQuestSilent(
-                    activeQuest, false); // Run begin/accept trigger when plugin reloads if true
+  private PreparedStatement prepareBulkLoadStatement(final Connection connection, final String query, final @Nullable UUID playerUUID) throws SQLException {
+    final PreparedStatement preparedStatement = connection.prepareStatement(playerUUID != null ? query + " WHERE PlayerUUID = ?" : query);
+    //Only a hint. Drivers which support it stream the rows instead of holding the whole table in memory
+    preparedStatement.setFetchSize(PLAYER_DATA_FETCH_SIZE);
+    if (playerUUID != null) {
+      preparedStatement.setString(1, playerUUID.toString());
+    }
+    return preparedStatement;
+  }
 
-          } else {
-            main.getLogManager()
-                    .warn(
-                            "ERROR: Quest with name <highlight>"
-                                    + questName
-                                    + "</highlight> could not be loaded from database");
+  /**
+   * @return the rows of that profile, or null if the profile has no QuestPlayerData row (or the row has no profile) and would not have been loaded
+   */
+  private @Nullable ProfileRows getProfileRows(final HashMap<ProfileKey, ProfileRows> profileRows, final HashMap<ProfileKey, QuestPlayerDataRow> questPlayerDataRows, final String uuidString, final String profile) {
+    if (uuidString == null || profile == null) {
+      return null;
+    }
+    final ProfileKey profileKey = new ProfileKey(uuidString, profile);
+    if (!questPlayerDataRows.containsKey(profileKey)) {
+      return null;
+    }
+    return profileRows.computeIfAbsent(profileKey, k -> new ProfileRows());
+  }
+
+  private void handlePlayerDataLoadingError(final @Nullable UUID playerUUID, final Exception e) {
+    if(playerUUID != null){
+      main.getDataManager()
+              .disablePluginAndSaving(
+                      "There was a database error, so QuestPlayer loading for player <highlight>%s</highlight> has been disabled. (1.1)".formatted(
+                              playerUUID.toString()
+                      ),
+                      e);
+    }else{
+      main.getLogManager().warn("There was an error loading the PlayerData! Stacktrace:");
+      e.printStackTrace();
+    }
+  }
+
+  private void buildQuestPlayersInParallel(final List<List<QuestPlayerDataRow>> batches, final int totalProfiles, final Map<String, String> currentProfiles, final Map<ProfileKey, ProfileRows> profileRows, final LoadedPlayerData loadedPlayerData) throws Exception {
+    final int workerCount = Math.max(1, Math.min(main.getConfiguration().getPlayerDataLoadThreads(), Math.min(batches.size(), Runtime.getRuntime().availableProcessors())));
+    main.getLogManager().info("Building %s player profiles in %s batches on %s threads...", totalProfiles, batches.size(), workerCount);
+
+    final AtomicInteger workerThreadCount = new AtomicInteger();
+    final ExecutorService workerExecutor = Executors.newFixedThreadPool(workerCount, runnable -> {
+      final Thread thread = new Thread(runnable, "NotQuests Player Data Bulk Loader #" + workerThreadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    final AtomicInteger builtProfiles = new AtomicInteger();
+    final AtomicInteger lastLoggedPercentage = new AtomicInteger();
+    try {
+      final ArrayList<Future<LoadedPlayerData>> futures = new ArrayList<>(batches.size());
+      for (final List<QuestPlayerDataRow> batch : batches) {
+        futures.add(workerExecutor.submit(() -> {
+          //Every batch builds into its own LoadedPlayerData, as it's not thread-safe. Batches never share UUIDs
+          final LoadedPlayerData batchPlayerData = new LoadedPlayerData(loadedPlayerData.deferObjectiveUpdates);
+          buildQuestPlayers(batch, currentProfiles, profileRows, batchPlayerData);
+
+          final int percentage = (int) (builtProfiles.addAndGet(batch.size()) * 100L / totalProfiles);
+          final int lastPercentage = lastLoggedPercentage.get();
+          if (percentage / 10 > lastPercentage / 10 && lastLoggedPercentage.compareAndSet(lastPercentage, percentage)) {
+            main.getLogManager().info("Loading player data... %s%% (%s/%s player profiles)", percentage, builtProfiles.get(), totalProfiles);
           }
+          return batchPlayerData;
+        }));
+      }
+      //Merged in the original order
+      for (final Future<LoadedPlayerData> future : futures) {
+        final LoadedPlayerData batchPlayerData;
+        try {
+          batchPlayerData = future.get();
+        } catch (final ExecutionException e) {
+          throw e.getCause() instanceof Exception cause ? cause : e;
         }
-        // activeQuestsResults.close();
+        loadedPlayerData.questPlayers.putAll(batchPlayerData.questPlayers);
+        loadedPlayerData.activeQuestPlayers.putAll(batchPlayerData.activeQuestPlayers);
+        loadedPlayerData.questPlayersToFinish.putAll(batchPlayerData.questPlayersToFinish);
+      }
+    } finally {
+      workerExecutor.shutdownNow();
+    }
+  }
 
-        for (final ActiveQuest activeQuest : activeQuests) {
+  private void buildQuestPlayers(final List<QuestPlayerDataRow> questPlayerDataRows, final Map<String, String> currentProfiles, final Map<ProfileKey, ProfileRows> profileRows, final LoadedPlayerData loadedPlayerData) {
+    for (final QuestPlayerDataRow questPlayerDataRow : questPlayerDataRows) {
+      final UUID uuid = questPlayerDataRow.uuid();
+      final String profile = questPlayerDataRow.profile();
+      main.getLogManager().debug("Profile: %s", profile);
 
-          // Active Triggers
-          activeQuestTriggersPS.setString(3, activeQuest.getQuest().getIdentifier());
-          final ResultSet activeQuestTriggerResults = activeQuestTriggersPS.executeQuery();
-          while (activeQuestTriggerResults.next()) {
-            final String triggerTypeString = activeQuestTriggerResults.getString("TriggerType");
-            final long currentProgress = activeQuestTriggerResults.getLong("CurrentProgress");
+      final String currentProfile = currentProfiles.getOrDefault(uuid.toString(), "default");
+      final QuestPlayer questPlayer = loadedPlayerData.getOrCreateQuestPlayer(uuid, profile, currentProfile == null || profile.equals(currentProfile) || currentProfile.isBlank());
 
-            if (triggerTypeString != null) {
-              final int triggerID = activeQuestTriggerResults.getInt("TriggerID");
+      final long questPoints = questPlayerDataRow.questPoints();
+      if (main.getConfiguration().isVerboseStartupMessages()) {
+        main.getLogManager()
+                .info(
+                        "Loaded player with uuid <highlight>%s</highlight> (Profile: %s) and questPoints: %s",
+                        uuid.toString(),
+                        profile,
+                        questPoints);
+      }
 
-              for (ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-                if (activeTrigger.getTrigger().getTriggerType().equals(triggerTypeString)
-                        && activeTrigger.getTriggerID() == triggerID) {
-                  activeTrigger.addProgressSilent(currentProgress);
-                }
-              }
+      // QuestPoints
+      questPlayer.setQuestPoints(questPoints, false);
 
-            } else {
-              main.getLogManager()
-                      .warn(
-                              "ERROR: TriggerType for the Quest <highlight>"
-                                      + activeQuest.getQuest().getIdentifier()
-                                      + "</highlight> could not be loaded from database");
-            }
-          }
-          // activeQuestTriggerResults.close();
+      final ProfileRows rows = profileRows.get(new ProfileKey(uuid.toString(), profile));
+      if (loadedPlayerData.deferObjectiveUpdates) {
+        questPlayer.setDeferringObjectiveUpdates(true);
+        if (rows != null) {
+          buildQuestPlayer(questPlayer, rows);
+        }
+        loadedPlayerData.questPlayersToFinish.put(questPlayer, rows);
+        continue;
+      }
 
-          // Active Objectives
-          handleLoadingOfActiveObjectives(activeQuestObjectivesPS, activeQuest);
+      if (rows != null) {
+        buildQuestPlayer(questPlayer, rows);
+      }
+      finishBuildingQuestPlayer(questPlayer, rows);
+    }
+  }
 
-          // activeQuestObjectiveResults.close();
-        }
+  /**
+   * Finishes building the QuestPlayers whose objective updates have been deferred. Called on the main thread, as objective hooks
+   * and events are called and conditions and expressions are evaluated.
+   */
+  private void finishBuildingQuestPlayers(final LoadedPlayerData loadedPlayerData) {
+    final long startTime = System.nanoTime();
+    loadedPlayerData.questPlayersToFinish.forEach(this::finishBuildingQuestPlayer);
+    if (!loadedPlayerData.questPlayersToFinish.isEmpty()) {
+      main.getLogManager().info("Loaded the active objectives of %s player profiles in %sms",
+          loadedPlayerData.questPlayersToFinish.size(),
+          (System.nanoTime() - startTime) / 1_000_000
+      );
+    }
+    loadedPlayerData.questPlayersToFinish.clear();
+  }
 
-        questPlayer.removeCompletedQuests();
+  /**
+   * Loads the progress of the active objectives and marks the QuestPlayer as loaded. If objective updates have been deferred while building the QuestPlayer,
+   * the progress needed of its active objectives is calculated and their unlocked status is updated first.
+   */
+  private void finishBuildingQuestPlayer(final QuestPlayer questPlayer, final @Nullable ProfileRows rows) {
+    final boolean objectiveUpdatesDeferred = questPlayer.isDeferringObjectiveUpdates();
+    questPlayer.setDeferringObjectiveUpdates(false);
+
+    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+      if (objectiveUpdatesDeferred) {
+        calculateDeferredProgressNeeded(activeQuest);
+        activeQuest.updateObjectivesUnlocked(false, false);
+      }
+      // Active Objectives
+      if (rows != null) {
+        handleLoadingOfActiveObjectives(rows.activeObjectives, activeQuest);
+      }
+    }
 
-        questPlayer.setCurrentlyLoading(false);
-        questPlayer.setFinishedLoadingGeneralData(true);
+    questPlayer.removeCompletedQuests();
+    //Everything which was just loaded is already in the database
+    questPlayer.markPersisted();
 
+    questPlayer.setCurrentlyLoading(false);
+    questPlayer.setFinishedLoadingGeneralData(true);
+  }
 
-        if(playerUUID != null){
-          //Load single player data => player actually joined and tagmanager wont load automatically after that
-          final Player player = Bukkit.getPlayer(playerUUID);
-          if(player != null){
-            questPlayer.onJoinAsync(player);
-            Bukkit.getScheduler()
-                    .runTask(
-                            main.getMain(),
-                            () -> {
-                              questPlayer.onJoin(player);
-                            });
-          }
+  private void calculateDeferredProgressNeeded(final ActiveObjectiveHolder activeObjectiveHolder) {
+    for (final ActiveObjective activeObjective : activeObjectiveHolder.getActiveObjectives()) {
+      activeObjective.calculateDeferredProgressNeeded();
+      calculateDeferredProgressNeeded(activeObjective);
+    }
+  }
 
+  private void buildQuestPlayer(final QuestPlayer questPlayer, final ProfileRows rows) {
+    // Completed Quests
+    for (final QuestRow completedQuestRow : rows.completedQuests) {
+      final String questName = completedQuestRow.questName();
+      final Quest quest = main.getQuestManager().getQuest(questName);
+      if (quest != null) {
+        final long timeCompleted = completedQuestRow.time();
+        if (timeCompleted > 0) {
+          questPlayer.addCompletedQuest(new CompletedQuest(quest, questPlayer, timeCompleted));
+        } else {
+          main.getLogManager()
+                  .warn(
+                          "ERROR: TimeCompleted from Quest with name <highlight>"
+                                  + questName
+                                  + "</highlight> could not be loaded from database (requested for loading completed Quests)");
         }
+      } else {
+        main.getLogManager()
+                .warn(
+                        "ERROR: Quest with name <highlight>"
+                                + questName
+                                + "</highlight> could not be loaded from database (requested for loading completed Quests)");
       }
-      if(playerUUID != null){
-        if(getActiveQuestPlayer(playerUUID) == null){
-          final QuestPlayer questPlayer = getOrCreateQuestPlayer(playerUUID);
-          questPlayer.setCurrentlyLoading(false);
-          questPlayer.setFinishedLoadingGeneralData(true);
-          final Player player = Bukkit.getPlayer(playerUUID);
-          if(player != null){
-            questPlayer.onJoinAsync(player);
-            Bukkit.getScheduler()
-                    .runTask(
-                            main.getMain(),
-                            () -> {
-                              questPlayer.onJoin(player);
-                            });
-          }
+    }
 
+    // Failed Quests
+    for (final QuestRow failedQuestRow : rows.failedQuests) {
+      final String questName = failedQuestRow.questName();
+      final Quest quest = main.getQuestManager().getQuest(questName);
+      if (quest != null) {
+        final long timeFailed = failedQuestRow.time();
+        if (timeFailed > 0) {
+          questPlayer.addFailedQuest(new FailedQuest(quest, questPlayer, timeFailed));
+        } else {
+          main.getLogManager()
+                  .warn(
+                          "ERROR: TimeFailed from Quest with name <highlight>"
+                                  + questName
+                                  + "</highlight> could not be loaded from database (requested for loading failed Quests)");
         }
+      } else {
+        main.getLogManager()
+                .warn(
+                        "ERROR: Quest with name <highlight>"
+                                + questName
+                                + "</highlight> could not be loaded from database (requested for loading failed Quests)");
+      }
+    }
 
+    // Active Quests. Their active objectives are loaded in finishBuildingQuestPlayer
+    final ArrayList<ActiveQuest> activeQuests = new ArrayList<>();
+    for (final String questName : rows.activeQuests) {
+      final Quest quest = main.getQuestManager().getQuest(questName);
+      if (quest != null) {
+        final ActiveQuest activeQuest = new ActiveQuest(main, quest, questPlayer);
+        activeQuests.add(activeQuest);
+        questPlayer.forceAddActiveQuestSilent(
+                activeQuest, false); // Run begin/accept trigger when plugin reloads if true
+      } else {
+        main.getLogManager()
+                .warn(
+                        "ERROR: Quest with name <highlight>"
+                                + questName
+                                + "</highlight> could not be loaded from database");
       }
-    } catch (Exception e) {
-      if(playerUUID != null){
-        main.getDataManager()
-                .disablePluginAndSaving(
-                        "There was a database error, so QuestPlayer loading for player <highlight>%s</highlight> has been disabled. (1.1)".formatted(
-                                playerUUID.toString()
-                        ),
-                        e);
-      }else{
-        main.getLogManager().warn("There was an error saving the PlayerData! Stacktrace:");
+    }
+
+    for (final ActiveQuest activeQuest : activeQuests) {
+      // Active Triggers
+      for (final ActiveTriggerRow activeTriggerRow : rows.activeTriggers.getOrDefault(activeQuest.getQuest().getIdentifier(), List.of())) {
+        if (activeTriggerRow.triggerType() != null) {
+          for (ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
+            if (activeTrigger.getTrigger().getTriggerType().equals(activeTriggerRow.triggerType())
+                    && activeTrigger.getTriggerID() == activeTriggerRow.triggerID()) {
+              activeTrigger.addProgressSilent(activeTriggerRow.currentProgress());
+            }
+          }
+        } else {
+          main.getLogManager()
+                  .warn(
+                          "ERROR: TriggerType for the Quest <highlight>"
+                                  + activeQuest.getQuest().getIdentifier()
+                                  + "</highlight> could not be loaded from database");
+        }
       }
     }
   }
 
-  private void handleLoadingOfActiveObjectives(final PreparedStatement activeQuestObjectivesPS, final ActiveObjectiveHolder activeObjectiveHolder) throws SQLException {
-    String questName;
+  private void handleLoadingOfActiveObjectives(final Map<String, List<ActiveObjectiveRow>> activeObjectiveRows, final ActiveObjectiveHolder activeObjectiveHolder) {
+    final String questName;
     if(activeObjectiveHolder instanceof final ActiveQuest activeQuest){
       questName = activeQuest.getQuestIdentifier();
     }else if(activeObjectiveHolder instanceof final ActiveObjective activeObjective){
-
-      ActiveObjective lastActiveObjective = activeObjective;
-      String counterWithSubId = ""+activeObjective.getObjectiveID();
-      main.getLogManager().warn("Level: %s", activeObjective.getLevel());
-      for(int i = 0; i < activeObjective.getLevel(); i++){
-        if(lastActiveObjective.getActiveObjectiveHolder() instanceof final ActiveObjective parentActiveObjective){
-          lastActiveObjective = parentActiveObjective;
-          counterWithSubId = lastActiveObjective.getObjectiveID() + "."+counterWithSubId;
-          main.getLogManager().warn("  counterWithSubId now1: %s", counterWithSubId);
-
-        }else if(lastActiveObjective.getActiveObjectiveHolder() instanceof final ActiveQuest activeQuest){
-          counterWithSubId = activeQuest.getQuestIdentifier() + "."+counterWithSubId;
-          main.getLogManager().warn("  counterWithSubId now2: %s", counterWithSubId);
-          break;
-        }
-      }
-      main.getLogManager().warn("counterWithSubId: %s", counterWithSubId);
-
-      /*if(counterWithSubId.endsWith(".")){
-        counterWithSubId = counterWithSubId.substring(0, counterWithSubId.length()-1);
-      }*/
-      questName = counterWithSubId;
-
+      //The rows of sub-objectives are stored with the QuestName of their parent's row, followed by the parent's objective ID
+      questName = getActiveObjectiveRowQuestName(activeObjective) + "." + activeObjective.getObjectiveID();
     }else {
       main.getLogManager().warn("Skipped loading of active objectives because the type of the ActiveObjectiveHolder (%s) was not found!", activeObjectiveHolder);
       return;
@@ -607,49 +1019,36 @@ public class QuestPlayerManager {
 
     main.getLogManager().debug("Loading active objectives for quest/objective holder name <highlight>%s</highlight>. ActiveObjectiveHolder: <highlight2>%s</highlight2>", questName, activeObjectiveHolder);
 
-    activeQuestObjectivesPS.setString(3, questName);
-    ResultSet activeQuestObjectiveResults = activeQuestObjectivesPS.executeQuery();
-
     final ArrayList<ActiveObjective> activeObjectivesWithSubObjectives = new ArrayList<>();
 
-    while (activeQuestObjectiveResults.next()) {
-      final String objectiveTypeString =
-              activeQuestObjectiveResults.getString("ObjectiveType");
-      final double currentProgress = activeQuestObjectiveResults.getDouble("CurrentProgress");
-      final boolean hasBeenCompleted =
-              activeQuestObjectiveResults.getBoolean("HasBeenCompleted");
-      final double progressNeeded = activeQuestObjectiveResults.getDouble("ProgressNeeded");
-      final boolean progressNeededNull = activeQuestObjectiveResults.wasNull();
-
-      if (objectiveTypeString != null) {
-        final int objectiveID = activeQuestObjectiveResults.getInt("ObjectiveID");
+    for (final ActiveObjectiveRow activeObjectiveRow : activeObjectiveRows.getOrDefault(questName, List.of())) {
+      if (activeObjectiveRow.objectiveType() != null) {
+        final int objectiveID = activeObjectiveRow.objectiveID();
+        final Class<? extends Objective> objectiveClass = main.getObjectiveManager().getObjectiveClass(activeObjectiveRow.objectiveType());
 
         // So the active objectives are already there - we just need to fill them with
         // progress data.
         main.getLogManager().debug("  Active objective count (.next() for %s): %s", objectiveID, activeObjectiveHolder.getActiveObjectives().size());
         for (final ActiveObjective activeObjective : activeObjectiveHolder.getActiveObjectives()) {
-          if (activeObjective.getObjective().getClass()
-                  == main.getObjectiveManager().getObjectiveClass(objectiveTypeString)
+          if (activeObjective.getObjective().getClass() == objectiveClass
                   && activeObjective.getObjectiveID() == objectiveID) {
             main.getLogManager().debug("  >Handling active objective <highlight>%s</highlight> (ID: %s) of holder <highlight2>%s</highlight2>", activeObjective.getObjective().getIdentifier(), activeObjective.getObjectiveID(), activeObjectiveHolder.getObjectiveHolder().getIdentifier());
-            main.getLogManager().debug("  Has been completed: %s, currentProgress: %s, progressNeeded: %s", hasBeenCompleted, currentProgress, progressNeeded);
-            // System.out.println("§4§lHAS BEEN COMPLETED: §b" + hasBeenCompleted + " §c- ID:
-            // §b" + objectiveID);
-            if (!progressNeededNull) {
-              activeObjective.setProgressNeeded(progressNeeded);
+            main.getLogManager().debug("  Has been completed: %s, currentProgress: %s, progressNeeded: %s", activeObjectiveRow.hasBeenCompleted(), activeObjectiveRow.currentProgress(), activeObjectiveRow.progressNeeded());
+            if (!activeObjectiveRow.progressNeededNull()) {
+              activeObjective.setProgressNeeded(activeObjectiveRow.progressNeeded());
             }
-            activeObjective.setHasBeenCompleted(hasBeenCompleted);
+            activeObjective.setHasBeenCompleted(activeObjectiveRow.hasBeenCompleted());
             if (activeObjective.getObjective().getCompletionNPC() == null) { // Complete automatically
-              activeObjective.addProgress(currentProgress, true);
+              activeObjective.addProgress(activeObjectiveRow.currentProgress(), true);
             } else { // Only complete if player has talked to the completion NPC
               if (activeObjective.hasBeenCompleted()) {
                 activeObjective.addProgress(
-                        currentProgress,
+                        activeObjectiveRow.currentProgress(),
                         activeObjective.getObjective().getCompletionNPC(),
                         true);
 
               } else {
-                activeObjective.addProgress(currentProgress, true);
+                activeObjective.addProgress(activeObjectiveRow.currentProgress(), true);
               }
             }
             if(!activeObjective.getActiveObjectives().isEmpty()){
@@ -663,8 +1062,6 @@ public class QuestPlayerManager {
         }
         activeObjectiveHolder.removeCompletedObjectives(false);
 
-
-
       } else {
         main.getLogManager()
                 .warn(
@@ -682,7 +1079,7 @@ public class QuestPlayerManager {
 
     for(final ActiveObjective activeObjectiveWithSubObjectives : activeObjectivesWithSubObjectives){
       main.getLogManager().debug("Loading active objective with sub-objectives...");
-      handleLoadingOfActiveObjectives(activeQuestObjectivesPS, activeObjectiveWithSubObjectives);
+      handleLoadingOfActiveObjectives(activeObjectiveRows, activeObjectiveWithSubObjectives);
       main.getLogManager().debug("    Done loading sub-aO's");
 
       activeObjectiveWithSubObjectives.removeCompletedObjectives(false);
@@ -692,157 +1089,564 @@ public class QuestPlayerManager {
 
 
 
-  private void savePlayerDataInternal(final List<QuestPlayer> questPlayers) {
-    try (Connection connection = main.getDataManager().getConnection();
-         final PreparedStatement deleteFromQuestPlayerProfileDataPS = connection.prepareStatement("""
-            DELETE FROM QuestPlayerProfileData WHERE PlayerUUID = ?;
-         """);
-
-         final PreparedStatement insertIntoQuestPlayerProfileDataPS = connection.prepareStatement("""
-            INSERT INTO QuestPlayerProfileData (PlayerUUID, CurrentProfile) VALUES (?, ?);
-          """);
-
-         final PreparedStatement deleteFromQuestPlayerDataPS = connection.prepareStatement("""
-            DELETE FROM QuestPlayerData WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-         final PreparedStatement insertIntoQuestPlayerDataPS = connection.prepareStatement("""
-            INSERT INTO QuestPlayerData (PlayerUUID, QuestPoints, Profile) VALUES (?, ?, ?);
-         """);
 
-         final PreparedStatement deleteFromActiveQuestsPS = connection.prepareStatement("""
-            DELETE FROM ActiveQuests WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-         final PreparedStatement deleteFromActiveObjectivesPS = connection.prepareStatement("""
-            DELETE FROM ActiveObjectives WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-
-         final PreparedStatement insertIntoActiveQuestsPS = connection.prepareStatement("""
-            INSERT INTO ActiveQuests (QuestName, PlayerUUID, Profile) VALUES (?, ?, ?);
-         """);
-
-         final PreparedStatement insertIntoActiveTriggersPS = connection.prepareStatement("""
-            INSERT INTO ActiveTriggers (TriggerType, QuestName, PlayerUUID, CurrentProgress, TriggerID, Profile) VALUES (?, ?, ?, ?, ?, ?);
-         """);
+  /**
+   * Creates snapshots of these QuestPlayers and writes them to the database on the current thread.
+   *
+   * @return false if saving failed
+   */
+  boolean savePlayerDataInternal(final List<QuestPlayer> questPlayers) {
+    return savePlayerDataSnapshots(createPlayerDataSnapshots(questPlayers));
+  }
 
-         final PreparedStatement insertIntoActiveObjectivesPS = connection.prepareStatement("""
-            INSERT INTO ActiveObjectives (ObjectiveType, QuestName, PlayerUUID, CurrentProgress, ObjectiveID, HasBeenCompleted, ProgressNeeded, Profile) VALUES (?, ?, ?, ?, ?, ?, ?, ?);
-         """);
+  /**
+   * Creates snapshots of the rows which need to be saved for these QuestPlayers, and marks their data as saved. Needs to be called on the thread
+   * which modifies the QuestPlayers (the main thread), unless they are not modified anymore (e.g. after they have been removed from the offline player cache).
+   *
+   * @return one snapshot per QuestPlayer, in the same order. Snapshots of the same QuestPlayer need to be written in the order they were created
+   */
+  public final List<PlayerDataSnapshot> createPlayerDataSnapshots(final Collection<QuestPlayer> questPlayers) {
+    final boolean onlySaveChanges = main.getConfiguration().isSaveOnlyChangedPlayerData();
+    final ArrayList<PlayerDataSnapshot> snapshots = new ArrayList<>(questPlayers.size());
+    for (final QuestPlayer questPlayer : questPlayers) {
+      if (!onlySaveChanges || !questPlayer.isPersisted()) {
+        snapshots.add(createFullSnapshot(questPlayer));
+      } else {
+        snapshots.add(createChangesSnapshot(questPlayer));
+      }
+    }
+    return snapshots;
+  }
 
-         final PreparedStatement deleteFromCompletedQuestsPS = connection.prepareStatement("""
-            DELETE FROM CompletedQuests WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-         final PreparedStatement insertIntoCompletedQuestsPS = connection.prepareStatement("""
-            INSERT INTO CompletedQuests (QuestName, PlayerUUID, TimeCompleted, Profile) VALUES (?, ?, ?, ?);
-         """);
+  /**
+   * Writes the snapshots to the database in one transaction. Can be called from any thread.
+   *
+   * @return false if saving failed
+   */
+  synchronized boolean savePlayerDataSnapshots(final List<PlayerDataSnapshot> snapshots) {
+    if (snapshots.isEmpty()) {
+      return true;
+    }
+    final long startTime = System.nanoTime();
 
-         final PreparedStatement deleteFromFailedQuestsPS = connection.prepareStatement("""
-            DELETE FROM FailedQuests WHERE PlayerUUID = ? AND Profile = ?;
-         """);
-        final PreparedStatement insertIntoFailedQuestsPS = connection.prepareStatement("""
-            INSERT INTO FailedQuests (QuestName, PlayerUUID, TimeFailed, Profile) VALUES (?, ?, ?, ?);
-         """)
+    try (final Connection connection = main.getDataManager().getConnection();
+         final PlayerDataSaveStatements statements = new PlayerDataSaveStatements(connection)
     ) {
-      for (final QuestPlayer questPlayer : questPlayers) {
-        final long questPoints = questPlayer.getQuestPoints();
-        final UUID questPlayerUUID = questPlayer.getUniqueId();
-        final String profile = questPlayer.getProfile();
-
-        //Current Profile
-        deleteFromQuestPlayerProfileDataPS.setString(1, questPlayerUUID.toString());
-        deleteFromQuestPlayerProfileDataPS.executeUpdate();
-
-        insertIntoQuestPlayerProfileDataPS.setString(1, questPlayerUUID.toString());
-        final QuestPlayer activeQuestPlayer = activeQuestPlayersAndUUIDs.get(questPlayerUUID);
-        insertIntoQuestPlayerProfileDataPS.setString(2, activeQuestPlayer != null ? activeQuestPlayer.getProfile() : "default");
-        insertIntoQuestPlayerProfileDataPS.executeUpdate();
-
-        // QuestPoints
-        deleteFromQuestPlayerDataPS.setString(1, questPlayerUUID.toString());
-        deleteFromQuestPlayerDataPS.setString(2, profile);
-        deleteFromQuestPlayerDataPS.executeUpdate();
-
-        insertIntoQuestPlayerDataPS.setString(1, questPlayerUUID.toString());
-        insertIntoQuestPlayerDataPS.setLong(2, questPoints);
-        insertIntoQuestPlayerDataPS.setString(3, profile);
-        insertIntoQuestPlayerDataPS.executeUpdate();
-
-        // Active Quests and Active Objectives
-        deleteFromActiveQuestsPS.setString(1, questPlayerUUID.toString());
-        deleteFromActiveQuestsPS.setString(2, profile);
-        deleteFromActiveQuestsPS.executeUpdate();
-        deleteFromActiveObjectivesPS.setString(1, questPlayerUUID.toString());
-        deleteFromActiveObjectivesPS.setString(2, profile);
-        deleteFromActiveObjectivesPS.executeUpdate();
-
-        for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-          insertIntoActiveQuestsPS.setString(1, activeQuest.getQuest().getIdentifier());
-          insertIntoActiveQuestsPS.setString(2, questPlayerUUID.toString());
-          insertIntoActiveQuestsPS.setString(3, profile);
-          insertIntoActiveQuestsPS.executeUpdate();
-
-          // Active Triggers
-          for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
-            insertIntoActiveTriggersPS.setString(1, activeTrigger.getTrigger().getTriggerType());
-            insertIntoActiveTriggersPS.setString(2, activeTrigger.getActiveQuest().getQuest().getIdentifier());
-            insertIntoActiveTriggersPS.setString(3, questPlayerUUID.toString());
-            insertIntoActiveTriggersPS.setLong(4, activeTrigger.getCurrentProgress());
-            insertIntoActiveTriggersPS.setInt(5, activeTrigger.getTriggerID());
-            insertIntoActiveTriggersPS.setString(6, profile);
-            insertIntoActiveTriggersPS.executeUpdate();
+      final boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        //Current Profile. Only one row per UUID, even if multiple profiles of the same player are saved
+        final LinkedHashMap<UUID, String> currentProfiles = new LinkedHashMap<>();
+        for (final PlayerDataSnapshot snapshot : snapshots) {
+          if (snapshot.currentProfile() != null) {
+            currentProfiles.put(snapshot.uuid(), snapshot.currentProfile());
           }
+        }
+        for (final Map.Entry<UUID, String> currentProfile : currentProfiles.entrySet()) {
+          statements.deleteFromQuestPlayerProfileData.setString(1, currentProfile.getKey().toString());
+          statements.deleteFromQuestPlayerProfileData.addBatch();
 
-          // Active Objectives
-          for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-            handleSavingOfActiveObjectives(insertIntoActiveObjectivesPS, activeObjective, questPlayerUUID, profile);
-          }
-          // Active Objectives from completed Objective list
-          for (final ActiveObjective completedObjective : activeQuest.getCompletedObjectives()) {
-            handleSavingOfCompletedActiveObjectives(insertIntoActiveObjectivesPS, completedObjective, questPlayerUUID, profile);
-          }
+          statements.insertIntoQuestPlayerProfileData.setString(1, currentProfile.getKey().toString());
+          statements.insertIntoQuestPlayerProfileData.setString(2, currentProfile.getValue());
+          statements.insertIntoQuestPlayerProfileData.addBatch();
         }
 
-        // Completed Quests
-        deleteFromCompletedQuestsPS.setString(1, questPlayerUUID.toString());
-        deleteFromCompletedQuestsPS.setString(2, profile);
-        deleteFromCompletedQuestsPS.executeUpdate();
-
-        for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-          insertIntoCompletedQuestsPS.setString(1, completedQuest.getQuest().getIdentifier());
-          insertIntoCompletedQuestsPS.setString(2, questPlayerUUID.toString());
-          insertIntoCompletedQuestsPS.setLong(3, completedQuest.getTimeCompleted());
-          insertIntoCompletedQuestsPS.setString(4, profile);
-          insertIntoCompletedQuestsPS.executeUpdate();
+        for (final PlayerDataSnapshot snapshot : snapshots) {
+          if (snapshot.full()) {
+            addAllRows(statements, snapshot);
+          } else {
+            addChangedRows(statements, snapshot);
+          }
         }
 
-        // Failed Quests
-        deleteFromFailedQuestsPS.setString(1, questPlayerUUID.toString());
-        deleteFromFailedQuestsPS.setString(2, profile);
-        deleteFromFailedQuestsPS.executeUpdate();
-
-        for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-          insertIntoFailedQuestsPS.setString(1, failedQuest.getQuest().getIdentifier());
-          insertIntoFailedQuestsPS.setString(2, questPlayerUUID.toString());
-          insertIntoFailedQuestsPS.setLong(3, failedQuest.getTimeFailed());
-          insertIntoFailedQuestsPS.setString(4, profile);
-          insertIntoFailedQuestsPS.executeUpdate();
+        final int rowsWritten = statements.executeBatches();
+        connection.commit();
+
+        final long durationMs = (System.nanoTime() - startTime) / 1_000_000;
+        lastPlayerDataSaveRowsWritten = rowsWritten;
+        lastPlayerDataSaveDurationMs = durationMs;
+        totalPlayerDataRowsWritten.addAndGet(rowsWritten);
+        main.getLogManager().debug("Saved PlayerData of %s QuestPlayers: %s rows written in %sms",
+                snapshots.size(),
+                rowsWritten,
+                durationMs
+        );
+        return true;
+      } catch (final Exception e) {
+        connection.rollback();
+        //The snapshots have already been marked as saved, so the database might not match these QuestPlayers anymore => rewrite them completely next time
+        for (final PlayerDataSnapshot snapshot : snapshots) {
+          snapshot.questPlayer().setPersisted(false);
+          if (snapshot.rewriteTags() || !snapshot.tags().isEmpty()) {
+            snapshot.questPlayer().setTagsPersisted(false);
+          }
         }
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
       }
     } catch (Exception e) {
-      if(questPlayers.size() == 1){
+      if(snapshots.size() == 1){
         main.getLogManager()
                 .warn(
-                        "There was an error saving the PlayerData of player with UUID <highlight>%s</highlight>! Stacktrace:", questPlayers.get(0).getUniqueId());
+                        "There was an error saving the PlayerData of player with UUID <highlight>%s</highlight>! Stacktrace:", snapshots.get(0).uuid());
       }else{
-        main.getLogManager().warn("There was an error loading the PlayerData! Stacktrace:");
+        main.getLogManager().warn("There was an error saving the PlayerData! Stacktrace:");
       }
       e.printStackTrace();
+      return false;
+    }
+  }
+
+  /**
+   * Snapshot of all rows of the QuestPlayer. Used if it has never been saved before, if its last save failed or if saving only changes is disabled.
+   */
+  private PlayerDataSnapshot createFullSnapshot(final QuestPlayer questPlayer) {
+    questPlayer.setProfileDataDirty(false);
+    questPlayer.setQuestPointsDirty(false);
+    final ArrayList<ActiveQuest> activeQuests = new ArrayList<>(questPlayer.getActiveQuests());
+    final ArrayList<PlayerDataSnapshot.ActiveQuestRows> activeQuestRows = new ArrayList<>(activeQuests.size());
+    for (final ActiveQuest activeQuest : activeQuests) {
+      activeQuest.clearDirtyIncludingChildren();
+      activeQuestRows.add(createActiveQuestRows(activeQuest));
+    }
+    final ArrayList<CompletedQuest> completedQuests = new ArrayList<>(questPlayer.getCompletedQuests());
+    final ArrayList<PlayerDataSnapshot.QuestHistoryRow> completedQuestRows = new ArrayList<>(completedQuests.size());
+    for (final CompletedQuest completedQuest : completedQuests) {
+      completedQuestRows.add(new PlayerDataSnapshot.QuestHistoryRow(completedQuest.getQuest().getIdentifier(), completedQuest.getTimeCompleted()));
+    }
+    final ArrayList<FailedQuest> failedQuests = new ArrayList<>(questPlayer.getFailedQuests());
+    final ArrayList<PlayerDataSnapshot.QuestHistoryRow> failedQuestRows = new ArrayList<>(failedQuests.size());
+    for (final FailedQuest failedQuest : failedQuests) {
+      failedQuestRows.add(new PlayerDataSnapshot.QuestHistoryRow(failedQuest.getQuest().getIdentifier(), failedQuest.getTimeFailed()));
+    }
+
+    questPlayer.getPersistedActiveQuests().clear();
+    questPlayer.getPersistedActiveQuests().addAll(activeQuests);
+    questPlayer.getPersistedCompletedQuests().clear();
+    questPlayer.getPersistedCompletedQuests().addAll(completedQuests);
+    questPlayer.getPersistedFailedQuests().clear();
+    questPlayer.getPersistedFailedQuests().addAll(failedQuests);
+    questPlayer.markQuestHistoryListsPersisted();
+    questPlayer.setPersisted(true);
+
+    //Tags of this profile might not have been loaded at all (e.g. for offline players). Don't delete the saved ones then
+    final boolean rewriteTags = questPlayer.isFinishedLoadingTags() && (questPlayer.isTagsPersisted() || !questPlayer.getTags().isEmpty());
+
+    return new PlayerDataSnapshot(questPlayer, questPlayer.getUniqueId(), questPlayer.getProfile(), true, getCurrentProfile(questPlayer.getUniqueId()),
+        questPlayer.getQuestPoints(), true,
+        List.of(), List.copyOf(activeQuestRows), List.of(),
+        true, List.copyOf(completedQuestRows),
+        true, List.copyOf(failedQuestRows),
+        rewriteTags, createTagRows(questPlayer, rewriteTags)
+    );
+  }
+
+  /**
+   * Snapshot of what changed since the last snapshot:
+   * - QuestPoints are updated if they changed
+   * - Active quests which are gone or whose structure/triggers changed are deleted (and re-inserted if still active)
+   * - Active objectives whose progress changed are updated in place
+   * - Completed and failed quests are only appended, unless some were removed
+   */
+  private PlayerDataSnapshot createChangesSnapshot(final QuestPlayer questPlayer) {
+    // Current Profile
+    String currentProfile = null;
+    if (questPlayer.isProfileDataDirty()) {
+      questPlayer.setProfileDataDirty(false);
+      currentProfile = getCurrentProfile(questPlayer.getUniqueId());
+    }
+
+    // QuestPoints
+    final boolean questPointsChanged = questPlayer.isQuestPointsDirty();
+    questPlayer.setQuestPointsDirty(false);
+
+    // Active Quests which are not active anymore
+    final ArrayList<ActiveQuest> activeQuests = new ArrayList<>(questPlayer.getActiveQuests());
+    final Set<ActiveQuest> persistedActiveQuests = questPlayer.getPersistedActiveQuests();
+    final Set<ActiveQuest> currentActiveQuests = Collections.newSetFromMap(new IdentityHashMap<>());
+    currentActiveQuests.addAll(activeQuests);
+    final ArrayList<String> deletedActiveQuests = new ArrayList<>();
+    for (final ActiveQuest persistedActiveQuest : new ArrayList<>(persistedActiveQuests)) {
+      if (!currentActiveQuests.contains(persistedActiveQuest)) {
+        deletedActiveQuests.add(persistedActiveQuest.getQuestIdentifier());
+        persistedActiveQuests.remove(persistedActiveQuest);
+      }
+    }
+
+    // New or structurally changed Active Quests are rewritten. For the others, only the objectives with changed progress are updated
+    final ArrayList<PlayerDataSnapshot.ActiveQuestRows> rewrittenActiveQuests = new ArrayList<>();
+    final ArrayList<PlayerDataSnapshot.ActiveObjectiveRow> updatedActiveObjectives = new ArrayList<>();
+    for (final ActiveQuest activeQuest : activeQuests) {
+      if (!persistedActiveQuests.contains(activeQuest) || activeQuest.isDirty()) {
+        activeQuest.clearDirtyIncludingChildren();
+        rewrittenActiveQuests.add(createActiveQuestRows(activeQuest));
+        persistedActiveQuests.add(activeQuest);
+      } else {
+        forEachActiveObjectiveRow(activeQuest, activeObjective -> {
+          if (activeObjective.isDirty()) {
+            activeObjective.setDirty(false);
+            updatedActiveObjectives.add(createActiveObjectiveRow(activeObjective));
+          }
+        });
+      }
+    }
+
+    // Completed Quests
+    final ArrayList<CompletedQuest> completedQuests = new ArrayList<>(questPlayer.getCompletedQuests());
+    final boolean rewriteCompletedQuests = !containsAllPersisted(completedQuests, questPlayer.getPersistedCompletedQuests());
+    if (rewriteCompletedQuests) {
+      questPlayer.getPersistedCompletedQuests().clear();
+    }
+    final ArrayList<PlayerDataSnapshot.QuestHistoryRow> completedQuestRows = new ArrayList<>();
+    for (final CompletedQuest completedQuest : completedQuests) {
+      if (questPlayer.getPersistedCompletedQuests().add(completedQuest)) {
+        completedQuestRows.add(new PlayerDataSnapshot.QuestHistoryRow(completedQuest.getQuest().getIdentifier(), completedQuest.getTimeCompleted()));
+      }
+    }
+
+    // Failed Quests
+    final ArrayList<FailedQuest> failedQuests = new ArrayList<>(questPlayer.getFailedQuests());
+    final boolean rewriteFailedQuests = !containsAllPersisted(failedQuests, questPlayer.getPersistedFailedQuests());
+    if (rewriteFailedQuests) {
+      questPlayer.getPersistedFailedQuests().clear();
+    }
+    final ArrayList<PlayerDataSnapshot.QuestHistoryRow> failedQuestRows = new ArrayList<>();
+    for (final FailedQuest failedQuest : failedQuests) {
+      if (questPlayer.getPersistedFailedQuests().add(failedQuest)) {
+        failedQuestRows.add(new PlayerDataSnapshot.QuestHistoryRow(failedQuest.getQuest().getIdentifier(), failedQuest.getTimeFailed()));
+      }
+    }
+    questPlayer.markQuestHistoryListsPersisted();
+
+    // Tags
+    final boolean rewriteTags = isRewriteAllTags(questPlayer);
+
+    return new PlayerDataSnapshot(questPlayer, questPlayer.getUniqueId(), questPlayer.getProfile(), false, currentProfile,
+        questPlayer.getQuestPoints(), questPointsChanged,
+        List.copyOf(deletedActiveQuests), List.copyOf(rewrittenActiveQuests), List.copyOf(updatedActiveObjectives),
+        rewriteCompletedQuests, List.copyOf(completedQuestRows),
+        rewriteFailedQuests, List.copyOf(failedQuestRows),
+        rewriteTags, createTagRows(questPlayer, rewriteTags)
+    );
+  }
+
+  /**
+   * Snapshot of only the tags which changed since the last snapshot. Used to save the tags of a player who left, if the rest of their data is not saved on quit.
+   */
+  public final PlayerDataSnapshot createTagsSnapshot(final QuestPlayer questPlayer) {
+    final boolean rewriteTags = isRewriteAllTags(questPlayer);
+    return new PlayerDataSnapshot(questPlayer, questPlayer.getUniqueId(), questPlayer.getProfile(), false, null,
+        questPlayer.getQuestPoints(), false,
+        List.of(), List.of(), List.of(),
+        false, List.of(),
+        false, List.of(),
+        rewriteTags, createTagRows(questPlayer, rewriteTags)
+    );
+  }
+
+  /**
+   * @return true if the tags of this profile have never been saved or loaded before (or their last save failed), so all of them need to be rewritten
+   */
+  private boolean isRewriteAllTags(final QuestPlayer questPlayer) {
+    //Tags of this profile might not have been loaded at all (e.g. for offline players). Don't delete the saved ones then
+    return questPlayer.isFinishedLoadingTags() && !questPlayer.isTagsPersisted() && !questPlayer.getTags().isEmpty();
+  }
+
+  /**
+   * Rows of all tags if they are rewritten, otherwise only of the tags which changed. Dirty tags are cleared before their values are read,
+   * so changes happening in the meantime are part of the next snapshot.
+   */
+  private List<PlayerDataSnapshot.TagRow> createTagRows(final QuestPlayer questPlayer, final boolean rewriteAllTags) {
+    if (!questPlayer.isFinishedLoadingTags()) {
+      return List.of();
+    }
+    final ArrayList<String> tagIdentifiersToSave = new ArrayList<>();
+    if (rewriteAllTags) {
+      questPlayer.getDirtyTags().clear();
+      tagIdentifiersToSave.addAll(questPlayer.getTags().keySet());
+      questPlayer.setTagsPersisted(true);
+    } else {
+      for (final String dirtyTagIdentifier : questPlayer.getDirtyTags()) {
+        questPlayer.getDirtyTags().remove(dirtyTagIdentifier);
+        tagIdentifiersToSave.add(dirtyTagIdentifier);
+      }
+    }
+
+    final ArrayList<PlayerDataSnapshot.TagRow> tagRows = new ArrayList<>(tagIdentifiersToSave.size());
+    for (final String tagIdentifier : tagIdentifiersToSave) {
+      final Object tagValue = questPlayer.getTagValue(tagIdentifier);
+      final TagType tagType = tagValue != null ? main.getTagManager().getTagType(tagValue) : null;
+      if (tagValue != null && tagType == null) {
+        main.getLogManager().warn("Encountered an unknown tag value type when saving tag %s. Tag value type: %s",
+            tagIdentifier,
+            tagValue.getClass().toString()
+        );
+      }
+      //Tags without (known) value are only deleted
+      tagRows.add(new PlayerDataSnapshot.TagRow(tagIdentifier, tagType != null ? tagValue.toString() : null, tagType != null ? tagType.name() : null));
+    }
+    return List.copyOf(tagRows);
+  }
+
+  private String getCurrentProfile(final UUID uuid) {
+    final QuestPlayer activeQuestPlayer = activeQuestPlayersAndUUIDs.get(uuid);
+    return activeQuestPlayer != null ? activeQuestPlayer.getProfile() : "default";
+  }
+
+  private PlayerDataSnapshot.ActiveQuestRows createActiveQuestRows(final ActiveQuest activeQuest) {
+    final ArrayList<PlayerDataSnapshot.ActiveTriggerRow> activeTriggerRows = new ArrayList<>();
+    for (final ActiveTrigger activeTrigger : activeQuest.getActiveTriggers()) {
+      activeTriggerRows.add(new PlayerDataSnapshot.ActiveTriggerRow(activeTrigger.getTrigger().getTriggerType(), activeTrigger.getCurrentProgress(), activeTrigger.getTriggerID()));
+    }
+    // Active Objectives (including the ones from the completed objective list)
+    final ArrayList<PlayerDataSnapshot.ActiveObjectiveRow> activeObjectiveRows = new ArrayList<>();
+    forEachActiveObjectiveRow(activeQuest, activeObjective -> activeObjectiveRows.add(createActiveObjectiveRow(activeObjective)));
+    return new PlayerDataSnapshot.ActiveQuestRows(activeQuest.getQuest().getIdentifier(), List.copyOf(activeTriggerRows), List.copyOf(activeObjectiveRows));
+  }
+
+  private PlayerDataSnapshot.ActiveObjectiveRow createActiveObjectiveRow(final ActiveObjective activeObjective) {
+    return new PlayerDataSnapshot.ActiveObjectiveRow(
+        main.getObjectiveManager().getObjectiveType(activeObjective.getObjective().getClass()),
+        getActiveObjectiveRowQuestName(activeObjective),
+        activeObjective.getCurrentProgress(),
+        activeObjective.getObjectiveID(),
+        activeObjective.hasBeenCompleted(),
+        activeObjective.getProgressNeeded()
+    );
+  }
+
+  /**
+   * Deletes and re-inserts all rows of the snapshot's profile.
+   */
+  private void addAllRows(final PlayerDataSaveStatements statements, final PlayerDataSnapshot snapshot) throws SQLException {
+    final String questPlayerUUID = snapshot.uuid().toString();
+    final String profile = snapshot.profile();
+
+    // QuestPoints
+    statements.deleteFromQuestPlayerData.setString(1, questPlayerUUID);
+    statements.deleteFromQuestPlayerData.setString(2, profile);
+    statements.deleteFromQuestPlayerData.addBatch();
+
+    statements.insertIntoQuestPlayerData.setString(1, questPlayerUUID);
+    statements.insertIntoQuestPlayerData.setLong(2, snapshot.questPoints());
+    statements.insertIntoQuestPlayerData.setString(3, profile);
+    statements.insertIntoQuestPlayerData.addBatch();
+
+    // Active Quests, Active Triggers and Active Objectives
+    statements.deleteFromActiveQuests.setString(1, questPlayerUUID);
+    statements.deleteFromActiveQuests.setString(2, profile);
+    statements.deleteFromActiveQuests.addBatch();
+    statements.deleteFromActiveTriggers.setString(1, questPlayerUUID);
+    statements.deleteFromActiveTriggers.setString(2, profile);
+    statements.deleteFromActiveTriggers.addBatch();
+    statements.deleteFromActiveObjectives.setString(1, questPlayerUUID);
+    statements.deleteFromActiveObjectives.setString(2, profile);
+    statements.deleteFromActiveObjectives.addBatch();
+
+    for (final PlayerDataSnapshot.ActiveQuestRows activeQuestRows : snapshot.rewrittenActiveQuests()) {
+      addActiveQuestRows(statements, activeQuestRows, questPlayerUUID, profile);
+    }
+
+    // Completed Quests
+    statements.deleteFromCompletedQuests.setString(1, questPlayerUUID);
+    statements.deleteFromCompletedQuests.setString(2, profile);
+    statements.deleteFromCompletedQuests.addBatch();
+    for (final PlayerDataSnapshot.QuestHistoryRow completedQuest : snapshot.completedQuests()) {
+      addQuestHistoryRow(statements.insertIntoCompletedQuests, completedQuest, questPlayerUUID, profile);
+    }
+
+    // Failed Quests
+    statements.deleteFromFailedQuests.setString(1, questPlayerUUID);
+    statements.deleteFromFailedQuests.setString(2, profile);
+    statements.deleteFromFailedQuests.addBatch();
+    for (final PlayerDataSnapshot.QuestHistoryRow failedQuest : snapshot.failedQuests()) {
+      addQuestHistoryRow(statements.insertIntoFailedQuests, failedQuest, questPlayerUUID, profile);
+    }
+
+    // Tags
+    addTagRows(statements, snapshot, questPlayerUUID, profile);
+  }
+
+  /**
+   * Only writes what changed since the previous snapshot.
+   */
+  private void addChangedRows(final PlayerDataSaveStatements statements, final PlayerDataSnapshot snapshot) throws SQLException {
+    final String questPlayerUUID = snapshot.uuid().toString();
+    final String profile = snapshot.profile();
+
+    // QuestPoints
+    if (snapshot.questPointsChanged()) {
+      statements.updateQuestPlayerData.setLong(1, snapshot.questPoints());
+      statements.updateQuestPlayerData.setString(2, questPlayerUUID);
+      statements.updateQuestPlayerData.setString(3, profile);
+      statements.updateQuestPlayerData.addBatch();
+    }
+
+    // Active Quests
+    for (final String deletedActiveQuest : snapshot.deletedActiveQuests()) {
+      addDeleteActiveQuestRows(statements, deletedActiveQuest, questPlayerUUID, profile);
+    }
+    for (final PlayerDataSnapshot.ActiveQuestRows activeQuestRows : snapshot.rewrittenActiveQuests()) {
+      addDeleteActiveQuestRows(statements, activeQuestRows.questIdentifier(), questPlayerUUID, profile);
+      addActiveQuestRows(statements, activeQuestRows, questPlayerUUID, profile);
+    }
+    for (final PlayerDataSnapshot.ActiveObjectiveRow activeObjectiveRow : snapshot.updatedActiveObjectives()) {
+      statements.updateActiveObjective.setDouble(1, activeObjectiveRow.currentProgress());
+      statements.updateActiveObjective.setBoolean(2, activeObjectiveRow.hasBeenCompleted());
+      statements.updateActiveObjective.setDouble(3, activeObjectiveRow.progressNeeded());
+      statements.updateActiveObjective.setString(4, questPlayerUUID);
+      statements.updateActiveObjective.setString(5, profile);
+      statements.updateActiveObjective.setString(6, activeObjectiveRow.questName());
+      statements.updateActiveObjective.setInt(7, activeObjectiveRow.objectiveID());
+      statements.updateActiveObjective.addBatch();
+    }
+
+    // Completed Quests
+    if (snapshot.rewriteCompletedQuests()) {
+      statements.deleteFromCompletedQuests.setString(1, questPlayerUUID);
+      statements.deleteFromCompletedQuests.setString(2, profile);
+      statements.deleteFromCompletedQuests.addBatch();
     }
+    for (final PlayerDataSnapshot.QuestHistoryRow completedQuest : snapshot.completedQuests()) {
+      addQuestHistoryRow(statements.insertIntoCompletedQuests, completedQuest, questPlayerUUID, profile);
+    }
+
+    // Failed Quests
+    if (snapshot.rewriteFailedQuests()) {
+      statements.deleteFromFailedQuests.setString(1, questPlayerUUID);
+      statements.deleteFromFailedQuests.setString(2, profile);
+      statements.deleteFromFailedQuests.addBatch();
+    }
+    for (final PlayerDataSnapshot.QuestHistoryRow failedQuest : snapshot.failedQuests()) {
+      addQuestHistoryRow(statements.insertIntoFailedQuests, failedQuest, questPlayerUUID, profile);
+    }
+
+    // Tags
+    addTagRows(statements, snapshot, questPlayerUUID, profile);
+  }
+
+  private void addTagRows(final PlayerDataSaveStatements statements, final PlayerDataSnapshot snapshot, final String questPlayerUUID, final String profile) throws SQLException {
+    if (snapshot.rewriteTags()) {
+      statements.deleteFromTags.setString(1, questPlayerUUID);
+      statements.deleteFromTags.setString(2, profile);
+      statements.deleteFromTags.addBatch();
+    }
+    for (final PlayerDataSnapshot.TagRow tagRow : snapshot.tags()) {
+      if (!snapshot.rewriteTags()) {
+        statements.deleteFromTagsForTag.setString(1, questPlayerUUID);
+        statements.deleteFromTagsForTag.setString(2, profile);
+        statements.deleteFromTagsForTag.setString(3, tagRow.tagIdentifier());
+        statements.deleteFromTagsForTag.addBatch();
+      }
+      //Removed tags are only deleted
+      if (tagRow.tagValue() == null) {
+        continue;
+      }
+      statements.insertIntoTags.setString(1, questPlayerUUID);
+      statements.insertIntoTags.setString(2, tagRow.tagIdentifier());
+      statements.insertIntoTags.setString(3, tagRow.tagValue());
+      statements.insertIntoTags.setString(4, tagRow.tagType());
+      statements.insertIntoTags.setString(5, profile);
+      statements.insertIntoTags.addBatch();
+    }
+  }
 
+  /**
+   * @return false if an entry which has already been saved to the database is not in the current list anymore
+   */
+  private <T> boolean containsAllPersisted(final List<T> current, final Set<T> persisted) {
+    int foundPersisted = 0;
+    for (final T entry : current) {
+      if (persisted.contains(entry)) {
+        foundPersisted++;
+      }
+    }
+    return foundPersisted == persisted.size();
+  }
+
+  private void addDeleteActiveQuestRows(final PlayerDataSaveStatements statements, final String questIdentifier, final String questPlayerUUID, final String profile) throws SQLException {
+    statements.deleteFromActiveQuestsForQuest.setString(1, questPlayerUUID);
+    statements.deleteFromActiveQuestsForQuest.setString(2, profile);
+    statements.deleteFromActiveQuestsForQuest.setString(3, questIdentifier);
+    statements.deleteFromActiveQuestsForQuest.addBatch();
+
+    statements.deleteFromActiveTriggersForQuest.setString(1, questPlayerUUID);
+    statements.deleteFromActiveTriggersForQuest.setString(2, profile);
+    statements.deleteFromActiveTriggersForQuest.setString(3, questIdentifier);
+    statements.deleteFromActiveTriggersForQuest.addBatch();
+
+    //Sub-objectives are saved with "questIdentifier.objectiveID" as their QuestName
+    statements.deleteFromActiveObjectivesForQuest.setString(1, questPlayerUUID);
+    statements.deleteFromActiveObjectivesForQuest.setString(2, profile);
+    statements.deleteFromActiveObjectivesForQuest.setString(3, questIdentifier);
+    statements.deleteFromActiveObjectivesForQuest.setString(4, questIdentifier.replace("!", "!!").replace("%", "!%").replace("_", "!_") + ".%");
+    statements.deleteFromActiveObjectivesForQuest.addBatch();
+  }
+
+  private void addActiveQuestRows(final PlayerDataSaveStatements statements, final PlayerDataSnapshot.ActiveQuestRows activeQuestRows, final String questPlayerUUID, final String profile) throws SQLException {
+    statements.insertIntoActiveQuests.setString(1, activeQuestRows.questIdentifier());
+    statements.insertIntoActiveQuests.setString(2, questPlayerUUID);
+    statements.insertIntoActiveQuests.setString(3, profile);
+    statements.insertIntoActiveQuests.addBatch();
+
+    // Active Triggers
+    for (final PlayerDataSnapshot.ActiveTriggerRow activeTriggerRow : activeQuestRows.activeTriggers()) {
+      statements.insertIntoActiveTriggers.setString(1, activeTriggerRow.triggerType());
+      statements.insertIntoActiveTriggers.setString(2, activeQuestRows.questIdentifier());
+      statements.insertIntoActiveTriggers.setString(3, questPlayerUUID);
+      statements.insertIntoActiveTriggers.setLong(4, activeTriggerRow.currentProgress());
+      statements.insertIntoActiveTriggers.setInt(5, activeTriggerRow.triggerID());
+      statements.insertIntoActiveTriggers.setString(6, profile);
+      statements.insertIntoActiveTriggers.addBatch();
+    }
+
+    // Active Objectives
+    for (final PlayerDataSnapshot.ActiveObjectiveRow activeObjectiveRow : activeQuestRows.activeObjectives()) {
+      statements.insertIntoActiveObjectives.setString(1, activeObjectiveRow.objectiveType());
+      statements.insertIntoActiveObjectives.setString(2, activeObjectiveRow.questName());
+      statements.insertIntoActiveObjectives.setString(3, questPlayerUUID);
+      statements.insertIntoActiveObjectives.setDouble(4, activeObjectiveRow.currentProgress());
+      statements.insertIntoActiveObjectives.setInt(5, activeObjectiveRow.objectiveID());
+      statements.insertIntoActiveObjectives.setBoolean(6, activeObjectiveRow.hasBeenCompleted());
+      statements.insertIntoActiveObjectives.setDouble(7, activeObjectiveRow.progressNeeded());
+      statements.insertIntoActiveObjectives.setString(8, profile);
+      statements.insertIntoActiveObjectives.addBatch();
+    }
+  }
+
+  private void addQuestHistoryRow(final PreparedStatement insertStatement, final PlayerDataSnapshot.QuestHistoryRow questHistoryRow, final String questPlayerUUID, final String profile) throws SQLException {
+    insertStatement.setString(1, questHistoryRow.questName());
+    insertStatement.setString(2, questPlayerUUID);
+    insertStatement.setLong(3, questHistoryRow.time());
+    insertStatement.setString(4, profile);
+    insertStatement.addBatch();
+  }
+
+  /**
+   * Runs for every active objective which has its own row in the ActiveObjectives table: active objectives with their active sub-objectives,
+   * and completed objectives with their completed sub-objectives.
+   */
+  private void forEachActiveObjectiveRow(final ActiveObjectiveHolder activeObjectiveHolder, final Consumer<ActiveObjective> consumer) {
+    for (final ActiveObjective activeObjective : activeObjectiveHolder.getActiveObjectives()) {
+      forEachActiveObjectiveRow(activeObjective, false, consumer);
+    }
+    for (final ActiveObjective completedObjective : activeObjectiveHolder.getCompletedObjectives()) {
+      forEachActiveObjectiveRow(completedObjective, true, consumer);
+    }
   }
 
-  private void handleSavingOfActiveObjectives(final PreparedStatement insertIntoActiveObjectivesPS, final ActiveObjective activeObjective, final UUID questPlayerUUID, final String profile) throws SQLException {
-    insertIntoActiveObjectivesPS.setString(1, main.getObjectiveManager().getObjectiveType(activeObjective.getObjective().getClass()));
+  private void forEachActiveObjectiveRow(final ActiveObjective activeObjective, final boolean completed, final Consumer<ActiveObjective> consumer) {
+    consumer.accept(activeObjective);
+    for (final ActiveObjective subActiveObjective : completed ? activeObjective.getCompletedObjectives() : activeObjective.getActiveObjectives()) {
+      forEachActiveObjectiveRow(subActiveObjective, completed, consumer);
+    }
+  }
 
+  /**
+   * @return the QuestName column of the active objective's row. That's the quest identifier, followed by the objective IDs of all parent objectives (separated by dots)
+   */
+  private String getActiveObjectiveRowQuestName(final ActiveObjective activeObjective) {
     ActiveObjective lastActiveObjective = activeObjective;
     String counterWithSubId = "";
     for(int i = 0; i < activeObjective.getLevel(); i++){
@@ -857,58 +1661,252 @@ public class QuestPlayerManager {
     if(counterWithSubId.endsWith(".")){
       counterWithSubId = counterWithSubId.substring(0, counterWithSubId.length()-1);
     }
+    return counterWithSubId;
+  }
+
+  public final long getTotalPlayerDataRowsWritten() {
+    return totalPlayerDataRowsWritten.get();
+  }
+
+  public final int getLastPlayerDataSaveRowsWritten() {
+    return lastPlayerDataSaveRowsWritten;
+  }
+
+  public final long getLastPlayerDataSaveDurationMs() {
+    return lastPlayerDataSaveDurationMs;
+  }
+
+  /**
+   * All statements used for saving player data. Rows are added to their JDBC batches first and executed together in {@link #executeBatches()},
+   * deletes before inserts and updates.
+   */
+  private static final class PlayerDataSaveStatements implements AutoCloseable {
+    private final PreparedStatement deleteFromQuestPlayerProfileData;
+    private final PreparedStatement insertIntoQuestPlayerProfileData;
+    private final PreparedStatement deleteFromQuestPlayerData;
+    private final PreparedStatement insertIntoQuestPlayerData;
+    private final PreparedStatement updateQuestPlayerData;
+    private final PreparedStatement deleteFromActiveQuests;
+    private final PreparedStatement deleteFromActiveQuestsForQuest;
+    private final PreparedStatement deleteFromActiveTriggers;
+    private final PreparedStatement deleteFromActiveTriggersForQuest;
+    private final PreparedStatement deleteFromActiveObjectives;
+    private final PreparedStatement deleteFromActiveObjectivesForQuest;
+    private final PreparedStatement insertIntoActiveQuests;
+    private final PreparedStatement insertIntoActiveTriggers;
+    private final PreparedStatement insertIntoActiveObjectives;
+    private final PreparedStatement updateActiveObjective;
+    private final PreparedStatement deleteFromCompletedQuests;
+    private final PreparedStatement insertIntoCompletedQuests;
+    private final PreparedStatement deleteFromFailedQuests;
+    private final PreparedStatement insertIntoFailedQuests;
+    private final PreparedStatement deleteFromTags;
+    private final PreparedStatement deleteFromTagsForTag;
+    private final PreparedStatement insertIntoTags;
+
+    //In execution order
+    private final List<PreparedStatement> allStatements = new ArrayList<>();
+
+    private PlayerDataSaveStatements(final Connection connection) throws SQLException {
+      try {
+        deleteFromQuestPlayerProfileData = prepare(connection, """
+            DELETE FROM QuestPlayerProfileData WHERE PlayerUUID = ?;
+          """);
+        insertIntoQuestPlayerProfileData = prepare(connection, """
+            INSERT INTO QuestPlayerProfileData (PlayerUUID, CurrentProfile) VALUES (?, ?);
+          """);
+
+        deleteFromQuestPlayerData = prepare(connection, """
+            DELETE FROM QuestPlayerData WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+        insertIntoQuestPlayerData = prepare(connection, """
+            INSERT INTO QuestPlayerData (PlayerUUID, QuestPoints, Profile) VALUES (?, ?, ?);
+          """);
+        updateQuestPlayerData = prepare(connection, """
+            UPDATE QuestPlayerData SET QuestPoints = ? WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+
+        deleteFromActiveQuests = prepare(connection, """
+            DELETE FROM ActiveQuests WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+        deleteFromActiveQuestsForQuest = prepare(connection, """
+            DELETE FROM ActiveQuests WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
+          """);
+        deleteFromActiveTriggers = prepare(connection, """
+            DELETE FROM ActiveTriggers WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+        deleteFromActiveTriggersForQuest = prepare(connection, """
+            DELETE FROM ActiveTriggers WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ?;
+          """);
+        deleteFromActiveObjectives = prepare(connection, """
+            DELETE FROM ActiveObjectives WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+        deleteFromActiveObjectivesForQuest = prepare(connection, """
+            DELETE FROM ActiveObjectives WHERE PlayerUUID = ? AND Profile = ? AND (QuestName = ? OR QuestName LIKE ? ESCAPE '!');
+          """);
+
+        insertIntoActiveQuests = prepare(connection, """
+            INSERT INTO ActiveQuests (QuestName, PlayerUUID, Profile) VALUES (?, ?, ?);
+          """);
+        insertIntoActiveTriggers = prepare(connection, """
+            INSERT INTO ActiveTriggers (TriggerType, QuestName, PlayerUUID, CurrentProgress, TriggerID, Profile) VALUES (?, ?, ?, ?, ?, ?);
+          """);
+        insertIntoActiveObjectives = prepare(connection, """
+            INSERT INTO ActiveObjectives (ObjectiveType, QuestName, PlayerUUID, CurrentProgress, ObjectiveID, HasBeenCompleted, ProgressNeeded, Profile) VALUES (?, ?, ?, ?, ?, ?, ?, ?);
+          """);
+        updateActiveObjective = prepare(connection, """
+            UPDATE ActiveObjectives SET CurrentProgress = ?, HasBeenCompleted = ?, ProgressNeeded = ? WHERE PlayerUUID = ? AND Profile = ? AND QuestName = ? AND ObjectiveID = ?;
+          """);
 
-    insertIntoActiveObjectivesPS.setString(2, /*activeObjective.getActiveObjectiveHolder().getObjectiveHolder().getIdentifier()*/counterWithSubId);
-    insertIntoActiveObjectivesPS.setString(3, questPlayerUUID.toString());
-    insertIntoActiveObjectivesPS.setDouble(4, activeObjective.getCurrentProgress());
-    insertIntoActiveObjectivesPS.setInt(5, activeObjective.getObjectiveID());
-    insertIntoActiveObjectivesPS.setBoolean(6, activeObjective.hasBeenCompleted());
-    insertIntoActiveObjectivesPS.setDouble(7, activeObjective.getProgressNeeded());
-    insertIntoActiveObjectivesPS.setString(8, profile);
-    insertIntoActiveObjectivesPS.executeUpdate();
+        deleteFromCompletedQuests = prepare(connection, """
+            DELETE FROM CompletedQuests WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+        insertIntoCompletedQuests = prepare(connection, """
+            INSERT INTO CompletedQuests (QuestName, PlayerUUID, TimeCompleted, Profile) VALUES (?, ?, ?, ?);
+          """);
 
-    if(!activeObjective.getActiveObjectives().isEmpty()){
-      //Handle active sub-objectives here
-      for(final ActiveObjective subActiveObjective : activeObjective.getActiveObjectives()){
-        handleSavingOfActiveObjectives(insertIntoActiveObjectivesPS, subActiveObjective, questPlayerUUID, profile);
+        deleteFromFailedQuests = prepare(connection, """
+            DELETE FROM FailedQuests WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+        insertIntoFailedQuests = prepare(connection, """
+            INSERT INTO FailedQuests (QuestName, PlayerUUID, TimeFailed, Profile) VALUES (?, ?, ?, ?);
+          """);
+
+        deleteFromTags = prepare(connection, """
+            DELETE FROM Tags WHERE PlayerUUID = ? AND Profile = ?;
+          """);
+        deleteFromTagsForTag = prepare(connection, """
+            DELETE FROM Tags WHERE PlayerUUID = ? AND Profile = ? AND TagIdentifier = ?;
+          """);
+        insertIntoTags = prepare(connection, """
+            INSERT INTO Tags (PlayerUUID, TagIdentifier, TagValue, TagType, Profile) VALUES (?, ?, ?, ?, ?);
+          """);
+      } catch (final SQLException e) {
+        close();
+        throw e;
       }
     }
-  }
 
-  private void handleSavingOfCompletedActiveObjectives(final PreparedStatement insertIntoActiveObjectivesPS, final ActiveObjective completedObjective, final UUID questPlayerUUID, final String profile) throws SQLException {
-    insertIntoActiveObjectivesPS.setString(1, main.getObjectiveManager().getObjectiveType(completedObjective.getObjective().getClass()));
+    private PreparedStatement prepare(final Connection connection, final String sql) throws SQLException {
+      final PreparedStatement preparedStatement = connection.prepareStatement(sql);
+      allStatements.add(preparedStatement);
+      return preparedStatement;
+    }
 
-    ActiveObjective lastActiveObjective = completedObjective;
-    String counterWithSubId = "";
-    for(int i = 0; i < completedObjective.getLevel(); i++){
-      if(lastActiveObjective.getActiveObjectiveHolder() instanceof final ActiveObjective parentActiveObjective){
-        lastActiveObjective = parentActiveObjective;
-        counterWithSubId = lastActiveObjective.getObjectiveID() + "."+counterWithSubId;
-      }else if(lastActiveObjective.getActiveObjectiveHolder() instanceof final ActiveQuest activeQuest){
-        counterWithSubId = activeQuest.getQuestIdentifier() + "."+counterWithSubId;
-        break;
+    /**
+     * @return the amount of rows written (inserted, updated or deleted)
+     */
+    private int executeBatches() throws SQLException {
+      int rowsWritten = 0;
+      //Deletes first, so rewritten rows don't get deleted again
+      for (final PreparedStatement preparedStatement : List.of(
+          deleteFromQuestPlayerProfileData, deleteFromQuestPlayerData, deleteFromActiveQuests, deleteFromActiveQuestsForQuest,
+          deleteFromActiveTriggers, deleteFromActiveTriggersForQuest, deleteFromActiveObjectives, deleteFromActiveObjectivesForQuest,
+          deleteFromCompletedQuests, deleteFromFailedQuests, deleteFromTags, deleteFromTagsForTag,
+          insertIntoQuestPlayerProfileData, insertIntoQuestPlayerData, updateQuestPlayerData, insertIntoActiveQuests,
+          insertIntoActiveTriggers, insertIntoActiveObjectives, updateActiveObjective, insertIntoCompletedQuests, insertIntoFailedQuests,
+          insertIntoTags
+      )) {
+        for (final int updateCount : preparedStatement.executeBatch()) {
+          if (updateCount > 0) {
+            rowsWritten += updateCount;
+          } else if (updateCount == Statement.SUCCESS_NO_INFO) {
+            rowsWritten++;
+          }
+        }
       }
+      return rowsWritten;
     }
-    if(counterWithSubId.endsWith(".")){
-      counterWithSubId = counterWithSubId.substring(0, counterWithSubId.length()-1);
+
+    @Override
+    public void close() throws SQLException {
+      SQLException exception = null;
+      for (final PreparedStatement preparedStatement : allStatements) {
+        try {
+          preparedStatement.close();
+        } catch (final SQLException e) {
+          exception = e;
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * QuestPlayers which have been loaded from the database, but have not been published yet. Only used by the thread loading them.
+   */
+  private final class LoadedPlayerData {
+    private final LinkedHashMap<UUID, List<QuestPlayer>> questPlayers = new LinkedHashMap<>();
+    private final HashMap<UUID, QuestPlayer> activeQuestPlayers = new HashMap<>();
+    //If true, the QuestPlayers are built without unlocking objectives. They are finished on the main thread (see finishBuildingQuestPlayers)
+    private final boolean deferObjectiveUpdates;
+    //QuestPlayers which still need to be finished, with their rows (if they have any)
+    private final LinkedHashMap<QuestPlayer, ProfileRows> questPlayersToFinish = new LinkedHashMap<>();
+
+    private LoadedPlayerData(final boolean deferObjectiveUpdates) {
+      this.deferObjectiveUpdates = deferObjectiveUpdates;
     }
 
-    insertIntoActiveObjectivesPS.setString(2, /*completedObjective.getActiveObjectiveHolder().getObjectiveHolder().getIdentifier()*/counterWithSubId);
-    insertIntoActiveObjectivesPS.setString(3, questPlayerUUID.toString());
-    insertIntoActiveObjectivesPS.setDouble(4, completedObjective.getCurrentProgress());
-    insertIntoActiveObjectivesPS.setInt(5, completedObjective.getObjectiveID());
-    insertIntoActiveObjectivesPS.setBoolean(6,  completedObjective.hasBeenCompleted());
-    insertIntoActiveObjectivesPS.setDouble(7, completedObjective.getProgressNeeded());
-    insertIntoActiveObjectivesPS.setString(8, profile);
-    insertIntoActiveObjectivesPS.executeUpdate();
+    private LoadedPlayerData() {
+      this(false);
+    }
 
-    if(!completedObjective.getCompletedObjectives().isEmpty()){
-      //Handle active sub-objectives here
-      for(final ActiveObjective subCompletedActiveObjective : completedObjective.getCompletedObjectives()){
-        handleSavingOfCompletedActiveObjectives(insertIntoActiveObjectivesPS, subCompletedActiveObjective, questPlayerUUID, profile);
+    private QuestPlayer getOrCreateQuestPlayer(final UUID uuid, final String profile, final boolean setAsCurrentProfile) {
+      final List<QuestPlayer> questPlayersOfUUID = questPlayers.computeIfAbsent(uuid, k -> new ArrayList<>());
+      for (final QuestPlayer questPlayer : questPlayersOfUUID) {
+        if (questPlayer.getProfile().equalsIgnoreCase(profile)) {
+          return questPlayer;
+        }
+      }
+      final QuestPlayer questPlayer = new QuestPlayer(main, uuid, profile);
+      questPlayersOfUUID.add(questPlayer);
+      if (setAsCurrentProfile) {
+        activeQuestPlayers.put(uuid, questPlayer);
       }
+      return questPlayer;
     }
   }
 
+  private record ProfileKey(String uuid, String profile) {}
 
+  private record QuestPlayerDataRow(UUID uuid, String profile, long questPoints) {}
+
+  private record QuestRow(String questName, long time) {}
+
+  private record ActiveTriggerRow(String triggerType, int triggerID, long currentProgress) {}
+
+  private record ActiveObjectiveRow(String objectiveType, int objectiveID, double currentProgress, boolean hasBeenCompleted, double progressNeeded, boolean progressNeededNull) {}
+
+  /**
+   * All rows of one player profile, grouped by QuestName where needed
+   */
+  private static final class ProfileRows {
+    private final ArrayList<QuestRow> completedQuests = new ArrayList<>();
+    private final ArrayList<QuestRow> failedQuests = new ArrayList<>();
+    private final ArrayList<String> activeQuests = new ArrayList<>();
+    private final HashMap<String, List<ActiveTriggerRow>> activeTriggers = new HashMap<>();
+    private final HashMap<String, List<ActiveObjectiveRow>> activeObjectives = new HashMap<>();
+  }
+
+  private static final class PendingPlayerLoad {
+    private final CompletableFuture<QuestPlayer> future = new CompletableFuture<>();
+    private final ArrayList<Runnable> bufferedEventHandlers = new ArrayList<>();
+    private int droppedEventHandlers = 0;
+
+    private synchronized void bufferEventHandler(final Runnable eventHandler) {
+      if (bufferedEventHandlers.size() >= MAX_BUFFERED_EVENTS_PER_PLAYER) {
+        droppedEventHandlers++;
+        return;
+      }
+      bufferedEventHandlers.add(eventHandler);
+    }
+
+    private synchronized List<Runnable> drainBufferedEventHandlers() {
+      final ArrayList<Runnable> drainedEventHandlers = new ArrayList<>(bufferedEventHandlers);
+      bufferedEventHandlers.clear();
+      return drainedEventHandlers;
+    }
+  }
 }
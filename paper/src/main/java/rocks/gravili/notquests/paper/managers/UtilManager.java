@@ -398,7 +398,7 @@ public class UtilManager {
         File[] fList = directory.listFiles();
         if (fList != null)
             for (File file : fList) {
-                if (file.isDirectory() && !file.getName().equalsIgnoreCase("backups") && !file.getName().equalsIgnoreCase("languages")) {
+                if (file.isDirectory() && !file.getName().equalsIgnoreCase("backups") && !file.getName().equalsIgnoreCase("languages") && !file.getName().equalsIgnoreCase("cache")) {
                     files.add(file);
                 }
             }
@@ -411,7 +411,7 @@ public class UtilManager {
         File[] fList = directory.listFiles();
         if (fList != null)
             for (File file : fList) {
-                if (file.isDirectory() && !file.getName().equalsIgnoreCase("backups") && !file.getName().equalsIgnoreCase("languages")) {
+                if (file.isDirectory() && !file.getName().equalsIgnoreCase("backups") && !file.getName().equalsIgnoreCase("languages") && !file.getName().equalsIgnoreCase("cache")) {
                     files.add(file);
                     files.addAll(listFoldersRecursivelyWithoutLanguagesOrBackups(file));
                 }
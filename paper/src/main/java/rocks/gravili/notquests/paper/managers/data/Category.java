@@ -19,7 +19,6 @@
 package rocks.gravili.notquests.paper.managers.data;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
 
@@ -35,6 +34,9 @@ public class Category {
   private final String categoryName;
   private final File categoryFolder;
   private final ArrayList<FileConfiguration> conversationsConfigs;
+  //Errors which happened while parsing the configuration files. They are reported in finishInitializingConfigurations()
+  private final ArrayList<ParseError> parseErrors;
+  private boolean needsDefaults = false;
 
   private PredefinedProgressOrder predefinedProgressOrder;
 
@@ -64,6 +66,7 @@ public class Category {
     this.categoryName = categoryName;
     this.categoryFolder = categoryFolder;
     conversationsConfigs = new ArrayList<>();
+    parseErrors = new ArrayList<>();
   }
 
   public final File getCategoryFolder() {
@@ -159,7 +162,15 @@ public class Category {
   }
 
   public void initializeConfigurations() {
+    parseConfigurations();
+    finishInitializingConfigurations();
+  }
 
+  /**
+   * Parses all configuration files of this category which haven't been loaded yet. This only touches this category,
+   * so multiple categories can be parsed at the same time. {@link #finishInitializingConfigurations()} needs to be called afterwards.
+   */
+  public void parseConfigurations() {
     categoryConfig = loadConfig(categoryFile, categoryConfig);
     questsConfig = loadConfig(questsFile, questsConfig);
     actionsConfig = loadConfig(actionsFile, actionsConfig);
@@ -176,9 +187,30 @@ public class Category {
         conversationsConfigs.add(loadConfig(conversationFile, null));
       }
     }
+    needsDefaults = true;
+  }
+
+  /**
+   * Reports the errors which happened while parsing the configuration files and sets up the default values. Needs to be called on one thread at a time.
+   */
+  public void finishInitializingConfigurations() {
+    for (final ParseError parseError : parseErrors) {
+      main.getDataManager()
+          .disablePluginAndSaving(
+              "There was an error loading the "
+                  + parseError.file().getName()
+                  + " configuration of category <highlight>"
+                  + getCategoryName()
+                  + "</highlight>. It either doesn't exist, is invalid or has an error. Please carefully read the error below and try to fix it:",
+              parseError.exception());
+    }
+    parseErrors.clear();
 
-    //Setup default values
-    setupDefaults();
+    if (needsDefaults && categoryConfig != null) {
+      needsDefaults = false;
+      //Setup default values
+      setupDefaults();
+    }
   }
 
   private FileConfiguration loadConfig(File file, FileConfiguration fileConfiguration) {
@@ -191,19 +223,12 @@ public class Category {
                   + getCategoryName()
                   + "</highlight>...");
       try {
-        return main.getDataManager().loadYAMLConfiguration(file);
+        return main.getDataManager().getCategoryFileCache().load(file);
       } catch (Exception e) {
-        main.getDataManager()
-            .disablePluginAndSaving(
-                "There was an error loading the "
-                    + file.getName()
-                    + " configuration of category <highlight>"
-                    + getCategoryName()
-                    + "</highlight>. It either doesn't exist, is invalid or has an error. Please carefully read the error below and try to fix it:",
-                e);
+        parseErrors.add(new ParseError(file, e));
       }
     }
-    return null;
+    return fileConfiguration;
   }
 
   public FileConfiguration getCategoryConfig() {
@@ -236,61 +261,37 @@ public class Category {
 
   public void saveCategoryConfig() {
     if (main.getDataManager().isSavingEnabled()) {
-      try {
-        categoryConfig.save(categoryFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
+      main.getDataManager().getConfigWriteQueue().save(categoryFile, categoryConfig);
     }
   }
 
   public void saveQuestsConfig() {
     if (main.getDataManager().isSavingEnabled()) {
-      try {
-        questsConfig.save(questsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
+      main.getDataManager().getConfigWriteQueue().save(questsFile, questsConfig);
     }
   }
 
   public void saveActionsConfig() {
     if (main.getDataManager().isSavingEnabled()) {
-      try {
-        actionsConfig.save(actionsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
+      main.getDataManager().getConfigWriteQueue().save(actionsFile, actionsConfig);
     }
   }
 
   public void saveConditionsConfig() {
     if (main.getDataManager().isSavingEnabled()) {
-      try {
-        conditionsConfig.save(conditionsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
+      main.getDataManager().getConfigWriteQueue().save(conditionsFile, conditionsConfig);
     }
   }
 
   public void saveTagsConfig() {
     if (main.getDataManager().isSavingEnabled()) {
-      try {
-        tagsConfig.save(tagsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
+      main.getDataManager().getConfigWriteQueue().save(tagsFile, tagsConfig);
     }
   }
 
   public void saveItemsConfig() {
     if (main.getDataManager().isSavingEnabled()) {
-      try {
-        itemsConfig.save(itemsFile);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
+      main.getDataManager().getConfigWriteQueue().save(itemsFile, itemsConfig);
     }
   }
 
@@ -415,4 +416,6 @@ public class Category {
     this.guiItem = getCategoryConfig().getItemStack("guiItem", new ItemStack(Material.CHEST));
 
   }
+
+  private record ParseError(File file, Exception exception) {}
 }
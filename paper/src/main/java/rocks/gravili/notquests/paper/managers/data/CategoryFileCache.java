@@ -0,0 +1,365 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package rocks.gravili.notquests.paper.managers.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import rocks.gravili.notquests.paper.NotQuests;
+
+/**
+ * Binary cache of parsed category files. Each category file gets a cache file, which contains the SHA-256 hash of the file's content
+ * and the parsed configuration tree (including comments and serialized objects like ItemStacks). If the hash of the file still matches
+ * on the next start, the tree is read from the cache file instead of parsing the YAML again. Otherwise, the YAML is parsed and the cache file is re-written.
+ * <p>
+ * Files with values which can't be cached (which SnakeYAML only creates for uncommon YAML, like timestamps) are always parsed.
+ * Can be used from multiple threads at once, as long as each file is only loaded by one thread at a time.
+ */
+public class CategoryFileCache {
+  private static final int MAGIC = 0x4E514346; //NQCF
+  //Needs to be increased whenever the format changes, so old cache files are ignored
+  private static final int FORMAT_VERSION = 1;
+
+  private static final byte TYPE_NULL = 0;
+  private static final byte TYPE_STRING = 1;
+  private static final byte TYPE_INTEGER = 2;
+  private static final byte TYPE_LONG = 3;
+  private static final byte TYPE_DOUBLE = 4;
+  private static final byte TYPE_FLOAT = 5;
+  private static final byte TYPE_BOOLEAN = 6;
+  private static final byte TYPE_LIST = 7;
+  private static final byte TYPE_SECTION = 8;
+  //Maps inside of lists, and serialized objects (which have their alias under the "==" key)
+  private static final byte TYPE_MAP = 9;
+
+  private final NotQuests main;
+  private final File cacheFolder;
+
+  //Metrics
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  public CategoryFileCache(final NotQuests main) {
+    this.main = main;
+    this.cacheFolder = new File(main.getMain().getDataFolder(), "cache");
+  }
+
+  /**
+   * Loads the category file - either from its cache file, or by parsing the YAML if the cache is disabled or outdated.
+   *
+   * @param file the category file
+   * @return the loaded configuration
+   */
+  public final YamlConfiguration load(final File file) throws IOException, InvalidConfigurationException {
+    if (!main.getConfiguration().isCategoryFileCacheEnabled()) {
+      return main.getDataManager().loadYAMLConfiguration(file);
+    }
+
+    final byte[] content = Files.readAllBytes(file.toPath());
+    final byte[] hash = hash(content);
+    final File cacheFile = getCacheFile(file);
+
+    if (cacheFile.isFile()) {
+      try {
+        final YamlConfiguration cachedConfiguration = readCacheFile(cacheFile, hash);
+        if (cachedConfiguration != null) {
+          hitCount.incrementAndGet();
+          return cachedConfiguration;
+        }
+      } catch (final Exception e) {
+        main.getLogManager().debug("Cache file of <highlight>" + file.getPath() + "</highlight> could not be read and will be re-created: " + e.getMessage());
+      }
+    }
+
+    missCount.incrementAndGet();
+    final YamlConfiguration configuration = new YamlConfiguration();
+    configuration.loadFromString(new String(content, StandardCharsets.UTF_8));
+    writeCacheFile(file, cacheFile, hash, configuration);
+    return configuration;
+  }
+
+  private File getCacheFile(final File file) {
+    final Path relativePath = main.getMain().getDataFolder().toPath().toAbsolutePath().relativize(file.toPath().toAbsolutePath());
+    return new File(cacheFolder, relativePath + ".bin");
+  }
+
+  private static byte[] hash(final byte[] content) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(content);
+    } catch (final NoSuchAlgorithmException e) { //Every Java platform has to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return the cached configuration, or null if the cache file belongs to a different content or format
+   */
+  private YamlConfiguration readCacheFile(final File cacheFile, final byte[] expectedHash) throws IOException {
+    final DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(cacheFile.toPath())));
+    if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+      return null;
+    }
+    final byte[] hash = new byte[input.readInt()];
+    input.readFully(hash);
+    if (!Arrays.equals(hash, expectedHash)) {
+      return null;
+    }
+
+    final YamlConfiguration configuration = new YamlConfiguration();
+    configuration.options().setHeader(readComments(input));
+    configuration.options().setFooter(readComments(input));
+    readSection(input, configuration);
+    return configuration;
+  }
+
+  private void writeCacheFile(final File file, final File cacheFile, final byte[] hash, final YamlConfiguration configuration) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      final DataOutputStream output = new DataOutputStream(bytes);
+      output.writeInt(MAGIC);
+      output.writeInt(FORMAT_VERSION);
+      output.writeInt(hash.length);
+      output.write(hash);
+      writeComments(output, configuration.options().getHeader());
+      writeComments(output, configuration.options().getFooter());
+      writeSection(output, configuration);
+      output.flush();
+    } catch (final UnsupportedValueException e) {
+      main.getLogManager().debug("<highlight>" + file.getPath() + "</highlight> can't be cached: " + e.getMessage());
+      if (cacheFile.exists() && !cacheFile.delete()) {
+        main.getLogManager().warn("Couldn't delete outdated cache file <highlight>" + cacheFile.getPath());
+      }
+      return;
+    } catch (final IOException e) { //Not possible when writing to a ByteArrayOutputStream
+      return;
+    }
+
+    final Path cachePath = cacheFile.toPath();
+    final Path temporaryPath = cachePath.resolveSibling(cachePath.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(cachePath.getParent());
+      Files.write(temporaryPath, bytes.toByteArray());
+      try {
+        Files.move(temporaryPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (final AtomicMoveNotSupportedException e) {
+        Files.move(temporaryPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (final IOException e) {
+      main.getLogManager().warn("Couldn't write cache file <highlight>" + cacheFile.getPath() + "</highlight>: " + e.getMessage());
+    }
+  }
+
+  private void writeSection(final DataOutputStream output, final ConfigurationSection section) throws IOException {
+    final ArrayList<String> keys = new ArrayList<>(section.getKeys(false));
+    output.writeInt(keys.size());
+    for (final String key : keys) {
+      writeString(output, key);
+      writeComments(output, section.getComments(key));
+      writeComments(output, section.getInlineComments(key));
+      writeValue(output, section.get(key));
+    }
+  }
+
+  private void readSection(final DataInputStream input, final ConfigurationSection section) throws IOException {
+    final int size = input.readInt();
+    for (int i = 0; i < size; i++) {
+      final String key = readString(input);
+      final List<String> comments = readComments(input);
+      final List<String> inlineComments = readComments(input);
+      final byte type = input.readByte();
+      if (type == TYPE_SECTION) {
+        readSection(input, section.createSection(key));
+      } else {
+        final Object value = readValue(input, type);
+        if (value instanceof final Map<?, ?> mapValue) { //Maps which aren't serialized objects are sections in YAML
+          section.createSection(key, mapValue);
+        } else {
+          section.set(key, value);
+        }
+      }
+      section.setComments(key, comments);
+      section.setInlineComments(key, inlineComments);
+    }
+  }
+
+  private void writeValue(final DataOutputStream output, final Object value) throws IOException {
+    if (value == null) {
+      output.writeByte(TYPE_NULL);
+    } else if (value instanceof final String stringValue) {
+      output.writeByte(TYPE_STRING);
+      writeString(output, stringValue);
+    } else if (value instanceof final Integer integerValue) {
+      output.writeByte(TYPE_INTEGER);
+      output.writeInt(integerValue);
+    } else if (value instanceof final Long longValue) {
+      output.writeByte(TYPE_LONG);
+      output.writeLong(longValue);
+    } else if (value instanceof final Double doubleValue) {
+      output.writeByte(TYPE_DOUBLE);
+      output.writeDouble(doubleValue);
+    } else if (value instanceof final Float floatValue) {
+      output.writeByte(TYPE_FLOAT);
+      output.writeFloat(floatValue);
+    } else if (value instanceof final Boolean booleanValue) {
+      output.writeByte(TYPE_BOOLEAN);
+      output.writeBoolean(booleanValue);
+    } else if (value instanceof final List<?> listValue) {
+      output.writeByte(TYPE_LIST);
+      output.writeInt(listValue.size());
+      for (final Object element : listValue) {
+        writeValue(output, element);
+      }
+    } else if (value instanceof final ConfigurationSection sectionValue) {
+      output.writeByte(TYPE_SECTION);
+      writeSection(output, sectionValue);
+    } else if (value instanceof final Map<?, ?> mapValue) {
+      writeMap(output, mapValue);
+    } else if (value instanceof final ConfigurationSerializable serializableValue) {
+      //Same representation as in YAML
+      final LinkedHashMap<String, Object> serializedValue = new LinkedHashMap<>();
+      serializedValue.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, ConfigurationSerialization.getAlias(serializableValue.getClass()));
+      serializedValue.putAll(serializableValue.serialize());
+      writeMap(output, serializedValue);
+    } else {
+      throw new UnsupportedValueException(value.getClass().getName());
+    }
+  }
+
+  private void writeMap(final DataOutputStream output, final Map<?, ?> mapValue) throws IOException {
+    output.writeByte(TYPE_MAP);
+    output.writeInt(mapValue.size());
+    for (final Map.Entry<?, ?> entry : mapValue.entrySet()) {
+      if (!(entry.getKey() instanceof final String key)) {
+        throw new UnsupportedValueException("map key " + entry.getKey());
+      }
+      writeString(output, key);
+      writeValue(output, entry.getValue());
+    }
+  }
+
+  private Object readValue(final DataInputStream input, final byte type) throws IOException {
+    return switch (type) {
+      case TYPE_NULL -> null;
+      case TYPE_STRING -> readString(input);
+      case TYPE_INTEGER -> input.readInt();
+      case TYPE_LONG -> input.readLong();
+      case TYPE_DOUBLE -> input.readDouble();
+      case TYPE_FLOAT -> input.readFloat();
+      case TYPE_BOOLEAN -> input.readBoolean();
+      case TYPE_LIST -> {
+        final int size = input.readInt();
+        final ArrayList<Object> listValue = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          listValue.add(readValue(input, input.readByte()));
+        }
+        yield listValue;
+      }
+      case TYPE_SECTION -> {
+        //Sections inside of lists are maps in YAML
+        final YamlConfiguration sectionValue = new YamlConfiguration();
+        readSection(input, sectionValue);
+        yield sectionValue.getValues(false);
+      }
+      case TYPE_MAP -> {
+        final int size = input.readInt();
+        final LinkedHashMap<String, Object> mapValue = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+          final String key = readString(input);
+          mapValue.put(key, readValue(input, input.readByte()));
+        }
+        //Nested objects have already been deserialized, just like SnakeYAML does it
+        if (mapValue.containsKey(ConfigurationSerialization.SERIALIZED_TYPE_KEY)) {
+          yield ConfigurationSerialization.deserializeObject(mapValue);
+        }
+        yield mapValue;
+      }
+      default -> throw new IOException("Unknown value type " + type);
+    };
+  }
+
+  private static void writeComments(final DataOutputStream output, final List<String> comments) throws IOException {
+    output.writeInt(comments.size());
+    for (final String comment : comments) {
+      //Null comments are empty lines
+      output.writeBoolean(comment != null);
+      if (comment != null) {
+        writeString(output, comment);
+      }
+    }
+  }
+
+  private static List<String> readComments(final DataInputStream input) throws IOException {
+    final int size = input.readInt();
+    if (size == 0) {
+      return List.of();
+    }
+    final ArrayList<String> comments = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      comments.add(input.readBoolean() ? readString(input) : null);
+    }
+    return comments;
+  }
+
+  //Unlike writeUTF, this isn't limited to 65535 bytes
+  private static void writeString(final DataOutputStream output, final String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(final DataInputStream input) throws IOException {
+    final byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  public final long getHitCount() {
+    return hitCount.get();
+  }
+
+  public final long getMissCount() {
+    return missCount.get();
+  }
+
+  private static final class UnsupportedValueException extends IOException {
+    private UnsupportedValueException(final String message) {
+      super("Unsupported value: " + message);
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package rocks.gravili.notquests.paper.managers.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+import rocks.gravili.notquests.paper.NotQuests;
+
+/**
+ * Saves category configuration files (quests.yml, actions.yml, ...) in the background. Saving a file only marks it as changed -
+ * all changes within the configured delay are written together, so editing many things at once doesn't rewrite the same file over and over.
+ * The configuration is turned into a String on the main thread, and written by a dedicated thread to a temporary file which then replaces the real file.
+ * All files are written by that single thread (or, once the queue has been shut down, while holding the same lock), so two writes never race for the same file.
+ */
+public class ConfigWriteQueue {
+  private final NotQuests main;
+
+  //Files which need to be written, in the order they were first changed. Also guards flushTask
+  private final LinkedHashMap<File, FileConfiguration> changedConfigs;
+  private final ExecutorService executor;
+  //Held while a file is written
+  private final Object writeLock = new Object();
+  private BukkitTask flushTask;
+  private volatile boolean running = true;
+
+  //Metrics
+  private final AtomicLong requestedSaveCount = new AtomicLong();
+  private final AtomicLong writeCount = new AtomicLong();
+  private final AtomicLong failedWriteCount = new AtomicLong();
+
+  public ConfigWriteQueue(final NotQuests main) {
+    this.main = main;
+    changedConfigs = new LinkedHashMap<>();
+    executor = Executors.newSingleThreadExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "NotQuests Config Writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Marks the configuration as changed, so it's written to the file after the configured delay.
+   * If the delay is 0, it's queued to be written right away. If the queue has been shut down, it's written on the current thread.
+   *
+   * @param file the file the configuration belongs to
+   * @param configuration the changed configuration
+   */
+  public void save(final File file, final FileConfiguration configuration) {
+    requestedSaveCount.incrementAndGet();
+    final int delayMilliseconds = main.getConfiguration().getConfigSaveDelayMilliseconds();
+    if (!running || delayMilliseconds <= 0) {
+      synchronized (changedConfigs) {
+        changedConfigs.remove(file);
+      }
+      queueWrite(file, configuration.saveToString());
+      return;
+    }
+    synchronized (changedConfigs) {
+      changedConfigs.put(file, configuration);
+      if (flushTask == null) {
+        flushTask = Bukkit.getScheduler().runTaskLater(main.getMain(), this::flush, Math.max(1, delayMilliseconds / 50));
+      }
+    }
+  }
+
+  /**
+   * Turns all changed configurations into Strings on the current thread and queues them to be written.
+   */
+  public void flush() {
+    final ArrayList<Map.Entry<File, FileConfiguration>> configsToWrite;
+    synchronized (changedConfigs) {
+      if (flushTask != null) {
+        flushTask.cancel();
+        flushTask = null;
+      }
+      configsToWrite = new ArrayList<>(changedConfigs.entrySet());
+      changedConfigs.clear();
+    }
+    for (final Map.Entry<File, FileConfiguration> configToWrite : configsToWrite) {
+      queueWrite(configToWrite.getKey(), configToWrite.getValue().saveToString());
+    }
+  }
+
+  /**
+   * Writes all changed configurations and waits until everything which has been queued so far has been written.
+   * Needs to be called before the category files are loaded again, so they aren't read while changes are still pending,
+   * and the old configurations aren't written over the reloaded files afterwards.
+   */
+  public void flushAndAwait() {
+    flush();
+    if (!running) {
+      return;
+    }
+    try {
+      //Runs after all writes which have been queued before
+      executor.submit(() -> {}).get(30, TimeUnit.SECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final ExecutionException | TimeoutException | RejectedExecutionException e) {
+      main.getLogManager().warn("Config writer did not finish writing within 30 seconds. Category files might be loaded before all changes have been saved.");
+    }
+  }
+
+  private void queueWrite(final File file, final String content) {
+    if (running) {
+      try {
+        executor.execute(() -> write(file, content));
+        return;
+      } catch (final RejectedExecutionException ignored) { //Shut down in the meantime
+      }
+    }
+    write(file, content);
+  }
+
+  /**
+   * Writes everything which is still queued and stops the writer thread. Saves after this are written right away.
+   */
+  public void shutdown() {
+    if (!running) {
+      return;
+    }
+    flush();
+    running = false;
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+        main.getLogManager().warn("Config writer did not finish writing within 30 seconds. Some category files might not have been saved.");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    //Changes which were made while the queue was flushed
+    synchronized (changedConfigs) {
+      for (final Map.Entry<File, FileConfiguration> configToWrite : changedConfigs.entrySet()) {
+        write(configToWrite.getKey(), configToWrite.getValue().saveToString());
+      }
+      changedConfigs.clear();
+    }
+  }
+
+  private void write(final File file, final String content) {
+    final Path path = file.toPath();
+    final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+    synchronized (writeLock) {
+      try {
+        Files.writeString(temporaryPath, content, StandardCharsets.UTF_8);
+        try {
+          Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+          Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        writeCount.incrementAndGet();
+      } catch (final IOException e) {
+        failedWriteCount.incrementAndGet();
+        main.getLogManager().severe("There was an error saving <highlight>" + file.getPath() + "</highlight>. Changes to it were not saved:");
+        e.printStackTrace();
+      }
+    }
+  }
+
+  public final int getQueueDepth() {
+    synchronized (changedConfigs) {
+      return changedConfigs.size();
+    }
+  }
+
+  public final long getRequestedSaveCount() {
+    return requestedSaveCount.get();
+  }
+
+  public final long getWriteCount() {
+    return writeCount.get();
+  }
+
+  public final long getFailedWriteCount() {
+    return failedWriteCount.get();
+  }
+}
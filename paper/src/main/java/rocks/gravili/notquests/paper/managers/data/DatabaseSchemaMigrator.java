@@ -0,0 +1,416 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package rocks.gravili.notquests.paper.managers.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
+import rocks.gravili.notquests.common.managers.LogCategory;
+import rocks.gravili.notquests.paper.NotQuests;
+
+/**
+ * Creates the player data tables and migrates them to the latest schema. Every migration has a version, and the versions which have been
+ * applied are stored in the SchemaMigrations table, so each migration only runs once per database.
+ * <p>
+ * Tables are rebuilt by renaming the old table, creating the new one and copying the rows over in batches of players. Each batch is its own
+ * statement, so the database never has to hold one huge transaction. If a rebuild is interrupted, it starts over from the renamed table on the next start.
+ * While migrations are running, player data loading waits for them to finish (see {@link #awaitMigrations()}).
+ */
+public class DatabaseSchemaMigrator {
+  private static final String SCHEMA_MIGRATIONS_TABLE = "SchemaMigrations";
+  private static final String LEGACY_TABLE_SUFFIX = "Legacy";
+  //Only used for MySQL, so multiple servers which share the same database don't migrate it at the same time
+  private static final String MIGRATION_LOCK_NAME = "NotQuestsSchemaMigration";
+  private static final int MIGRATION_LOCK_TIMEOUT_SECONDS = 600;
+
+  private static final PlayerDataTable QUEST_PLAYER_PROFILE_DATA = new PlayerDataTable(
+      "QuestPlayerProfileData",
+      "`PlayerUUID` CHAR(36) NOT NULL, `CurrentProfile` VARCHAR(200)",
+      "`PlayerUUID`",
+      List.of(),
+      "`PlayerUUID`, `CurrentProfile`",
+      "`PlayerUUID`, `CurrentProfile`",
+      ""
+  );
+  private static final PlayerDataTable QUEST_PLAYER_DATA = new PlayerDataTable(
+      "QuestPlayerData",
+      "`PlayerUUID` CHAR(36) NOT NULL, `QuestPoints` BIGINT NOT NULL DEFAULT 0, `Profile` VARCHAR(200) NOT NULL DEFAULT 'default'",
+      "`PlayerUUID`, `Profile`",
+      List.of(),
+      "`PlayerUUID`, `QuestPoints`, `Profile`",
+      //Rows without a profile have always been loaded as the default profile
+      "`PlayerUUID`, COALESCE(`QuestPoints`, 0), CASE WHEN `Profile` IS NULL OR TRIM(`Profile`) = '' THEN 'default' ELSE `Profile` END",
+      ""
+  );
+  private static final PlayerDataTable ACTIVE_QUESTS = new PlayerDataTable(
+      "ActiveQuests",
+      "`QuestName` VARCHAR(200) NOT NULL, `PlayerUUID` CHAR(36) NOT NULL, `Profile` VARCHAR(200) NOT NULL",
+      "`PlayerUUID`, `Profile`, `QuestName`",
+      List.of(),
+      "`QuestName`, `PlayerUUID`, `Profile`",
+      "`QuestName`, `PlayerUUID`, `Profile`",
+      "`QuestName` IS NOT NULL AND `Profile` IS NOT NULL"
+  );
+  private static final PlayerDataTable COMPLETED_QUESTS = new PlayerDataTable(
+      "CompletedQuests",
+      "`QuestName` VARCHAR(200), `PlayerUUID` CHAR(36) NOT NULL, `TimeCompleted` BIGINT, `Profile` VARCHAR(200) NOT NULL",
+      null, //The same quest can be completed multiple times at the same time
+      List.of(new TableIndex("CompletedQuests_Player", "`PlayerUUID`, `Profile`")),
+      "`QuestName`, `PlayerUUID`, `TimeCompleted`, `Profile`",
+      "`QuestName`, `PlayerUUID`, `TimeCompleted`, `Profile`",
+      "`Profile` IS NOT NULL"
+  );
+  private static final PlayerDataTable FAILED_QUESTS = new PlayerDataTable(
+      "FailedQuests",
+      "`QuestName` VARCHAR(200), `PlayerUUID` CHAR(36) NOT NULL, `TimeFailed` BIGINT, `Profile` VARCHAR(200) NOT NULL",
+      null,
+      List.of(new TableIndex("FailedQuests_Player", "`PlayerUUID`, `Profile`")),
+      "`QuestName`, `PlayerUUID`, `TimeFailed`, `Profile`",
+      "`QuestName`, `PlayerUUID`, `TimeFailed`, `Profile`",
+      "`Profile` IS NOT NULL"
+  );
+  private static final PlayerDataTable ACTIVE_TRIGGERS = new PlayerDataTable(
+      "ActiveTriggers",
+      "`TriggerType` VARCHAR(200), `QuestName` VARCHAR(200), `PlayerUUID` CHAR(36) NOT NULL, `CurrentProgress` BIGINT, `TriggerID` INT, `Profile` VARCHAR(200) NOT NULL",
+      null,
+      List.of(new TableIndex("ActiveTriggers_Player", "`PlayerUUID`, `Profile`, `QuestName`")),
+      "`TriggerType`, `QuestName`, `PlayerUUID`, `CurrentProgress`, `TriggerID`, `Profile`",
+      "`TriggerType`, `QuestName`, `PlayerUUID`, `CurrentProgress`, `TriggerID`, `Profile`",
+      "`Profile` IS NOT NULL"
+  );
+  private static final PlayerDataTable ACTIVE_OBJECTIVES = new PlayerDataTable(
+      "ActiveObjectives",
+      "`ObjectiveType` VARCHAR(200), `QuestName` VARCHAR(200), `PlayerUUID` CHAR(36) NOT NULL, `CurrentProgress` DOUBLE, `ObjectiveID` INT, `HasBeenCompleted` BOOLEAN, `ProgressNeeded` DOUBLE, `Profile` VARCHAR(200) NOT NULL",
+      null,
+      List.of(new TableIndex("ActiveObjectives_Player", "`PlayerUUID`, `Profile`, `QuestName`, `ObjectiveID`")),
+      "`ObjectiveType`, `QuestName`, `PlayerUUID`, `CurrentProgress`, `ObjectiveID`, `HasBeenCompleted`, `ProgressNeeded`, `Profile`",
+      "`ObjectiveType`, `QuestName`, `PlayerUUID`, `CurrentProgress`, `ObjectiveID`, `HasBeenCompleted`, `ProgressNeeded`, `Profile`",
+      "`Profile` IS NOT NULL"
+  );
+  private static final PlayerDataTable TAGS = new PlayerDataTable(
+      "Tags",
+      "`PlayerUUID` CHAR(36) NOT NULL, `TagIdentifier` VARCHAR(200), `TagValue` VARCHAR(200), `TagType` VARCHAR(200), `Profile` VARCHAR(200) NOT NULL",
+      null,
+      List.of(new TableIndex("Tags_Player", "`PlayerUUID`, `Profile`, `TagIdentifier`")),
+      "`PlayerUUID`, `TagIdentifier`, `TagValue`, `TagType`, `Profile`",
+      "`PlayerUUID`, `TagIdentifier`, `TagValue`, `TagType`, `Profile`",
+      "`Profile` IS NOT NULL"
+  );
+  private static final List<PlayerDataTable> PLAYER_DATA_TABLES = List.of(
+      QUEST_PLAYER_PROFILE_DATA, QUEST_PLAYER_DATA, ACTIVE_QUESTS, COMPLETED_QUESTS, FAILED_QUESTS, ACTIVE_TRIGGERS, ACTIVE_OBJECTIVES, TAGS
+  );
+
+  private final NotQuests main;
+  //Ordered by version. Versions must never change once released, new migrations are only added at the end
+  private final List<Migration> migrations;
+
+  private final Object migrationMonitor = new Object();
+  private boolean migrating = false;
+
+  public DatabaseSchemaMigrator(final NotQuests main) {
+    this.main = main;
+    migrations = List.of(
+        new Migration(1, "Add Profile columns", this::addProfileColumns),
+        new Migration(2, "Add ProgressNeeded column to ActiveObjectives", this::addProgressNeededColumn),
+        new Migration(3, "Rebuild QuestPlayerProfileData with typed columns and keys", connection -> rebuildTable(connection, QUEST_PLAYER_PROFILE_DATA)),
+        new Migration(4, "Rebuild QuestPlayerData with typed columns and keys", connection -> rebuildTable(connection, QUEST_PLAYER_DATA)),
+        new Migration(5, "Rebuild ActiveQuests with typed columns and keys", connection -> rebuildTable(connection, ACTIVE_QUESTS)),
+        new Migration(6, "Rebuild CompletedQuests with typed columns and indexes", connection -> rebuildTable(connection, COMPLETED_QUESTS)),
+        new Migration(7, "Rebuild FailedQuests with typed columns and indexes", connection -> rebuildTable(connection, FAILED_QUESTS)),
+        new Migration(8, "Rebuild ActiveTriggers with typed columns and indexes", connection -> rebuildTable(connection, ACTIVE_TRIGGERS)),
+        new Migration(9, "Rebuild ActiveObjectives with typed columns and indexes", connection -> rebuildTable(connection, ACTIVE_OBJECTIVES)),
+        new Migration(10, "Rebuild Tags with typed columns and indexes", connection -> rebuildTable(connection, TAGS))
+    );
+  }
+
+  public final int getLatestSchemaVersion() {
+    return migrations.get(migrations.size() - 1).version();
+  }
+
+  /**
+   * Runs all migrations which have not been applied to this database yet, and creates all tables which don't exist yet.
+   */
+  public void migrate(final Connection connection) throws SQLException {
+    synchronized (migrationMonitor) {
+      migrating = true;
+    }
+    final boolean mySQL = main.getConfiguration().isMySQLEnabled();
+    try {
+      if (mySQL) {
+        acquireMigrationLock(connection);
+      }
+      try (final Statement statement = connection.createStatement()) {
+        statement.executeUpdate("CREATE TABLE IF NOT EXISTS `" + SCHEMA_MIGRATIONS_TABLE + "` (`Version` INT NOT NULL, `Description` VARCHAR(200), `AppliedAt` BIGINT, PRIMARY KEY (`Version`))");
+      }
+
+      final int schemaVersion = getSchemaVersion(connection);
+      //On a new database, all tables are just created, so there is nothing worth mentioning
+      final boolean newDatabase = schemaVersion == 0 && !tableExists(connection, QUEST_PLAYER_DATA.name());
+      for (final Migration migration : migrations) {
+        if (migration.version() <= schemaVersion) {
+          continue;
+        }
+        if (!newDatabase || main.getConfiguration().isVerboseStartupMessages()) {
+          main.getLogManager().info(LogCategory.DATA, "Migrating database schema to version <highlight>%s</highlight>: %s...", migration.version(), migration.description());
+        }
+        final long startTime = System.nanoTime();
+        migration.step().migrate(connection);
+        try (final PreparedStatement recordMigration = connection.prepareStatement("INSERT INTO `" + SCHEMA_MIGRATIONS_TABLE + "` (`Version`, `Description`, `AppliedAt`) VALUES (?, ?, ?)")) {
+          recordMigration.setInt(1, migration.version());
+          recordMigration.setString(2, migration.description());
+          recordMigration.setLong(3, System.currentTimeMillis());
+          recordMigration.executeUpdate();
+        }
+        if (!newDatabase || main.getConfiguration().isVerboseStartupMessages()) {
+          main.getLogManager().info(LogCategory.DATA, "Migrated database schema to version <highlight>%s</highlight> in %sms", migration.version(), (System.nanoTime() - startTime) / 1_000_000);
+        }
+      }
+
+      //In case a table has been dropped manually after it was migrated
+      for (final PlayerDataTable table : PLAYER_DATA_TABLES) {
+        if (!tableExists(connection, table.name())) {
+          if (main.getConfiguration().isVerboseStartupMessages()) {
+            main.getLogManager().info(LogCategory.DATA, "Creating database table '%s'...", table.name());
+          }
+          createTable(connection, table);
+          createIndexes(connection, table);
+        }
+      }
+    } finally {
+      if (mySQL) {
+        releaseMigrationLock(connection);
+      }
+      synchronized (migrationMonitor) {
+        migrating = false;
+        migrationMonitor.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Waits until the running migrations (if any) are finished. Needs to be called before player data is loaded.
+   *
+   * @return false if migrations are still running. The main thread never waits, so this only happens there (or if the thread is interrupted)
+   */
+  public boolean awaitMigrations() {
+    synchronized (migrationMonitor) {
+      if (!migrating) {
+        return true;
+      }
+      if (Bukkit.isPrimaryThread()) {
+        return false;
+      }
+      while (migrating) {
+        try {
+          migrationMonitor.wait();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private int getSchemaVersion(final Connection connection) throws SQLException {
+    try (final Statement statement = connection.createStatement();
+         final ResultSet resultSet = statement.executeQuery("SELECT MAX(`Version`) FROM `" + SCHEMA_MIGRATIONS_TABLE + "`")) {
+      return resultSet.next() ? resultSet.getInt(1) : 0;
+    }
+  }
+
+  private void acquireMigrationLock(final Connection connection) throws SQLException {
+    try (final PreparedStatement getLock = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+      getLock.setString(1, MIGRATION_LOCK_NAME);
+      getLock.setInt(2, MIGRATION_LOCK_TIMEOUT_SECONDS);
+      try (final ResultSet resultSet = getLock.executeQuery()) {
+        if (!resultSet.next() || resultSet.getInt(1) != 1) {
+          throw new SQLException("Timed out waiting for another server to finish migrating the database schema");
+        }
+      }
+    }
+  }
+
+  private void releaseMigrationLock(final Connection connection) {
+    try (final PreparedStatement releaseLock = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+      releaseLock.setString(1, MIGRATION_LOCK_NAME);
+      releaseLock.executeQuery().close();
+    } catch (final SQLException e) {
+      main.getLogManager().warn("Failed to release the database schema migration lock: %s", e.getMessage());
+    }
+  }
+
+  //Version 1
+  private void addProfileColumns(final Connection connection) throws SQLException {
+    for (final String tableName : List.of("QuestPlayerData", "ActiveQuests", "CompletedQuests", "ActiveObjectives", "ActiveTriggers", "Tags")) {
+      if (tableExists(connection, tableName) && !hasColumn(connection, tableName, "Profile")) {
+        main.getLogManager().info(LogCategory.DATA, "Adding 'Profile' column to database table '%s'...", tableName);
+        execute(connection, "ALTER TABLE `" + tableName + "` ADD COLUMN `Profile` VARCHAR(200) NOT NULL DEFAULT 'default'");
+      }
+    }
+  }
+
+  //Version 2. CurrentProgress is changed from BIGINT to DOUBLE when ActiveObjectives is rebuilt
+  private void addProgressNeededColumn(final Connection connection) throws SQLException {
+    if (tableExists(connection, "ActiveObjectives") && !hasColumn(connection, "ActiveObjectives", "ProgressNeeded")) {
+      main.getLogManager().info(LogCategory.DATA, "Adding 'ProgressNeeded' column to database table 'ActiveObjectives'...");
+      execute(connection, "ALTER TABLE `ActiveObjectives` ADD COLUMN `ProgressNeeded` DOUBLE");
+    }
+  }
+
+  private void rebuildTable(final Connection connection, final PlayerDataTable table) throws SQLException {
+    final String legacyTableName = table.name() + LEGACY_TABLE_SUFFIX;
+    final boolean interrupted = tableExists(connection, legacyTableName);
+    if (interrupted) {
+      //The rows are copied into the new table after the old one has been renamed. So the new table might be incomplete
+      main.getLogManager().warn("The last migration of database table '%s' has been interrupted. Starting over...", table.name());
+      execute(connection, "DROP TABLE IF EXISTS `" + table.name() + "`");
+    } else if (!tableExists(connection, table.name())) {
+      createTable(connection, table);
+      createIndexes(connection, table);
+      return;
+    } else {
+      execute(connection, "ALTER TABLE `" + table.name() + "` RENAME TO `" + legacyTableName + "`");
+    }
+
+    //Batches are selected by player UUID, which needs an index on the old table to not scan it once per batch
+    try {
+      execute(connection, "CREATE INDEX `" + legacyTableName + "_PlayerUUID` ON `" + legacyTableName + "` (`PlayerUUID`)");
+    } catch (final SQLException e) {
+      if (!interrupted) { //Otherwise, it most likely already exists
+        throw e;
+      }
+    }
+    createTable(connection, table);
+
+    final long legacyRowCount = countRows(connection, legacyTableName);
+    main.getLogManager().info(LogCategory.DATA, "Copying <highlight>%s</highlight> rows of database table '%s'...", legacyRowCount, table.name());
+
+    final int batchSize = Math.max(1, main.getConfiguration().getDatabaseMigrationBatchSize());
+    //REPLACE (supported by MySQL and SQLite) drops duplicate rows which would violate the new primary key. The last copied row wins
+    final String copyQuery = (table.primaryKey() != null ? "REPLACE" : "INSERT") + " INTO `" + table.name() + "` (" + table.copyColumns() + ")"
+        + " SELECT " + table.copyExpressions() + " FROM `" + legacyTableName + "`"
+        + " WHERE `PlayerUUID` > ? AND `PlayerUUID` <= ? AND LENGTH(`PlayerUUID`) <= 36"
+        + (table.copyFilter().isBlank() ? "" : " AND " + table.copyFilter());
+    long copiedBatches = 0;
+    try (final PreparedStatement nextBatch = connection.prepareStatement(
+             "SELECT DISTINCT `PlayerUUID` FROM `" + legacyTableName + "` WHERE `PlayerUUID` > ? ORDER BY `PlayerUUID` LIMIT " + batchSize);
+         final PreparedStatement copyBatch = connection.prepareStatement(copyQuery)) {
+      String lastPlayerUUID = "";
+      while (true) {
+        nextBatch.setString(1, lastPlayerUUID);
+        String batchLastPlayerUUID = null;
+        try (final ResultSet resultSet = nextBatch.executeQuery()) {
+          while (resultSet.next()) {
+            batchLastPlayerUUID = resultSet.getString(1);
+          }
+        }
+        if (batchLastPlayerUUID == null) {
+          break;
+        }
+        copyBatch.setString(1, lastPlayerUUID);
+        copyBatch.setString(2, batchLastPlayerUUID);
+        copyBatch.executeUpdate();
+        lastPlayerUUID = batchLastPlayerUUID;
+
+        copiedBatches++;
+        if (copiedBatches % 100 == 0) {
+          main.getLogManager().info(LogCategory.DATA, "Copied the rows of %s players of database table '%s'...", copiedBatches * batchSize, table.name());
+        }
+      }
+    }
+
+    createIndexes(connection, table);
+    final long copiedRowCount = countRows(connection, table.name());
+    execute(connection, "DROP TABLE `" + legacyTableName + "`");
+
+    if (copiedRowCount != legacyRowCount) {
+      main.getLogManager().info(LogCategory.DATA, "Copied <highlight>%s</highlight> of <highlight>%s</highlight> rows of database table '%s'. Duplicate rows and rows without a valid player UUID or profile, which could not be loaded, have been removed.",
+          copiedRowCount, legacyRowCount, table.name());
+    }
+  }
+
+  private void createTable(final Connection connection, final PlayerDataTable table) throws SQLException {
+    execute(connection, "CREATE TABLE IF NOT EXISTS `" + table.name() + "` (" + table.columns()
+        + (table.primaryKey() != null ? ", PRIMARY KEY (" + table.primaryKey() + ")" : "") + ")");
+  }
+
+  private void createIndexes(final Connection connection, final PlayerDataTable table) throws SQLException {
+    for (final TableIndex index : table.indexes()) {
+      execute(connection, "CREATE INDEX `" + index.name() + "` ON `" + table.name() + "` (" + index.columns() + ")");
+    }
+  }
+
+  private boolean tableExists(final Connection connection, final String tableName) {
+    try (final Statement statement = connection.createStatement();
+         final ResultSet ignored = statement.executeQuery("SELECT 1 FROM `" + tableName + "` WHERE 1 = 0")) {
+      return true;
+    } catch (final SQLException e) {
+      return false;
+    }
+  }
+
+  private boolean hasColumn(final Connection connection, final String tableName, final String columnName) throws SQLException {
+    try (final Statement statement = connection.createStatement();
+         final ResultSet resultSet = statement.executeQuery("SELECT * FROM `" + tableName + "` WHERE 1 = 0")) {
+      final ResultSetMetaData metaData = resultSet.getMetaData();
+      for (int i = 1; i <= metaData.getColumnCount(); i++) {
+        if (metaData.getColumnName(i).equalsIgnoreCase(columnName)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private long countRows(final Connection connection, final String tableName) throws SQLException {
+    try (final Statement statement = connection.createStatement();
+         final ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM `" + tableName + "`")) {
+      return resultSet.next() ? resultSet.getLong(1) : 0;
+    }
+  }
+
+  private void execute(final Connection connection, final String sql) throws SQLException {
+    try (final Statement statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+    }
+  }
+
+  @FunctionalInterface
+  private interface MigrationStep {
+    void migrate(final Connection connection) throws SQLException;
+  }
+
+  private record Migration(int version, String description, MigrationStep step) {}
+
+  private record TableIndex(String name, String columns) {}
+
+  /**
+   * @param primaryKey null if rows are not unique
+   * @param copyExpressions what is selected from the old table for each of the copyColumns when the table is rebuilt
+   * @param copyFilter which rows of the old table are copied when the table is rebuilt. Empty if all rows are copied
+   */
+  private record PlayerDataTable(String name, String columns, @Nullable String primaryKey, List<TableIndex> indexes,
+                                 String copyColumns, String copyExpressions, String copyFilter) {}
+}
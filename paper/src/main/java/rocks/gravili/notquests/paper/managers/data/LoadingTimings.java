@@ -0,0 +1,82 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package rocks.gravili.notquests.paper.managers.data;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import rocks.gravili.notquests.paper.NotQuests;
+
+/**
+ * Collects how long each loading phase (e.g. parsing the category files, loading conditions, actions and quests) took - in total and per category -
+ * so slow categories can be found. Phases are recorded from multiple threads while the category files are parsed in parallel.
+ */
+public class LoadingTimings {
+  private final NotQuests main;
+  //Phase => total time
+  private final LinkedHashMap<String, Long> phaseNanos = new LinkedHashMap<>();
+  //Category full name => phase => time spent on that category
+  private final LinkedHashMap<String, LinkedHashMap<String, Long>> categoryPhaseNanos = new LinkedHashMap<>();
+
+  public LoadingTimings(final NotQuests main) {
+    this.main = main;
+  }
+
+  public synchronized void clear() {
+    phaseNanos.clear();
+    categoryPhaseNanos.clear();
+  }
+
+  public synchronized void recordPhase(final String phase, final long nanos) {
+    phaseNanos.merge(phase, nanos, Long::sum);
+  }
+
+  public synchronized void recordCategory(final Category category, final String phase, final long nanos) {
+    categoryPhaseNanos.computeIfAbsent(category.getCategoryFullName(), k -> new LinkedHashMap<>()).merge(phase, nanos, Long::sum);
+  }
+
+  /**
+   * Logs the time of every phase and clears them, so the next (re)load starts fresh.
+   * The times per category are only logged if verbose startup messages are enabled.
+   */
+  public synchronized void log() {
+    if (phaseNanos.isEmpty()) {
+      return;
+    }
+    main.getLogManager().info("Loading times: " + formatPhases(phaseNanos));
+    if (main.getConfiguration().isVerboseStartupMessages()) {
+      for (final Map.Entry<String, LinkedHashMap<String, Long>> categoryEntry : categoryPhaseNanos.entrySet()) {
+        main.getLogManager().info("  Category <highlight>" + categoryEntry.getKey() + "</highlight>: " + formatPhases(categoryEntry.getValue()));
+      }
+    }
+    clear();
+  }
+
+  private String formatPhases(final Map<String, Long> phases) {
+    final StringBuilder formattedPhases = new StringBuilder();
+    for (final Map.Entry<String, Long> phaseEntry : phases.entrySet()) {
+      if (!formattedPhases.isEmpty()) {
+        formattedPhases.append(", ");
+      }
+      formattedPhases.append(phaseEntry.getKey()).append(" <highlight>")
+          .append(String.format(Locale.ROOT, "%.1fms", phaseEntry.getValue() / 1_000_000d))
+          .append("</highlight>");
+    }
+    return formattedPhases.toString();
+  }
+}
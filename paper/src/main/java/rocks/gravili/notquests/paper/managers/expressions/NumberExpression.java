@@ -19,6 +19,11 @@
 package rocks.gravili.notquests.paper.managers.expressions;
 
 import cloud.commandframework.arguments.standard.StringArgument;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import org.bukkit.command.CommandSender;
 import redempt.crunch.CompiledExpression;
 import redempt.crunch.Crunch;
@@ -35,9 +40,18 @@ import rocks.gravili.notquests.paper.structs.variables.VariableDataType;
  * The expression is compiled the NumberExpression object is created only once, and potential static results are chaches.
  * This ensures the highest performance - especially during runtime - in exchange for slightly slower load times.
  * <p>
+ * A NumberExpression is immutable once it has been created. The QuestPlayer it's evaluated for is passed with every evaluation
+ * and only stored in an evaluation context of the current thread, so the same expression can be evaluated from multiple threads at once.
+ * <p>
  * //TODO: Support static/cached results for static/final variables which won't change (if there are such variables). Because right now, any present variable will make result not static. Such variables are very rare though.
  */
 public class NumberExpression {
+    /**
+     * The evaluation context of the expression which is currently evaluated on this thread. Expressions can be nested (e.g. in variable arguments),
+     * so the previous context is restored after each evaluation
+     */
+    private static final ThreadLocal<EvaluationContext> CURRENT_EVALUATION_CONTEXT = new ThreadLocal<>();
+
     private final NotQuests main;
 
     /**
@@ -46,34 +60,31 @@ public class NumberExpression {
     private final String expression;
 
     /**
-     * Evaluation environment, to which the lazy variables, and how to lazily evaluate them, are added
-     */
-    private final EvaluationEnvironment evaluationEnvironment = new EvaluationEnvironment();
-
-    /**
-     * The expression gets compiled into a compiledExpression, which is a lot faster. With this, the result can be calculated (if the questplayer is updated)
+     * The expression gets compiled into a compiledExpression, which is a lot faster. With this, the result can be calculated for any QuestPlayer
      */
     private final CompiledExpression compiledExpression;
 
     /**
-     * Amount of variables used in the expression string. If this is zero, the expression result is basically static/final and will be cached
+     * The NotQuests variables used in the expression string, in the order of their Crunch variable names (var1, var2, ...).
+     * The same variable with the same arguments is only listed once, even if it's used multiple times
      */
-    private int variableCounter = 0;
+    private final List<Variable<?>> variables;
 
     /**
-     * Needed for compiling the evaluation, as well as calculating the result. This variable needs to be updated before calculating the expression result, if it's not static
+     * Identifiers of all NotQuests variables the expression reads - including the ones used in the arguments of those variables.
+     * Used to determine when the result of the expression might change (see Condition#getVariableDependencies())
      */
-    private QuestPlayer questPlayerToEvaluate;
+    private final Set<String> variableIdentifiers;
 
     /**
      * If the expression is always the same (= it has no variables which might be dynamic), the result will be cached here.
      */
-    private double cachedStaticResult;
+    private final double cachedStaticResult;
 
     /**
-     * Determines if the expression is static or not. This is set to true if no variables are found (=> if variableCounter is 0)
+     * Determines if the expression is static or not. This is set to true if no variables are found
      */
-    private boolean resultStatic = false;
+    private final boolean resultStatic;
 
 
     public NumberExpression(final NotQuests main, final String expression) {
@@ -83,13 +94,16 @@ public class NumberExpression {
 
         //From here on, the Evaluation Environment, as well as the compiled expression will be initialized. If the expression is static,
         //The static result will be cached here as well
-        final String modifiedExpression = getExpressionAndGenerateEnv(expression);
+        final EvaluationEnvironment evaluationEnvironment = new EvaluationEnvironment();
+        final ArrayList<Variable<?>> foundVariables = new ArrayList<>();
+        final LinkedHashSet<String> foundVariableIdentifiers = new LinkedHashSet<>();
+        final String modifiedExpression = getExpressionAndGenerateEnv(expression, evaluationEnvironment, foundVariables, foundVariableIdentifiers);
+        variables = List.copyOf(foundVariables);
+        variableIdentifiers = Set.copyOf(foundVariableIdentifiers);
         compiledExpression = Crunch.compileExpression(modifiedExpression, evaluationEnvironment);
 
-        if (variableCounter == 0) {
-            cachedStaticResult = compiledExpression.evaluate();
-            resultStatic = true;
-        }
+        resultStatic = variables.isEmpty();
+        cachedStaticResult = resultStatic ? compiledExpression.evaluate() : 0;
     }
 
     private NumberExpression(final NotQuests main, final double staticValue) {
@@ -100,6 +114,8 @@ public class NumberExpression {
         resultStatic = true;
 
         compiledExpression = null;
+        variables = List.of();
+        variableIdentifiers = Set.of();
     }
 
     public static NumberExpression ofStatic(final NotQuests main, final double staticValue) {
@@ -114,9 +130,17 @@ public class NumberExpression {
     public final double calculateValue(final QuestPlayer questPlayer) {
         if (isResultStatic()) {
             return cachedStaticResult;
-        } else {
-            this.questPlayerToEvaluate = questPlayer;
+        }
+        final EvaluationContext previousEvaluationContext = CURRENT_EVALUATION_CONTEXT.get();
+        CURRENT_EVALUATION_CONTEXT.set(new EvaluationContext(questPlayer, variables.size()));
+        try {
             return compiledExpression.evaluate();
+        } finally {
+            if (previousEvaluationContext != null) {
+                CURRENT_EVALUATION_CONTEXT.set(previousEvaluationContext);
+            } else {
+                CURRENT_EVALUATION_CONTEXT.remove();
+            }
         }
     }
 
@@ -144,82 +168,171 @@ public class NumberExpression {
     }
 
     /**
-     * @param expressions current state of the expression (either raw or partially processed by getExpressionAndGenerateEnv)
-     * @return replaced expression string with modified variable names which will be fed into the evaluationEnvironment
+     * @return the identifiers of all NotQuests variables this expression reads (including the ones in variable arguments). Empty if the result is static
      */
-    private String getExpressionAndGenerateEnv(String expressions) {
-        boolean foundAVariable = false;
+    public final Set<String> getVariableIdentifiers() {
+        return variableIdentifiers;
+    }
 
-        for (String variableString : main.getVariablesManager().getVariableIdentifiers()) {
-            if (!expressions.contains(variableString)) {
+    /**
+     * Tokenizes the expression and replaces every NotQuests variable (including its arguments in brackets, if it has any) with a Crunch
+     * variable name, which is added to the evaluationEnvironment. Only whole words are matched, so a variable is never found inside a
+     * longer word (e.g. Health inside MaxHealth).
+     *
+     * @param expression the raw expression
+     * @param evaluationEnvironment the environment the lazy variables are added to
+     * @param foundVariables the variables which have been found are added to this list
+     * @param foundVariableIdentifiers the identifiers of the variables which have been found (including the ones in their arguments) are added to this set
+     * @return expression string with modified variable names which will be fed into the evaluationEnvironment
+     */
+    private String getExpressionAndGenerateEnv(final String expression, final EvaluationEnvironment evaluationEnvironment, final List<Variable<?>> foundVariables, final Set<String> foundVariableIdentifiers) {
+        final StringBuilder modifiedExpression = new StringBuilder(expression.length());
+        //The same variable with the same arguments gets the same name, so it's only evaluated once per evaluation
+        final HashMap<String, String> variableNamesByReference = new HashMap<>();
+
+        int index = 0;
+        final int length = expression.length();
+        while (index < length) {
+            final char character = expression.charAt(index);
+            if (!Character.isLetter(character) && character != '_') {
+                modifiedExpression.append(character);
+                index++;
                 continue;
             }
-            final Variable<?> variable = main.getVariablesManager().getVariableFromString(variableString);
-            if (variable == null || (variable.getVariableDataType() != VariableDataType.NUMBER && variable.getVariableDataType() != VariableDataType.BOOLEAN)) {
-                main.getLogManager().debug("Null variable: <highlight>" + variableString);
+
+            int wordEnd = index + 1;
+            while (wordEnd < length && (Character.isLetterOrDigit(expression.charAt(wordEnd)) || expression.charAt(wordEnd) == '_')) {
+                wordEnd++;
+            }
+            final String word = expression.substring(index, wordEnd);
+            if (!main.getVariablesManager().getVariableIdentifiers().contains(word)) { //Numbers, Crunch functions and constants
+                modifiedExpression.append(word);
+                index = wordEnd;
                 continue;
             }
 
             //Extra Arguments:
-            if (expressions.contains(variableString + "(")) {
-                foundAVariable = true;
-                final String everythingAfterBracket = expressions.substring(expressions.indexOf(variableString + "(") + variableString.length() + 1);
-                final String insideBracket = everythingAfterBracket.substring(0, everythingAfterBracket.indexOf(")"));
-                main.getLogManager().debug("Inside Bracket: " + insideBracket);
-                final String[] extraArguments = insideBracket.split(",");
-                for (final String extraArgument : extraArguments) {
-                    main.getLogManager().debug("Extra: " + extraArgument);
-                    if (extraArgument.startsWith("--")) {
-                        variable.addAdditionalBooleanArgument(extraArgument.replace("--", ""), new NumberExpression(main, "true"));
-                        main.getLogManager().debug("AddBoolFlag: " + extraArgument.replace("--", ""));
-                    } else {
-                        final String[] split = extraArgument.split(":");
-                        final String key = split[0];
-                        final String value = split[1];
-                        for (final StringArgument<CommandSender> stringArgument : variable.getRequiredStrings()) {
-                            if (stringArgument.getName().equalsIgnoreCase(key)) {
-                                variable.addAdditionalStringArgument(key, value);
-                                main.getLogManager().debug("AddString: " + key + " val: " + value);
-                            }
-                        }
-                        for (final NumberVariableValueArgument<CommandSender> numberVariableValueArgument : variable.getRequiredNumbers()) {
-                            if (numberVariableValueArgument.getName().equalsIgnoreCase(key)) {
-                                variable.addAdditionalNumberArgument(key, new NumberExpression(main, value));
-                                main.getLogManager().debug("AddNumb: " + key + " val: " + value);
-                            }
-                        }
-                        for (final BooleanVariableValueArgument<CommandSender> booleanArgument : variable.getRequiredBooleans()) {
-                            if (booleanArgument.getName().equalsIgnoreCase(key)) {
-                                variable.addAdditionalBooleanArgument(key, new NumberExpression(main, value));
-                                main.getLogManager().debug("AddBool: " + key + " val: " + value);
-                            }
-
-                        }
+            String insideBracket = null;
+            int referenceEnd = wordEnd;
+            if (wordEnd < length && expression.charAt(wordEnd) == '(') {
+                int depth = 0;
+                for (int bracketIndex = wordEnd; bracketIndex < length; bracketIndex++) {
+                    final char bracketCharacter = expression.charAt(bracketIndex);
+                    if (bracketCharacter == '(') {
+                        depth++;
+                    } else if (bracketCharacter == ')' && --depth == 0) {
+                        insideBracket = expression.substring(wordEnd + 1, bracketIndex);
+                        referenceEnd = bracketIndex + 1;
+                        break;
                     }
                 }
-
-                variableString = variableString + "(" + insideBracket + ")"; //For the replacing with the actual number below
             }
+            final String reference = expression.substring(index, referenceEnd);
+            index = referenceEnd;
+
+            String variableName = variableNamesByReference.get(reference);
+            if (variableName == null) {
+                final Variable<?> variable = main.getVariablesManager().getVariableFromString(word);
+                if (variable == null || (variable.getVariableDataType() != VariableDataType.NUMBER && variable.getVariableDataType() != VariableDataType.BOOLEAN)) {
+                    main.getLogManager().debug("Null variable: <highlight>" + word);
+                    modifiedExpression.append(reference);
+                    continue;
+                }
+                if (insideBracket != null) {
+                    main.getLogManager().debug("Inside Bracket: " + insideBracket);
+                    addExtraArguments(variable, insideBracket, foundVariableIdentifiers);
+                }
 
+                foundVariables.add(variable);
+                foundVariableIdentifiers.add(word);
+                final int variableIndex = foundVariables.size() - 1;
+                variableName = "var" + foundVariables.size();
+                variableNamesByReference.put(reference, variableName);
+                evaluationEnvironment.addLazyVariable(variableName, () -> CURRENT_EVALUATION_CONTEXT.get().getValue(variableIndex, variable));
+            }
+            modifiedExpression.append(variableName);
+        }
+        return modifiedExpression.toString();
+    }
 
-            final String newVariableName = "var" + ++variableCounter;
-            expressions = expressions.replace(variableString, newVariableName);
-            evaluationEnvironment.addLazyVariable(newVariableName, () -> {
-                final Object valueObject = variable.getValue(questPlayerToEvaluate);
-                if (valueObject instanceof final Number n) {
-                    return n.doubleValue();
-                } else if (valueObject instanceof final Boolean b) {
-                    return b ? 1 : 0;
+    private void addExtraArguments(final Variable<?> variable, final String insideBracket, final Set<String> foundVariableIdentifiers) {
+        final String[] extraArguments = insideBracket.split(",");
+        for (String extraArgument : extraArguments) {
+            extraArgument = extraArgument.trim();
+            main.getLogManager().debug("Extra: " + extraArgument);
+            if (extraArgument.startsWith("--")) {
+                variable.addAdditionalBooleanArgument(extraArgument.replace("--", ""), new NumberExpression(main, "true"));
+                main.getLogManager().debug("AddBoolFlag: " + extraArgument.replace("--", ""));
+            } else {
+                final String[] split = extraArgument.split(":");
+                if (split.length < 2) {
+                    continue;
                 }
-                return 0;
-            });
-        }
-        if (!foundAVariable) {
-            return expressions;
+                final String key = split[0];
+                final String value = split[1];
+                if (variable.getRequiredStrings() != null) {
+                    for (final StringArgument<CommandSender> stringArgument : variable.getRequiredStrings()) {
+                        if (stringArgument.getName().equalsIgnoreCase(key)) {
+                            variable.addAdditionalStringArgument(key, value);
+                            main.getLogManager().debug("AddString: " + key + " val: " + value);
+                        }
+                    }
+                }
+                if (variable.getRequiredNumbers() != null) {
+                    for (final NumberVariableValueArgument<CommandSender> numberVariableValueArgument : variable.getRequiredNumbers()) {
+                        if (numberVariableValueArgument.getName().equalsIgnoreCase(key)) {
+                            final NumberExpression numberExpression = new NumberExpression(main, value);
+                            foundVariableIdentifiers.addAll(numberExpression.getVariableIdentifiers());
+                            variable.addAdditionalNumberArgument(key, numberExpression);
+                            main.getLogManager().debug("AddNumb: " + key + " val: " + value);
+                        }
+                    }
+                }
+                if (variable.getRequiredBooleans() != null) {
+                    for (final BooleanVariableValueArgument<CommandSender> booleanArgument : variable.getRequiredBooleans()) {
+                        if (booleanArgument.getName().equalsIgnoreCase(key)) {
+                            final NumberExpression numberExpression = new NumberExpression(main, value);
+                            foundVariableIdentifiers.addAll(numberExpression.getVariableIdentifiers());
+                            variable.addAdditionalBooleanArgument(key, numberExpression);
+                            main.getLogManager().debug("AddBool: " + key + " val: " + value);
+                        }
+                    }
+                }
+            }
         }
-
-        return getExpressionAndGenerateEnv(expressions);
     }
 
+    /**
+     * State of a single evaluation. Variable values are memoized, so a variable which is used multiple times in the expression
+     * is only looked up once per evaluation.
+     */
+    private static final class EvaluationContext {
+        private final QuestPlayer questPlayer;
+        private final double[] values;
+        private final boolean[] evaluated;
+
+        private EvaluationContext(final QuestPlayer questPlayer, final int variableCount) {
+            this.questPlayer = questPlayer;
+            this.values = new double[variableCount];
+            this.evaluated = new boolean[variableCount];
+        }
 
+        private double getValue(final int variableIndex, final Variable<?> variable) {
+            if (evaluated[variableIndex]) {
+                return values[variableIndex];
+            }
+            final Object valueObject = variable.getValue(questPlayer);
+            final double value;
+            if (valueObject instanceof final Number n) {
+                value = n.doubleValue();
+            } else if (valueObject instanceof final Boolean b) {
+                value = b ? 1 : 0;
+            } else {
+                value = 0;
+            }
+            values[variableIndex] = value;
+            evaluated[variableIndex] = true;
+            return value;
+        }
+    }
 }
@@ -1,6 +1,5 @@
 package rocks.gravili.notquests.paper.managers.integrations.betonquest.conversationInterceptors;
 
-import java.util.ArrayList;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.bungeecord.BungeeComponentSerializer;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
@@ -41,11 +40,7 @@ public class NotQuestsInterceptor implements Interceptor, Listener {
     );
 
     if (main.getConfiguration().deletePreviousConversations && main.getConversationManager() != null) {
-      final ArrayList<Component> hist =
-          main.getConversationManager().getConversationChatHistory().getOrDefault(player.getUniqueId(), new ArrayList<>());
-
-      hist.add(parsedMessage);
-      main.getConversationManager().getConversationChatHistory().put(player.getUniqueId(), hist);
+      main.getConversationManager().getChatHistory(player.getUniqueId()).addConversationMessage(parsedMessage);
     }
 
     if(player.isOnline()){
@@ -61,11 +56,7 @@ public class NotQuestsInterceptor implements Interceptor, Listener {
     final Component parsedMessage = main.parse(mmString);
 
     if (main.getConfiguration().deletePreviousConversations && main.getConversationManager() != null) {
-      final ArrayList<Component> hist =
-          main.getConversationManager().getConversationChatHistory().getOrDefault(player.getUniqueId(), new ArrayList<>());
-
-      hist.add(parsedMessage);
-      main.getConversationManager().getConversationChatHistory().put(player.getUniqueId(), hist);
+      main.getConversationManager().getChatHistory(player.getUniqueId()).addConversationMessage(parsedMessage);
     }
 
     if(player.isOnline()){
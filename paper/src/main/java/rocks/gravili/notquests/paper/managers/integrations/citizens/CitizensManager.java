@@ -45,9 +45,16 @@ public class CitizensManager {
   private final NotQuests main;
 
   private Consumer<Trait> traitRun; // Runs in the run() method for NPCs with the QuestGiverNPC trait
+  private final QuestGiverNPCScheduler questGiverNPCScheduler;
+  private boolean registeredNPCTPListener = false;
 
   public CitizensManager(final NotQuests main) {
     this.main = main;
+    questGiverNPCScheduler = new QuestGiverNPCScheduler(main);
+  }
+
+  public final QuestGiverNPCScheduler getQuestGiverNPCScheduler() {
+    return questGiverNPCScheduler;
   }
 
   public void setTraitRun(final Consumer<Trait> traitRun) {
@@ -86,7 +93,11 @@ public class CitizensManager {
         .registerTrait(
             net.citizensnpcs.api.trait.TraitInfo.create(QuestGiverNPCTrait.class)
                 .withName("nquestgiver"));
-    main.getMain().getServer().getPluginManager().registerEvents(new QuestGiverNPCTrait.NPCTPListener(),main.getMain());
+    if (!registeredNPCTPListener) {
+      main.getMain().getServer().getPluginManager().registerEvents(new QuestGiverNPCTrait.NPCTPListener(),main.getMain());
+      registeredNPCTPListener = true;
+    }
+    questGiverNPCScheduler.start();
     main.getLogManager().info("Citizens nquestgiver trait has been registered!");
     if (!main.getDataManager().isAlreadyLoadedNPCs()) {
       main.getDataManager().loadNPCData();
@@ -109,6 +120,7 @@ public class CitizensManager {
   }
 
   public void onDisable() {
+    questGiverNPCScheduler.stop();
     /*
      * All Citizen NPCs which have quests attached to them have the Citizens NPC trait "nquestgiver".
      * When the plugin is disabled right here, this piece of code will try removing this trait from all+
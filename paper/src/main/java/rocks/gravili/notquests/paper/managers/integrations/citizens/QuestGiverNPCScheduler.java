@@ -0,0 +1,285 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package rocks.gravili.notquests.paper.managers.integrations.citizens;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.citizensnpcs.api.npc.NPC;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.events.notquests.QuestCompletedEvent;
+import rocks.gravili.notquests.paper.events.notquests.QuestFailEvent;
+import rocks.gravili.notquests.paper.events.notquests.QuestFinishAcceptEvent;
+import rocks.gravili.notquests.paper.managers.npc.NQNPCID;
+import rocks.gravili.notquests.paper.structs.Quest;
+import rocks.gravili.notquests.paper.structs.QuestPlayer;
+
+/**
+ * Updates the holograms and particles of all spawned NPCs with the QuestGiverNPCTrait from one task, instead of every trait doing that on its own every tick.
+ * <p>
+ * The hologram text is only parsed when it changes, nearby players are found through a per-tick index of the players by chunk,
+ * and whether an NPC has quests which are visible to a player is cached until that player accepts, completes or fails a quest.
+ * Only used from the main thread, except for the visibility cache, which can be invalidated from any thread.
+ */
+public class QuestGiverNPCScheduler implements Listener {
+  private static final int HOLOGRAM_RANGE = 16;
+  //Visibility can also change because of conditions or cooldowns, which don't fire an event. So it's re-evaluated after this time anyway
+  private static final long VISIBILITY_CACHE_DURATION_MILLIS = 5000;
+
+  private final NotQuests main;
+  private final LinkedHashSet<QuestGiverNPCTrait> spawnedTraits;
+  //Player UUID => NPC ID => whether that NPC has quests which are visible to the player
+  private final ConcurrentHashMap<UUID, ConcurrentHashMap<Integer, CachedVisibility>> visibilityCache;
+
+  private BukkitTask task;
+  private int particleTimer = 0;
+  private int nameTagTimer = 0;
+
+  private String hologramText = null;
+  private Component hologramComponent = null;
+
+  public QuestGiverNPCScheduler(final NotQuests main) {
+    this.main = main;
+    spawnedTraits = new LinkedHashSet<>();
+    visibilityCache = new ConcurrentHashMap<>();
+  }
+
+  public void start() {
+    if (task != null) {
+      return;
+    }
+    main.getMain().getServer().getPluginManager().registerEvents(this, main.getMain());
+    task = Bukkit.getScheduler().runTaskTimer(main.getMain(), this::tick, 1L, 1L);
+  }
+
+  public void stop() {
+    if (task != null) {
+      task.cancel();
+      task = null;
+    }
+    spawnedTraits.clear();
+    visibilityCache.clear();
+  }
+
+  public void addTrait(final QuestGiverNPCTrait trait) {
+    spawnedTraits.add(trait);
+  }
+
+  public void removeTrait(final QuestGiverNPCTrait trait) {
+    spawnedTraits.remove(trait);
+  }
+
+  public void invalidateVisibility(final UUID playerUUID) {
+    visibilityCache.remove(playerUUID);
+  }
+
+  public void invalidateAllVisibilities() {
+    visibilityCache.clear();
+  }
+
+  private void tick() {
+    if (spawnedTraits.isEmpty()) {
+      return;
+    }
+    particleTimer++;
+    nameTagTimer++;
+
+    // Disable if Server TPS is too low
+    final double minimumTPS = main.getConfiguration().getCitizensNPCQuestGiverIndicatorParticleDisableIfTPSBelow();
+    if (minimumTPS >= 0) {
+      if (main.getPerformanceManager().getTPS() < minimumTPS) {
+        return;
+      }
+    }
+
+    final String npcHoloText = main.getConfiguration().getCitizensNPCQuestGiverIndicatorText();
+    final boolean updateHolograms = main.getPacketManager() != null && main.getPacketManager().getModernPacketInjector() != null
+        && !npcHoloText.isEmpty()
+        && nameTagTimer >= main.getConfiguration().getCitizensNPCQuestGiverIndicatorTextInterval();
+    final boolean spawnParticles = main.getConfiguration().isCitizensNPCQuestGiverIndicatorParticleEnabled()
+        && particleTimer >= main.getConfiguration().getCitizensNPCQuestGiverIndicatorParticleSpawnInterval();
+    if (updateHolograms) {
+      nameTagTimer = 0;
+    }
+    if (spawnParticles) {
+      particleTimer = 0;
+    }
+    if (!updateHolograms && !spawnParticles) {
+      return;
+    }
+
+    if (updateHolograms && !npcHoloText.equals(hologramText)) {
+      hologramText = npcHoloText;
+      hologramComponent = main.parse(npcHoloText);
+    }
+    final PlayerProximityIndex playerProximityIndex = updateHolograms ? new PlayerProximityIndex() : null;
+
+    for (final QuestGiverNPCTrait trait : new ArrayList<>(spawnedTraits)) {
+      final NPC npc = trait.getNPC();
+      if (npc == null || !npc.isSpawned() || npc.getEntity() == null) {
+        continue;
+      }
+      final Entity npcEntity = npc.getEntity();
+      if (updateHolograms) {
+        updateHologram(trait, npcEntity, playerProximityIndex);
+      }
+      if (spawnParticles) {
+        final Location location = npcEntity.getLocation();
+        npcEntity.getWorld().spawnParticle(
+            main.getConfiguration().getCitizensNPCQuestGiverIndicatorParticleType(),
+            location.getX() - 0.25 + (Math.random() / 2),
+            location.getY() + 1.75 + (Math.random() / 2),
+            location.getZ() - 0.25 + (Math.random() / 2),
+            main.getConfiguration().getCitizensNPCQuestGiverIndicatorParticleCount()
+        );
+      }
+    }
+  }
+
+  private void updateHologram(final QuestGiverNPCTrait trait, final Entity npcEntity, final PlayerProximityIndex playerProximityIndex) {
+    if (npcEntity.getPassengers().isEmpty()) {
+      final ArmorStand npcHolo = npcEntity.getWorld().spawn(npcEntity.getLocation(), ArmorStand.class);
+      npcHolo.setVisible(false);
+      npcHolo.setSmall(true);
+      npcHolo.setCustomNameVisible(false);
+      npcHolo.customName(hologramComponent);
+      trait.setHologramComponent(hologramComponent);
+      npcEntity.addPassenger(npcHolo);
+      return;
+    }
+    if (!(npcEntity.getPassengers().get(0) instanceof final ArmorStand npcHolo)) {
+      return;
+    }
+    //Only changes the name if the text changed, so the metadata isn't re-sent every time
+    if (trait.getHologramComponent() != hologramComponent) {
+      npcHolo.customName(hologramComponent);
+      trait.setHologramComponent(hologramComponent);
+    }
+    for (final Player player : playerProximityIndex.getNearbyPlayers(npcEntity.getLocation())) {
+      main.getPacketManager().getModernPacketInjector().sendHolo(player, npcHolo, hasVisibleQuests(player, trait.getNPC().getId()));
+    }
+  }
+
+  private boolean hasVisibleQuests(final Player player, final int npcID) {
+    final ConcurrentHashMap<Integer, CachedVisibility> cachedVisibilities = visibilityCache.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>());
+    final CachedVisibility cachedVisibility = cachedVisibilities.get(npcID);
+    final long currentTime = System.currentTimeMillis();
+    if (cachedVisibility != null && currentTime < cachedVisibility.expiresAt()) {
+      return cachedVisibility.visible();
+    }
+
+    final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+    final ArrayList<Quest> questsAttachedToNPC = main.getQuestManager().getAllQuestsAttachedToNPC(
+        main.getNPCManager().getOrCreateNQNpc("Citizens", NQNPCID.fromInteger(npcID)));
+    final boolean visible = !main.getQuestManager().getQuestsFromListWithVisibilityEvaluations(questPlayer, questsAttachedToNPC).isEmpty();
+    cachedVisibilities.put(npcID, new CachedVisibility(visible, currentTime + VISIBILITY_CACHE_DURATION_MILLIS));
+    return visible;
+  }
+
+  @EventHandler
+  public void onQuestFinishAccept(final QuestFinishAcceptEvent event) {
+    invalidateVisibility(event.getQuestPlayer());
+  }
+
+  @EventHandler
+  public void onQuestComplete(final QuestCompletedEvent event) {
+    invalidateVisibility(event.getQuestPlayer());
+  }
+
+  @EventHandler
+  public void onQuestFail(final QuestFailEvent event) {
+    invalidateVisibility(event.getQuestPlayer());
+  }
+
+  @EventHandler
+  public void onPlayerQuit(final PlayerQuitEvent event) {
+    invalidateVisibility(event.getPlayer().getUniqueId());
+  }
+
+  private void invalidateVisibility(final QuestPlayer questPlayer) {
+    if (questPlayer != null) {
+      invalidateVisibility(questPlayer.getUniqueId());
+    }
+  }
+
+  private record CachedVisibility(boolean visible, long expiresAt) {}
+
+  /**
+   * Online players grouped by world and chunk. Only built for the worlds which are looked up, and only valid for the current tick.
+   */
+  private static final class PlayerProximityIndex {
+    private final HashMap<UUID, HashMap<Long, ArrayList<Player>>> playersByChunk = new HashMap<>();
+
+    private HashMap<Long, ArrayList<Player>> getPlayersByChunk(final World world) {
+      return playersByChunk.computeIfAbsent(world.getUID(), k -> {
+        final HashMap<Long, ArrayList<Player>> worldPlayersByChunk = new HashMap<>();
+        for (final Player player : world.getPlayers()) {
+          if (player.hasMetadata("NPC")) { //Citizens NPCs
+            continue;
+          }
+          final Location location = player.getLocation();
+          worldPlayersByChunk.computeIfAbsent(Chunk.getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4), key -> new ArrayList<>()).add(player);
+        }
+        return worldPlayersByChunk;
+      });
+    }
+
+    /**
+     * @return all players within {@link #HOLOGRAM_RANGE} blocks on each axis of that location
+     */
+    private List<Player> getNearbyPlayers(final Location location) {
+      final HashMap<Long, ArrayList<Player>> worldPlayersByChunk = getPlayersByChunk(location.getWorld());
+      if (worldPlayersByChunk.isEmpty()) {
+        return List.of();
+      }
+      final ArrayList<Player> nearbyPlayers = new ArrayList<>();
+      for (int chunkX = (location.getBlockX() - HOLOGRAM_RANGE) >> 4; chunkX <= (location.getBlockX() + HOLOGRAM_RANGE) >> 4; chunkX++) {
+        for (int chunkZ = (location.getBlockZ() - HOLOGRAM_RANGE) >> 4; chunkZ <= (location.getBlockZ() + HOLOGRAM_RANGE) >> 4; chunkZ++) {
+          final ArrayList<Player> playersInChunk = worldPlayersByChunk.get(Chunk.getChunkKey(chunkX, chunkZ));
+          if (playersInChunk == null) {
+            continue;
+          }
+          for (final Player player : playersInChunk) {
+            final Location playerLocation = player.getLocation();
+            if (Math.abs(playerLocation.getX() - location.getX()) <= HOLOGRAM_RANGE
+                && Math.abs(playerLocation.getY() - location.getY()) <= HOLOGRAM_RANGE
+                && Math.abs(playerLocation.getZ() - location.getZ()) <= HOLOGRAM_RANGE) {
+              nearbyPlayers.add(player);
+            }
+          }
+        }
+      }
+      return nearbyPlayers;
+    }
+  }
+}
@@ -18,23 +18,18 @@
 
 package rocks.gravili.notquests.paper.managers.integrations.citizens;
 
-import java.util.ArrayList;
 import net.citizensnpcs.api.event.NPCTeleportEvent;
 import net.citizensnpcs.api.trait.Trait;
 import net.citizensnpcs.api.util.DataKey;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Entity;
-import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.managers.npc.NQNPC;
 import rocks.gravili.notquests.paper.managers.npc.NQNPCID;
 import rocks.gravili.notquests.paper.structs.Quest;
-import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
 import java.util.List;
 
@@ -56,8 +51,8 @@ public class QuestGiverNPCTrait extends Trait {
 
   final NotQuests main;
 
-  private int particleTimer = 0;
-  private int nameTagTimer = 0;
+  //Last hologram text which has been set as the name of the hologram armor stand
+  private Component hologramComponent = null;
 
   public QuestGiverNPCTrait() {
     super("nquestgiver");
@@ -107,105 +102,23 @@ public class QuestGiverNPCTrait extends Trait {
   }
 
   /**
-   * Called every tick. This spawns a particle above an NPCs head which has this Trait, showcasing
-   * to the player that they have Quests and can be clicked.
+   * Called every tick. The particle above the NPC's head and the hologram, which showcase to the
+   * player that the NPC has Quests and can be clicked, are handled for all NPCs together by the
+   * QuestGiverNPCScheduler.
    */
   @Override
   public void run() {
-
     if(main.getIntegrationsManager().getCitizensManager().getTraitRun() != null) {
       main.getIntegrationsManager().getCitizensManager().getTraitRun().accept(this);
     }
+  }
 
-    // Disable if Server TPS is too low
-    final double minimumTPS =
-        main
-            .getDataManager()
-            .getConfiguration()
-            .getCitizensNPCQuestGiverIndicatorParticleDisableIfTPSBelow();
-    if (minimumTPS >= 0) {
-      if (main.getPerformanceManager().getTPS() < minimumTPS) {
-        return;
-      }
-    }
-
-    final String npcHoloText = main.getDataManager()
-            .getConfiguration()
-            .getCitizensNPCQuestGiverIndicatorText();
-    if (main.getPacketManager() != null && main.getPacketManager().getModernPacketInjector() != null
-            && npcHoloText.length() > 0 && npc.isSpawned()){
-      final Entity npcEntity = getNPC().getEntity();
-      if (npcEntity != null && nameTagTimer >= main.getDataManager()
-              .getConfiguration()
-              .getCitizensNPCQuestGiverIndicatorTextInterval() ) {
-        nameTagTimer = 0;
-        if (npcEntity.getPassengers().isEmpty()) {
-          final ArmorStand npcHolo = npcEntity.getWorld().spawn(npcEntity.getLocation(), ArmorStand.class);
-          npcHolo.setVisible(false);
-          npcHolo.setSmall(true);
-          npcHolo.setCustomNameVisible(false);
-          npcHolo.customName(main.parse(npcHoloText));
-          npcEntity.addPassenger(npcHolo);
-          //notQuests.getQuestManager().getQuestsFromListWithVisibilityEvaluations()
-
-        } else {
-          if (npcEntity.getPassengers().get(0) instanceof final ArmorStand npcHolo) {
-            npcHolo.customName(main.parse(npcHoloText));
-            for (final Entity e : npcEntity.getNearbyEntities(16, 16, 16)) {
-              if (e instanceof final Player player) {
-                final QuestPlayer qp = main.getQuestPlayerManager().getActiveQuestPlayer(e.getUniqueId());
-                final ArrayList<Quest> questsArrayList = main.getQuestManager().getAllQuestsAttachedToNPC(
-                    main.getNPCManager().getOrCreateNQNpc("Citizens", NQNPCID.fromInteger(getNPC().getId())));
-                main.getPacketManager().getModernPacketInjector().sendHolo(
-                        player,
-                        npcHolo,
-                        main
-                                .getQuestManager()
-                                .getQuestsFromListWithVisibilityEvaluations(qp, questsArrayList).size() != 0);
-              }
-            }
-          }
-        }
-      }
-      nameTagTimer +=1;
-    }
-
-
-    if (main
-            .getDataManager()
-            .getConfiguration()
-            .isCitizensNPCQuestGiverIndicatorParticleEnabled()
-        && npc.isSpawned()) {
-      if (particleTimer
-          >= main
-              .getDataManager()
-              .getConfiguration()
-              .getCitizensNPCQuestGiverIndicatorParticleSpawnInterval()) {
-
-        final Entity npcEntity = getNPC().getEntity();
-        final Location location = npcEntity.getLocation();
-        particleTimer = 0;
-        npcEntity
-            .getWorld()
-            .spawnParticle(
-                main
-                    .getDataManager()
-                    .getConfiguration()
-                    .getCitizensNPCQuestGiverIndicatorParticleType(),
-                location.getX() - 0.25 + (Math.random() / 2),
-                location.getY() + 1.75 + (Math.random() / 2),
-                location.getZ() - 0.25 + (Math.random() / 2),
-                main
-                    .getDataManager()
-                    .getConfiguration()
-                    .getCitizensNPCQuestGiverIndicatorParticleCount());
-
-        // System.out.println("§eSpawned particle!");
-      }
+  public final Component getHologramComponent() {
+    return hologramComponent;
+  }
 
-      particleTimer += 1;
-    }
-    nameTagTimer += 1;
+  public void setHologramComponent(final Component hologramComponent) {
+    this.hologramComponent = hologramComponent;
   }
 
   /**
@@ -223,12 +136,17 @@ public class QuestGiverNPCTrait extends Trait {
                 + "</highlight> and name <highlight>"
                 + npc.getName().replace("&", "").replace("§", "")
                 + "</highlight> has been assigned the Quest Giver trait!");
+    if (npc.isSpawned()) {
+      main.getIntegrationsManager().getCitizensManager().getQuestGiverNPCScheduler().addTrait(this);
+    }
   }
 
   // Run code when the NPC is despawned. This is called before the entity actually despawns so
   // npc.getEntity() is still valid.
   @Override
   public void onDespawn() {
+    main.getIntegrationsManager().getCitizensManager().getQuestGiverNPCScheduler().removeTrait(this);
+    hologramComponent = null;
     if(getNPC().getEntity() != null){
       getNPC().getEntity().getPassengers().forEach(Entity::remove);
     }
@@ -238,7 +156,9 @@ public class QuestGiverNPCTrait extends Trait {
   // called.
   // This is called AFTER onAttach and AFTER Load when the server is started.
   @Override
-  public void onSpawn() {}
+  public void onSpawn() {
+    main.getIntegrationsManager().getCitizensManager().getQuestGiverNPCScheduler().addTrait(this);
+  }
 
   /**
    * Run code when the NPC is removed. This will also remove from the Quest object that the NPC is
@@ -250,6 +170,7 @@ public class QuestGiverNPCTrait extends Trait {
    */
   @Override
   public void onRemove() {
+    main.getIntegrationsManager().getCitizensManager().getQuestGiverNPCScheduler().removeTrait(this);
     // REMOVEEEE FROM QUEST
     if(getNPC() == null) {
       main.getLogManager().warn("NPC removal not completed, as the NPC is null.");
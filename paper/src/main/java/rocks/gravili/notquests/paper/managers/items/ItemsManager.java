@@ -21,6 +21,7 @@ package rocks.gravili.notquests.paper.managers.items;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
@@ -30,7 +31,11 @@ import rocks.gravili.notquests.paper.managers.data.Category;
 
 public class ItemsManager {
   private final NotQuests main;
+  //Lowercase item identifier => item
   private final HashMap<String, NQItem> identifiersAndItems;
+  //Immutable views, which are rebuilt whenever an item is added or removed
+  private volatile List<NQItem> itemsView = List.of();
+  private volatile List<String> itemsIdentifiersView = List.of();
 
   public ItemsManager(final NotQuests main) {
     this.main = main;
@@ -46,14 +51,20 @@ public class ItemsManager {
   }
 
   public final Collection<NQItem> getItems() {
-    return identifiersAndItems.values();
+    return itemsView;
   }
 
   public final Collection<String> getItemsIdentifiers() {
-    return identifiersAndItems.keySet();
+    return itemsIdentifiersView;
+  }
+
+  private void updateViews() {
+    itemsView = List.copyOf(identifiersAndItems.values());
+    itemsIdentifiersView = itemsView.stream().map(NQItem::getItemName).toList();
   }
 
   public void loadItems() {
+    identifiersAndItems.clear();
     final ArrayList<String> categoriesStringList = new ArrayList<>();
     for (final Category category : main.getDataManager().getCategories()) {
       categoriesStringList.add(category.getCategoryFullName());
@@ -68,6 +79,7 @@ public class ItemsManager {
       main.getLogManager()
           .info("  Loading Items for category <highlight>" + category.getCategoryFullName());
     }
+    updateViews();
   }
 
   public void loadItems(final Category category) {
@@ -85,7 +97,7 @@ public class ItemsManager {
         category.getItemsConfig().getConfigurationSection("items");
     if (itemsConfigurationSection != null) {
       for (final String itemIdentifier : itemsConfigurationSection.getKeys(false)) {
-        if (identifiersAndItems.get(itemIdentifier) != null) {
+        if (identifiersAndItems.get(itemIdentifier.toLowerCase(Locale.ROOT)) != null) {
           main.getDataManager()
               .disablePluginAndSaving(
                   "Plugin disabled, because there was an error while loading items.yml item data: The item "
@@ -122,14 +134,16 @@ public class ItemsManager {
         identifiersAndItems.put(itemIdentifier.toLowerCase(Locale.ROOT), nqItem);
       }
     }
+    updateViews();
   }
 
   public void addItem(final NQItem nqItem) {
-    if (identifiersAndItems.get(nqItem.getItemName()) != null) {
+    if (getItem(nqItem.getItemName()) != null) {
       return;
     }
 
-    identifiersAndItems.put(nqItem.getItemName(), nqItem);
+    identifiersAndItems.put(nqItem.getItemName().toLowerCase(Locale.ROOT), nqItem);
+    updateViews();
 
     nqItem
         .getCategory()
@@ -140,11 +154,12 @@ public class ItemsManager {
   }
 
   public void deleteItem(NQItem nqItem) {
-    if (identifiersAndItems.get(nqItem.getItemName()) == null) {
+    if (getItem(nqItem.getItemName()) == null) {
       return;
     }
 
-    identifiersAndItems.remove(nqItem.getItemName());
+    identifiersAndItems.remove(nqItem.getItemName().toLowerCase(Locale.ROOT));
+    updateViews();
     nqItem.getCategory().getItemsConfig().set("items." + nqItem.getItemName(), null);
     nqItem.getCategory().saveItemsConfig();
   }
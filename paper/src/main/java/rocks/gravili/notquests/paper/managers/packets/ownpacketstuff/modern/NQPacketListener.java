@@ -21,15 +21,14 @@ package rocks.gravili.notquests.paper.managers.packets.ownpacketstuff.modern;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
-import java.util.ArrayList;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import net.minecraft.network.protocol.game.ClientboundPlayerChatPacket;
 import net.minecraft.network.protocol.game.ClientboundSectionBlocksUpdatePacket;
 import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
 import org.bukkit.entity.Player;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.conversation.ChatHistory;
 
 public class NQPacketListener extends ChannelDuplexHandler {
     private final NotQuests main;
@@ -43,7 +42,7 @@ public class NQPacketListener extends ChannelDuplexHandler {
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception { //TODO: 1.19 check
         super.write(ctx, msg, promise);
-        if (!main.getPacketManager().getModernPacketInjector().isPacketStuffEnabled()) {
+        if (!main.getPacketManager().getModernPacketInjector().isPacketStuffEnabled() || !main.getConfiguration().deletePreviousConversations || main.getConversationManager() == null) {
             return;
         }
         if (msg instanceof ClientboundSystemChatPacket clientboundSystemChatPacket) {
@@ -87,8 +86,8 @@ public class NQPacketListener extends ChannelDuplexHandler {
                 return;
             }
 
-            String json = clientboundSystemChatPacket.content();
-            Component adventureComponent = clientboundSystemChatPacket.adventure$content();
+            final String json = clientboundSystemChatPacket.content();
+            final Component adventureComponent = clientboundSystemChatPacket.adventure$content();
 
 
 
@@ -99,55 +98,23 @@ public class NQPacketListener extends ChannelDuplexHandler {
             }
 
 
-            if (adventureComponent == null) { //Spigot shit
-
-                if (json != null) {
-                    adventureComponent = GsonComponentSerializer.gson().deserialize(json);
-
-                } else {//vanilla shit
-                    /*try {//paper only
-                        adventureComponent = PaperAdventure.asAdventure(vanillaMessage);
-
-                        main.getLogManager().debug("vanilla serializer: " + adventureComponent.getClass().toString());
-                    } catch (Exception e) {
-                        if (main.getConfiguration().debug) {
-                            e.printStackTrace();
-                        }
-                    }*/
+            final ChatHistory chatHistory = main.getConversationManager().getChatHistory(player.getUniqueId());
 
-                    main.getLogManager().debug("AUh json AND adventureComponent is null! Wtf?");
-
-
-                }
+            if (adventureComponent == null) { //Spigot shit
+                //Only deserialized if the chat history is sent again
+                chatHistory.addJson(json);
+                return;
             }
 
             //main.getLogManager().info("cspacket overlay: " + clientboundSystemChatPacket.overlay() + " content: " + PlainTextComponentSerializer.plainText().serialize(adventureComponent).replace("§", "").replace("&", "") );
 
-
-
-            final ArrayList<Component> convHist = main.getConversationManager().getConversationChatHistory().get(player.getUniqueId());
-            if (convHist != null && convHist.contains(adventureComponent)) {
+            //Paper puts the Component which was sent into the packet as-is, so conversation messages can be recognized by identity
+            if (chatHistory.isConversationMessage(adventureComponent)) {
                 return;
             }
 
-            ArrayList<Component> hist = main.getConversationManager().getChatHistory().get(player.getUniqueId());
-            if (hist != null) {
-                hist.add(adventureComponent);
-            } else {
-                hist = new ArrayList<>();
-                hist.add(adventureComponent);
-            }
-
             //main.getLogManager().debug("Registering chat message with Message: " + PlainTextComponentSerializer.plainText().serialize(adventureComponent).replace("&", "").replace("§", ""));
-            final int toRemove = hist.size() - main.getConversationManager().getMaxChatHistory();
-            if (toRemove > 0) {
-                //main.getLogManager().log(Level.WARNING, "ToRemove: " + i);
-                hist.subList(0, toRemove).clear();
-            }
-            //main.getLogManager().log(Level.WARNING, "After: " + hist.size());
-
-
-            main.getConversationManager().getChatHistory().put(player.getUniqueId(), hist);
+            chatHistory.add(adventureComponent);
 
 
         } catch (Throwable e) {
@@ -22,7 +22,6 @@ import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Locale;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
@@ -30,6 +29,7 @@ import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.md_5.bungee.api.chat.BaseComponent;
 import org.bukkit.entity.Player;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.conversation.ChatHistory;
 import rocks.gravili.notquests.paper.managers.packets.ownpacketstuff.reflection.wrappers.WrappedChatPacket;
 import rocks.gravili.notquests.paper.managers.packets.ownpacketstuff.reflection.wrappers.WrappedChatType;
 
@@ -46,7 +46,9 @@ public class ReflectionNQPacketListener extends ChannelDuplexHandler {
   public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
       throws Exception {
     super.write(ctx, msg, promise);
-    if (!main.getPacketManager().getPacketInjector().isPacketStuffEnabled()) {
+    if (!main.getPacketManager().getPacketInjector().isPacketStuffEnabled()
+        || !main.getConfiguration().deletePreviousConversations
+        || main.getConversationManager() == null) {
       return;
     }
     if (msg.getClass().getSimpleName().toLowerCase(Locale.ROOT).contains("playoutchat")) {
@@ -130,33 +132,17 @@ public class ReflectionNQPacketListener extends ChannelDuplexHandler {
         }
       }
 
-      final ArrayList<Component> convHist =
-          main.getConversationManager().getConversationChatHistory().get(player.getUniqueId());
-      if (convHist != null && convHist.contains(component)) {
+      //The Component has been re-created from the packet, so it can only be equal to a conversation message, not the same
+      final ChatHistory chatHistory = main.getConversationManager().getChatHistory(player.getUniqueId());
+      if (component == null || chatHistory.isEqualToConversationMessage(component)) {
         return;
       }
 
-      ArrayList<Component> hist =
-          main.getConversationManager().getChatHistory().get(player.getUniqueId());
-      if (hist != null) {
-        hist.add(component);
-      } else {
-        hist = new ArrayList<>();
-        hist.add(component);
-      }
-
       /*main.getLogManager()
           .debug(
               "Registering chat message with Message: "
                   + MiniMessage.builder().build().serialize(component));*/
-      int toRemove = hist.size() - main.getConversationManager().getMaxChatHistory();
-      if (toRemove > 0) {
-        // main.getLogManager().log(Level.WARNING, "ToRemove: " + i);
-        hist.subList(0, toRemove).clear();
-      }
-      // main.getLogManager().log(Level.WARNING, "After: " + hist.size());
-
-      main.getConversationManager().getChatHistory().put(player.getUniqueId(), hist);
+      chatHistory.add(component);
 
     } catch (Exception e) {
       if (main.getConfiguration().debug) {
@@ -22,13 +22,13 @@ import com.github.retrooper.packetevents.event.PacketListener;
 import com.github.retrooper.packetevents.event.impl.PacketSendEvent;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerChatMessage;
-import java.util.ArrayList;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextReplacementConfig;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import org.bukkit.entity.Player;
 import rocks.gravili.notquests.paper.NotQuests;
+import rocks.gravili.notquests.paper.conversation.ChatHistory;
 
 public class PacketEventsPacketListener implements PacketListener {
   private final NotQuests main;
@@ -48,28 +48,26 @@ public class PacketEventsPacketListener implements PacketListener {
 
   public void handleMainChatHistorySavingLogic(
       final WrapperPlayServerChatMessage wrapperPlayServerChatMessage, final Player player) {
-    Component component;
+    if (!main.getConfiguration().deletePreviousConversations || main.getConversationManager() == null) {
+      return;
+    }
     try {
-      component =
+      final ChatHistory chatHistory = main.getConversationManager().getChatHistory(player.getUniqueId());
+      //Without conversation messages to filter out, the message is only deserialized if the chat history is sent again
+      if (!chatHistory.hasConversationMessages()) {
+        chatHistory.addJson(wrapperPlayServerChatMessage.getChatComponentJson());
+        return;
+      }
+
+      final Component component =
           GsonComponentSerializer.builder()
               .build()
               .deserialize(wrapperPlayServerChatMessage.getChatComponentJson());
 
-      final ArrayList<Component> convHist =
-          main.getConversationManager().getConversationChatHistory().get(player.getUniqueId());
-      if (convHist != null && convHist.contains(component)) {
+      if (chatHistory.isEqualToConversationMessage(component)) {
         return;
       }
 
-      ArrayList<Component> hist =
-          main.getConversationManager().getChatHistory().get(player.getUniqueId());
-      if (hist != null) {
-        hist.add(component);
-      } else {
-        hist = new ArrayList<>();
-        hist.add(component);
-      }
-
       /*main.getLogManager()
           .debug(
               "Registering chat message with position: "
@@ -78,14 +76,7 @@ public class PacketEventsPacketListener implements PacketListener {
                   + wrapperPlayServerChatMessage.getPacketId()
                   + ". Message: "
                   + MiniMessage.builder().build().serialize(component));*/
-      int toRemove = hist.size() - main.getConversationManager().getMaxChatHistory();
-      if (toRemove > 0) {
-        // main.getLogManager().log(Level.WARNING, "ToRemove: " + i);
-        hist.subList(0, toRemove).clear();
-      }
-      // main.getLogManager().log(Level.WARNING, "After: " + hist.size());
-
-      main.getConversationManager().getChatHistory().put(player.getUniqueId(), hist);
+      chatHistory.add(component);
 
     } catch (Exception ignored) {
 
@@ -27,6 +27,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
 import rocks.gravili.notquests.paper.NotQuests;
@@ -47,9 +49,18 @@ public class ObjectiveManager {
 
   private final HashMap<String, Class<? extends Objective>> objectives;
 
+  //How many unlocked active objectives of each objective class (and super class) the online QuestPlayers currently have.
+  //Event listeners use this to skip events which no online player has an objective for.
+  private final ConcurrentHashMap<Class<?>, AtomicInteger> liveActiveObjectiveCounts;
+
+  //Regions of the ReachLocationObjectives which live QuestPlayers currently need, so the move listener does not have to check all of them
+  private final ReachLocationRegionIndex reachLocationRegionIndex;
+
   public ObjectiveManager(final NotQuests main) {
     this.main = main;
     objectives = new HashMap<>();
+    liveActiveObjectiveCounts = new ConcurrentHashMap<>();
+    reachLocationRegionIndex = new ReachLocationRegionIndex();
 
     registerDefaultObjectives();
   }
@@ -228,6 +239,30 @@ public class ObjectiveManager {
     return objectives.keySet();
   }
 
+  public void changeLiveActiveObjectiveCount(final Class<?> objectiveClass, final int delta) {
+    if (delta == 0) {
+      return;
+    }
+    liveActiveObjectiveCounts.computeIfAbsent(objectiveClass, k -> new AtomicInteger()).addAndGet(delta);
+  }
+
+  public final ReachLocationRegionIndex getReachLocationRegionIndex() {
+    return reachLocationRegionIndex;
+  }
+
+  public final int getLiveActiveObjectiveCount(final Class<? extends Objective> objectiveClass) {
+    final AtomicInteger liveActiveObjectiveCount = liveActiveObjectiveCounts.get(objectiveClass);
+    return liveActiveObjectiveCount != null ? liveActiveObjectiveCount.get() : 0;
+  }
+
+  /**
+   * @param objectiveClass the objective class (or super class) to check for
+   * @return true if at least one online player currently has an unlocked active objective of that type
+   */
+  public final boolean hasLiveActiveObjectives(final Class<? extends Objective> objectiveClass) {
+    return getLiveActiveObjectiveCount(objectiveClass) > 0;
+  }
+
   public void addObjective(Objective objective, CommandContext<CommandSender> context, int level) {
 
 
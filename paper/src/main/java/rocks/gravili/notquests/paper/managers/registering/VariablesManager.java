@@ -28,10 +28,14 @@ import cloud.commandframework.context.CommandContext;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 import redempt.crunch.CompiledExpression;
 import redempt.crunch.Crunch;
 import redempt.crunch.functional.EvaluationEnvironment;
@@ -67,6 +71,12 @@ public class VariablesManager {
   private final NotQuests main;
 
   private final HashMap<String, Class<? extends Variable<?>>> variables;
+  //Variable identifier => if that variable publishes its changes (see Variable#isChangePublished)
+  private final ConcurrentHashMap<String, Boolean> changePublishedVariables;
+
+  //Metrics of the per-player variable value cache (see Variable#getCacheability)
+  private final AtomicLong variableValueCacheHitCount = new AtomicLong();
+  private final AtomicLong variableValueCacheMissCount = new AtomicLong();
   public ArrayList<String> alreadyFullRegisteredVariables = new ArrayList<>();
 
   EvaluationEnvironment env = new EvaluationEnvironment();
@@ -74,6 +84,7 @@ public class VariablesManager {
   public VariablesManager(final NotQuests main) {
     this.main = main;
     variables = new HashMap<>();
+    changePublishedVariables = new ConcurrentHashMap<>();
 
     registerDefaultVariables();
 
@@ -86,6 +97,7 @@ public class VariablesManager {
     main.getLogManager().info("Registering variables...");
 
     variables.clear();
+    changePublishedVariables.clear();
     registerVariable("True", TrueVariable.class);
     registerVariable("False", FalseVariable.class);
     registerVariable("Condition", ConditionVariable.class);
@@ -328,6 +340,7 @@ public class VariablesManager {
       main.getLogManager().info("Registering variable <highlight>" + identifier);
     }
     variables.put(identifier, variable);
+    changePublishedVariables.remove(identifier);
 
     /*if(main.getActionManager() != null){
         main.getActionManager().updateVariableActions();
@@ -381,6 +394,45 @@ public class VariablesManager {
     return variables.keySet();
   }
 
+  public final boolean isVariableChangePublished(final String variableType) {
+    return changePublishedVariables.computeIfAbsent(variableType, type -> {
+      final Variable<?> variable = getVariableFromString(type);
+      return variable != null && variable.isChangePublished();
+    });
+  }
+
+  /**
+   * @param variableDependencies identifiers of the variables something depends on (e.g. Condition#getVariableDependencies())
+   * @return the variable dependencies, if all of them publish their changes. Otherwise (or if the dependencies are unknown), null - it then needs to be checked regularly
+   */
+  public final @Nullable Set<String> getPublishedVariableDependencies(final @Nullable Set<String> variableDependencies) {
+    if (variableDependencies == null) {
+      return null;
+    }
+    for (final String variableType : variableDependencies) {
+      if (!isVariableChangePublished(variableType)) {
+        return null;
+      }
+    }
+    return Set.copyOf(variableDependencies);
+  }
+
+  public void countVariableValueCacheHit() {
+    variableValueCacheHitCount.incrementAndGet();
+  }
+
+  public void countVariableValueCacheMiss() {
+    variableValueCacheMissCount.incrementAndGet();
+  }
+
+  public final long getVariableValueCacheHitCount() {
+    return variableValueCacheHitCount.get();
+  }
+
+  public final long getVariableValueCacheMissCount() {
+    return variableValueCacheMissCount.get();
+  }
+
   public void addVariable(Variable<?> Variable, CommandContext<CommandSender> context) {}
 
   public final Variable<?> getVariableFromString(final String variableString) {
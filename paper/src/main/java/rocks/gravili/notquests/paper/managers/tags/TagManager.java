@@ -24,6 +24,7 @@ import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
 import org.bukkit.Bukkit;
@@ -98,18 +99,27 @@ public class TagManager {
 
 
     public void onJoin(final QuestPlayer questPlayer, final Player player) {
+        loadTags(questPlayer, player.getName());
+    }
+
+    /**
+     * Loads the tags of the QuestPlayer's profile from the database, unless it already has tags. Can be called for offline players as well.
+     *
+     * @param playerName only used for logging
+     */
+    public void loadTags(final QuestPlayer questPlayer, final String playerName) {
         if (!questPlayer.getTags().isEmpty()) {
             if (main.getConfiguration().isVerboseStartupMessages()) {
-                main.getLogManager().info("Skip Loading tags for " + player.getName() + "! Size: " + questPlayer.getTags().size());
+                main.getLogManager().info("Skip Loading tags for " + playerName + "! Size: " + questPlayer.getTags().size());
             }
             return;
         }
         if (main.getConfiguration().isVerboseStartupMessages()) {
-            main.getLogManager().info("Loading tags for " + player.getName() + " (Profile: %s) ...",
+            main.getLogManager().info("Loading tags for " + playerName + " (Profile: %s) ...",
                 questPlayer.getProfile()
             );
         }
-        final UUID uuid = player.getUniqueId();
+        final UUID uuid = questPlayer.getUniqueId();
 
         try (Connection connection = main.getDataManager().getConnection();
              final PreparedStatement tagsStatement = connection.prepareStatement("""
@@ -119,37 +129,41 @@ public class TagManager {
         ) {
             tagsStatement.setString(1, uuid.toString());
             tagsStatement.setString(2, questPlayer.getProfile());
+            tagsStatement.setFetchSize(512);
 
             final ResultSet result = tagsStatement.executeQuery();
             while (result.next()) {
 
-                final String tagIdentifier = result.getString("TagIdentifier");
-                final String tagValue = result.getString("TagValue");
-                final String tagType = result.getString("TagType");
-
+                final String tagIdentifier = result.getString(1);
+                final String tagValue = result.getString(2);
+                final String tagTypeString = result.getString(3);
 
                 if (tagValue == null) {
-                    questPlayer.setTagValue(tagIdentifier, null);
                     continue;
                 }
+
+                final TagType tagType;
+                try {
+                    tagType = TagType.valueOf(tagTypeString);
+                } catch (final Exception e) {
+                    main.getLogManager().warn("Skipped loading tag %s for player %s, because it has an unknown tag type: %s",
+                            tagIdentifier,
+                            playerName,
+                            tagTypeString
+                    );
+                    continue;
+                }
+
                 if (main.getConfiguration().isVerboseStartupMessages()) {
                     main.getLogManager().info("  Loaded <highlight>%s</highlight> %s tag for player <highlight2>%s</highlight2> with the value <highlight2>%s</highlight2>.",
                             tagIdentifier,
                             tagType,
-                            player.getName(),
+                            playerName,
                             tagValue
                     );
                 }
 
-
-                switch (tagType) {
-                    case "INTEGER" -> questPlayer.setTagValue(tagIdentifier, Integer.parseInt(tagValue));
-                    case "FLOAT" -> questPlayer.setTagValue(tagIdentifier, Float.parseFloat(tagValue));
-                    case "BOOLEAN" -> questPlayer.setTagValue(tagIdentifier, Boolean.parseBoolean(tagValue));
-                    case "STRING" -> questPlayer.setTagValue(tagIdentifier, tagValue);
-                    case "DOUBLE" -> questPlayer.setTagValue(tagIdentifier, Double.parseDouble(tagValue));
-                }
-
+                questPlayer.setLoadedTagValue(tagIdentifier, parseTagValue(tagType, tagValue));
             }
         } catch (Exception e) {
             main.getLogManager().severe("ERROR: Could not load tags for player with uuid <highlight>%s</highlight>. Error: ", uuid);
@@ -157,18 +171,18 @@ public class TagManager {
             return;
         }
 
-
+        //What was just loaded is exactly what's in the database
+        questPlayer.setTagsPersisted(true);
         questPlayer.setFinishedLoadingTags(true);
+        questPlayer.onTagsLoaded();
 
 
         if (main.getConfiguration().isVerboseStartupMessages()) {
             main.getLogManager().info("  Loaded %s tags for %s:",
                     questPlayer.getTags().size(),
-                    player.getName()
+                    playerName
             );
 
-        }
-        if (!questPlayer.getTags().isEmpty()) {
             for (final String tagIdentifier : questPlayer.getTags().keySet()) {
                 main.getLogManager().info("    %s: %s (%s)",
                         tagIdentifier,
@@ -179,80 +193,44 @@ public class TagManager {
         }
     }
 
+    private Object parseTagValue(final TagType tagType, final String tagValue) {
+        return switch (tagType) {
+            case INTEGER -> Integer.parseInt(tagValue);
+            case FLOAT -> Float.parseFloat(tagValue);
+            case BOOLEAN -> Boolean.parseBoolean(tagValue);
+            case DOUBLE -> Double.parseDouble(tagValue);
+            case STRING -> tagValue;
+        };
+    }
+
+    public @Nullable TagType getTagType(final Object tagValue) {
+        if (tagValue instanceof Boolean) {
+            return TagType.BOOLEAN;
+        } else if (tagValue instanceof Integer) {
+            return TagType.INTEGER;
+        } else if (tagValue instanceof Float) {
+            return TagType.FLOAT;
+        } else if (tagValue instanceof Double) {
+            return TagType.DOUBLE;
+        } else if (tagValue instanceof String) {
+            return TagType.STRING;
+        }
+        return null;
+    }
+
+    /**
+     * Saves the tags of the QuestPlayer's profile. Only tags which changed since they were last saved are written, unless
+     * the tags of the profile have never been saved or loaded before - then all tags of that profile are rewritten.
+     * <p>
+     * The tags are saved through the player data write-behind queue (or right away if it's not running), so they are written
+     * in order with other data of this player which might still be queued.
+     */
     public void onQuit(final QuestPlayer questPlayer, final Player player) {
         if(!questPlayer.isFinishedLoadingTags()){
             main.getLogManager().info("Saving of tags has been skipped, because tags didn't even finish loading yet.");
             return;
         }
-        if(questPlayer.getTags().isEmpty()){
-            return;
-        }
-        final String uuidString = player.getUniqueId().toString();
-
-        try (Connection connection = main.getDataManager().getConnection();
-             final PreparedStatement deleteTagsPS = connection.prepareStatement("""
-                DELETE FROM Tags WHERE PlayerUUID = ?;
-             """);
-             final PreparedStatement insertIntoTagsPS = connection.prepareStatement("""
-                INSERT INTO Tags (PlayerUUID, TagIdentifier, TagValue, TagType, Profile) VALUES (?, ?, ?, ?, ?);
-             """)
-             ) {
-
-
-            for (final String tagIdentifier : questPlayer.getTags().keySet()) {
-                @Nullable final Object tagValue = questPlayer.getTagValue(tagIdentifier);
-
-                if (main.getConfiguration().isVerboseStartupMessages()) {
-                    main.getLogManager().info("Saving the " + (tagValue != null ? tagValue.getClass().getName() : "null") + " tag <highlight>" + tagIdentifier + "</highlight> with value <highlight>" + (tagValue != null ? tagValue : "null") + "</highlight> for player <highlight2>" + player.getName() + "</highlight2>...");
-                }
-
-                //Remove all tags first before adding all fresh and updated ones
-                deleteTagsPS.setString(1, uuidString);
-                deleteTagsPS.executeUpdate();
-
-                //Skip over adding the tag if it's null (= removing it)
-                if (tagValue == null) {
-                    main.getLogManager().info("Null tag => removing the tag");
-                    //statement.executeUpdate("DELETE FROM Tags WHERE PlayerUUID = '" + uuidString + "' AND TagIdentifier = '" + tagIdentifier + "';");
-                    continue;
-                }
-
-                insertIntoTagsPS.setString(1, uuidString);
-                insertIntoTagsPS.setString(2, tagIdentifier);
-                insertIntoTagsPS.setString(5, questPlayer.getProfile());
-
-                if (tagValue instanceof final Boolean booleanTagValue) {
-                    insertIntoTagsPS.setString(3, booleanTagValue.toString());
-                    insertIntoTagsPS.setString(4, "BOOLEAN");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final Integer integerTagValue) {
-                    insertIntoTagsPS.setString(3, integerTagValue.toString());
-                    insertIntoTagsPS.setString(4, "INTEGER");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final Float floatValue) {
-                    insertIntoTagsPS.setString(3, floatValue.toString());
-                    insertIntoTagsPS.setString(4, "FLOAT");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final Double doubleValue) {
-                    insertIntoTagsPS.setString(3, doubleValue.toString());
-                    insertIntoTagsPS.setString(4, "DOUBLE");
-                    insertIntoTagsPS.executeUpdate();
-                } else if (tagValue instanceof final String stringTagValue) {
-                    insertIntoTagsPS.setString(3, stringTagValue);
-                    insertIntoTagsPS.setString(4, "STRING");
-                    insertIntoTagsPS.executeUpdate();
-                } else{
-                    main.getLogManager().warn("Encountered an unknown tag value type when saving tag %s. Tag value type: %s",
-                            tagIdentifier,
-                            tagValue.getClass().toString()
-                    );
-                }
-            }
-
-        } catch (Exception e) {
-            main.getLogManager().severe("There was an error saving the tag data of player with UUID <highlight>%s</highlight>! Stacktrace:", questPlayer.getUniqueId());
-            e.printStackTrace();
-        }
+        main.getQuestPlayerManager().getPlayerDataSaveQueue().queueSnapshots(List.of(main.getQuestPlayerManager().createTagsSnapshot(questPlayer)));
     }
 
 
@@ -0,0 +1,89 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package rocks.gravili.notquests.paper.placeholders;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Resolved PlaceholderAPI values of a single QuestPlayer, keyed by the placeholder identifier.
+ * Scoreboards and holograms request the same placeholders many times per second, so values are re-used for a short time.
+ * The whole cache is invalidated whenever something a placeholder could show changes (quests, objectives, quest points, tags or variables).
+ */
+public class PlaceholderResultCache {
+    //Player scoreboards usually only show a handful of placeholders, so this is only reached if identifiers are generated dynamically
+    private static final int MAX_SIZE = 256;
+
+    private final ConcurrentHashMap<String, CachedResult> cachedResults = new ConcurrentHashMap<>();
+    //Increased on every invalidation, so values which were resolved before an invalidation are not cached afterwards
+    private final AtomicInteger version = new AtomicInteger();
+
+    /**
+     * @return the cached value, or null if nothing valid is cached for that identifier
+     */
+    public final @Nullable String get(final String identifier) {
+        final CachedResult cachedResult = cachedResults.get(identifier);
+        if (cachedResult == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= cachedResult.expiresAt()) {
+            cachedResults.remove(identifier, cachedResult);
+            return null;
+        }
+        return cachedResult.value();
+    }
+
+    /**
+     * Needs to be called before the value is resolved. The version is passed to {@link #put(String, String, long, int)} afterwards.
+     */
+    public final int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Caches the value, unless the cache has been invalidated since the value was resolved.
+     *
+     * @param identifier the placeholder identifier
+     * @param value the resolved value
+     * @param durationMillis how long the value can be re-used
+     * @param resolvedVersion the version from {@link #getVersion()} before the value was resolved
+     */
+    public void put(final String identifier, final String value, final long durationMillis, final int resolvedVersion) {
+        if (cachedResults.size() >= MAX_SIZE && !cachedResults.containsKey(identifier)) {
+            cachedResults.clear();
+        }
+        cachedResults.put(identifier, new CachedResult(value, System.currentTimeMillis() + durationMillis));
+        if (version.get() != resolvedVersion) { //Invalidated while the value was resolved or cached
+            cachedResults.clear();
+        }
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        if (!cachedResults.isEmpty()) {
+            cachedResults.clear();
+        }
+    }
+
+    public final int getSize() {
+        return cachedResults.size();
+    }
+
+    private record CachedResult(String value, long expiresAt) {}
+}
@@ -18,9 +18,12 @@
 
 package rocks.gravili.notquests.paper.placeholders;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.managers.expressions.NumberExpression;
 import rocks.gravili.notquests.paper.managers.tags.Tag;
@@ -33,7 +36,12 @@ import rocks.gravili.notquests.paper.structs.variables.Variable;
  */
 public class QuestPlaceholders extends PlaceholderExpansion {
 
+    //Identifiers are generated by other plugins' configs, so this only grows past the limit if they are generated dynamically
+    private static final int MAX_PARSED_PLACEHOLDERS = 1000;
+    private static final PlaceholderResolver INVALID_PLACEHOLDER = (player, questPlayer) -> null;
+
     private final NotQuests main;
+    private final ConcurrentHashMap<String, PlaceholderResolver> parsedPlaceholders = new ConcurrentHashMap<>();
 
     /**
      * Since we register the expansion inside our own plugin, we
@@ -115,6 +123,7 @@ public class QuestPlaceholders extends PlaceholderExpansion {
      * is found and needs a value.
      * <br>We specify the value identifier in this method.
      * <br>Since version 2.9.1 can you use OfflinePlayers in your requests.
+     * <br>Each identifier is only parsed once. Its resolved value is cached per player for a short time (see {@link PlaceholderResultCache}).
      *
      * @param identifier A String containing the identifier/value.
      * @return possibly-null String of the requested identifier.
@@ -126,349 +135,293 @@ public class QuestPlaceholders extends PlaceholderExpansion {
             return "";
         }
 
+        PlaceholderResolver placeholderResolver = parsedPlaceholders.get(identifier);
+        if (placeholderResolver == null) {
+            placeholderResolver = parse(identifier);
+            if (parsedPlaceholders.size() >= MAX_PARSED_PLACEHOLDERS) { //Only reached if identifiers are generated dynamically
+                parsedPlaceholders.clear();
+            }
+            parsedPlaceholders.put(identifier, placeholderResolver);
+        }
+
+        final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
+        final int cacheDurationMillis = main.getConfiguration().getPlaceholderResultCacheDurationMillis();
+        if (questPlayer == null || cacheDurationMillis <= 0) {
+            return placeholderResolver.resolve(player, questPlayer);
+        }
+
+        final PlaceholderResultCache placeholderResultCache = questPlayer.getPlaceholderResultCache();
+        final String cachedValue = placeholderResultCache.get(identifier);
+        if (cachedValue != null) {
+            return cachedValue;
+        }
+        final int cacheVersion = placeholderResultCache.getVersion();
+        final String value = placeholderResolver.resolve(player, questPlayer);
+        if (value != null) {
+            placeholderResultCache.put(identifier, value, cacheDurationMillis, cacheVersion);
+        }
+        return value;
+    }
 
+    /**
+     * Parses the identifier (and its arguments, like quest names, objective IDs, expressions or variables) once.
+     * Quests and tags are still looked up when the placeholder is resolved, as they can be created, deleted or reloaded in the meantime.
+     *
+     * @param identifier A String containing the identifier/value.
+     * @return the resolver for that identifier. It returns null if the placeholder is invalid (f.e. %someplugin_placeholder3%)
+     */
+    private PlaceholderResolver parse(final String identifier) {
         if (identifier.startsWith("player_questpoints")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                return "" + questPlayer.getQuestPoints();
-            }
-            return "0";
+            return (player, questPlayer) -> questPlayer != null ? "" + questPlayer.getQuestPoints() : "0";
         }
 
         if (identifier.startsWith("player_completed_quests_amount")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                return "" + questPlayer.getCompletedQuests().size();
-            }
-            return "0";
+            return (player, questPlayer) -> questPlayer != null ? "" + questPlayer.getCompletedQuests().size() : "0";
         }
 
         if (identifier.startsWith("player_active_quests_amount")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                return "" + questPlayer.getActiveQuests().size();
-            }
-            return "0";
+            return (player, questPlayer) -> questPlayer != null ? "" + questPlayer.getActiveQuests().size() : "0";
         }
 
         if (identifier.startsWith("player_active_quests_list_horizontal")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                StringBuilder list = new StringBuilder();
-                int amount = 0;
-                for (ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                    amount++;
-                    //return if it's bigger than limit
-                    if (main.getConfiguration().placeholder_player_active_quests_list_horizontal_limit >= 0 && amount > main.getConfiguration().placeholder_player_active_quests_list_horizontal_limit) {
-                        return list.toString();
-                    }
-
-                    String nameToAdd = activeQuest.getQuest().getIdentifier();
-                    if (main.getConfiguration().placeholder_player_active_quests_list_horizontal_use_displayname_if_available) {
-                        if (!activeQuest.getQuest().getQuestDisplayName().isBlank()) {
-                            nameToAdd = activeQuest.getQuest().getQuestDisplayName();
-                        }
-                    }
-
-                    if(amount == 1){
-                        list = new StringBuilder(nameToAdd);
-                    }else{
-                        list.append(main.getConfiguration().placeholder_player_active_quests_list_horizontal_separator).append(nameToAdd);
-                    }
-
+            return (player, questPlayer) -> {
+                if (questPlayer == null) {
+                    return "-";
                 }
-                return list.toString();
-            }
-            return "-";
-
+                return getActiveQuestsList(questPlayer,
+                        main.getConfiguration().placeholder_player_active_quests_list_horizontal_limit,
+                        main.getConfiguration().placeholder_player_active_quests_list_horizontal_use_displayname_if_available,
+                        main.getConfiguration().placeholder_player_active_quests_list_horizontal_separator
+                );
+            };
         }
         if (identifier.startsWith("player_active_quests_list_vertical")) {
-            final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-            if (questPlayer != null) {
-                StringBuilder list = new StringBuilder();
-                int amount = 0;
-                for(ActiveQuest activeQuest : questPlayer.getActiveQuests()){
-                    amount++;
-                    //return if it's bigger than limit
-                    if (main.getConfiguration().placeholder_player_active_quests_list_vertical_limit >= 0 && amount > main.getConfiguration().placeholder_player_active_quests_list_vertical_limit) {
-                        return list.toString();
-                    }
-
-                    String nameToAdd = activeQuest.getQuest().getIdentifier();
-                    if (main.getConfiguration().placeholder_player_active_quests_list_vertical_use_displayname_if_available) {
-                        if (!activeQuest.getQuest().getQuestDisplayName().isBlank()) {
-                            nameToAdd = activeQuest.getQuest().getQuestDisplayName();
-                        }
-                    }
-
-                    if(amount == 1){
-                        list = new StringBuilder(nameToAdd);
-                    }else{
-                        list.append("\n").append(nameToAdd);
-                    }
-
+            return (player, questPlayer) -> {
+                if (questPlayer == null) {
+                    return "-";
                 }
-                return list.toString();
-            }
-            return "-";
-
+                return getActiveQuestsList(questPlayer,
+                        main.getConfiguration().placeholder_player_active_quests_list_vertical_limit,
+                        main.getConfiguration().placeholder_player_active_quests_list_vertical_use_displayname_if_available,
+                        "\n"
+                );
+            };
         }
 
         if (identifier.startsWith("player_has_completed_quest_")) {
-            final String questName = identifier.replace("player_has_completed_quest_", "");
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-                        if (completedQuest.getQuest().equals(quest)) {
-                            return "Yes";
-                        }
-                    }
-                }
-            }
-            return "No";
-
+            final String questName = identifier.substring("player_has_completed_quest_".length());
+            return (player, questPlayer) -> {
+                final Quest quest = main.getQuestManager().getQuest(questName);
+                return quest != null && questPlayer != null && questPlayer.hasCompletedQuest(quest) ? "Yes" : "No";
+            };
         }
         if (identifier.startsWith("player_has_current_active_quest_")) {
-            final String questName = identifier.replace("player_has_current_active_quest_", "");
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            return "Yes";
-                        }
-                    }
-                }
-            }
-            return "No";
+            final String questName = identifier.substring("player_has_current_active_quest_".length());
+            return (player, questPlayer) -> {
+                final Quest quest = main.getQuestManager().getQuest(questName);
+                return quest != null && questPlayer != null && questPlayer.hasAcceptedQuest(quest) ? "Yes" : "No";
+            };
         }
 
-        if (identifier.startsWith("player_is_objective_unlocked_and_active") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_is_objective_unlocked_and_active_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_is_objective_unlocked_and_active_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective objective : activeQuest.getActiveObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "Yes";
-                                    }
-                                }
-                            }
-
-                            return "No";
-                        }
-                    }
+        final ObjectivePlaceholderArguments unlockedAndActiveArguments = parseObjectivePlaceholderArguments(identifier, "player_is_objective_unlocked_and_active_");
+        if (unlockedAndActiveArguments != null) {
+            return (player, questPlayer) -> {
+                final ActiveQuest activeQuest = unlockedAndActiveArguments.getActiveQuest(questPlayer);
+                if (activeQuest == null) {
                     return "No";
                 }
-                return "No";
-            }
-            return "No";
-
-        } else if (identifier.startsWith("player_is_objective_unlocked_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_is_objective_unlocked_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_is_objective_unlocked_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective objective : activeQuest.getActiveObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "Yes";
-                                    }
-                                }
-                            }
-                            for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "Yes";
-                                    }
-                                }
-                            }
-                            return "No";
-                        }
-                    }
+                final ActiveObjective objective = getObjective(activeQuest.getActiveObjectives(), unlockedAndActiveArguments.getObjectiveID());
+                return objective != null && objective.isUnlocked() ? "Yes" : "No";
+            };
+        }
+        final ObjectivePlaceholderArguments unlockedArguments = parseObjectivePlaceholderArguments(identifier, "player_is_objective_unlocked_");
+        if (unlockedArguments != null) {
+            return (player, questPlayer) -> {
+                final ActiveQuest activeQuest = unlockedArguments.getActiveQuest(questPlayer);
+                if (activeQuest == null) {
                     return "No";
                 }
-                return "No";
-            }
-            return "No";
-
-        } else if (identifier.startsWith("player_is_objective_completed_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_is_objective_completed_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
-
-            final String questName = identifier.replace("player_is_objective_completed_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
-
-
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    return "Yes";
-                                }
-                            }
-                            return "No";
-                        }
-
-
-                    }
+                final ActiveObjective objective = getObjective(activeQuest.getActiveObjectives(), unlockedArguments.getObjectiveID());
+                if (objective != null && objective.isUnlocked()) {
+                    return "Yes";
+                }
+                final ActiveObjective completedObjective = getObjective(activeQuest.getCompletedObjectives(), unlockedArguments.getObjectiveID());
+                return completedObjective != null && completedObjective.isUnlocked() ? "Yes" : "No";
+            };
+        }
+        final ObjectivePlaceholderArguments completedArguments = parseObjectivePlaceholderArguments(identifier, "player_is_objective_completed_");
+        if (completedArguments != null) {
+            return (player, questPlayer) -> {
+                final ActiveQuest activeQuest = completedArguments.getActiveQuest(questPlayer);
+                if (activeQuest == null) {
                     return "No";
                 }
-                return "No";
+                return getObjective(activeQuest.getCompletedObjectives(), completedArguments.getObjectiveID()) != null ? "Yes" : "No";
+            };
+        }
+
+        if (identifier.startsWith("player_expression_")) {
+            final NumberExpression numberExpression = new NumberExpression(main, identifier.substring("player_expression_".length()));
+            return (player, questPlayer) -> "" + numberExpression.calculateValue(questPlayer != null ? questPlayer : main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
+        }
+        if (identifier.startsWith("player_rounded_expression_")) {
+            final NumberExpression numberExpression = new NumberExpression(main, identifier.substring("player_rounded_expression_".length()));
+            return (player, questPlayer) -> "" + (int) Math.round(numberExpression.calculateValue(questPlayer != null ? questPlayer : main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId())));
+        }
+        if (identifier.startsWith("player_variable_")) { //Variables
+            final Variable<?> variable = main.getVariablesManager().getVariableFromString(identifier.substring("player_variable_".length()));
+            if (variable == null) {
+                return (player, questPlayer) -> "";
             }
-            return "No";
-        } else if (identifier.startsWith("player_expression_")) {
-            final String expression = identifier.replace("player_expression_", "");
-
-            final NumberExpression numberExpression = new NumberExpression(main, expression);
-            return "" + numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
-        } else if (identifier.startsWith("player_rounded_expression_")) {
-            final String expression = identifier.replace("player_rounded_expression_", "");
-
-            final NumberExpression numberExpression = new NumberExpression(main, expression);
-            return "" + (int) Math.round(numberExpression.calculateValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId())));
-        } else if (identifier.startsWith("player_variable_")) { //Variables
-            final String variableName = identifier.replace("player_variable_", "");
-            Variable<?> variable = main.getVariablesManager().getVariableFromString(variableName);
-            if (variable != null) {
-                Object value = variable.getValue(main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
+            return (player, questPlayer) -> {
+                final Object value = variable.getValue(questPlayer != null ? questPlayer : main.getQuestPlayerManager().getOrCreateQuestPlayer(player.getUniqueId()));
                 return value != null ? "" + value : "";
-            }
-            return "";
-        } else if (identifier.startsWith("player_tag_")) { //Tags
-            final String tagName = identifier.replace("player_tag_", "");
-            Tag tag = main.getTagManager().getTag(tagName);
-            if (tag != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    Object tagValue = questPlayer.getTagValue(tagName);
-                    if (tagValue != null) {
-                        return "" + tagValue;
-
-                    }
+            };
+        }
+        if (identifier.startsWith("player_tag_")) { //Tags
+            final String tagName = identifier.substring("player_tag_".length());
+            return (player, questPlayer) -> {
+                final Tag tag = main.getTagManager().getTag(tagName);
+                if (tag == null || questPlayer == null) {
+                    return "";
                 }
-            }
-            return "";
-
-        } else if (identifier.startsWith("player_quest_cooldown_left_formatted_")) {
-            final String questName = identifier.replace("player_quest_cooldown_left_formatted_", "");
-            final Quest quest = main.getQuestManager().getQuest(questName);
+                final Object tagValue = questPlayer.getTagValue(tagName);
+                return tagValue != null ? "" + tagValue : "";
+            };
+        }
 
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
+        if (identifier.startsWith("player_quest_cooldown_left_formatted_")) {
+            final String questName = identifier.substring("player_quest_cooldown_left_formatted_".length());
+            return (player, questPlayer) -> {
+                final Quest quest = main.getQuestManager().getQuest(questName);
+                if (quest != null && questPlayer != null) {
                     return questPlayer.getCooldownFormatted(quest);
                 }
-            }
-            final String prefix = main.getLanguageManager().getString("placeholders.questcooldownleftformatted.prefix", player);
-            return prefix + main.getLanguageManager().getString("placeholders.questcooldownleftformatted.no-cooldown", player);
+                final String prefix = main.getLanguageManager().getString("placeholders.questcooldownleftformatted.prefix", player);
+                return prefix + main.getLanguageManager().getString("placeholders.questcooldownleftformatted.no-cooldown", player);
+            };
+        }
 
-        } else if (identifier.startsWith("player_objective_progress_percentage_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_objective_progress_percentage_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
+        final ObjectivePlaceholderArguments progressPercentageArguments = parseObjectivePlaceholderArguments(identifier, "player_objective_progress_percentage_");
+        if (progressPercentageArguments != null) {
+            return (player, questPlayer) -> {
+                final ActiveQuest activeQuest = progressPercentageArguments.getActiveQuest(questPlayer);
+                if (activeQuest == null) {
+                    return "0";
+                }
+                final ActiveObjective activeObjective = getObjective(activeQuest.getActiveObjectives(), progressPercentageArguments.getObjectiveID());
+                if (activeObjective != null && activeObjective.isUnlocked()) {
+                    return "" + ((int) (((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100));
+                }
+                final ActiveObjective completedObjective = getObjective(activeQuest.getCompletedObjectives(), progressPercentageArguments.getObjectiveID());
+                return completedObjective != null && completedObjective.isUnlocked() ? "100" : "0";
+            };
+        }
+        final ObjectivePlaceholderArguments progressArguments = parseObjectivePlaceholderArguments(identifier, "player_objective_progress_");
+        if (progressArguments != null) {
+            return (player, questPlayer) -> {
+                final ActiveQuest activeQuest = progressArguments.getActiveQuest(questPlayer);
+                if (activeQuest == null) {
+                    return "0";
+                }
+                final ActiveObjective activeObjective = getObjective(activeQuest.getActiveObjectives(), progressArguments.getObjectiveID());
+                if (activeObjective != null && activeObjective.isUnlocked()) {
+                    return "" + activeObjective.getCurrentProgress();
+                }
+                final ActiveObjective completedObjective = getObjective(activeQuest.getCompletedObjectives(), progressArguments.getObjectiveID());
+                return completedObjective != null && completedObjective.isUnlocked() ? "" + completedObjective.getProgressNeeded() : "0";
+            };
+        }
 
-            final String questName = identifier.replace("player_objective_progress_percentage_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
 
+        // We return null if an invalid placeholder (f.e. %someplugin_placeholder3%)
+        // was provided
+        return INVALID_PLACEHOLDER;
+    }
 
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                                if (activeObjective.getObjectiveID() == objectiveID) {
-                                    if (activeObjective.isUnlocked()) {
-                                        return "" + ((int) (((float) activeObjective.getCurrentProgress() / (float) activeObjective.getProgressNeeded()) * 100));
-                                    }
-                                }
-                            }
-                            for (final ActiveObjective objective : activeQuest.getCompletedObjectives()) {
-                                if (objective.getObjectiveID() == objectiveID) {
-                                    if (objective.isUnlocked()) {
-                                        return "100";
-                                    }
-                                }
-                            }
-                            return "0";
-                        }
-                    }
-                    return "0";
-                }
-                return "0";
+    private String getActiveQuestsList(final QuestPlayer questPlayer, final int limit, final boolean useDisplayNameIfAvailable, final String separator) {
+        final StringBuilder list = new StringBuilder();
+        int amount = 0;
+        for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
+            amount++;
+            //return if it's bigger than limit
+            if (limit >= 0 && amount > limit) {
+                break;
             }
-            return "0";
-
-        } else if (identifier.startsWith("player_objective_progress_") && identifier.contains("_from_active_quest_")) {
-            String objectiveIDName = identifier.replace("player_objective_progress_", "");
-            objectiveIDName = objectiveIDName.substring(0, objectiveIDName.indexOf("_from_active_quest_"));
-            final int objectiveID = Integer.parseInt(objectiveIDName);
 
-            final String questName = identifier.replace("player_objective_progress_", "").replace(objectiveIDName, "").replace("_from_active_quest_", "");
+            String nameToAdd = activeQuest.getQuest().getIdentifier();
+            if (useDisplayNameIfAvailable && !activeQuest.getQuest().getQuestDisplayName().isBlank()) {
+                nameToAdd = activeQuest.getQuest().getQuestDisplayName();
+            }
 
+            if (amount > 1) {
+                list.append(separator);
+            }
+            list.append(nameToAdd);
+        }
+        return list.toString();
+    }
 
-            final Quest quest = main.getQuestManager().getQuest(questName);
-            if (quest != null) {
-                final QuestPlayer questPlayer = main.getQuestPlayerManager().getActiveQuestPlayer(player.getUniqueId());
-                if (questPlayer != null) {
-                    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-                        if (activeQuest.getQuest().equals(quest)) {
-                            for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                                if (activeObjective.getObjectiveID() == objectiveID) {
-                                    if (activeObjective.isUnlocked()) {
-                                        return "" + activeObjective.getCurrentProgress();
-                                    }
-                                }
-                            }
-                            for (final ActiveObjective completedObjective : activeQuest.getCompletedObjectives()) {
-                                if (completedObjective.getObjectiveID() == objectiveID) {
-                                    if (completedObjective.isUnlocked()) {
-                                        return "" + completedObjective.getProgressNeeded();
-                                    }
-                                }
-                            }
-                            return "0";
-                        }
-                    }
-                    return "0";
-                }
-                return "0";
+    private static @Nullable ActiveObjective getObjective(final List<ActiveObjective> objectives, final int objectiveID) {
+        for (final ActiveObjective objective : objectives) {
+            if (objective.getObjectiveID() == objectiveID) {
+                return objective;
             }
-            return "0";
+        }
+        return null;
+    }
+
+    /**
+     * Parses identifiers like {@code <prefix><objectiveID>_from_active_quest_<questName>}
+     *
+     * @return the parsed arguments, or null if the identifier doesn't have that form
+     */
+    private @Nullable ObjectivePlaceholderArguments parseObjectivePlaceholderArguments(final String identifier, final String prefix) {
+        if (!identifier.startsWith(prefix)) {
+            return null;
+        }
+        final int questNameSeparatorIndex = identifier.indexOf("_from_active_quest_", prefix.length());
+        if (questNameSeparatorIndex == -1) {
+            return null;
+        }
+        final int objectiveID;
+        try {
+            objectiveID = Integer.parseInt(identifier.substring(prefix.length(), questNameSeparatorIndex));
+        } catch (final NumberFormatException e) {
+            return new ObjectivePlaceholderArguments(-1, null);
+        }
+        return new ObjectivePlaceholderArguments(objectiveID, identifier.substring(questNameSeparatorIndex + "_from_active_quest_".length()));
+    }
 
+    /**
+     * Resolves a parsed placeholder for a player. The QuestPlayer is null if the player has no (loaded) QuestPlayer.
+     */
+    @FunctionalInterface
+    private interface PlaceholderResolver {
+        @Nullable String resolve(final Player player, @Nullable final QuestPlayer questPlayer);
+    }
+
+    private final class ObjectivePlaceholderArguments {
+        private final int objectiveID;
+        //Null if the objective ID is not a number
+        private final String questName;
+
+        private ObjectivePlaceholderArguments(final int objectiveID, final @Nullable String questName) {
+            this.objectiveID = objectiveID;
+            this.questName = questName;
         }
 
+        private int getObjectiveID() {
+            return objectiveID;
+        }
 
-        // We return null if an invalid placeholder (f.e. %someplugin_placeholder3%)
-        // was provided
-        return null;
+        private @Nullable ActiveQuest getActiveQuest(final @Nullable QuestPlayer questPlayer) {
+            if (questName == null || questPlayer == null) {
+                return null;
+            }
+            final Quest quest = main.getQuestManager().getQuest(questName);
+            return quest != null ? questPlayer.getActiveQuest(quest) : null;
+        }
     }
 }
 //%notquests_player_has_completed_quest_bob_the_king%
@@ -50,6 +50,8 @@ public class ActiveObjective extends ActiveObjectiveHolder {
     private boolean hasBeenCompleted = false;
 
     private double progressNeeded;
+    //True if the progress needed has not been calculated yet, because the QuestPlayer is being built off the main thread
+    private boolean progressNeededDeferred = false;
 
     public ActiveObjective(final NotQuests main, final int objectiveID, final Objective objective, final ActiveObjectiveHolder activeObjectiveHolder) {
         super(main, activeObjectiveHolder.getQuestPlayer(), objective, activeObjectiveHolder.getLevel()+1);
@@ -60,7 +62,21 @@ public class ActiveObjective extends ActiveObjectiveHolder {
         this.activeObjectiveHolder = activeObjectiveHolder;
         this.currentProgress = 0;
 
-        this.progressNeeded = objective.getProgressNeededExpression().calculateValue(activeObjectiveHolder.getQuestPlayer());
+        if (activeObjectiveHolder.getQuestPlayer().isDeferringObjectiveUpdates()) {
+            progressNeededDeferred = true;
+        } else {
+            this.progressNeeded = objective.getProgressNeededExpression().calculateValue(activeObjectiveHolder.getQuestPlayer());
+        }
+    }
+
+    /**
+     * Calculates the progress needed if that has been deferred while the QuestPlayer was built.
+     */
+    public void calculateDeferredProgressNeeded() {
+        if (progressNeededDeferred) {
+            progressNeededDeferred = false;
+            this.progressNeeded = objective.getProgressNeededExpression().calculateValue(getQuestPlayer());
+        }
     }
 
     public final double getProgressNeeded() {
@@ -69,6 +85,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
 
     public void setProgressNeeded(final double progressNeeded){
         this.progressNeeded = progressNeeded;
+        setDirty(true);
     }
 
     public final void setUnlocked(final boolean unlocked, final boolean notifyPlayer, final boolean triggerAcceptQuestTrigger) {
@@ -78,6 +95,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
 
             this.unlocked = unlocked;
             if (unlocked) {
+                getQuestPlayer().indexUnlockedActiveObjective(this);
 
                 ObjectiveUnlockEvent objectiveUnlockEvent = new ObjectiveUnlockEvent(getQuestPlayer(), this, activeObjectiveHolder, triggerAcceptQuestTrigger);
                 if (Bukkit.isPrimaryThread()) {
@@ -111,6 +129,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
                 }
 
             }else{
+                getQuestPlayer().unindexActiveObjective(this);
                 objective.onObjectiveCompleteOrLock(this, main.getDataManager().isCurrentlyLoading() || getQuestPlayer().isCurrentlyLoading() , isCompleted((NQNPC) null));
             }
         }
@@ -121,6 +140,20 @@ public class ActiveObjective extends ActiveObjectiveHolder {
         return unlocked;
     }
 
+    /**
+     * @return true if this active objective and all of its parent active objectives are unlocked
+     */
+    public final boolean isUnlockedIncludingParents() {
+        ActiveObjectiveHolder currentActiveObjectiveHolder = this;
+        while (currentActiveObjectiveHolder instanceof final ActiveObjective currentActiveObjective) {
+            if (!currentActiveObjective.isUnlocked()) {
+                return false;
+            }
+            currentActiveObjectiveHolder = currentActiveObjective.getActiveObjectiveHolder();
+        }
+        return true;
+    }
+
     public void updateUnlocked(final boolean notifyPlayer, final boolean triggerAcceptQuestTrigger) {
         getQuestPlayer().sendDebugMessage("Updating if objective is unlocked...");
 
@@ -262,6 +295,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
             return;
         }
         currentProgress += progressToAdd;
+        setDirty(true);
         getQuestPlayer().setTrackingObjective(this);
 
 
@@ -304,6 +338,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
         } else {
             currentProgress -= i;
         }
+        setDirty(true);
 
         getQuestPlayer().sendDebugMessage("-" + i + " progress for objective " + NotQuestColors.debugHighlightGradient + getObjective().getDisplayNameOrIdentifier() + "</gradient> of quest " + NotQuestColors.debugHighlightGradient + getActiveObjectiveHolder().getObjectiveHolder().getDisplayNameOrIdentifier() + "</gradient>.");
 
@@ -333,6 +368,7 @@ public class ActiveObjective extends ActiveObjectiveHolder {
     public void setHasBeenCompleted(final boolean hasBeenCompleted) {
         // System.out.println("§4§lSet has been completed to: §b" + hasBeenCompleted + " §cfor objective with ID §b" + getObjectiveID());
         this.hasBeenCompleted = hasBeenCompleted;
+        setDirty(true);
         if(hasBeenCompleted){
             getQuestPlayer().disableTrackingObjective(this);
             objective.onObjectiveCompleteOrLock(this, main.getDataManager().isCurrentlyLoading() || getQuestPlayer().isCurrentlyLoading(), true);
@@ -26,6 +26,10 @@ public abstract class ActiveObjectiveHolder {
   private final QuestPlayer questPlayer;
 
   private final int level; //Level in the hierarchy. Quest = 0. 1. sub-objective = 1. etc.
+
+  //Whether this holder changed since it was last saved to (or loaded from) the database. For ActiveObjectives this
+  //means their progress changed. For ActiveQuests it means all rows of the quest (triggers & objective structure) need to be rewritten
+  private volatile boolean dirty = true;
   public ActiveObjectiveHolder(final NotQuests main, final QuestPlayer questPlayer, final ObjectiveHolder objectiveHolder, final int level){
     this.main = main;
     this.objectiveHolder = objectiveHolder;
@@ -48,6 +52,57 @@ public abstract class ActiveObjectiveHolder {
     return level;
   }
 
+  public final boolean isDirty() {
+    return dirty;
+  }
+
+  public void setDirty(final boolean dirty) {
+    this.dirty = dirty;
+    if (dirty && questPlayer != null) {
+      //Progress, unlock or completion status changed
+      questPlayer.getPlaceholderResultCache().invalidate();
+      questPlayer.markChanged();
+    }
+  }
+
+  /**
+   * Clears the dirty flag of this holder and all of its active and completed objectives, including sub-objectives.
+   */
+  public void clearDirtyIncludingChildren() {
+    dirty = false;
+    for (final ActiveObjective activeObjective : activeObjectives) {
+      activeObjective.clearDirtyIncludingChildren();
+    }
+    for (final ActiveObjective completedObjective : completedObjectives) {
+      completedObjective.clearDirtyIncludingChildren();
+    }
+  }
+
+  public final boolean isDirtyIncludingChildren() {
+    if (dirty) {
+      return true;
+    }
+    for (final ActiveObjective activeObjective : activeObjectives) {
+      if (activeObjective.isDirtyIncludingChildren()) {
+        return true;
+      }
+    }
+    for (final ActiveObjective completedObjective : completedObjectives) {
+      if (completedObjective.isDirtyIncludingChildren()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public final ActiveQuest getRootActiveQuest() {
+    ActiveObjectiveHolder activeObjectiveHolder = this;
+    while (activeObjectiveHolder instanceof final ActiveObjective activeObjective) {
+      activeObjectiveHolder = activeObjective.getActiveObjectiveHolder();
+    }
+    return (ActiveQuest) activeObjectiveHolder;
+  }
+
   public final QuestPlayer getQuestPlayer(){
     return questPlayer;
   }
@@ -84,8 +139,14 @@ public abstract class ActiveObjectiveHolder {
     }
     questPlayer.sendDebugMessage("Executing removeCompletedObjectives");
 
+    for (final ActiveObjective activeObjectiveToRemove : toRemove) {
+      questPlayer.unindexActiveObjective(activeObjectiveToRemove);
+      questPlayer.unindexActiveObjectives(activeObjectiveToRemove);
+    }
     activeObjectives.removeAll(toRemove);
     toRemove.clear();
+    //The objective structure changed (completed objectives don't save their remaining sub-objectives), so the whole quest needs to be rewritten
+    getRootActiveQuest().setDirty(true);
 
     // Other active objectives might be unlocked if this objective is completed. This will re-check
     // them all. (This is either due to a dependency or OtherQuest condition (for v3))
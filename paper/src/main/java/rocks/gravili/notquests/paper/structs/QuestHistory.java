@@ -0,0 +1,88 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs;
+
+/**
+ * Statistics of a single quest for a single QuestPlayer: how often it was completed, failed and accepted, and when it was last completed or failed.
+ * They are maintained by the QuestPlayer whenever a quest is accepted, completed or failed, so limits and cooldowns
+ * don't have to look through the whole quest history of the player every time.
+ */
+public class QuestHistory {
+  /**
+   * Returned for quests the player has never accepted
+   */
+  public static final QuestHistory EMPTY = new QuestHistory();
+
+  private int completedAmount = 0;
+  private int failedAmount = 0;
+  private int activeAmount = 0;
+  private long mostRecentCompleteTime = 0;
+  private long mostRecentFailTime = 0;
+
+  void recordCompleted(final long timeCompleted) {
+    completedAmount++;
+    if (timeCompleted > mostRecentCompleteTime) {
+      mostRecentCompleteTime = timeCompleted;
+    }
+  }
+
+  void recordFailed(final long timeFailed) {
+    failedAmount++;
+    if (timeFailed > mostRecentFailTime) {
+      mostRecentFailTime = timeFailed;
+    }
+  }
+
+  void recordActive() {
+    activeAmount++;
+  }
+
+  public final int getCompletedAmount() {
+    return completedAmount;
+  }
+
+  public final int getFailedAmount() {
+    return failedAmount;
+  }
+
+  /**
+   * @return how often the quest was accepted - completed, failed and currently active
+   */
+  public final int getAcceptedAmount() {
+    return completedAmount + failedAmount + activeAmount;
+  }
+
+  public final boolean isActive() {
+    return activeAmount > 0;
+  }
+
+  /**
+   * @return when the quest was completed the last time, or 0 if it has never been completed
+   */
+  public final long getMostRecentCompleteTime() {
+    return mostRecentCompleteTime;
+  }
+
+  /**
+   * @return when the quest was failed the last time, or 0 if it has never been failed
+   */
+  public final long getMostRecentFailTime() {
+    return mostRecentFailTime;
+  }
+}
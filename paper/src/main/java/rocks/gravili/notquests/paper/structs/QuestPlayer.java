@@ -21,12 +21,20 @@ package rocks.gravili.notquests.paper.structs;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import net.kyori.adventure.bossbar.BossBar;
 import net.kyori.adventure.title.Title;
@@ -44,13 +52,17 @@ import rocks.gravili.notquests.paper.events.notquests.QuestCompletedEvent;
 import rocks.gravili.notquests.paper.events.notquests.QuestFinishAcceptEvent;
 import rocks.gravili.notquests.paper.events.notquests.QuestPointsChangeEvent;
 import rocks.gravili.notquests.paper.managers.npc.NQNPC;
+import rocks.gravili.notquests.paper.placeholders.PlaceholderResultCache;
 import rocks.gravili.notquests.paper.structs.actions.Action;
 import rocks.gravili.notquests.paper.structs.conditions.Condition;
 import rocks.gravili.notquests.paper.structs.conditions.Condition.ConditionResult;
 import rocks.gravili.notquests.paper.structs.objectives.ConditionObjective;
 import rocks.gravili.notquests.paper.structs.objectives.NumberVariableObjective;
+import rocks.gravili.notquests.paper.structs.objectives.Objective;
 import rocks.gravili.notquests.paper.structs.objectives.OtherQuestObjective;
+import rocks.gravili.notquests.paper.structs.objectives.ReachLocationObjective;
 import rocks.gravili.notquests.paper.structs.triggers.ActiveTrigger;
+import rocks.gravili.notquests.paper.structs.variables.VariableValueCache;
 
 /**
  * The QuestPlayer Object is initialized for every player, once they join the server - loading its data from the database.
@@ -66,19 +78,25 @@ public class QuestPlayer {
 
     private final NotQuests main;
 
+    //Identifiers of the variables which read tags
+    private static final List<String> TAG_VARIABLE_TYPES = List.of("TagBoolean", "TagInteger", "TagFloat", "TagDouble", "TagString");
+
     private final UUID uuid;
 
 
     private final CopyOnWriteArrayList<ActiveQuest> activeQuests;
     private final ArrayList<ActiveQuest> questsToComplete;
     private final ArrayList<ActiveQuest> questsToRemove;
-    private final ArrayList<CompletedQuest> completedQuests; //has to accept multiple entries of the same value
+    private final ModificationCountingArrayList<CompletedQuest> completedQuests; //has to accept multiple entries of the same value
 
-    private final ArrayList<FailedQuest> failedQuests; //has to accept multiple entries of the same value
+    private final ModificationCountingArrayList<FailedQuest> failedQuests; //has to accept multiple entries of the same value
 
     private final HashMap<String, Location> locationsAndBeacons, activeLocationAndBeams;
     //Tags
     private final HashMap<String, Object> tags;
+    //Identifiers of tags which changed since they were last saved. Setting a tag to null removes it
+    private final Set<String> dirtyTags = ConcurrentHashMap.newKeySet();
+    private volatile boolean tagsPersisted = false; //If false, all tags of this profile will be rewritten on the next save
     private long questPoints;
     private ActiveObjective trackingObjective;
     private BossBar bossBar;
@@ -89,13 +107,55 @@ public class QuestPlayer {
     private Player player;
 
     private boolean currentlyLoading = true;
+    //While true, active quests are added without updating which objectives are unlocked, and active objectives don't calculate their progress needed yet.
+    //Used while QuestPlayers are built off the main thread when loading all players (see QuestPlayerManager#finishBuildingQuestPlayer)
+    private volatile boolean deferringObjectiveUpdates = false;
 
 
 
     private boolean finishedLoadingGeneralData = false;
     private boolean finishedLoadingTags = false;
 
-    private final ArrayList<Consumer<ActiveObjective>> queuedObjectivesToCheck = new ArrayList<>();
+    private final ArrayList<QueuedObjectiveCheck<?>> queuedObjectivesToCheck = new ArrayList<>();
+
+    //All unlocked active objectives (including sub-objectives) of this player, indexed by their objective class and all of its super classes.
+    //This way, events only have to look at the objectives which can actually react to them.
+    private final ConcurrentHashMap<Class<?>, CopyOnWriteArraySet<ActiveObjective>> unlockedActiveObjectivesByType = new ConcurrentHashMap<>();
+    //Whether this QuestPlayer is the active profile of an online player. Only then its unlocked active objectives count towards the ObjectiveManager's live active objective counts
+    private boolean live = false;
+
+    //Variables which publish their changes (see Variable#isChangePublished) and changed since condition and number variable objectives were last updated
+    private final Set<String> changedVariables = ConcurrentHashMap.newKeySet();
+    //Unlocked condition and number variable objectives which need to be checked in the next update, regardless of which variables changed
+    private final Set<ActiveObjective> activeObjectivesToCheck = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    //Active and completed quests are compared with the last update to find out whether the ActiveQuests and CompletedQuests variables changed
+    private int lastActiveQuestsHash = 0;
+    private int lastCompletedQuestsCount = -1;
+
+    //Per-quest statistics (lowercase quest identifier => history), so limits and cooldowns don't have to go through all active, completed and failed quests
+    private final HashMap<String, QuestHistory> questHistories = new HashMap<>();
+    //Set whenever quests are removed from the active, completed or failed quests, so the histories are rebuilt on the next read. Added quests are recorded directly
+    private boolean questHistoriesOutdated = true;
+    //Modification counts of the completed and failed quest lists the histories currently represent. If the lists were changed through
+    //getCompletedQuests() or getFailedQuests(), they don't match anymore and the histories are rebuilt
+    private int questHistoriesCompletedQuestsModificationCount = 0;
+    private int questHistoriesFailedQuestsModificationCount = 0;
+
+    //Cached values of variables which are expensive to get (see Variable#getCacheability)
+    private final VariableValueCache variableValueCache = new VariableValueCache();
+    private final PlaceholderResultCache placeholderResultCache = new PlaceholderResultCache();
+
+    //Dirty tracking, so saving only has to write what changed since the last save (see QuestPlayerManager#createPlayerDataSnapshots)
+    private volatile boolean persisted = false; //If false, all rows of this QuestPlayer will be rewritten on the next save
+    private volatile boolean questPointsDirty = true;
+    private volatile boolean profileDataDirty = true;
+    //What the database currently contains. Compared by identity, as completed and failed quests can contain multiple entries of the same quest
+    private final Set<ActiveQuest> persistedActiveQuests = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    private final Set<CompletedQuest> persistedCompletedQuests = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    private final Set<FailedQuest> persistedFailedQuests = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    //Modification counts of the completed and failed quest lists when they were last saved. If they don't match anymore, the lists changed since then
+    private int persistedCompletedQuestsModificationCount = -1;
+    private int persistedFailedQuestsModificationCount = -1;
 
 
     public QuestPlayer(final NotQuests main, final UUID uuid, final String profile) {
@@ -106,8 +166,8 @@ public class QuestPlayer {
         activeQuests = new CopyOnWriteArrayList<>();
         questsToComplete = new ArrayList<>();
         questsToRemove = new ArrayList<>();
-        completedQuests = new ArrayList<>();
-        failedQuests = new ArrayList<>();
+        completedQuests = new ModificationCountingArrayList<>();
+        failedQuests = new ModificationCountingArrayList<>();
 
         locationsAndBeacons = new HashMap<>();
         activeLocationAndBeams = new HashMap<>();
@@ -140,7 +200,66 @@ public class QuestPlayer {
     }
 
     public void setTagValue(final String tagIdentifier, final Object newValue) {
-        tags.put(tagIdentifier.toLowerCase(Locale.ROOT), newValue);
+        final String lowercaseTagIdentifier = tagIdentifier.toLowerCase(Locale.ROOT);
+        tags.put(lowercaseTagIdentifier, newValue);
+        dirtyTags.add(lowercaseTagIdentifier);
+        markChanged();
+        publishTagVariableChanges();
+    }
+
+    private void publishTagVariableChanges() {
+        //The tag variables don't know which tag a condition reads, so any tag change re-checks all objectives depending on tags
+        for (final String tagVariableType : TAG_VARIABLE_TYPES) {
+            publishVariableChange(tagVariableType);
+        }
+    }
+
+    /**
+     * Marks the variable as changed for this player, so condition and number variable objectives depending on it are checked in the next update.
+     *
+     * @param variableType identifier of the variable which changed
+     */
+    public void publishVariableChange(final String variableType) {
+        if (variableType != null) {
+            changedVariables.add(variableType);
+            variableValueCache.invalidate(variableType);
+            placeholderResultCache.invalidate();
+        }
+    }
+
+    public final VariableValueCache getVariableValueCache() {
+        return variableValueCache;
+    }
+
+    public final PlaceholderResultCache getPlaceholderResultCache() {
+        return placeholderResultCache;
+    }
+
+    /**
+     * Sets a tag value which was just loaded from the database, so it's not marked as changed.
+     */
+    public void setLoadedTagValue(final String tagIdentifier, final Object loadedValue) {
+        tags.put(tagIdentifier.toLowerCase(Locale.ROOT), loadedValue);
+    }
+
+    /**
+     * Called once the tags have been loaded from the database. That can happen after the QuestPlayer has been published,
+     * so values of the tag variables which have been cached before are outdated, and objectives depending on tags have to be checked again.
+     */
+    public void onTagsLoaded() {
+        publishTagVariableChanges();
+    }
+
+    public final Set<String> getDirtyTags() {
+        return dirtyTags;
+    }
+
+    public final boolean isTagsPersisted() {
+        return tagsPersisted;
+    }
+
+    public void setTagsPersisted(final boolean tagsPersisted) {
+        this.tagsPersisted = tagsPersisted;
     }
 
     public final HashMap<String, Object> getTags(){
@@ -332,16 +451,7 @@ public class QuestPlayer {
 
     public final String getCooldownFormatted(final Quest quest) {
 
-        long mostRecentCompleteTime = 0;
-
-
-        for (final CompletedQuest completedQuest : getCompletedQuests()) {
-            if (completedQuest.getQuest().equals(quest)) {
-                if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-                    mostRecentCompleteTime = completedQuest.getTimeCompleted();
-                }
-            }
-        }
+        final long mostRecentCompleteTime = getQuestHistory(quest).getMostRecentCompleteTime();
 
         final long completeTimeDifference = System.currentTimeMillis() - mostRecentCompleteTime;
         final long completeTimeDifferenceMinutes = TimeUnit.MILLISECONDS.toMinutes(completeTimeDifference);
@@ -400,41 +510,16 @@ public class QuestPlayer {
             ));
         }
 
-        for (ActiveQuest currentActiveQuest : activeQuests) {
-            if (currentActiveQuest.getQuestIdentifier().equals(activeQuest.getQuestIdentifier())) {
-                return main.getLanguageManager().getString("chat.quest-already-accepted", getPlayer());
-            }
+        final QuestHistory questHistory = getQuestHistory(activeQuest.getQuestIdentifier());
+        if (questHistory.isActive()) {
+            return main.getLanguageManager().getString("chat.quest-already-accepted", getPlayer());
         }
-        int completedAmount = 0;
-        long mostRecentCompleteTime = 0;
+        final int completedAmount = questHistory.getCompletedAmount();
+        final long mostRecentCompleteTime = questHistory.getMostRecentCompleteTime();
 
-        int failedAmount = 0;
-        long mostRecentFailTime = 0;
+        final int failedAmount = questHistory.getFailedAmount();
 
-        int acceptedAmount = 0;
-        for (final CompletedQuest completedQuest : getCompletedQuests()) {
-            if (completedQuest.getQuestIdentifier().equals(activeQuest.getQuestIdentifier())) {
-                completedAmount += 1;
-                acceptedAmount += 1;
-                if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-                    mostRecentCompleteTime = completedQuest.getTimeCompleted();
-                }
-            }
-        }
-        for (final FailedQuest failedQuest : getFailedQuests()) {
-            if (failedQuest.getQuestIdentifier().equals(activeQuest.getQuestIdentifier())) {
-                failedAmount += 1;
-                acceptedAmount += 1;
-                if (failedQuest.getTimeFailed() > mostRecentFailTime) {
-                    mostRecentFailTime = failedQuest.getTimeFailed();
-                }
-            }
-        }
-        for (final ActiveQuest activeQuest2 : getActiveQuests()) {
-            if (activeQuest.getQuestIdentifier().equals(activeQuest2.getQuestIdentifier())) {
-                acceptedAmount += 1;
-            }
-        }
+        final int acceptedAmount = questHistory.getAcceptedAmount();
 
         final long completeTimeDifference = System.currentTimeMillis() - mostRecentCompleteTime;
         final long completeTimeDifferenceMinutes = TimeUnit.MILLISECONDS.toMinutes(completeTimeDifference);
@@ -585,8 +670,11 @@ public class QuestPlayer {
 
 
         activeQuests.add(activeQuest);
+        recordQuestHistory(activeQuest.getQuestIdentifier(), QuestHistory::recordActive, 0, 0);
 
-        activeQuest.updateObjectivesUnlocked(sendUpdateObjectivesUnlocked, triggerAcceptQuestTrigger);
+        if (!deferringObjectiveUpdates) {
+            activeQuest.updateObjectivesUnlocked(sendUpdateObjectivesUnlocked, triggerAcceptQuestTrigger);
+        }
 
 
     }
@@ -721,12 +809,13 @@ public class QuestPlayer {
             return;
         }
 
+        unindexActiveObjectives(activeQuest);
         activeQuest.getCompletedObjectives().addAll(activeQuest.getActiveObjectives());
         activeQuest.getActiveObjectives().clear();
 
         questsToComplete.add(activeQuest);
 
-        completedQuests.add(new CompletedQuest(activeQuest.getQuest(), this));
+        addCompletedQuest(new CompletedQuest(activeQuest.getQuest(), this));
 
         final Player player = getPlayer();
         if (player != null) {
@@ -779,7 +868,7 @@ public class QuestPlayer {
             //(Without a ConcurrentModificationException)
             questsToComplete.add(activeQuest);
             //We can safely (without ConcurrentModificationException) add it to the CompletedQuests list already without having to remove it from activeQuests
-            completedQuests.add(new CompletedQuest(activeQuest.getQuest(), this));
+            addCompletedQuest(new CompletedQuest(activeQuest.getQuest(), this));
 
             //Give Quest completion reward & show Quest completion title
             giveReward(activeQuest.getQuest());
@@ -828,6 +917,9 @@ public class QuestPlayer {
 
         if (!questPointsChangeEvent.isCancelled()) {
             this.questPoints = questPointsChangeEvent.getNewQuestPointsAmount();
+            questPointsDirty = true;
+            markChanged();
+            publishVariableChange("QuestPoints");
 
 
             if (notifyPlayer) {
@@ -874,6 +966,104 @@ public class QuestPlayer {
 
 
 
+    public final boolean isPersisted() {
+        return persisted;
+    }
+
+    /**
+     * @param persisted false if the database might not match this QuestPlayer anymore (e.g. after a failed save). All of its data will be rewritten on the next save then.
+     */
+    public void setPersisted(final boolean persisted) {
+        this.persisted = persisted;
+        if (!persisted) {
+            markChanged();
+        }
+    }
+
+    /**
+     * Lets the player data write-behind queue know that this QuestPlayer has changed, so it's saved with the next periodic save.
+     */
+    public void markChanged() {
+        main.getQuestPlayerManager().getPlayerDataSaveQueue().markChanged(this);
+    }
+
+    public final boolean isQuestPointsDirty() {
+        return questPointsDirty;
+    }
+
+    public void setQuestPointsDirty(final boolean questPointsDirty) {
+        this.questPointsDirty = questPointsDirty;
+    }
+
+    public final boolean isProfileDataDirty() {
+        return profileDataDirty;
+    }
+
+    public void setProfileDataDirty(final boolean profileDataDirty) {
+        this.profileDataDirty = profileDataDirty;
+        if (profileDataDirty) {
+            markChanged();
+        }
+    }
+
+    public final Set<ActiveQuest> getPersistedActiveQuests() {
+        return persistedActiveQuests;
+    }
+
+    public final Set<CompletedQuest> getPersistedCompletedQuests() {
+        return persistedCompletedQuests;
+    }
+
+    public final Set<FailedQuest> getPersistedFailedQuests() {
+        return persistedFailedQuests;
+    }
+
+    /**
+     * @return true if this QuestPlayer has changes which have not been saved to the database yet
+     */
+    public final boolean hasUnsavedChanges() {
+        if (!persisted || questPointsDirty || profileDataDirty
+                || completedQuests.getModificationCount() != persistedCompletedQuestsModificationCount
+                || failedQuests.getModificationCount() != persistedFailedQuestsModificationCount
+                || !dirtyTags.isEmpty() || (finishedLoadingTags && !tagsPersisted && !tags.isEmpty())
+                || activeQuests.size() != persistedActiveQuests.size()) {
+            return true;
+        }
+        for (final ActiveQuest activeQuest : activeQuests) {
+            if (!persistedActiveQuests.contains(activeQuest) || activeQuest.isDirtyIncludingChildren()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks everything of this QuestPlayer as being in sync with the database. Called after it has been loaded from or fully written to the database.
+     */
+    public void markPersisted() {
+        questPointsDirty = false;
+        profileDataDirty = false;
+        persistedActiveQuests.clear();
+        for (final ActiveQuest activeQuest : activeQuests) {
+            activeQuest.clearDirtyIncludingChildren();
+            persistedActiveQuests.add(activeQuest);
+        }
+        persistedCompletedQuests.clear();
+        persistedCompletedQuests.addAll(completedQuests);
+        persistedFailedQuests.clear();
+        persistedFailedQuests.addAll(failedQuests);
+        markQuestHistoryListsPersisted();
+        persisted = true;
+    }
+
+    /**
+     * Remembers the current state of the completed and failed quests as saved. Called when they are loaded or snapshotted for saving.
+     */
+    public void markQuestHistoryListsPersisted() {
+        persistedCompletedQuestsModificationCount = completedQuests.getModificationCount();
+        persistedFailedQuestsModificationCount = failedQuests.getModificationCount();
+    }
+
     public final long getQuestPoints() {
         return questPoints;
     }
@@ -888,17 +1078,108 @@ public class QuestPlayer {
 
         sendDebugMessage("Executing removeCompletedQuests");
 
-
+        for (final ActiveQuest activeQuestToComplete : questsToComplete) {
+            unindexActiveObjectives(activeQuestToComplete);
+        }
         activeQuests.removeAll(questsToComplete);
+        invalidateQuestHistories();
 
         questsToComplete.clear();
     }
 
+    /**
+     * Removes the active quest without completing or failing it.
+     *
+     * @param activeQuest the active quest which should be removed
+     */
+    public void removeActiveQuest(final ActiveQuest activeQuest) {
+        if (activeQuests.remove(activeQuest)) {
+            unindexActiveObjectives(activeQuest);
+            invalidateQuestHistories();
+        }
+    }
+
     public void addCompletedQuest(final CompletedQuest completedQuest) {
         completedQuests.add(completedQuest);
+        recordQuestHistory(completedQuest.getQuestIdentifier(), questHistory -> questHistory.recordCompleted(completedQuest.getTimeCompleted()), 1, 0);
     }
     public void addFailedQuest(final FailedQuest failedQuest) {
         failedQuests.add(failedQuest);
+        recordQuestHistory(failedQuest.getQuestIdentifier(), questHistory -> questHistory.recordFailed(failedQuest.getTimeFailed()), 0, 1);
+    }
+
+    /**
+     * Removes the completed quests from the player's quest history (e.g. when a quest is reset).
+     */
+    public void removeFromCompletedQuests(final Collection<CompletedQuest> completedQuestsToRemove) {
+        if (completedQuests.removeAll(completedQuestsToRemove)) {
+            invalidateQuestHistories();
+        }
+    }
+
+    /**
+     * @param questIdentifier identifier of the quest (case-insensitive)
+     * @return how often the player has completed, failed and accepted the quest, and when they did so the last time
+     */
+    public final QuestHistory getQuestHistory(final String questIdentifier) {
+        synchronized (questHistories) {
+            if (questHistoriesOutdated
+                    || questHistoriesCompletedQuestsModificationCount != completedQuests.getModificationCount()
+                    || questHistoriesFailedQuestsModificationCount != failedQuests.getModificationCount()) {
+                rebuildQuestHistories();
+            }
+            return questHistories.getOrDefault(questIdentifier.toLowerCase(Locale.ROOT), QuestHistory.EMPTY);
+        }
+    }
+
+    public final QuestHistory getQuestHistory(final Quest quest) {
+        return getQuestHistory(quest.getIdentifier());
+    }
+
+    private void rebuildQuestHistories() {
+        questHistories.clear();
+        for (final ActiveQuest activeQuest : activeQuests) {
+            questHistories.computeIfAbsent(activeQuest.getQuestIdentifier().toLowerCase(Locale.ROOT), k -> new QuestHistory()).recordActive();
+        }
+        for (final CompletedQuest completedQuest : completedQuests) {
+            questHistories.computeIfAbsent(completedQuest.getQuestIdentifier().toLowerCase(Locale.ROOT), k -> new QuestHistory()).recordCompleted(completedQuest.getTimeCompleted());
+        }
+        for (final FailedQuest failedQuest : failedQuests) {
+            questHistories.computeIfAbsent(failedQuest.getQuestIdentifier().toLowerCase(Locale.ROOT), k -> new QuestHistory()).recordFailed(failedQuest.getTimeFailed());
+        }
+        questHistoriesCompletedQuestsModificationCount = completedQuests.getModificationCount();
+        questHistoriesFailedQuestsModificationCount = failedQuests.getModificationCount();
+        questHistoriesOutdated = false;
+    }
+
+    /**
+     * Records a quest which has just been added to the active, completed or failed quests
+     */
+    private void recordQuestHistory(final String questIdentifier, final Consumer<QuestHistory> record, final int addedCompletedQuests, final int addedFailedQuests) {
+        placeholderResultCache.invalidate();
+        markChanged();
+        synchronized (questHistories) {
+            if (questHistoriesOutdated) { //Will be rebuilt on the next read anyway
+                return;
+            }
+            if (questHistoriesCompletedQuestsModificationCount + addedCompletedQuests != completedQuests.getModificationCount()
+                    || questHistoriesFailedQuestsModificationCount + addedFailedQuests != failedQuests.getModificationCount()) {
+                //The lists have been changed from outside as well
+                questHistoriesOutdated = true;
+                return;
+            }
+            record.accept(questHistories.computeIfAbsent(questIdentifier.toLowerCase(Locale.ROOT), k -> new QuestHistory()));
+            questHistoriesCompletedQuestsModificationCount = completedQuests.getModificationCount();
+            questHistoriesFailedQuestsModificationCount = failedQuests.getModificationCount();
+        }
+    }
+
+    private void invalidateQuestHistories() {
+        placeholderResultCache.invalidate();
+        markChanged();
+        synchronized (questHistories) {
+            questHistoriesOutdated = true;
+        }
     }
 
     public void failQuest(final ActiveQuest activeQuestToFail) {
@@ -908,9 +1189,10 @@ public class QuestPlayer {
 
                 foundActiveQuest.fail();
                 questsToRemove.add(foundActiveQuest);
+                unindexActiveObjectives(foundActiveQuest);
                 final Player player = getPlayer();
 
-                failedQuests.add(new FailedQuest(foundActiveQuest.getQuest(), this));
+                addFailedQuest(new FailedQuest(foundActiveQuest.getQuest(), this));
 
 
                 if (player != null) {
@@ -926,6 +1208,7 @@ public class QuestPlayer {
             }
         }
         activeQuests.removeAll(questsToRemove);
+        invalidateQuestHistories();
         activeQuestsCopy.removeAll(questsToComplete);
 
         questsToComplete.clear();
@@ -934,48 +1217,23 @@ public class QuestPlayer {
     }
 
     public final boolean hasAcceptedQuest(final Quest quest) {
-        for (final ActiveQuest activeQuest : activeQuests) {
-            if (activeQuest.getQuestIdentifier().equalsIgnoreCase(quest.getIdentifier())) {
-                return true;
-            }
-        }
-        return false;
+        return getQuestHistory(quest).isActive();
     }
 
     public final boolean hasCompletedQuest(final Quest quest) {
-        for (final CompletedQuest completedQuest : completedQuests) {
-            if (completedQuest.getQuestIdentifier() .equalsIgnoreCase(quest.getIdentifier())) {
-                return true;
-            }
-        }
-        return false;
+        return getQuestHistory(quest).getCompletedAmount() > 0;
     }
 
     public final boolean hasCompletedQuest(final String questName) {
-        for (final CompletedQuest completedQuest : completedQuests) {
-            if (completedQuest.getQuestIdentifier() .equalsIgnoreCase(questName)) {
-                return true;
-            }
-        }
-        return false;
+        return getQuestHistory(questName).getCompletedAmount() > 0;
     }
 
     public final boolean hasFailedQuest(final Quest quest) {
-        for (final FailedQuest failedQuest : failedQuests) {
-            if (failedQuest.getQuestIdentifier() .equalsIgnoreCase(quest.getIdentifier())) {
-                return true;
-            }
-        }
-        return false;
+        return getQuestHistory(quest).getFailedAmount() > 0;
     }
 
     public final boolean hasFailedQuest(final String questName) {
-        for (final FailedQuest failedQuest : failedQuests) {
-            if (failedQuest.getQuestIdentifier() .equalsIgnoreCase(questName)) {
-                return true;
-            }
-        }
-        return false;
+        return getQuestHistory(questName).getFailedAmount() > 0;
     }
 
 
@@ -1059,18 +1317,43 @@ public class QuestPlayer {
         }
     }
 
+    /**
+     * Checks all unlocked condition objectives and updates the progress of all unlocked number variable objectives. Objectives which only
+     * depend on variables publishing their changes are skipped, unless one of those variables changed or they were just unlocked.
+     * Objectives depending on any other variable are checked every time.
+     */
     public void updateConditionObjectives(final Player player) {
         //sendDebugMessage("updateConditionObjectives was called...");
         if (!isHasActiveConditionObjectives() && !isHasActiveVariableObjectives()) {
             //sendDebugMessage("   No active objectives to update.");
+            changedVariables.clear();
             return;
         }
+
+        final int activeQuestsHash = activeQuests.hashCode();
+        if (activeQuestsHash != lastActiveQuestsHash) {
+            lastActiveQuestsHash = activeQuestsHash;
+            publishVariableChange("ActiveQuests");
+        }
+        final int completedQuestsCount = completedQuests.size();
+        if (completedQuestsCount != lastCompletedQuestsCount) {
+            lastCompletedQuestsCount = completedQuestsCount;
+            publishVariableChange("CompletedQuests");
+        }
+
+        //Changes published while checking (e.g. by actions of completed objectives) are kept for the next update
+        final Set<String> changedVariablesToCheck = Set.copyOf(changedVariables);
+        changedVariables.removeAll(changedVariablesToCheck);
+
         for (final ActiveQuest activeQuest : getActiveQuests()) {
             for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
                 if (activeObjective.getObjective() instanceof final ConditionObjective conditionObjective) {
                     if (conditionObjective.isCheckOnlyWhenCorrespondingVariableValueChanged() || !activeObjective.isUnlocked()) {
                         continue;
                     }
+                    if (!activeObjectivesToCheck.remove(activeObjective) && !isAnyVariableChanged(conditionObjective.getPublishedVariableDependencies(), changedVariablesToCheck)) {
+                        continue;
+                    }
 
                     final Condition condition = conditionObjective.getCondition();
                     if (condition == null) {
@@ -1081,12 +1364,19 @@ public class QuestPlayer {
                     }
 
                     activeObjective.addProgress(1);
+                    //Progress is added on every update while the condition is fulfilled, so it's checked again next time even if nothing changes
+                    if (activeObjective.getCurrentProgress() < activeObjective.getProgressNeeded()) {
+                        activeObjectivesToCheck.add(activeObjective);
+                    }
 
                 } else if(activeObjective.getObjective() instanceof final NumberVariableObjective numberVariableObjective) {
                     //sendDebugMessage("Found numbervariableobjective to update!");
                     if (numberVariableObjective.isCheckOnlyWhenCorrespondingVariableValueChanged() || !activeObjective.isUnlocked()) {
                         continue;
                     }
+                    if (!activeObjectivesToCheck.remove(activeObjective) && !isAnyVariableChanged(numberVariableObjective.getPublishedVariableDependencies(), changedVariablesToCheck)) {
+                        continue;
+                    }
                     numberVariableObjective.updateProgress(activeObjective);
                 }
             }
@@ -1095,8 +1385,28 @@ public class QuestPlayer {
         removeCompletedQuests();
     }
 
+    /**
+     * @param publishedVariableDependencies the variables an objective depends on, or null if it needs to be checked every time
+     * @return true if the objective needs to be checked
+     */
+    private boolean isAnyVariableChanged(final Set<String> publishedVariableDependencies, final Set<String> changedVariablesToCheck) {
+        if (publishedVariableDependencies == null) {
+            return true;
+        }
+        if (changedVariablesToCheck.isEmpty()) {
+            return false;
+        }
+        for (final String variableDependency : publishedVariableDependencies) {
+            if (changedVariablesToCheck.contains(variableDependency)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 
     public void onQuit(final Player player){
+        setLive(false);
         if (!getActiveQuests().isEmpty()) {
             for (final ActiveQuest activeQuest : getActiveQuests()) {
 
@@ -1117,6 +1427,7 @@ public class QuestPlayer {
 
     public void onJoin(final Player player){
         this.player = player;
+        setLive(main.getQuestPlayerManager().getActiveQuestPlayer(uuid) == this);
     }
 
     public void onJoinAsync(final Player player){
@@ -1132,6 +1443,14 @@ public class QuestPlayer {
         this.currentlyLoading = currentlyLoading;
     }
 
+    public final boolean isDeferringObjectiveUpdates() {
+        return deferringObjectiveUpdates;
+    }
+
+    public void setDeferringObjectiveUpdates(final boolean deferringObjectiveUpdates) {
+        this.deferringObjectiveUpdates = deferringObjectiveUpdates;
+    }
+
     public final boolean isFinishedLoadingGeneralData() {
         return finishedLoadingGeneralData;
     }
@@ -1149,41 +1468,176 @@ public class QuestPlayer {
     }
 
 
+    /**
+     * Queues a check which will be run for every unlocked active objective of this player once checkQueuedObjectives() is called.
+     * Prefer {@link #queueObjectiveCheck(Class, BiConsumer)} if the check only cares about a specific objective type.
+     *
+     * @param runForEachObjective the check which should be run for every unlocked active objective
+     */
     public void queueObjectiveCheck(final Consumer<ActiveObjective> runForEachObjective){
-        if(getActiveQuests().isEmpty()){
-            return;
-        }
-        queuedObjectivesToCheck.add(runForEachObjective);
+        queueObjectiveCheck(Objective.class, (activeObjective, objective) -> runForEachObjective.accept(activeObjective));
     }
 
-    public void checkForActiveObjective(final ActiveObjective activeObjective){
-        if(!activeObjective.isUnlocked()){
+    /**
+     * Queues a check which will be run once checkQueuedObjectives() is called - but only for the unlocked active objectives
+     * whose objective is an instance of objectiveType. Active objectives of other types are not even looked at.
+     *
+     * @param objectiveType the objective class the check is interested in
+     * @param runForEachObjective the check which should be run for every matching unlocked active objective
+     */
+    public <T extends Objective> void queueObjectiveCheck(final Class<T> objectiveType, final BiConsumer<ActiveObjective, T> runForEachObjective){
+        if(getActiveQuests().isEmpty()){
             return;
         }
-        for(final Consumer<ActiveObjective> runForEachObjective : queuedObjectivesToCheck){
-            runForEachObjective.accept(activeObjective);
-        }
-        if(!activeObjective.getActiveObjectives().isEmpty()){
-            for(final ActiveObjective childActiveObjective : activeObjective.getActiveObjectives()){
-                checkForActiveObjective(childActiveObjective);
-            }
-            activeObjective.removeCompletedObjectives(true);
-        }
+        queuedObjectivesToCheck.add(new QueuedObjectiveCheck<>(objectiveType, runForEachObjective));
     }
+
     public void checkQueuedObjectives(){
         if(queuedObjectivesToCheck.isEmpty()){
             return;
         }
         sendDebugMessage("Checking queued objectives...");
-        for (final ActiveQuest activeQuest : getActiveQuests()) {
-            for (final ActiveObjective activeObjective : activeQuest.getActiveObjectives()) {
-                checkForActiveObjective(activeObjective);
 
+        //Copy them, in case the checks themselves cause new checks to be queued
+        final ArrayList<QueuedObjectiveCheck<?>> queuedObjectivesToCheckCopy = new ArrayList<>(queuedObjectivesToCheck);
+        queuedObjectivesToCheck.clear();
+
+        ArrayList<ActiveObjective> parentActiveObjectivesToClean = null;
+        for (final QueuedObjectiveCheck<?> queuedObjectiveCheck : queuedObjectivesToCheckCopy) {
+            final CopyOnWriteArraySet<ActiveObjective> unlockedActiveObjectives = unlockedActiveObjectivesByType.get(queuedObjectiveCheck.objectiveType());
+            if (unlockedActiveObjectives == null) {
+                continue;
+            }
+            for (final ActiveObjective activeObjective : unlockedActiveObjectives) {
+                if (!activeObjective.isUnlockedIncludingParents()) {
+                    continue;
+                }
+                queuedObjectiveCheck.run(activeObjective);
+
+                if (activeObjective.getActiveObjectiveHolder() instanceof final ActiveObjective parentActiveObjective) {
+                    if (parentActiveObjectivesToClean == null) {
+                        parentActiveObjectivesToClean = new ArrayList<>();
+                    }
+                    if (!parentActiveObjectivesToClean.contains(parentActiveObjective)) {
+                        parentActiveObjectivesToClean.add(parentActiveObjective);
+                    }
+                }
             }
+        }
+
+        if (parentActiveObjectivesToClean != null) {
+            //Deepest first, so completed sub-objectives can complete their parents
+            parentActiveObjectivesToClean.sort((first, second) -> Integer.compare(second.getLevel(), first.getLevel()));
+            for (final ActiveObjective parentActiveObjective : parentActiveObjectivesToClean) {
+                parentActiveObjective.removeCompletedObjectives(true);
+            }
+        }
+        for (final ActiveQuest activeQuest : getActiveQuests()) {
             activeQuest.removeCompletedObjectives(true);
         }
         removeCompletedQuests();
+    }
 
-        queuedObjectivesToCheck.clear();
+    public void indexUnlockedActiveObjective(final ActiveObjective activeObjective) {
+        placeholderResultCache.invalidate();
+        if (activeObjective.getObjective() instanceof ConditionObjective || activeObjective.getObjective() instanceof NumberVariableObjective) {
+            //Checked in the next update, no matter which variables changed
+            activeObjectivesToCheck.add(activeObjective);
+        }
+        synchronized (unlockedActiveObjectivesByType) {
+            Class<?> objectiveClass = activeObjective.getObjective().getClass();
+            while (objectiveClass != null && Objective.class.isAssignableFrom(objectiveClass)) {
+                if (unlockedActiveObjectivesByType.computeIfAbsent(objectiveClass, k -> new CopyOnWriteArraySet<>()).add(activeObjective) && live) {
+                    main.getObjectiveManager().changeLiveActiveObjectiveCount(objectiveClass, 1);
+                    if (objectiveClass == ReachLocationObjective.class) {
+                        main.getObjectiveManager().getReachLocationRegionIndex().addRegion((ReachLocationObjective) activeObjective.getObjective());
+                    }
+                }
+                objectiveClass = objectiveClass.getSuperclass();
+            }
+        }
+    }
+
+    public void unindexActiveObjective(final ActiveObjective activeObjective) {
+        placeholderResultCache.invalidate();
+        activeObjectivesToCheck.remove(activeObjective);
+        synchronized (unlockedActiveObjectivesByType) {
+            Class<?> objectiveClass = activeObjective.getObjective().getClass();
+            while (objectiveClass != null && Objective.class.isAssignableFrom(objectiveClass)) {
+                final CopyOnWriteArraySet<ActiveObjective> unlockedActiveObjectives = unlockedActiveObjectivesByType.get(objectiveClass);
+                if (unlockedActiveObjectives != null && unlockedActiveObjectives.remove(activeObjective) && live) {
+                    main.getObjectiveManager().changeLiveActiveObjectiveCount(objectiveClass, -1);
+                    if (objectiveClass == ReachLocationObjective.class) {
+                        main.getObjectiveManager().getReachLocationRegionIndex().removeRegion((ReachLocationObjective) activeObjective.getObjective());
+                    }
+                }
+                objectiveClass = objectiveClass.getSuperclass();
+            }
+        }
+    }
+
+    public final boolean isLive() {
+        return live;
+    }
+
+    /**
+     * Sets whether this QuestPlayer is the active profile of an online player. Live QuestPlayers add their unlocked active
+     * objectives to the ObjectiveManager's live active objective counts, so event listeners know which objective types they need to handle.
+     *
+     * @param live if this QuestPlayer should be counted as live
+     */
+    public void setLive(final boolean live) {
+        synchronized (unlockedActiveObjectivesByType) {
+            if (this.live == live) {
+                return;
+            }
+            this.live = live;
+            for (final Map.Entry<Class<?>, CopyOnWriteArraySet<ActiveObjective>> entry : unlockedActiveObjectivesByType.entrySet()) {
+                main.getObjectiveManager().changeLiveActiveObjectiveCount(entry.getKey(), live ? entry.getValue().size() : -entry.getValue().size());
+            }
+            final CopyOnWriteArraySet<ActiveObjective> reachLocationObjectives = unlockedActiveObjectivesByType.get(ReachLocationObjective.class);
+            if (reachLocationObjectives != null) {
+                for (final ActiveObjective activeObjective : reachLocationObjectives) {
+                    if (live) {
+                        main.getObjectiveManager().getReachLocationRegionIndex().addRegion((ReachLocationObjective) activeObjective.getObjective());
+                    } else {
+                        main.getObjectiveManager().getReachLocationRegionIndex().removeRegion((ReachLocationObjective) activeObjective.getObjective());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all active objectives of the holder, including their sub-objectives, from the unlocked active objective index.
+     * This needs to be called whenever they are removed from the holder or the holder itself is removed.
+     *
+     * @param activeObjectiveHolder the active quest or active objective whose active objectives should be removed from the index
+     */
+    public void unindexActiveObjectives(final ActiveObjectiveHolder activeObjectiveHolder) {
+        for (final ActiveObjective activeObjective : activeObjectiveHolder.getActiveObjectives()) {
+            unindexActiveObjective(activeObjective);
+            unindexActiveObjectives(activeObjective);
+        }
+    }
+
+    public final Set<ActiveObjective> getUnlockedActiveObjectives(final Class<? extends Objective> objectiveType) {
+        final CopyOnWriteArraySet<ActiveObjective> unlockedActiveObjectives = unlockedActiveObjectivesByType.get(objectiveType);
+        return unlockedActiveObjectives != null ? Collections.unmodifiableSet(unlockedActiveObjectives) : Collections.emptySet();
+    }
+
+    /**
+     * Exposes how often the list has been structurally modified, so the quest histories notice any change - even if it doesn't change the size.
+     */
+    private static final class ModificationCountingArrayList<E> extends ArrayList<E> {
+        int getModificationCount() {
+            return modCount;
+        }
+    }
+
+    private record QueuedObjectiveCheck<T extends Objective>(Class<T> objectiveType, BiConsumer<ActiveObjective, T> runForEachObjective) {
+        void run(final ActiveObjective activeObjective) {
+            runForEachObjective.accept(activeObjective, objectiveType.cast(activeObjective.getObjective()));
+        }
     }
 }
@@ -119,6 +119,17 @@ public abstract class Action {
     return false;
   }
 
+  /**
+   * Actions can change pretty much anything about the player (items, quests, ...), so variable values cached for this tick are cleared afterwards
+   */
+  private void executeAndInvalidateVariableValues(final QuestPlayer questPlayer, final Object... objects) {
+    executeInternally(questPlayer, objects);
+    if (questPlayer != null) {
+      questPlayer.getVariableValueCache().invalidateAll();
+      questPlayer.getPlaceholderResultCache().invalidate();
+    }
+  }
+
   public void execute(final QuestPlayer questPlayer, final int delayOverride, Object... objects) {
     if (main.getDataManager().isDisabled()) {
       return;
@@ -129,10 +140,10 @@ public abstract class Action {
 
     if(Bukkit.isPrimaryThread() || canExecuteAsync()) {
       if(getExecutionDelay() == -1 && delayOverride == -1){
-        executeInternally(questPlayer, objects);
+        executeAndInvalidateVariableValues(questPlayer, objects);
       }else{
         final long delayToUse = delayOverride == -1 ? getExecutionDelay()/50 : delayOverride/50;
-        Bukkit.getScheduler().runTaskLater(main.getMain(), () -> executeInternally(questPlayer, objects), delayToUse);
+        Bukkit.getScheduler().runTaskLater(main.getMain(), () -> executeAndInvalidateVariableValues(questPlayer, objects), delayToUse);
         return;
       }
     } else {
@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -358,4 +359,8 @@ public class BooleanCondition extends Condition {
         this.additionalBooleanArguments = additionalBooleanArguments;
     }
 
+    @Override
+    public Set<String> getVariableDependencies() {
+        return collectVariableDependencies(variableName, numberExpression, additionalNumberArguments, additionalBooleanArguments);
+    }
 }
@@ -19,6 +19,9 @@
 package rocks.gravili.notquests.paper.structs.conditions;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -268,6 +271,40 @@ public abstract class Condition {
     this.hidden = hidden;
   }
 
+  /**
+   * Declares which NotQuests variables the result of this condition depends on. ConditionObjectives only re-check their condition
+   * if one of those variables published a change for the player (see QuestPlayer#publishVariableChange), or if one of them
+   * does not publish its changes (e.g. the player's position). Those are still checked regularly.
+   *
+   * @return the identifiers of all variables this condition reads, or null if it's unknown (the condition is then checked regularly)
+   */
+  public @Nullable Set<String> getVariableDependencies() {
+    return null;
+  }
+
+  /**
+   * @return the variable itself, plus all variables used in the additional arguments and expressions
+   */
+  @SafeVarargs
+  protected final Set<String> collectVariableDependencies(final String variableName, final @Nullable NumberExpression numberExpression, final @Nullable Map<String, NumberExpression>... additionalArguments) {
+    final HashSet<String> variableDependencies = new HashSet<>();
+    if (variableName != null) {
+      variableDependencies.add(variableName);
+    }
+    if (numberExpression != null) {
+      variableDependencies.addAll(numberExpression.getVariableIdentifiers());
+    }
+    for (final Map<String, NumberExpression> additionalArgumentsMap : additionalArguments) {
+      if (additionalArgumentsMap == null) {
+        continue;
+      }
+      for (final NumberExpression additionalArgument : additionalArgumentsMap.values()) {
+        variableDependencies.addAll(additionalArgument.getVariableIdentifiers());
+      }
+    }
+    return variableDependencies;
+  }
+
   public record ConditionResult(boolean fulfilled, String message) {
 
   }
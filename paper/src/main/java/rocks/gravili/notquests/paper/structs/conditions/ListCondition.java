@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -377,5 +378,8 @@ public class ListCondition extends Condition {
         this.additionalBooleanArguments = additionalBooleanArguments;
     }
 
-
+    @Override
+    public Set<String> getVariableDependencies() {
+        return collectVariableDependencies(variableName, null, additionalNumberArguments, additionalBooleanArguments);
+    }
 }
@@ -26,6 +26,7 @@ import cloud.commandframework.paper.PaperCommandManager;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -419,4 +420,9 @@ public class NumberCondition extends Condition {
     public void setVariableName(final String variableName) {
         this.variableName = variableName;
     }
+
+    @Override
+    public Set<String> getVariableDependencies() {
+        return collectVariableDependencies(variableName, numberExpression, additionalNumberArguments, additionalBooleanArguments);
+    }
 }
@@ -26,6 +26,7 @@ import cloud.commandframework.paper.PaperCommandManager;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -336,5 +337,8 @@ public class StringCondition extends Condition {
         this.additionalBooleanArguments = additionalBooleanArguments;
     }
 
-
+    @Override
+    public Set<String> getVariableDependencies() {
+        return collectVariableDependencies(variableName, null, additionalNumberArguments, additionalBooleanArguments);
+    }
 }
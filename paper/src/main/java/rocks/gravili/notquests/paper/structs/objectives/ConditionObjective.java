@@ -21,6 +21,7 @@ package rocks.gravili.notquests.paper.structs.objectives;
 import cloud.commandframework.ArgumentDescription;
 import cloud.commandframework.Command;
 import cloud.commandframework.paper.PaperCommandManager;
+import java.util.Set;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -33,6 +34,9 @@ import rocks.gravili.notquests.paper.structs.conditions.Condition;
 public class ConditionObjective extends Objective {
   private Condition condition = null;
   private boolean checkOnlyWhenCorrespondingVariableValueChanged = false;
+  //Variables the condition depends on, if all of them publish their changes. Null if the condition needs to be checked regularly
+  private Set<String> publishedVariableDependencies = null;
+  private boolean publishedVariableDependenciesResolved = false;
 
   public ConditionObjective(NotQuests main) {
     super(main);
@@ -84,6 +88,18 @@ public class ConditionObjective extends Objective {
 
   public void setCondition(final Condition condition) {
     this.condition = condition;
+    publishedVariableDependenciesResolved = false;
+  }
+
+  /**
+   * @return the variables the condition depends on, if all of them publish their changes. Null if the condition needs to be checked regularly
+   */
+  public final @Nullable Set<String> getPublishedVariableDependencies() {
+    if (!publishedVariableDependenciesResolved) {
+      publishedVariableDependencies = condition != null ? main.getVariablesManager().getPublishedVariableDependencies(condition.getVariableDependencies()) : null;
+      publishedVariableDependenciesResolved = true;
+    }
+    return publishedVariableDependencies;
   }
 
   public final boolean isCheckOnlyWhenCorrespondingVariableValueChanged() {
@@ -125,6 +141,7 @@ public class ConditionObjective extends Objective {
   public void load(FileConfiguration configuration, String initialPath) {
     String conditionName = configuration.getString(initialPath + ".specifics.condition", "");
     condition = main.getConditionsYMLManager().getCondition(conditionName);
+    publishedVariableDependenciesResolved = false;
     if (condition == null) {
       main.getLogManager()
           .warn(
@@ -7,7 +7,9 @@ import cloud.commandframework.arguments.standard.StringArgument;
 import cloud.commandframework.paper.PaperCommandManager;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -29,6 +31,9 @@ public class NumberVariableObjective extends Objective { // TODO: Not done yet
   private HashMap<String, NumberExpression> additionalBooleanArguments;
   private Variable<?> cachedVariable;
   private boolean checkOnlyWhenCorrespondingVariableValueChanged = false;
+  //Variables the progress depends on, if all of them publish their changes. Null if the progress needs to be updated regularly
+  private Set<String> publishedVariableDependencies = null;
+  private boolean publishedVariableDependenciesResolved = false;
 
   public NumberVariableObjective(NotQuests main) {
     super(main);
@@ -243,6 +248,7 @@ public class NumberVariableObjective extends Objective { // TODO: Not done yet
     checkOnlyWhenCorrespondingVariableValueChanged =
         configuration.getBoolean(
             ".specifics.checkOnlyWhenCorrespondingVariableValueChanged", false);
+    publishedVariableDependenciesResolved = false;
   }
 
   public final String getMathOperator() {
@@ -259,6 +265,30 @@ public class NumberVariableObjective extends Objective { // TODO: Not done yet
 
   public void setVariableName(final String variableName) {
     this.variableName = variableName;
+    publishedVariableDependenciesResolved = false;
+  }
+
+  /**
+   * @return the variable and all variables used in its arguments, if all of them publish their changes. Null if the progress needs to be updated regularly
+   */
+  public final @Nullable Set<String> getPublishedVariableDependencies() {
+    if (!publishedVariableDependenciesResolved) {
+      final HashSet<String> variableDependencies = new HashSet<>();
+      variableDependencies.add(variableName);
+      if (additionalNumberArguments != null) {
+        for (final NumberExpression numberExpression : additionalNumberArguments.values()) {
+          variableDependencies.addAll(numberExpression.getVariableIdentifiers());
+        }
+      }
+      if (additionalBooleanArguments != null) {
+        for (final NumberExpression numberExpression : additionalBooleanArguments.values()) {
+          variableDependencies.addAll(numberExpression.getVariableIdentifiers());
+        }
+      }
+      publishedVariableDependencies = variableName != null ? main.getVariablesManager().getPublishedVariableDependencies(variableDependencies) : null;
+      publishedVariableDependenciesResolved = true;
+    }
+    return publishedVariableDependencies;
   }
 
   private void setAdditionalStringArguments(HashMap<String, String> additionalStringArguments) {
@@ -0,0 +1,219 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2021-2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.objectives;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Chunk-keyed grid of the regions of all ReachLocationObjectives which are currently needed by an
+ * unlocked active objective of an online player. Regions are reference counted, so a region which
+ * is needed by multiple players is only indexed once.
+ *
+ * <p>Regions covering more than {@link #MAX_CELLS_PER_REGION} chunk columns are not put into the
+ * grid, since that would create and copy an entry for every single chunk column. They are kept in a
+ * small list instead, which is checked on every lookup.
+ *
+ * <p>Lookups are done on the main thread (PlayerMoveEvent), while regions can be added or removed
+ * from any thread (e.g. while player data is loading).
+ */
+public class ReachLocationRegionIndex {
+  private static final ReachLocationObjective[] EMPTY = new ReachLocationObjective[0];
+  //32 x 32 chunks
+  private static final long MAX_CELLS_PER_REGION = 1024;
+
+  //World UID => chunk key => regions overlapping that chunk column
+  private final ConcurrentHashMap<UUID, ConcurrentHashMap<Long, ReachLocationObjective[]>> cellsByWorld;
+  //Regions whose world is unknown. Those are checked in every world, like before
+  private final ConcurrentHashMap<Long, ReachLocationObjective[]> cellsWithoutWorld;
+  //Regions which are too big for the grid. Replaced instead of modified, like the cells
+  private volatile ReachLocationObjective[] alwaysCheckedRegions = EMPTY;
+
+  private final HashMap<ReachLocationObjective, Integer> referenceCounts;
+
+  //Increased on every structural change, so cached lookups know when they are stale
+  private volatile int version = 0;
+
+  //Per-player cache of the last looked up cell. Only accessed from the main thread
+  private final HashMap<UUID, CachedCell> lastCells;
+
+  public ReachLocationRegionIndex() {
+    cellsByWorld = new ConcurrentHashMap<>();
+    cellsWithoutWorld = new ConcurrentHashMap<>();
+    referenceCounts = new HashMap<>();
+    lastCells = new HashMap<>();
+  }
+
+  public static long getCellKey(final int chunkX, final int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  public synchronized void addRegion(final ReachLocationObjective reachLocationObjective) {
+    if (reachLocationObjective.getMinLocation() == null
+        || reachLocationObjective.getMaxLocation() == null) {
+      return;
+    }
+    final int referenceCount = referenceCounts.merge(reachLocationObjective, 1, Integer::sum);
+    if (referenceCount == 1) {
+      updateCells(reachLocationObjective, true);
+    }
+  }
+
+  public synchronized void removeRegion(final ReachLocationObjective reachLocationObjective) {
+    final Integer referenceCount = referenceCounts.get(reachLocationObjective);
+    if (referenceCount == null) {
+      return;
+    }
+    if (referenceCount <= 1) {
+      referenceCounts.remove(reachLocationObjective);
+      updateCells(reachLocationObjective, false);
+    } else {
+      referenceCounts.put(reachLocationObjective, referenceCount - 1);
+    }
+  }
+
+  public final synchronized int getRegionCount() {
+    return referenceCounts.size();
+  }
+
+  private void updateCells(final ReachLocationObjective reachLocationObjective, final boolean add) {
+    final Location minLocation = reachLocationObjective.getMinLocation();
+    final Location maxLocation = reachLocationObjective.getMaxLocation();
+
+    final Map<Long, ReachLocationObjective[]> cells;
+    final World world = minLocation.getWorld();
+    if (world != null) {
+      cells = cellsByWorld.computeIfAbsent(world.getUID(), k -> new ConcurrentHashMap<>());
+    } else {
+      cells = cellsWithoutWorld;
+    }
+
+    final int minChunkX = ((int) Math.floor(Math.min(minLocation.getX(), maxLocation.getX()))) >> 4;
+    final int maxChunkX = ((int) Math.floor(Math.max(minLocation.getX(), maxLocation.getX()))) >> 4;
+    final int minChunkZ = ((int) Math.floor(Math.min(minLocation.getZ(), maxLocation.getZ()))) >> 4;
+    final int maxChunkZ = ((int) Math.floor(Math.max(minLocation.getZ(), maxLocation.getZ()))) >> 4;
+
+    if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) > MAX_CELLS_PER_REGION) {
+      alwaysCheckedRegions = add ? withRegion(alwaysCheckedRegions, reachLocationObjective) : withoutRegion(alwaysCheckedRegions, reachLocationObjective);
+      version++;
+      return;
+    }
+
+    for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+      for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+        final long cellKey = getCellKey(chunkX, chunkZ);
+        //Cells are replaced by new arrays instead of being modified, so readers never see a half-updated cell
+        final ReachLocationObjective[] oldRegions = cells.getOrDefault(cellKey, EMPTY);
+        if (add) {
+          cells.put(cellKey, withRegion(oldRegions, reachLocationObjective));
+        } else {
+          final ReachLocationObjective[] newRegions = withoutRegion(oldRegions, reachLocationObjective);
+          if (newRegions.length == 0) {
+            cells.remove(cellKey);
+          } else {
+            cells.put(cellKey, newRegions);
+          }
+        }
+      }
+    }
+    version++;
+  }
+
+  private static ReachLocationObjective[] withRegion(final ReachLocationObjective[] regions, final ReachLocationObjective reachLocationObjective) {
+    final ReachLocationObjective[] newRegions = new ReachLocationObjective[regions.length + 1];
+    System.arraycopy(regions, 0, newRegions, 0, regions.length);
+    newRegions[regions.length] = reachLocationObjective;
+    return newRegions;
+  }
+
+  private static ReachLocationObjective[] withoutRegion(final ReachLocationObjective[] regions, final ReachLocationObjective reachLocationObjective) {
+    final ArrayList<ReachLocationObjective> newRegions = new ArrayList<>(regions.length);
+    for (final ReachLocationObjective region : regions) {
+      if (region != reachLocationObjective) {
+        newRegions.add(region);
+      }
+    }
+    return newRegions.toArray(EMPTY);
+  }
+
+  /**
+   * Returns all indexed regions overlapping the chunk column of the location, plus all regions which
+   * are too big for the grid. The result of the last
+   * lookup is cached per player, so moving inside the same chunk does not touch the grid again until
+   * the index changes.
+   *
+   * @param playerUUID the player who moved
+   * @param location the new location of the player
+   * @return the candidate regions. Their bounds still need to be checked
+   */
+  public final List<ReachLocationObjective> getRegionsInCell(final UUID playerUUID, final Location location) {
+    final World world = location.getWorld();
+    final UUID worldUID = world != null ? world.getUID() : null;
+    final long cellKey = getCellKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    final int currentVersion = version;
+
+    final CachedCell cachedCell = lastCells.get(playerUUID);
+    if (cachedCell != null
+        && cachedCell.cellKey() == cellKey
+        && cachedCell.version() == currentVersion
+        && (worldUID == null ? cachedCell.worldUID() == null : worldUID.equals(cachedCell.worldUID()))) {
+      return cachedCell.regions();
+    }
+
+    final ArrayList<ReachLocationObjective> regions = new ArrayList<>();
+    if (worldUID != null) {
+      final ConcurrentHashMap<Long, ReachLocationObjective[]> cells = cellsByWorld.get(worldUID);
+      if (cells != null) {
+        regions.addAll(List.of(cells.getOrDefault(cellKey, EMPTY)));
+      }
+    }
+    regions.addAll(List.of(cellsWithoutWorld.getOrDefault(cellKey, EMPTY)));
+    regions.addAll(List.of(alwaysCheckedRegions));
+
+    final List<ReachLocationObjective> regionsInCell = regions.isEmpty() ? List.of() : List.copyOf(regions);
+    lastCells.put(playerUUID, new CachedCell(worldUID, cellKey, currentVersion, regionsInCell));
+    return regionsInCell;
+  }
+
+  public void forgetPlayer(final UUID playerUUID) {
+    lastCells.remove(playerUUID);
+  }
+
+  public static boolean isInRegion(final ReachLocationObjective reachLocationObjective, final Location location) {
+    final Location minLocation = reachLocationObjective.getMinLocation();
+    final Location maxLocation = reachLocationObjective.getMaxLocation();
+    if (minLocation == null || maxLocation == null) {
+      return false;
+    }
+    if (minLocation.getWorld() != null && location.getWorld() != null && !location.getWorld().equals(minLocation.getWorld())) {
+      return false;
+    }
+    return location.getX() >= minLocation.getX() && location.getX() <= maxLocation.getX()
+        && location.getZ() >= minLocation.getZ() && location.getZ() <= maxLocation.getZ()
+        && location.getY() >= minLocation.getY() && location.getY() <= maxLocation.getY();
+  }
+
+  private record CachedCell(UUID worldUID, long cellKey, int version, List<ReachLocationObjective> regions) {}
+}
@@ -46,6 +46,8 @@ public class ActiveTrigger {
 
   public void setCurrentProgress(long newCurrentProgress) {
     this.currentProgress = newCurrentProgress;
+    //Triggers are saved together with the rest of the active quest
+    activeQuest.setDirty(true);
   }
 
   public void addProgress(long progressToAdd) {
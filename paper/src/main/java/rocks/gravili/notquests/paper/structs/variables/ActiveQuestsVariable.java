@@ -90,4 +90,14 @@ public class ActiveQuestsVariable extends Variable<String[]> {
   public String getSingular() {
     return "Active Quest";
   }
+
+  @Override
+  public boolean isChangePublished() {
+    return true;
+  }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
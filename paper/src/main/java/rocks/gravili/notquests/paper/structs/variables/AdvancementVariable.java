@@ -113,4 +113,9 @@ public class AdvancementVariable extends Variable<Boolean> {
   public String getSingular() {
     return "Advancement";
   }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
@@ -124,4 +124,9 @@ public class CompletedObjectiveIDsOfQuestVariable extends Variable<String[]> {
   public String getSingular() {
     return "Completed Objective ID of Quest";
   }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
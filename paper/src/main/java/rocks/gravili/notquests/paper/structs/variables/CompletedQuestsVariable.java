@@ -18,6 +18,7 @@
 
 package rocks.gravili.notquests.paper.structs.variables;
 
+import java.util.ArrayList;
 import java.util.List;
 import rocks.gravili.notquests.paper.NotQuests;
 import rocks.gravili.notquests.paper.structs.CompletedQuest;
@@ -51,6 +52,7 @@ public class CompletedQuestsVariable extends Variable<String[]> {
       return false;
     }
 
+    final ArrayList<CompletedQuest> completedQuestsToRemove = new ArrayList<>();
     for (CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
       boolean foundQuest = false;
       for (int i = 0; i < newValue.length; i++) {
@@ -60,14 +62,15 @@ public class CompletedQuestsVariable extends Variable<String[]> {
         }
       }
       if (!foundQuest) {
-        questPlayer.getCompletedQuests().remove(completedQuest);
+        completedQuestsToRemove.add(completedQuest);
       }
     }
+    questPlayer.removeFromCompletedQuests(completedQuestsToRemove);
 
     for (int i = 0; i < newValue.length; i++) {
       Quest quest = main.getQuestManager().getQuest(newValue[i]);
       if (quest != null && !questPlayer.hasCompletedQuest(quest)) {
-        questPlayer.getCompletedQuests().add(new CompletedQuest(quest, questPlayer));
+        questPlayer.addCompletedQuest(new CompletedQuest(quest, questPlayer));
       }
     }
 
@@ -90,4 +93,14 @@ public class CompletedQuestsVariable extends Variable<String[]> {
   public String getSingular() {
     return "Completed Quest";
   }
+
+  @Override
+  public boolean isChangePublished() {
+    return true;
+  }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
@@ -87,4 +87,9 @@ public class EnderChestVariable extends Variable<ItemStack[]>{
     public String getSingular() {
         return "EnderChest Inventory";
     }
-}
\ No newline at end of file
+
+    @Override
+    public VariableCacheability getCacheability() {
+        return VariableCacheability.PER_TICK;
+    }
+}
@@ -52,4 +52,9 @@ public class FalseVariable extends Variable<Boolean> {
   public String getSingular() {
     return "False";
   }
+
+  @Override
+  public boolean isChangePublished() {
+    return true;
+  }
 }
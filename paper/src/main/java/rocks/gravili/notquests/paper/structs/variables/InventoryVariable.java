@@ -80,4 +80,9 @@ public class InventoryVariable extends Variable<ItemStack[]> {
   public String getSingular() {
     return "Inventory";
   }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
@@ -110,4 +110,9 @@ public class ItemInInventoryEnchantmentsVariable extends Variable<String[]> {
   public String getSingular() {
     return "Enchantment for specific item in inventory";
   }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
@@ -92,4 +92,9 @@ public class MoneyVariable extends Variable<Double> {
   public String getSingular() {
     return "Money";
   }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
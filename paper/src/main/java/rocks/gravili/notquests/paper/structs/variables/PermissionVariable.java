@@ -91,4 +91,9 @@ public class PermissionVariable extends Variable<Boolean> {
   public String getSingular() {
     return "Permission";
   }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
@@ -106,4 +106,9 @@ public class PlayerStatisticVariable extends Variable<Integer> {
     public String getSingular() {
         return "Statistic";
     }
+
+    @Override
+    public VariableCacheability getCacheability() {
+        return VariableCacheability.PER_TICK;
+    }
 }
@@ -67,40 +67,13 @@ public class QuestAbleToAcceptVariable extends Variable<Boolean> {
 
     if (questPlayer != null) {
 
-      int completedAmount = 0;
-      long mostRecentCompleteTime = 0;
-
-      int failedAmount = 0;
-      long mostRecentFailTime = 0;
-
-      int acceptedAmount = 0;
-      for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-        if (completedQuest.getQuest().equals(quest)) {
-          completedAmount += 1;
-          acceptedAmount += 1;
-          if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-            mostRecentCompleteTime = completedQuest.getTimeCompleted();
-          }
-        }
-      }
-      for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-        if (failedQuest.getQuest().equals(quest)) {
-          failedAmount += 1;
-          acceptedAmount += 1;
-          if (failedQuest.getTimeFailed() > mostRecentFailTime) {
-            mostRecentFailTime = failedQuest.getTimeFailed();
-          }
-        }
-      }
-      for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-        if (activeQuest.getQuest().equals(quest)) {
-          acceptedAmount += 1;
-        }
-      }
-
-
+      final QuestHistory questHistory = questPlayer.getQuestHistory(quest);
+      final int completedAmount = questHistory.getCompletedAmount();
+      final long mostRecentCompleteTime = questHistory.getMostRecentCompleteTime();
 
+      final int failedAmount = questHistory.getFailedAmount();
 
+      final int acceptedAmount = questHistory.getAcceptedAmount();
 
       final long completeTimeDifference = System.currentTimeMillis() - mostRecentCompleteTime;
       final long completeTimeDifferenceMinutes =
@@ -149,4 +122,9 @@ public class QuestAbleToAcceptVariable extends Variable<Boolean> {
   public String getSingular() {
     return "Able to accept Quest";
   }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
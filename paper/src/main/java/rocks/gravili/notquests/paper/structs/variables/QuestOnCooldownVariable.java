@@ -24,7 +24,6 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.bukkit.command.CommandSender;
 import rocks.gravili.notquests.paper.NotQuests;
-import rocks.gravili.notquests.paper.structs.CompletedQuest;
 import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
@@ -62,17 +61,7 @@ public class QuestOnCooldownVariable extends Variable<Boolean> {
       return false;
     }
 
-    // int completedAmount = 0; //only needed for maxAccepts
-
-    long mostRecentCompleteTime = 0;
-    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-      if (completedQuest.getQuest().equals(quest)) {
-        // completedAmount += 1;
-        if (completedQuest.getTimeCompleted() > mostRecentCompleteTime) {
-          mostRecentCompleteTime = completedQuest.getTimeCompleted();
-        }
-      }
-    }
+    final long mostRecentCompleteTime = questPlayer.getQuestHistory(quest).getMostRecentCompleteTime();
 
     final long completeTimeDifference = System.currentTimeMillis() - mostRecentCompleteTime;
     final long completeTimeDifferenceMinutes = TimeUnit.MILLISECONDS.toMinutes(completeTimeDifference);
@@ -99,4 +88,9 @@ public class QuestOnCooldownVariable extends Variable<Boolean> {
   public String getSingular() {
     return "Quest on cooldown";
   }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
@@ -69,4 +69,14 @@ public class QuestPointsVariable extends Variable<Long> {
   public String getSingular() {
     return "Quest Point";
   }
+
+  @Override
+  public boolean isChangePublished() {
+    return true;
+  }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.UNTIL_INVALIDATED;
+  }
 }
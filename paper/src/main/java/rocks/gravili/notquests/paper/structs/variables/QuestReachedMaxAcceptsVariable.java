@@ -68,24 +68,7 @@ public class QuestReachedMaxAcceptsVariable extends Variable<Boolean> {
       return true;
     }
 
-    int acceptedAmount = 0; // only needed for maxAccepts
-
-    for (final CompletedQuest completedQuest : questPlayer.getCompletedQuests()) {
-      if (completedQuest.getQuest().equals(quest)) {
-        acceptedAmount += 1;
-      }
-    }
-
-    for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
-      if (activeQuest.getQuest().equals(quest)) {
-        acceptedAmount += 1;
-      }
-    }
-    for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-      if (failedQuest.getQuest().equals(quest)) {
-        acceptedAmount += 1;
-      }
-    }
+    final int acceptedAmount = questPlayer.getQuestHistory(quest).getAcceptedAmount();
 
     return acceptedAmount >= quest.getMaxAccepts();
   }
@@ -109,4 +92,9 @@ public class QuestReachedMaxAcceptsVariable extends Variable<Boolean> {
   public String getSingular() {
     return "Quest reached max accepts";
   }
+
+  @Override
+  public VariableCacheability getCacheability() {
+    return VariableCacheability.PER_TICK;
+  }
 }
@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.List;
 import org.bukkit.command.CommandSender;
 import rocks.gravili.notquests.paper.NotQuests;
-import rocks.gravili.notquests.paper.structs.FailedQuest;
 import rocks.gravili.notquests.paper.structs.Quest;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 
@@ -70,13 +69,7 @@ public class QuestReachedMaxFailsVariable extends Variable<Boolean> {
             return true;
         }
 
-        int failedAmount = 0; // only needed for maxFails
-
-        for (final FailedQuest failedQuest : questPlayer.getFailedQuests()) {
-            if (failedQuest.getQuest().equals(quest)) {
-                failedAmount += 1;
-            }
-        }
+        final int failedAmount = questPlayer.getQuestHistory(quest).getFailedAmount();
 
         return failedAmount >= quest.getMaxFails();
     }
@@ -100,4 +93,9 @@ public class QuestReachedMaxFailsVariable extends Variable<Boolean> {
     public String getSingular() {
         return "Quest reached max fails";
     }
+
+    @Override
+    public VariableCacheability getCacheability() {
+        return VariableCacheability.PER_TICK;
+    }
 }
@@ -52,4 +52,9 @@ public class TrueVariable extends Variable<Boolean> {
   public String getSingular() {
     return "True";
   }
+
+  @Override
+  public boolean isChangePublished() {
+    return true;
+  }
 }
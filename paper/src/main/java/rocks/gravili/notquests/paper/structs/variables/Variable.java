@@ -24,6 +24,8 @@ import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
@@ -57,6 +59,7 @@ public abstract class Variable<T> {
     private HashMap<String, NumberExpression> additionalNumberArguments;
     private HashMap<String, NumberExpression> additionalBooleanArguments;
     private boolean canSetValue = false;
+    private String variableType = null;
 
 
     public Variable(final NotQuests main){
@@ -181,7 +184,7 @@ public abstract class Variable<T> {
 
     public final T getValue(final QuestPlayer questPlayer, final Object... objects){
         if(Bukkit.isPrimaryThread()){
-            return getValueInternally(questPlayer, objects);
+            return getValueCachedOrInternally(questPlayer, objects);
         }else {
             main.getLogManager().severe("Trying to get a variable value from a non-primary thread! This is may not work. Please report this to the developer!");
             T toReturn = null;
@@ -195,6 +198,82 @@ public abstract class Variable<T> {
     }
     public abstract T getValueInternally(final QuestPlayer questPlayer, final Object... objects);
 
+    /**
+     * Determines if the value of this variable can be cached per QuestPlayer (and its additional arguments). Variables which do real work
+     * to get their value (e.g. looking through the inventory) should return PER_TICK, and variables which publish their changes (see
+     * isChangePublished()) can return UNTIL_INVALIDATED.
+     */
+    public VariableCacheability getCacheability() {
+        return VariableCacheability.NEVER;
+    }
+
+    /**
+     * The cache is skipped off the main thread (e.g. for PlaceholderAPI or async loading), as PER_TICK values are keyed on the current server tick.
+     */
+    @SuppressWarnings("unchecked")
+    private T getValueCachedOrInternally(final QuestPlayer questPlayer, final Object... objects) {
+        final VariableCacheability cacheability = getCacheability();
+        if (cacheability == VariableCacheability.NEVER || questPlayer == null || objects.length > 0 || !main.getConfiguration().isVariableValueCacheEnabled() || !Bukkit.isPrimaryThread()) {
+            return getValueInternally(questPlayer, objects);
+        }
+        final String cacheKey = getValueCacheKey();
+        if (cacheKey == null) {
+            return getValueInternally(questPlayer, objects);
+        }
+
+        final VariableValueCache variableValueCache = questPlayer.getVariableValueCache();
+        final VariableValueCache.CachedValue cachedValue = variableValueCache.get(cacheKey, cacheability);
+        if (cachedValue != null) {
+            main.getVariablesManager().countVariableValueCacheHit();
+            return (T) cachedValue.value();
+        }
+        main.getVariablesManager().countVariableValueCacheMiss();
+        final T value = getValueInternally(questPlayer, objects);
+        variableValueCache.put(cacheKey, value);
+        return value;
+    }
+
+    /**
+     * @return the variable type and its additional arguments, or null if the value cannot be cached because one of the arguments depends on other variables
+     */
+    private String getValueCacheKey() {
+        final String variableType = getVariableType();
+        if (variableType == null) {
+            return null;
+        }
+        final StringBuilder cacheKey = new StringBuilder(variableType).append('|');
+        if (additionalStringArguments != null) {
+            for (final Map.Entry<String, String> entry : (additionalStringArguments.size() > 1 ? new TreeMap<>(additionalStringArguments) : additionalStringArguments).entrySet()) {
+                cacheKey.append(entry.getKey()).append('=').append(entry.getValue()).append(',');
+            }
+        }
+        cacheKey.append('|');
+        if (!appendExpressionArguments(cacheKey, additionalNumberArguments)) {
+            return null;
+        }
+        cacheKey.append('|');
+        if (!appendExpressionArguments(cacheKey, additionalBooleanArguments)) {
+            return null;
+        }
+        return cacheKey.toString();
+    }
+
+    /**
+     * @return false if one of the expressions depends on other variables
+     */
+    private boolean appendExpressionArguments(final StringBuilder cacheKey, final Map<String, NumberExpression> arguments) {
+        if (arguments == null) {
+            return true;
+        }
+        for (final Map.Entry<String, NumberExpression> entry : (arguments.size() > 1 ? new TreeMap<>(arguments) : arguments).entrySet()) {
+            if (!entry.getValue().getVariableIdentifiers().isEmpty()) {
+                return false;
+            }
+            cacheKey.append(entry.getKey()).append('=').append(entry.getValue().getRawExpression()).append(',');
+        }
+        return true;
+    }
+
     public final boolean setValue(final T newValue, final QuestPlayer questPlayer, final Object... objects) {
         if (!isCanSetValue()) {
             return false;
@@ -214,6 +293,10 @@ public abstract class Variable<T> {
         }
 
 
+        if (questPlayer != null && result) {
+            questPlayer.publishVariableChange(getVariableType());
+        }
+
         if (questPlayer != null) {
             if(questPlayer.isHasActiveConditionObjectives() || questPlayer.isHasActiveVariableObjectives()){
                 for (final ActiveQuest activeQuest : questPlayer.getActiveQuests()) {
@@ -270,8 +353,21 @@ public abstract class Variable<T> {
 
     public abstract List<String> getPossibleValues(final QuestPlayer questPlayer, final Object... objects);
 
+    /**
+     * If true, every change of this variable's value goes through NotQuests (e.g. tags or quest points) and is published to the
+     * QuestPlayer (see QuestPlayer#publishVariableChange). Condition objectives which only depend on such variables don't need to be
+     * checked regularly - only when one of their variables changed. Variables whose value can change at any time (e.g. the player's
+     * position or inventory) return false, so objectives depending on them are still checked regularly.
+     */
+    public boolean isChangePublished() {
+        return false;
+    }
+
     public final String getVariableType() {
-        return main.getVariablesManager().getVariableType(this.getClass());
+        if (variableType == null) {
+            variableType = main.getVariablesManager().getVariableType(this.getClass());
+        }
+        return variableType;
     }
 
     public abstract String getPlural();
@@ -0,0 +1,37 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.variables;
+
+/**
+ * Determines if and how long the value of a variable can be cached per QuestPlayer (see Variable#getCacheability()).
+ */
+public enum VariableCacheability {
+  /**
+   * The value is always calculated again. Used for variables which are cheap to get, or whose value is different every time (e.g. random numbers)
+   */
+  NEVER,
+  /**
+   * The value is cached until the end of the current server tick
+   */
+  PER_TICK,
+  /**
+   * The value is cached until the variable publishes a change for that QuestPlayer (see Variable#isChangePublished())
+   */
+  UNTIL_INVALIDATED
+}
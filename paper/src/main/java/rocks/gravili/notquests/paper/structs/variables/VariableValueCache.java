@@ -0,0 +1,72 @@
+/*
+ * NotQuests - A Questing plugin for Minecraft Servers
+ * Copyright (C) 2022 Alessio Gravili
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package rocks.gravili.notquests.paper.structs.variables;
+
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.Bukkit;
+
+/**
+ * Cached variable values of a single QuestPlayer, keyed by the variable and its additional arguments.
+ * Values must only be read and cached on the main thread, as PER_TICK values are keyed on the current server tick (see Variable#getValueCachedOrInternally).
+ * They can be invalidated from any thread.
+ */
+public class VariableValueCache {
+  private final ConcurrentHashMap<String, CachedValue> cachedValues = new ConcurrentHashMap<>();
+
+  /**
+   * @return the cached value, or null if nothing valid is cached for that key
+   */
+  public final CachedValue get(final String cacheKey, final VariableCacheability cacheability) {
+    final CachedValue cachedValue = cachedValues.get(cacheKey);
+    if (cachedValue == null) {
+      return null;
+    }
+    if (cacheability == VariableCacheability.PER_TICK && cachedValue.tick() != Bukkit.getCurrentTick()) {
+      return null;
+    }
+    return cachedValue;
+  }
+
+  public void put(final String cacheKey, final Object value) {
+    cachedValues.put(cacheKey, new CachedValue(value, Bukkit.getCurrentTick()));
+  }
+
+  /**
+   * Removes all cached values of that variable, no matter which arguments they were cached for.
+   *
+   * @param variableType identifier of the variable
+   */
+  public void invalidate(final String variableType) {
+    if (cachedValues.isEmpty()) {
+      return;
+    }
+    final String cacheKeyPrefix = variableType + "|";
+    cachedValues.keySet().removeIf(cacheKey -> cacheKey.startsWith(cacheKeyPrefix));
+  }
+
+  public void invalidateAll() {
+    cachedValues.clear();
+  }
+
+  public final int getSize() {
+    return cachedValues.size();
+  }
+
+  public record CachedValue(Object value, int tick) {}
+}
@@ -27,6 +27,7 @@ import rocks.gravili.notquests.paper.managers.tags.Tag;
 import rocks.gravili.notquests.paper.managers.tags.TagType;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.variables.Variable;
+import rocks.gravili.notquests.paper.structs.variables.VariableCacheability;
 
 public class DoubleTagVariable extends Variable<Double> {
 
@@ -119,4 +120,14 @@ public class DoubleTagVariable extends Variable<Double> {
     public final String getSingular() {
         return "Tag";
     }
+
+    @Override
+    public boolean isChangePublished() {
+        return true;
+    }
+
+    @Override
+    public VariableCacheability getCacheability() {
+        return VariableCacheability.UNTIL_INVALIDATED;
+    }
 }
@@ -27,6 +27,7 @@ import rocks.gravili.notquests.paper.managers.tags.Tag;
 import rocks.gravili.notquests.paper.managers.tags.TagType;
 import rocks.gravili.notquests.paper.structs.QuestPlayer;
 import rocks.gravili.notquests.paper.structs.variables.Variable;
+import rocks.gravili.notquests.paper.structs.variables.VariableCacheability;
 
 public class IntegerTagVariable extends Variable<Integer> {
 
@@ -120,4 +121,14 @@ public class IntegerTagVariable extends Variable<Integer> {
     public final String getSingular() {
         return "Tag";
     }
+
+    @Override
+    public boolean isChangePublished() {
+        return true;
+    }
+
+    @Override
+    public VariableCacheability getCacheability() {
+        return VariableCacheability.UNTIL_INVALIDATED;
+    }
 }